@@ -0,0 +1,646 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.matching;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Auction algorithm with epsilon-scaling for the sparse, possibly unbalanced assignment problem.
+ *
+ * <p>
+ * Every row has a list of candidate columns and their costs, for example the k nearest free taxis
+ * of every waiting client. The solver assigns distinct columns to as many rows as the candidate
+ * lists allow and, among all such assignments, finds one of minimal total cost. Dense matrices are
+ * accepted as well, see {@link #solve(double[], int, int, int[])}.
+ *
+ * <p>
+ * A maximum cardinality matching (Hopcroft and Karp) first splits the problem along its
+ * Dulmage-Mendelsohn decomposition: the rows which are left unassigned by some maximum matching
+ * share their candidates only among themselves, those columns are assigned in every maximum
+ * matching and bid for these rows; all the other rows are assigned in every maximum matching and
+ * bid for the remaining columns. So in both parts the smaller side bids and every bidder can be
+ * assigned, which keeps the prices small.
+ *
+ * <p>
+ * The forward auction (Bertsekas) keeps a price per object. An unassigned bidder bids for the
+ * object of best value (benefit minus price), raising its price by the margin over the second best
+ * object plus epsilon, and takes the object from its previous owner. Epsilon starts at a fraction
+ * of the largest cost and shrinks by a constant factor per phase, each phase starting from the
+ * prices of the previous one. As the objects are only partly assigned, a reverse auction after
+ * every phase lowers the prices of the unassigned objects to the lowest price of an assigned one,
+ * which makes the result optimal within the requested precision (Bertsekas, Castanon and
+ * Tsaknakis, 1993).
+ *
+ * <p>
+ * If a {@link ForkJoinPool} is given, rounds with many unassigned bidders are run as synchronous
+ * (Jacobi) rounds: all of them bid in parallel against the same prices and each object goes to its
+ * highest bid. With few unassigned bidders they bid one after the other (Gauss-Seidel), which
+ * converges faster.
+ *
+ * <p>
+ * The total cost is within the precision of the optimum; with integer costs and a precision below
+ * one the result is optimal.
+ *
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b> Each thread should use its own
+ * instance, while the pool may be shared.
+ */
+public class AuctionAssignment
+{
+    /**
+     * Default precision of the total cost, exact for integer costs.
+     */
+    public static final double DEFAULT_PRECISION = 0.5;
+
+    private static final double SCALING_FACTOR = 8d;
+    private static final int PARALLEL_BIDDERS = 256;
+
+    private final double precision;
+    private final ForkJoinPool pool;
+
+    // the current part: bidders and their candidate objects, benefits are negated costs
+    private int n;
+    private int m;
+    private int[] offsets;
+    private int[] targets;
+    private double[] benefits;
+    private int[] objectOffsets;
+    private int[] objectBidders;
+    private double[] objectBenefits;
+
+    private double[] price = new double[0];
+    private int[] owner = new int[0];
+    private int[] assigned = new int[0];
+    private double[] assignedBenefit = new double[0];
+
+    // unassigned bidders and their bids
+    private int[] pending = new int[0];
+    private int pendingSize;
+    private int[] nextPending = new int[0];
+    private int[] bidObject = new int[0];
+    private double[] bidPrice = new double[0];
+    private int[] winner = new int[0];
+    private int[] winnerStamp = new int[0];
+    private int round;
+
+    /**
+     * Create a sequential solver with the default precision.
+     */
+    public AuctionAssignment()
+    {
+        this(DEFAULT_PRECISION, null);
+    }
+
+    /**
+     * Create a solver.
+     *
+     * @param precision the largest difference of the total cost to the optimum
+     * @param pool the pool in which bidders bid in parallel, if null they bid sequentially
+     */
+    public AuctionAssignment(double precision, ForkJoinPool pool)
+    {
+        if (!(precision > 0d)) {
+            throw new IllegalArgumentException("Precision must be positive");
+        }
+        this.precision = precision;
+        this.pool = pool;
+    }
+
+    /**
+     * Solve a dense problem given in row-major order: the cost of row i and column j is
+     * {@code costs[i * columns + j]}, and {@link Double#POSITIVE_INFINITY} forbids the pair.
+     *
+     * @param costs the cost matrix in row-major order
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param assignment receives for every row the column it is assigned to, or -1. Its length
+     *        must be at least the number of rows.
+     * @return the total cost of the assigned pairs
+     */
+    public double solve(double[] costs, int rows, int columns, int[] assignment)
+    {
+        if (rows < 0 || columns < 0 || costs.length < (long) rows * columns) {
+            throw new IllegalArgumentException("Cost matrix is smaller than rows times columns");
+        }
+        int[] rowOffsets = new int[rows + 1];
+        for (int i = 0; i < rows; i++) {
+            int count = 0;
+            for (int j = 0; j < columns; j++) {
+                if (costs[i * columns + j] != Double.POSITIVE_INFINITY) {
+                    count++;
+                }
+            }
+            rowOffsets[i + 1] = rowOffsets[i] + count;
+        }
+        int[] rowColumns = new int[rowOffsets[rows]];
+        double[] rowCosts = new double[rowOffsets[rows]];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                double cost = costs[i * columns + j];
+                if (cost != Double.POSITIVE_INFINITY) {
+                    rowColumns[k] = j;
+                    rowCosts[k++] = cost;
+                }
+            }
+        }
+        return solve(rows, columns, rowOffsets, rowColumns, rowCosts, assignment);
+    }
+
+    /**
+     * Solve a sparse problem: the candidates of row i are the columns
+     * {@code columnIndices[offsets[i]] .. columnIndices[offsets[i + 1] - 1]} with the costs at the
+     * same positions in costs. A column may appear at most once per row.
+     *
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param offsets the start of the candidates of every row, of length rows + 1
+     * @param columnIndices the candidate columns
+     * @param costs the costs of the candidates
+     * @param assignment receives for every row the column it is assigned to, or -1. Its length
+     *        must be at least the number of rows.
+     * @return the total cost of the assigned pairs
+     * @throws IllegalArgumentException if the lists are malformed or a cost is not finite
+     */
+    public double solve(
+        int rows, int columns, int[] offsets, int[] columnIndices, double[] costs,
+        int[] assignment)
+    {
+        if (rows < 0 || columns < 0 || offsets.length < rows + 1 || offsets[0] != 0) {
+            throw new IllegalArgumentException("Invalid offsets");
+        }
+        if (assignment.length < rows) {
+            throw new IllegalArgumentException("Assignment is shorter than the number of rows");
+        }
+        for (int i = 0; i < rows; i++) {
+            if (offsets[i + 1] < offsets[i]) {
+                throw new IllegalArgumentException("Offsets must not decrease");
+            }
+        }
+        int arcs = offsets[rows];
+        if (columnIndices.length < arcs || costs.length < arcs) {
+            throw new IllegalArgumentException("Candidate lists are shorter than the offsets");
+        }
+        for (int k = 0; k < arcs; k++) {
+            if (columnIndices[k] < 0 || columnIndices[k] >= columns) {
+                throw new IllegalArgumentException("Invalid column " + columnIndices[k]);
+            }
+            if (Double.isNaN(costs[k]) || Double.isInfinite(costs[k])) {
+                throw new IllegalArgumentException("Invalid cost " + costs[k]);
+            }
+        }
+        Arrays.fill(assignment, 0, rows, -1);
+
+        // the candidate rows of every column
+        int[] columnOffsets = new int[columns + 1];
+        for (int k = 0; k < arcs; k++) {
+            columnOffsets[columnIndices[k] + 1]++;
+        }
+        for (int j = 0; j < columns; j++) {
+            columnOffsets[j + 1] += columnOffsets[j];
+        }
+        int[] next = Arrays.copyOf(columnOffsets, columns);
+        int[] columnRows = new int[arcs];
+        double[] columnCosts = new double[arcs];
+        for (int i = 0; i < rows; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                int position = next[columnIndices[k]]++;
+                columnRows[position] = i;
+                columnCosts[position] = costs[k];
+            }
+        }
+
+        int[] rowMate = new int[rows];
+        int[] columnMate = new int[columns];
+        maximumMatching(rows, offsets, columnIndices, rowMate, columnMate);
+
+        // rows reachable from an unassigned row by alternating paths, and their candidates
+        boolean[] optionalRow = new boolean[rows];
+        boolean[] requiredColumn = new boolean[columns];
+        int[] queue = new int[rows];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < rows; i++) {
+            if (rowMate[i] < 0) {
+                optionalRow[i] = true;
+                queue[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int i = queue[head++];
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                int j = columnIndices[k];
+                if (!requiredColumn[j]) {
+                    requiredColumn[j] = true;
+                    int mate = columnMate[j];
+                    if (!optionalRow[mate]) {
+                        optionalRow[mate] = true;
+                        queue[tail++] = mate;
+                    }
+                }
+            }
+        }
+
+        // the rows assigned in every maximum matching bid for the other columns
+        int[] bidders = new int[Math.max(rows, columns)];
+        int count = 0;
+        for (int i = 0; i < rows; i++) {
+            if (!optionalRow[i]) {
+                bidders[count++] = i;
+            }
+        }
+        auction(
+            count, columns, bidders, offsets, columnIndices, costs, requiredColumn, false);
+        for (int b = 0; b < count; b++) {
+            assignment[bidders[b]] = assigned[b];
+        }
+
+        // the columns assigned in every maximum matching bid for the optional rows
+        count = 0;
+        for (int j = 0; j < columns; j++) {
+            if (requiredColumn[j]) {
+                bidders[count++] = j;
+            }
+        }
+        auction(
+            count, rows, bidders, columnOffsets, columnRows, columnCosts, optionalRow, true);
+        for (int b = 0; b < count; b++) {
+            assignment[assigned[b]] = bidders[b];
+        }
+
+        double total = 0d;
+        for (int i = 0; i < rows; i++) {
+            if (assignment[i] >= 0) {
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    if (columnIndices[k] == assignment[i]) {
+                        total += costs[k];
+                        break;
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Hopcroft-Karp on the candidate lists, with an iterative depth-first search.
+     */
+    private static void maximumMatching(
+        int rows, int[] offsets, int[] columnIndices, int[] rowMate, int[] columnMate)
+    {
+        Arrays.fill(rowMate, -1);
+        Arrays.fill(columnMate, -1);
+        for (int i = 0; i < rows; i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                int j = columnIndices[k];
+                if (columnMate[j] < 0) {
+                    columnMate[j] = i;
+                    rowMate[i] = j;
+                    break;
+                }
+            }
+        }
+
+        int[] layer = new int[rows];
+        int[] queue = new int[rows];
+        int[] position = new int[rows];
+        int[] stack = new int[rows];
+        while (true) {
+            int head = 0;
+            int tail = 0;
+            for (int i = 0; i < rows; i++) {
+                if (rowMate[i] < 0) {
+                    layer[i] = 0;
+                    queue[tail++] = i;
+                } else {
+                    layer[i] = Integer.MAX_VALUE;
+                }
+            }
+            boolean found = false;
+            while (head < tail) {
+                int i = queue[head++];
+                for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                    int mate = columnMate[columnIndices[k]];
+                    if (mate < 0) {
+                        found = true;
+                    } else if (layer[mate] == Integer.MAX_VALUE) {
+                        layer[mate] = layer[i] + 1;
+                        queue[tail++] = mate;
+                    }
+                }
+            }
+            if (!found) {
+                return;
+            }
+
+            for (int i = 0; i < rows; i++) {
+                position[i] = offsets[i];
+            }
+            for (int source = 0; source < rows; source++) {
+                if (rowMate[source] >= 0) {
+                    continue;
+                }
+                int top = 0;
+                stack[top++] = source;
+                while (top > 0) {
+                    int i = stack[top - 1];
+                    if (position[i] == offsets[i + 1]) {
+                        // dead end
+                        layer[i] = Integer.MAX_VALUE;
+                        top--;
+                        continue;
+                    }
+                    int mate = columnMate[columnIndices[position[i]++]];
+                    if (mate < 0) {
+                        // every row on the stack takes the column it went through
+                        while (top > 0) {
+                            int row = stack[--top];
+                            int j = columnIndices[position[row] - 1];
+                            rowMate[row] = j;
+                            columnMate[j] = row;
+                        }
+                    } else if (layer[mate] == layer[i] + 1) {
+                        stack[top++] = mate;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Assign every bidder one of its candidates within the allowed objects, leaving the result in
+     * assigned. The candidates of bidder b are those of {@code bidders[b]} in the given lists.
+     */
+    private void auction(
+        int n, int m, int[] bidders, int[] listOffsets, int[] listTargets, double[] listCosts,
+        boolean[] excluded, boolean excludedAllowed)
+    {
+        this.n = n;
+        this.m = m;
+        offsets = new int[n + 1];
+        for (int b = 0; b < n; b++) {
+            int bidder = bidders[b];
+            int count = 0;
+            for (int k = listOffsets[bidder]; k < listOffsets[bidder + 1]; k++) {
+                if (excluded[listTargets[k]] == excludedAllowed) {
+                    count++;
+                }
+            }
+            offsets[b + 1] = offsets[b] + count;
+        }
+        targets = new int[offsets[n]];
+        benefits = new double[offsets[n]];
+        double largest = 0d;
+        int position = 0;
+        for (int b = 0; b < n; b++) {
+            int bidder = bidders[b];
+            for (int k = listOffsets[bidder]; k < listOffsets[bidder + 1]; k++) {
+                if (excluded[listTargets[k]] == excludedAllowed) {
+                    targets[position] = listTargets[k];
+                    benefits[position++] = -listCosts[k];
+                    largest = Math.max(largest, Math.abs(listCosts[k]));
+                }
+            }
+        }
+
+        if (price.length < m) {
+            price = new double[m];
+            owner = new int[m];
+            winner = new int[m];
+            winnerStamp = new int[m];
+        }
+        if (assigned.length < n) {
+            assigned = new int[n];
+            assignedBenefit = new double[n];
+            pending = new int[n];
+            nextPending = new int[n];
+            bidObject = new int[n];
+            bidPrice = new double[n];
+        }
+        // bidders by candidate object, for the reverse auction
+        objectOffsets = new int[m + 1];
+        for (int k = 0; k < offsets[n]; k++) {
+            objectOffsets[targets[k] + 1]++;
+        }
+        for (int j = 0; j < m; j++) {
+            objectOffsets[j + 1] += objectOffsets[j];
+        }
+        int[] next = Arrays.copyOf(objectOffsets, m);
+        objectBidders = new int[offsets[n]];
+        objectBenefits = new double[offsets[n]];
+        for (int b = 0; b < n; b++) {
+            for (int k = offsets[b]; k < offsets[b + 1]; k++) {
+                int slot = next[targets[k]]++;
+                objectBidders[slot] = b;
+                objectBenefits[slot] = benefits[k];
+            }
+        }
+
+        Arrays.fill(price, 0, m, 0d);
+        Arrays.fill(winnerStamp, 0, m, 0);
+        round = 0;
+        if (n == 0) {
+            return;
+        }
+
+        double finalEpsilon = precision / (n + 1);
+        double epsilon = Math.max(largest / SCALING_FACTOR, finalEpsilon);
+        while (true) {
+            Arrays.fill(owner, 0, m, -1);
+            Arrays.fill(assigned, 0, n, -1);
+            for (int b = 0; b < n; b++) {
+                pending[b] = b;
+            }
+            pendingSize = n;
+            forwardAuction(epsilon);
+            reverseAuction(epsilon);
+            if (epsilon == finalEpsilon) {
+                break;
+            }
+            epsilon = Math.max(epsilon / SCALING_FACTOR, finalEpsilon);
+        }
+    }
+
+    /**
+     * Forward auction until every bidder is assigned.
+     */
+    private void forwardAuction(double epsilon)
+    {
+        while (pendingSize > 0) {
+            if (pool != null && pendingSize >= PARALLEL_BIDDERS) {
+                jacobiRound(epsilon);
+                continue;
+            }
+            int b = pending[--pendingSize];
+            bid(b, epsilon);
+            int object = bidObject[b];
+            int previous = owner[object];
+            if (previous >= 0) {
+                assigned[previous] = -1;
+                pending[pendingSize++] = previous;
+            }
+            take(b, object, bidPrice[b]);
+        }
+    }
+
+    /**
+     * All unassigned bidders bid against the same prices, every object goes to its highest bid.
+     */
+    private void jacobiRound(double epsilon)
+    {
+        int size = pendingSize;
+        int chunk = Math.max(PARALLEL_BIDDERS / 4, size / (4 * pool.getParallelism()) + 1);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int start = 0; start < size; start += chunk) {
+            int first = start;
+            int last = Math.min(size, start + chunk);
+            tasks.add(pool.submit(() -> {
+                for (int p = first; p < last; p++) {
+                    bid(pending[p], epsilon);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        round++;
+        for (int p = 0; p < size; p++) {
+            int b = pending[p];
+            int object = bidObject[b];
+            if (winnerStamp[object] != round || bidPrice[b] > bidPrice[winner[object]]) {
+                winnerStamp[object] = round;
+                winner[object] = b;
+            }
+        }
+        int nextSize = 0;
+        for (int p = 0; p < size; p++) {
+            int b = pending[p];
+            int object = bidObject[b];
+            if (winner[object] != b) {
+                nextPending[nextSize++] = b;
+                continue;
+            }
+            int previous = owner[object];
+            if (previous >= 0) {
+                assigned[previous] = -1;
+                nextPending[nextSize++] = previous;
+            }
+            take(b, object, bidPrice[b]);
+        }
+        int[] swap = pending;
+        pending = nextPending;
+        nextPending = swap;
+        pendingSize = nextSize;
+    }
+
+    /**
+     * The best object of a bidder and the price it offers for it.
+     */
+    private void bid(int b, double epsilon)
+    {
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        double secondValue = Double.NEGATIVE_INFINITY;
+        double bestBenefit = 0d;
+        for (int k = offsets[b]; k < offsets[b + 1]; k++) {
+            int object = targets[k];
+            double value = benefits[k] - price[object];
+            if (value > bestValue) {
+                secondValue = bestValue;
+                bestValue = value;
+                best = object;
+                bestBenefit = benefits[k];
+            } else if (value > secondValue) {
+                secondValue = value;
+            }
+        }
+        bidObject[b] = best;
+        // a single candidate is worth any price
+        double margin = secondValue == Double.NEGATIVE_INFINITY ? 0d : bestValue - secondValue;
+        bidPrice[b] = price[best] + margin + epsilon;
+        assignedBenefit[b] = bestBenefit;
+    }
+
+    private void take(int b, int object, double newPrice)
+    {
+        owner[object] = b;
+        assigned[b] = object;
+        price[object] = newPrice;
+    }
+
+    /**
+     * Reverse auction for the unassigned objects, until none is more expensive than the cheapest
+     * assigned object. Run after every phase, so the last one starts from nearly consistent
+     * prices.
+     */
+    private void reverseAuction(double epsilon)
+    {
+        double lambda = Double.POSITIVE_INFINITY;
+        for (int b = 0; b < n; b++) {
+            lambda = Math.min(lambda, price[assigned[b]]);
+        }
+
+        int[] stack = new int[m];
+        int top = 0;
+        for (int object = 0; object < m; object++) {
+            if (owner[object] < 0 && price[object] > lambda) {
+                stack[top++] = object;
+            }
+        }
+        while (top > 0) {
+            int object = stack[--top];
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            double secondValue = Double.NEGATIVE_INFINITY;
+            double bestBenefit = 0d;
+            for (int k = objectOffsets[object]; k < objectOffsets[object + 1]; k++) {
+                int b = objectBidders[k];
+                double value = objectBenefits[k] - profit(b);
+                if (value > bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = b;
+                    bestBenefit = objectBenefits[k];
+                } else if (value > secondValue) {
+                    secondValue = value;
+                }
+            }
+            if (best < 0 || lambda >= bestValue - epsilon) {
+                price[object] = lambda;
+                continue;
+            }
+            // the object takes its best bidder at a price which keeps every bidder content
+            int previous = assigned[best];
+            owner[previous] = -1;
+            owner[object] = best;
+            assigned[best] = object;
+            assignedBenefit[best] = bestBenefit;
+            price[object] = Math.max(lambda, secondValue - epsilon);
+            if (price[previous] > lambda) {
+                stack[top++] = previous;
+            }
+        }
+    }
+
+    private double profit(int b)
+    {
+        return assignedBenefit[b] - price[assigned[b]];
+    }
+}
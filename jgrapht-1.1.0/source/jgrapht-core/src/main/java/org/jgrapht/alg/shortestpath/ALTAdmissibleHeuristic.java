@@ -18,6 +18,7 @@
 package org.jgrapht.alg.shortestpath;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.jgrapht.*;
 import org.jgrapht.alg.interfaces.*;
@@ -61,6 +62,13 @@ import org.jgrapht.graph.*;
  * vertices source and target, a good landmark appears "before" source or "after" target where
  * before and after are relative to the "direction" from source to target.
  * 
+ * <p>
+ * The shortest path computations of different landmarks are independent. If a
+ * {@link ForkJoinPool} is given at construction time they run as parallel tasks in that pool, so
+ * that the pre-processing takes time proportional to the number of landmarks divided by the
+ * parallelism of the pool. The computed distances do not depend on the pool. The graph must not be
+ * modified while the heuristic is being constructed.
+ * 
  * @author Dimitrios Michail
  *
  * @param <V> the graph vertex type
@@ -85,6 +93,23 @@ public class ALTAdmissibleHeuristic<V, E>
      * @throws IllegalArgumentException if the graph contains edges with negative weights
      */
     public ALTAdmissibleHeuristic(Graph<V, E> graph, Set<V> landmarks)
+    {
+        this(graph, landmarks, null);
+    }
+
+    /**
+     * Constructs a new {@link AStarAdmissibleHeuristic} using a set of landmarks, computing the
+     * distances of the landmarks in parallel.
+     * 
+     * @param graph the graph
+     * @param landmarks a set of vertices of the graph which will be used as landmarks
+     * @param pool the pool which executes the shortest path computations of the landmarks, if null
+     *        they are executed one after another in the calling thread
+     * 
+     * @throws IllegalArgumentException if no landmarks are provided
+     * @throws IllegalArgumentException if the graph contains edges with negative weights
+     */
+    public ALTAdmissibleHeuristic(Graph<V, E> graph, Set<V> landmarks, ForkJoinPool pool)
     {
         this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
         Objects.requireNonNull(landmarks, "Landmarks cannot be null");
@@ -103,14 +128,22 @@ public class ALTAdmissibleHeuristic<V, E>
         }
         this.comparator = new ToleranceDoubleComparator();
 
-        // precomputation and validation
+        // validation
         for (V v : landmarks) {
             for (E e : graph.edgesOf(v)) {
                 if (comparator.compare(graph.getEdgeWeight(e), 0d) < 0) {
                     throw new IllegalArgumentException("Graph edge weights cannot be negative");
                 }
             }
-            precomputeToFromLandmark(v);
+        }
+
+        // precomputation
+        if (pool == null) {
+            for (V v : landmarks) {
+                precomputeToFromLandmark(v);
+            }
+        } else {
+            precomputeToFromLandmarks(landmarks, pool);
         }
     }
 
@@ -179,25 +212,59 @@ public class ALTAdmissibleHeuristic<V, E>
     private void precomputeToFromLandmark(V landmark)
     {
         // compute distances from landmark
-        SingleSourcePaths<V, E> fromLandmarkPaths =
-            new DijkstraShortestPath<>(graph).getPaths(landmark);
-        Map<V, Double> fromLandMarkDistances = new HashMap<>();
-        for (V v : graph.vertexSet()) {
-            fromLandMarkDistances.put(v, fromLandmarkPaths.getWeight(v));
-        }
-        fromLandmark.put(landmark, fromLandMarkDistances);
+        fromLandmark.put(landmark, computeDistances(graph, landmark));
 
         // compute distances to landmark (using reverse graph)
         if (directed) {
-            Graph<V, E> reverseGraph = new EdgeReversedGraph<>(graph);
-            SingleSourcePaths<V, E> toLandmarkPaths =
-                new DijkstraShortestPath<>(reverseGraph).getPaths(landmark);
-            Map<V, Double> toLandMarkDistances = new HashMap<>();
-            for (V v : graph.vertexSet()) {
-                toLandMarkDistances.put(v, toLandmarkPaths.getWeight(v));
+            toLandmark.put(landmark, computeDistances(new EdgeReversedGraph<>(graph), landmark));
+        }
+    }
+
+    /**
+     * Compute all distances to and from all landmarks, one task per shortest path computation.
+     * Every task only produces its own distance map, the maps are published in landmark order after
+     * all tasks have completed.
+     * 
+     * @param landmarks the landmarks
+     * @param pool the pool which executes the tasks
+     */
+    private void precomputeToFromLandmarks(Set<V> landmarks, ForkJoinPool pool)
+    {
+        Graph<V, E> reverseGraph = directed ? new EdgeReversedGraph<>(graph) : null;
+        List<ForkJoinTask<Map<V, Double>>> fromTasks = new ArrayList<>();
+        List<ForkJoinTask<Map<V, Double>>> toTasks = new ArrayList<>();
+        for (V v : landmarks) {
+            fromTasks.add(pool.submit(() -> computeDistances(graph, v)));
+            if (directed) {
+                toTasks.add(pool.submit(() -> computeDistances(reverseGraph, v)));
+            }
+        }
+
+        int i = 0;
+        for (V v : landmarks) {
+            fromLandmark.put(v, fromTasks.get(i).join());
+            if (directed) {
+                toLandmark.put(v, toTasks.get(i).join());
             }
-            toLandmark.put(landmark, toLandMarkDistances);
+            i++;
+        }
+    }
+
+    /**
+     * Compute the distances from a vertex to all vertices of a graph.
+     * 
+     * @param g the graph
+     * @param source the source vertex
+     * @return the distances of all vertices from the source
+     */
+    private Map<V, Double> computeDistances(Graph<V, E> g, V source)
+    {
+        SingleSourcePaths<V, E> paths = new DijkstraShortestPath<>(g).getPaths(source);
+        Map<V, Double> distances = new HashMap<>();
+        for (V v : graph.vertexSet()) {
+            distances.put(v, paths.getWeight(v));
         }
+        return distances;
     }
 
 }
@@ -0,0 +1,449 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.graph.*;
+import org.jgrapht.util.*;
+
+/**
+ * Arc-flags of a graph, the preprocessed data used by {@link ArcFlagsShortestPath}.
+ *
+ * <p>
+ * The vertices of the graph are partitioned into regions. Every arc, that is every edge of a
+ * directed graph and every edge of an undirected graph in each of its two directions, gets one flag
+ * per region which is set if the arc lies on some shortest path into the region. A search towards
+ * a target may then ignore all arcs whose flag for the region of the target is not set. For
+ * details see:
+ * <ul>
+ * <li>Ulrich Lauther. An Extremely Fast, Exact Algorithm for Finding Shortest Paths in Static
+ * Networks with Geographical Background. In Geoinformation und Mobilität, 219--230, 2004.</li>
+ * <li>Rolf H. Möhring, Heiko Schilling, Birk Schütz, Dorothea Wagner and Thomas Willhalm.
+ * Partitioning Graphs to Speedup Dijkstra's Algorithm. ACM Journal of Experimental Algorithmics,
+ * 11, 2006.</li>
+ * </ul>
+ *
+ * <p>
+ * An arc gets the flag of the region of its head. Every other shortest path into a region enters
+ * it for the last time through a boundary vertex, a vertex of the region with an incoming arc from
+ * another region. Therefore one Dijkstra search on the reversed graph is run from every boundary
+ * vertex, and every arc which lies on a shortest path to it, up to the tolerance of
+ * {@link ToleranceDoubleComparator}, gets the flag of its region. Preprocessing thus takes one
+ * Dijkstra search per boundary vertex and works best with regions of similar size and short
+ * boundaries. The searches of different regions are independent; if a {@link ForkJoinPool} is
+ * given they run as parallel tasks in that pool, with the same result as a sequential computation.
+ *
+ * <p>
+ * The flags take $\lceil R/64 \rceil$ {@code long}s per arc, where $R$ is the number of regions.
+ * Once built, the arc-flags are immutable and may be shared by any number of threads. They are a
+ * snapshot of the graph: later changes of the graph require new arc-flags. The graph must be
+ * directed or undirected and must not contain negative edge weights.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see ArcFlagsShortestPath
+ */
+public class ArcFlags<V, E>
+{
+    final Graph<V, E> graph;
+    final Map<V, Integer> vertexIndex;
+    final List<V> vertices;
+    final Map<E, Integer> edgeIndex;
+    final List<E> edges;
+    final int n;
+    final boolean directed;
+
+    final int numberOfRegions;
+    final int[] region;
+
+    // arcs in CSR form, the arcs leaving v are at positions offsets[v] .. offsets[v + 1] - 1
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    final int[] arcs;
+
+    // flag r of arc a is bit r % 64 of flags[a * words + r / 64]
+    final int words;
+    final long[] flags;
+
+    /**
+     * Computes the arc-flags of a graph.
+     *
+     * @param graph the graph
+     * @param partition the region of every vertex, between 0 and the number of regions minus one
+     * @param numberOfRegions the number of regions
+     * @throws IllegalArgumentException if the graph contains negative edge weights or the
+     *         partition maps a vertex outside of the regions
+     */
+    public ArcFlags(Graph<V, E> graph, Function<V, Integer> partition, int numberOfRegions)
+    {
+        this(graph, partition, numberOfRegions, null);
+    }
+
+    /**
+     * Computes the arc-flags of a graph.
+     *
+     * @param graph the graph
+     * @param partition the region of every vertex, between 0 and the number of regions minus one
+     * @param numberOfRegions the number of regions
+     * @param pool the pool which executes the searches of the regions, if null they are executed
+     *        one after another in the calling thread
+     * @throws IllegalArgumentException if the graph contains negative edge weights or the
+     *         partition maps a vertex outside of the regions
+     */
+    public ArcFlags(
+        Graph<V, E> graph, Function<V, Integer> partition, int numberOfRegions, ForkJoinPool pool)
+    {
+        this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
+        Objects.requireNonNull(partition, "Partition cannot be null");
+        if (numberOfRegions < 1) {
+            throw new IllegalArgumentException("Number of regions must be positive");
+        }
+        if (graph.getType().isDirected()) {
+            this.directed = true;
+        } else if (graph.getType().isUndirected()) {
+            this.directed = false;
+        } else {
+            throw new IllegalArgumentException("Graph must be directed or undirected");
+        }
+        this.numberOfRegions = numberOfRegions;
+
+        this.n = graph.vertexSet().size();
+        this.vertexIndex = new HashMap<>();
+        this.vertices = new ArrayList<>(n);
+        this.region = new int[n];
+        for (V v : graph.vertexSet()) {
+            Integer r = partition.apply(v);
+            if (r == null || r < 0 || r >= numberOfRegions) {
+                throw new IllegalArgumentException("Invalid region of vertex " + v + ": " + r);
+            }
+            region[vertices.size()] = r;
+            vertexIndex.put(v, vertices.size());
+            vertices.add(v);
+        }
+        this.edgeIndex = new HashMap<>();
+        this.edges = new ArrayList<>(graph.edgeSet().size());
+        for (E e : graph.edgeSet()) {
+            if (graph.getEdgeWeight(e) < 0d) {
+                throw new IllegalArgumentException("Negative edge weight not allowed");
+            }
+            edgeIndex.put(e, edges.size());
+            edges.add(e);
+        }
+
+        // build forward and reverse CSR, self-loops are never part of a shortest path
+        int[] outDegree = new int[n + 1];
+        int[] inDegree = new int[n + 1];
+        for (E e : edges) {
+            int u = vertexIndex.get(graph.getEdgeSource(e));
+            int w = vertexIndex.get(graph.getEdgeTarget(e));
+            if (u == w) {
+                continue;
+            }
+            outDegree[u + 1]++;
+            inDegree[w + 1]++;
+            if (!directed) {
+                outDegree[w + 1]++;
+                inDegree[u + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            outDegree[v + 1] += outDegree[v];
+            inDegree[v + 1] += inDegree[v];
+        }
+        int m = outDegree[n];
+        this.offsets = outDegree;
+        this.targets = new int[m];
+        this.weights = new double[m];
+        this.arcs = new int[m];
+        int[] reverseOffsets = inDegree;
+        int[] reverseTargets = new int[m];
+        int[] reversePositions = new int[m];
+        int[] outNext = Arrays.copyOf(offsets, n);
+        int[] inNext = Arrays.copyOf(reverseOffsets, n);
+        for (int id = 0; id < edges.size(); id++) {
+            E e = edges.get(id);
+            int u = vertexIndex.get(graph.getEdgeSource(e));
+            int w = vertexIndex.get(graph.getEdgeTarget(e));
+            if (u == w) {
+                continue;
+            }
+            double weight = graph.getEdgeWeight(e);
+            int i = outNext[u]++;
+            targets[i] = w;
+            weights[i] = weight;
+            arcs[i] = directed ? id : 2 * id;
+            int j = inNext[w]++;
+            reverseTargets[j] = u;
+            reversePositions[j] = i;
+            if (!directed) {
+                i = outNext[w]++;
+                targets[i] = u;
+                weights[i] = weight;
+                arcs[i] = 2 * id + 1;
+                j = inNext[u]++;
+                reverseTargets[j] = w;
+                reversePositions[j] = i;
+            }
+        }
+
+        // compute the flags region by region
+        this.words = (numberOfRegions + 63) >>> 6;
+        int numberOfArcs = directed ? edges.size() : 2 * edges.size();
+        this.flags = new long[numberOfArcs * words];
+        List<BitSet> regionFlags = new ArrayList<>(numberOfRegions);
+        if (pool == null) {
+            RegionSearch search = new RegionSearch(reverseOffsets, reverseTargets, reversePositions);
+            for (int r = 0; r < numberOfRegions; r++) {
+                regionFlags.add(search.flagsOf(r));
+            }
+        } else {
+            List<ForkJoinTask<BitSet>> tasks = new ArrayList<>(numberOfRegions);
+            for (int r = 0; r < numberOfRegions; r++) {
+                int target = r;
+                tasks.add(
+                    pool.submit(
+                        () -> new RegionSearch(reverseOffsets, reverseTargets, reversePositions)
+                            .flagsOf(target)));
+            }
+            for (ForkJoinTask<BitSet> task : tasks) {
+                regionFlags.add(task.join());
+            }
+        }
+        for (int r = 0; r < numberOfRegions; r++) {
+            BitSet positions = regionFlags.get(r);
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                flags[arcs[i] * words + (r >>> 6)] |= 1L << r;
+            }
+        }
+    }
+
+    /**
+     * Get the graph of the arc-flags.
+     *
+     * @return the graph
+     */
+    public Graph<V, E> getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Get the number of regions.
+     *
+     * @return the number of regions
+     */
+    public int getNumberOfRegions()
+    {
+        return numberOfRegions;
+    }
+
+    /**
+     * Get the region of a vertex.
+     *
+     * @param v the vertex
+     * @return the region of the vertex
+     * @throws IllegalArgumentException if the vertex was not in the graph when the arc-flags were
+     *         computed
+     */
+    public int getRegion(V v)
+    {
+        return region[indexOf(v)];
+    }
+
+    /**
+     * Whether an edge, traversed starting at a given vertex, lies on a shortest path into a region.
+     *
+     * @param e the edge
+     * @param from the vertex at which the traversal starts, the source of a directed edge
+     * @param r the region
+     * @return true if the flag of the edge for the region is set, false otherwise
+     */
+    public boolean isFlagged(E e, V from, int r)
+    {
+        Integer id = edgeIndex.get(e);
+        if (id == null) {
+            throw new IllegalArgumentException("Edge not contained in the arc-flags: " + e);
+        }
+        if (r < 0 || r >= numberOfRegions) {
+            throw new IllegalArgumentException("Invalid region " + r);
+        }
+        int arc;
+        if (directed) {
+            arc = id;
+        } else {
+            arc = from.equals(graph.getEdgeSource(e)) ? 2 * id : 2 * id + 1;
+        }
+        return isFlagged(arc, r);
+    }
+
+    /**
+     * Get the fraction of arc flags which are set, a measure of the pruning power of the flags.
+     *
+     * @return the fraction of set flags
+     */
+    public double getFlaggedFraction()
+    {
+        if (arcs.length == 0) {
+            return 0d;
+        }
+        long set = 0;
+        for (long word : flags) {
+            set += Long.bitCount(word);
+        }
+        return (double) set / ((double) arcs.length * numberOfRegions);
+    }
+
+    /**
+     * Get a view of the graph which only contains the edges which may lie on a shortest path to a
+     * target vertex. Edges of an undirected graph are kept if their flag is set in either
+     * direction. The view can be used with any other shortest path algorithm, for example
+     * {@link AStarShortestPath}, to compute shortest paths to the target. It is valid only while
+     * the graph is unchanged.
+     *
+     * @param target the target vertex
+     * @return the pruned view of the graph
+     */
+    public Graph<V, E> getPrunedGraph(V target)
+    {
+        int r = getRegion(target);
+        return new MaskSubgraph<>(graph, v -> false, e -> {
+            Integer id = edgeIndex.get(e);
+            if (id == null) {
+                return false;
+            }
+            if (directed) {
+                return !isFlagged(id, r);
+            }
+            return !isFlagged(2 * id, r) && !isFlagged(2 * id + 1, r);
+        });
+    }
+
+    int indexOf(V v)
+    {
+        Integer index = vertexIndex.get(v);
+        if (index == null) {
+            throw new IllegalArgumentException("Vertex not contained in the arc-flags: " + v);
+        }
+        return index;
+    }
+
+    boolean isFlagged(int arc, int r)
+    {
+        return (flags[arc * words + (r >>> 6)] & (1L << r)) != 0;
+    }
+
+    /**
+     * The searches of one region. Positions refer to the forward CSR.
+     */
+    private class RegionSearch
+    {
+        final int[] reverseOffsets;
+        final int[] reverseTargets;
+        final int[] reversePositions;
+        final Comparator<Double> comparator;
+
+        final double[] distance;
+        final int[] seen;
+        int generation;
+        final IndexedFourAryHeap heap;
+
+        RegionSearch(int[] reverseOffsets, int[] reverseTargets, int[] reversePositions)
+        {
+            this.reverseOffsets = reverseOffsets;
+            this.reverseTargets = reverseTargets;
+            this.reversePositions = reversePositions;
+            this.comparator = new ToleranceDoubleComparator();
+            this.distance = new double[n];
+            this.seen = new int[n];
+            this.heap = new IndexedFourAryHeap(n);
+        }
+
+        BitSet flagsOf(int r)
+        {
+            BitSet result = new BitSet(targets.length);
+            for (int v = 0; v < n; v++) {
+                if (region[v] != r) {
+                    continue;
+                }
+                boolean boundary = false;
+                for (int j = reverseOffsets[v]; j < reverseOffsets[v + 1]; j++) {
+                    // arcs into the region
+                    result.set(reversePositions[j]);
+                    if (region[reverseTargets[j]] != r) {
+                        boundary = true;
+                    }
+                }
+                if (boundary) {
+                    flagShortestPathsTo(v, result);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Dijkstra search from the boundary vertex on the reversed graph which flags every arc on
+         * a shortest path to it.
+         */
+        private void flagShortestPathsTo(int boundaryVertex, BitSet result)
+        {
+            generation++;
+            heap.clear();
+            seen[boundaryVertex] = generation;
+            distance[boundaryVertex] = 0d;
+            heap.insert(boundaryVertex, 0d);
+            while (!heap.isEmpty()) {
+                int w = heap.removeMin();
+                for (int j = reverseOffsets[w]; j < reverseOffsets[w + 1]; j++) {
+                    int u = reverseTargets[j];
+                    double tentative = distance[w] + weights[reversePositions[j]];
+                    if (seen[u] != generation) {
+                        seen[u] = generation;
+                        distance[u] = tentative;
+                        heap.insert(u, tentative);
+                    } else if (tentative < distance[u] && heap.contains(u)) {
+                        distance[u] = tentative;
+                        heap.decreaseKey(u, tentative);
+                    }
+                }
+            }
+
+            // distances are final, flag all tight arcs
+            for (int u = 0; u < n; u++) {
+                if (seen[u] != generation) {
+                    continue;
+                }
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int w = targets[i];
+                    if (seen[w] == generation
+                        && comparator.compare(distance[w] + weights[i], distance[u]) <= 0)
+                    {
+                        result.set(i);
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.graph.*;
+import org.jgrapht.util.*;
+
+/**
+ * Shortest path queries with {@link ArcFlags}.
+ *
+ * <p>
+ * The algorithm is Dijkstra's algorithm, or the A* algorithm if an admissible heuristic is given,
+ * which only relaxes arcs whose flag for the region of the target is set. Both pruning techniques
+ * compose: the flags remove arcs leading away from the target region, the heuristic orders the
+ * remaining search towards the target. Within the target region all arcs are flagged, so the
+ * speedup comes from the part of the search outside of it.
+ *
+ * <p>
+ * The search state is stamped with a generation number, so a query does not clear any arrays.
+ *
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b> Each thread should use its own
+ * instance, while the arc-flags may be shared.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see ArcFlags
+ */
+public class ArcFlagsShortestPath<V, E>
+    extends BaseShortestPathAlgorithm<V, E>
+{
+    private final ArcFlags<V, E> arcFlags;
+    private final AStarAdmissibleHeuristic<V> admissibleHeuristic;
+
+    // search state, valid only if the stamp equals the current generation
+    private final double[] distance;
+    private final int[] predecessor;
+    private final int[] seen;
+    private final int[] closed;
+    private int generation;
+    private final IndexedFourAryHeap heap;
+
+    private int numberOfExpandedNodes;
+
+    /**
+     * Constructs a new instance of the algorithm which runs Dijkstra's algorithm on the flagged
+     * arcs.
+     *
+     * @param arcFlags the arc-flags
+     */
+    public ArcFlagsShortestPath(ArcFlags<V, E> arcFlags)
+    {
+        this(arcFlags, null);
+    }
+
+    /**
+     * Constructs a new instance of the algorithm which runs the A* algorithm on the flagged arcs.
+     *
+     * @param arcFlags the arc-flags
+     * @param admissibleHeuristic admissible heuristic which estimates the distance from a vertex to
+     *        the target, or null for Dijkstra's algorithm
+     */
+    public ArcFlagsShortestPath(
+        ArcFlags<V, E> arcFlags, AStarAdmissibleHeuristic<V> admissibleHeuristic)
+    {
+        super(Objects.requireNonNull(arcFlags, "Arc-flags cannot be null").getGraph());
+        this.arcFlags = arcFlags;
+        this.admissibleHeuristic = admissibleHeuristic;
+        int n = arcFlags.n;
+        this.distance = new double[n];
+        this.predecessor = new int[n];
+        this.seen = new int[n];
+        this.closed = new int[n];
+        this.heap = new IndexedFourAryHeap(n);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphPath<V, E> getPath(V source, V sink)
+    {
+        if (!graph.containsVertex(source)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        }
+        if (!graph.containsVertex(sink)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        }
+        int s = arcFlags.indexOf(source);
+        int t = arcFlags.indexOf(sink);
+
+        numberOfExpandedNodes = 0;
+        if (s == t) {
+            return createEmptyPath(source, sink);
+        }
+        if (!search(s, t, sink)) {
+            return createEmptyPath(source, sink);
+        }
+
+        LinkedList<V> vertexList = new LinkedList<>();
+        LinkedList<E> edgeList = new LinkedList<>();
+        vertexList.addFirst(sink);
+        for (int v = t; v != s;) {
+            int i = predecessor[v];
+            int arc = arcFlags.arcs[i];
+            edgeList.addFirst(arcFlags.edges.get(arcFlags.directed ? arc : arc >>> 1));
+            v = tailOf(i);
+            vertexList.addFirst(arcFlags.vertices.get(v));
+        }
+        return new GraphWalk<>(graph, source, sink, vertexList, edgeList, distance[t]);
+    }
+
+    /**
+     * Returns how many nodes have been expanded by the last query. A node is expanded if it is
+     * removed from the frontier of the search.
+     *
+     * @return number of expanded nodes
+     */
+    public int getNumberOfExpandedNodes()
+    {
+        return numberOfExpandedNodes;
+    }
+
+    private boolean search(int s, int t, V sink)
+    {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        heap.clear();
+
+        int r = arcFlags.region[t];
+        int[] offsets = arcFlags.offsets;
+        int[] targets = arcFlags.targets;
+        double[] weights = arcFlags.weights;
+        int[] arcs = arcFlags.arcs;
+
+        seen[s] = generation;
+        distance[s] = 0d;
+        predecessor[s] = -1;
+        heap.insert(s, estimate(s, sink));
+        while (!heap.isEmpty()) {
+            int v = heap.removeMin();
+            if (v == t) {
+                return true;
+            }
+            closed[v] = generation;
+            numberOfExpandedNodes++;
+
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                if (!arcFlags.isFlagged(arcs[i], r)) {
+                    continue;
+                }
+                int w = targets[i];
+                double tentative = distance[v] + weights[i];
+                if (seen[w] == generation) {
+                    if (tentative >= distance[w]) {
+                        continue;
+                    }
+                    distance[w] = tentative;
+                    predecessor[w] = i;
+                    if (closed[w] == generation) {
+                        // only with an inconsistent heuristic
+                        closed[w] = 0;
+                        heap.insert(w, tentative + estimate(w, sink));
+                    } else {
+                        heap.decreaseKey(w, tentative + estimate(w, sink));
+                    }
+                } else {
+                    seen[w] = generation;
+                    distance[w] = tentative;
+                    predecessor[w] = i;
+                    heap.insert(w, tentative + estimate(w, sink));
+                }
+            }
+        }
+        return false;
+    }
+
+    private double estimate(int v, V sink)
+    {
+        if (admissibleHeuristic == null) {
+            return 0d;
+        }
+        return admissibleHeuristic.getCostEstimate(arcFlags.vertices.get(v), sink);
+    }
+
+    private int tailOf(int position)
+    {
+        // the arcs of a vertex are consecutive, find the vertex by binary search on the offsets
+        int[] offsets = arcFlags.offsets;
+        int low = 0;
+        int high = arcFlags.n - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+}
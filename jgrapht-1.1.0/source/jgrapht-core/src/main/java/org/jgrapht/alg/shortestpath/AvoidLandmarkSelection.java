@@ -0,0 +1,188 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.util.*;
+
+/**
+ * Selects the landmarks using the avoid heuristic of Goldberg and Harrelson.
+ *
+ * <p>
+ * Landmarks are added one at a time. In each round a shortest path tree is grown from a random
+ * root $r$ and every vertex $v$ is weighted by how badly the current landmarks bound its distance,
+ * i.e. by $d(r,v) - h(r,v)$ where $h$ is the current ALT lower bound. The size of a vertex is the
+ * total weight of its subtree, or zero if the subtree already contains a landmark. Starting from
+ * the vertex of maximum size the strategy descends into the child of maximum size until it reaches
+ * a leaf, which becomes the next landmark. Thus landmarks are placed in regions of the graph which
+ * are poorly covered so far.
+ *
+ * <p>
+ * The strategy performs two single-source shortest path computations per landmark. Lower bounds
+ * in directed graphs only use the distances from the landmarks.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ */
+public class AvoidLandmarkSelection<V, E>
+    extends BaseLandmarkSelection<V, E>
+{
+    /**
+     * Constructs a new strategy.
+     */
+    public AvoidLandmarkSelection()
+    {
+        this(new Random());
+    }
+
+    /**
+     * Constructs a new strategy.
+     *
+     * @param rng the random number generator used to pick the roots
+     */
+    public AvoidLandmarkSelection(Random rng)
+    {
+        super(rng);
+    }
+
+    @Override
+    protected Set<V> select(Graph<V, E> graph, int count)
+    {
+        boolean directed = graph.getType().isDirected();
+        List<V> vertices = new ArrayList<>(graph.vertexSet());
+        Set<V> landmarks = new LinkedHashSet<>();
+        List<Map<V, Double>> landmarkDistances = new ArrayList<>();
+
+        while (landmarks.size() < count) {
+            V root = vertices.get(rng.nextInt(vertices.size()));
+
+            // shortest path tree from the root, vertices in settle order
+            DijkstraClosestFirstIterator<V, E> it =
+                new DijkstraClosestFirstIterator<>(graph, root);
+            List<V> order = new ArrayList<>();
+            while (it.hasNext()) {
+                order.add(it.next());
+            }
+            Map<V, Pair<Double, E>> tree = it.getDistanceAndPredecessorMap();
+
+            // compute sizes bottom-up, a subtree containing a landmark has size zero
+            Map<V, Double> size = new HashMap<>();
+            Set<V> blocked = new HashSet<>();
+            Map<V, List<V>> children = new HashMap<>();
+            for (int i = order.size() - 1; i >= 0; i--) {
+                V v = order.get(i);
+                double weight = tree.get(v).getFirst()
+                    - lowerBound(landmarkDistances, root, v, tree.get(v).getFirst(), directed);
+                double vSize = size.getOrDefault(v, 0d) + Math.max(weight, 0d);
+                if (landmarks.contains(v)) {
+                    blocked.add(v);
+                }
+                if (blocked.contains(v)) {
+                    vSize = 0d;
+                }
+                size.put(v, vSize);
+
+                E e = tree.get(v).getSecond();
+                if (e != null) {
+                    V parent = Graphs.getOppositeVertex(graph, e, v);
+                    children.computeIfAbsent(parent, k -> new ArrayList<>()).add(v);
+                    if (blocked.contains(v)) {
+                        blocked.add(parent);
+                    } else {
+                        size.merge(parent, vSize, Double::sum);
+                    }
+                }
+            }
+
+            // descend from the vertex of maximum size into the heaviest child until a leaf
+            V current = null;
+            double max = 0d;
+            for (V v : order) {
+                if (!blocked.contains(v) && size.get(v) > max) {
+                    max = size.get(v);
+                    current = v;
+                }
+            }
+            if (current == null) {
+                // the whole tree is covered, fall back to the vertex farthest from all landmarks
+                current = farthestFromLandmarks(vertices, landmarks, landmarkDistances);
+            } else {
+                List<V> c = children.get(current);
+                while (c != null) {
+                    V heaviest = null;
+                    double heaviestSize = -1d;
+                    for (V child : c) {
+                        if (!blocked.contains(child) && size.get(child) > heaviestSize) {
+                            heaviestSize = size.get(child);
+                            heaviest = child;
+                        }
+                    }
+                    if (heaviest == null) {
+                        break;
+                    }
+                    current = heaviest;
+                    c = children.get(current);
+                }
+            }
+
+            landmarks.add(current);
+            landmarkDistances.add(distancesFrom(graph, current));
+        }
+        return landmarks;
+    }
+
+    private double lowerBound(
+        List<Map<V, Double>> landmarkDistances, V root, V v, double distance, boolean directed)
+    {
+        double bound = 0d;
+        for (Map<V, Double> d : landmarkDistances) {
+            Double dr = d.get(root);
+            Double dv = d.get(v);
+            if (dr == null || dv == null) {
+                continue;
+            }
+            double estimate = directed ? dv - dr : Math.abs(dr - dv);
+            bound = Math.max(bound, estimate);
+        }
+        return Math.min(bound, distance);
+    }
+
+    private V farthestFromLandmarks(
+        List<V> vertices, Set<V> landmarks, List<Map<V, Double>> landmarkDistances)
+    {
+        V result = null;
+        double max = Double.NEGATIVE_INFINITY;
+        for (V v : vertices) {
+            if (landmarks.contains(v)) {
+                continue;
+            }
+            double min = Double.POSITIVE_INFINITY;
+            for (Map<V, Double> d : landmarkDistances) {
+                min = Math.min(min, d.getOrDefault(v, Double.POSITIVE_INFINITY));
+            }
+            if (min > max) {
+                max = min;
+                result = v;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.util.*;
+
+/**
+ * A base implementation of the landmark selection strategy interface.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ */
+abstract class BaseLandmarkSelection<V, E>
+    implements LandmarkSelectionStrategy<V, E>
+{
+    /**
+     * Source of randomness.
+     */
+    protected final Random rng;
+
+    /**
+     * Constructs a new strategy.
+     *
+     * @param rng the random number generator
+     */
+    public BaseLandmarkSelection(Random rng)
+    {
+        this.rng = Objects.requireNonNull(rng, "Random number generator cannot be null");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<V> selectLandmarks(Graph<V, E> graph, int count)
+    {
+        Objects.requireNonNull(graph, "Graph cannot be null");
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of landmarks must be positive");
+        }
+        if (graph.vertexSet().isEmpty()) {
+            throw new IllegalArgumentException("Graph must contain at least one vertex");
+        }
+        if (graph.vertexSet().size() <= count) {
+            return new LinkedHashSet<>(graph.vertexSet());
+        }
+        return select(graph, count);
+    }
+
+    /**
+     * Select the landmarks, after the arguments have been validated. The graph is guaranteed to
+     * contain more than {@code count} vertices.
+     *
+     * @param graph the graph
+     * @param count the number of landmarks
+     * @return the landmarks
+     */
+    protected abstract Set<V> select(Graph<V, E> graph, int count);
+
+    /**
+     * Compute the shortest path distances from a vertex. Vertices which are not reachable from
+     * the source are not contained in the result.
+     *
+     * @param graph the graph
+     * @param source the source vertex
+     * @return the distances
+     */
+    protected Map<V, Double> distancesFrom(Graph<V, E> graph, V source)
+    {
+        DijkstraClosestFirstIterator<V, E> it = new DijkstraClosestFirstIterator<>(graph, source);
+        while (it.hasNext()) {
+            it.next();
+        }
+        Map<V, Double> distances = new HashMap<>();
+        for (Map.Entry<V, Pair<Double, E>> entry : it.getDistanceAndPredecessorMap().entrySet()) {
+            distances.put(entry.getKey(), entry.getValue().getFirst());
+        }
+        return distances;
+    }
+
+}
@@ -0,0 +1,312 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.graph.*;
+import org.jgrapht.util.*;
+
+/**
+ * A bidirectional version of the A* algorithm.
+ *
+ * <p>
+ * The forward search from the source and the backward search from the target are guided by the
+ * average potentials $p_f(v) = (h(v,t) - h(s,v))/2$ and $p_b(v) = -p_f(v)$, where $h$ is the
+ * admissible heuristic. With these potentials the reduced edge weights
+ * $w(u,v) - p_f(u) + p_f(v)$ are the same for both searches, so the algorithm is in fact a
+ * bidirectional Dijkstra on the reduced graph and may use the same stopping criterion: the search
+ * stops as soon as the sum of the minimum keys of both frontiers is at least the weight of the best
+ * path found so far. For details see:
+ * <ul>
+ * <li>Andrew V. Goldberg and Chris Harrelson. Computing the shortest path: A* search meets graph
+ * theory. In Proceedings of the 16th Annual ACM-SIAM Symposium on Discrete Algorithms (SODA'05),
+ * 156--165, 2005.</li>
+ * </ul>
+ *
+ * <p>
+ * The reduced weights are non-negative only if the heuristic is consistent, that is
+ * $h(u,t) \le w(u,v) + h(v,t)$ for every edge $(u,v)$ and target $t$, and the same for the source.
+ * This holds for example for {@link IndexedALTAdmissibleHeuristic} on every graph, and for
+ * {@link ALTAdmissibleHeuristic} on strongly connected graphs; on other directed graphs the latter
+ * skips infinite landmark terms and is not consistent. With an admissible but inconsistent
+ * heuristic the returned paths may not be shortest.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see AStarShortestPath
+ * @see BidirectionalDijkstraShortestPath
+ */
+public class BidirectionalAStarShortestPath<V, E>
+    extends BaseShortestPathAlgorithm<V, E>
+{
+    private final AStarAdmissibleHeuristic<V> admissibleHeuristic;
+
+    private int numberOfExpandedNodes;
+
+    /**
+     * Create a new instance of the bidirectional A* shortest path algorithm.
+     *
+     * @param graph the input graph
+     * @param admissibleHeuristic consistent heuristic which estimates the distance between two
+     *        vertices
+     */
+    public BidirectionalAStarShortestPath(
+        Graph<V, E> graph, AStarAdmissibleHeuristic<V> admissibleHeuristic)
+    {
+        super(graph);
+        this.admissibleHeuristic =
+            Objects.requireNonNull(admissibleHeuristic, "Heuristic function cannot be null!");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphPath<V, E> getPath(V source, V sink)
+    {
+        if (!graph.containsVertex(source)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        }
+        if (!graph.containsVertex(sink)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        }
+
+        numberOfExpandedNodes = 0;
+
+        // handle special case if source equals target
+        if (source.equals(sink)) {
+            return createEmptyPath(source, sink);
+        }
+
+        // create frontiers
+        SearchFrontier forwardFrontier = new SearchFrontier(graph, source, sink, 1d);
+        SearchFrontier backwardFrontier;
+        if (graph.getType().isDirected()) {
+            backwardFrontier =
+                new SearchFrontier(new EdgeReversedGraph<>(graph), source, sink, -1d);
+        } else {
+            backwardFrontier = new SearchFrontier(graph, source, sink, -1d);
+        }
+
+        // initialize both frontiers
+        forwardFrontier.updateDistance(source, null, 0d);
+        backwardFrontier.updateDistance(sink, null, 0d);
+
+        // initialize best path
+        double bestPath = Double.POSITIVE_INFINITY;
+        V bestPathCommonVertex = null;
+
+        SearchFrontier frontier = forwardFrontier;
+        SearchFrontier otherFrontier = backwardFrontier;
+
+        while (true) {
+            // stopping condition, valid since both searches share the same reduced weights
+            if (frontier.heap.isEmpty() || otherFrontier.heap.isEmpty()
+                || frontier.heap.min().getKey() + otherFrontier.heap.min().getKey() >= bestPath)
+            {
+                break;
+            }
+
+            // frontier scan
+            FibonacciHeapNode<QueueEntry> node = frontier.heap.removeMin();
+            QueueEntry entry = node.getData();
+            entry.settled = true;
+            V v = entry.v;
+            double vDistance = entry.distance;
+            numberOfExpandedNodes++;
+
+            for (E e : frontier.graph.outgoingEdgesOf(v)) {
+                V u = Graphs.getOppositeVertex(frontier.graph, e, v);
+
+                double eWeight = frontier.graph.getEdgeWeight(e);
+
+                frontier.updateDistance(u, e, vDistance + eWeight);
+
+                // check path with u's distance from the other frontier, along the tree edge which
+                // u keeps even if e did not improve it
+                double pathDistance = frontier.getDistance(u) + otherFrontier.getDistance(u);
+
+                if (pathDistance < bestPath) {
+                    bestPath = pathDistance;
+                    bestPathCommonVertex = u;
+                }
+            }
+
+            // swap frontiers
+            SearchFrontier tmpFrontier = frontier;
+            frontier = otherFrontier;
+            otherFrontier = tmpFrontier;
+        }
+
+        // create path if found
+        if (Double.isFinite(bestPath)) {
+            return createPath(
+                forwardFrontier, backwardFrontier, bestPath, source, bestPathCommonVertex, sink);
+        } else {
+            return createEmptyPath(source, sink);
+        }
+    }
+
+    /**
+     * Returns how many nodes have been expanded by both searches in the last invocation. A node is
+     * expanded if it is removed from the frontier of a search.
+     *
+     * @return number of expanded nodes
+     */
+    public int getNumberOfExpandedNodes()
+    {
+        return numberOfExpandedNodes;
+    }
+
+    private GraphPath<V, E> createPath(
+        SearchFrontier forwardFrontier, SearchFrontier backwardFrontier, double weight, V source,
+        V commonVertex, V sink)
+    {
+        LinkedList<E> edgeList = new LinkedList<>();
+        LinkedList<V> vertexList = new LinkedList<>();
+
+        // add common vertex
+        vertexList.add(commonVertex);
+
+        // traverse forward path
+        V v = commonVertex;
+        while (true) {
+            E e = forwardFrontier.getTreeEdge(v);
+
+            if (e == null) {
+                break;
+            }
+
+            edgeList.addFirst(e);
+            v = Graphs.getOppositeVertex(forwardFrontier.graph, e, v);
+            vertexList.addFirst(v);
+        }
+
+        // traverse reverse path
+        v = commonVertex;
+        while (true) {
+            E e = backwardFrontier.getTreeEdge(v);
+
+            if (e == null) {
+                break;
+            }
+
+            edgeList.addLast(e);
+            v = Graphs.getOppositeVertex(backwardFrontier.graph, e, v);
+            vertexList.addLast(v);
+        }
+
+        return new GraphWalk<>(graph, source, sink, vertexList, edgeList, weight);
+    }
+
+    /**
+     * Helper class to maintain the search frontier. The heap is keyed by distance plus potential.
+     */
+    class SearchFrontier
+    {
+        final Graph<V, E> graph;
+        final V source;
+        final V sink;
+        final double sign;
+
+        final FibonacciHeap<QueueEntry> heap;
+        final Map<V, FibonacciHeapNode<QueueEntry>> seen;
+
+        public SearchFrontier(Graph<V, E> graph, V source, V sink, double sign)
+        {
+            this.graph = graph;
+            this.source = source;
+            this.sink = sink;
+            this.sign = sign;
+            this.heap = new FibonacciHeap<>();
+            this.seen = new HashMap<>();
+        }
+
+        public void updateDistance(V v, E e, double distance)
+        {
+            FibonacciHeapNode<QueueEntry> node = seen.get(v);
+            if (node == null) {
+                double potential = potential(v);
+                if (!Double.isFinite(potential)) {
+                    // heuristic proves that v is not on any path from the source to the sink
+                    return;
+                }
+                QueueEntry entry = new QueueEntry(e, v, distance, potential);
+                node = new FibonacciHeapNode<>(entry);
+                heap.insert(node, distance + entry.potential);
+                seen.put(v, node);
+            } else {
+                QueueEntry entry = node.getData();
+                // settled vertices are final, up to rounding errors of the potentials
+                if (!entry.settled && distance < entry.distance) {
+                    heap.decreaseKey(node, distance + entry.potential);
+                    entry.e = e;
+                    entry.distance = distance;
+                }
+            }
+        }
+
+        public double getDistance(V v)
+        {
+            FibonacciHeapNode<QueueEntry> node = seen.get(v);
+            if (node == null) {
+                return Double.POSITIVE_INFINITY;
+            } else {
+                return node.getData().distance;
+            }
+        }
+
+        public E getTreeEdge(V v)
+        {
+            FibonacciHeapNode<QueueEntry> node = seen.get(v);
+            if (node == null) {
+                return null;
+            } else {
+                return node.getData().e;
+            }
+        }
+
+        private double potential(V v)
+        {
+            return sign * (admissibleHeuristic.getCostEstimate(v, sink)
+                - admissibleHeuristic.getCostEstimate(source, v)) / 2d;
+        }
+    }
+
+    class QueueEntry
+    {
+        E e;
+        V v;
+        double distance;
+        final double potential;
+        boolean settled;
+
+        public QueueEntry(E e, V v, double distance, double potential)
+        {
+            this.e = e;
+            this.v = v;
+            this.distance = distance;
+            this.potential = potential;
+        }
+    }
+
+}
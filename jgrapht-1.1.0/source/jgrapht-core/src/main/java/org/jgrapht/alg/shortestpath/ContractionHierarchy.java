@@ -0,0 +1,490 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.util.*;
+
+/**
+ * A contraction hierarchy of a graph, the preprocessed data used by
+ * {@link ContractionHierarchyShortestPath}.
+ *
+ * <p>
+ * The vertices of the graph are contracted one at a time in the order of a priority which combines
+ * the edge difference (number of shortcuts which the contraction adds minus the number of edges it
+ * removes) with the number of already contracted neighbors. Priorities are updated lazily: the
+ * vertex with minimum priority is re-evaluated before its contraction and put back if it is no
+ * longer minimal. Contracting a vertex $v$ adds a shortcut $(u,w)$ for every pair of remaining
+ * neighbors for which the path $u,v,w$ is the only shortest path; this is decided by a witness
+ * search, a bounded Dijkstra search from $u$ which avoids $v$. When the witness search reaches
+ * its limit the shortcut is added anyway, which may add unnecessary shortcuts but never affects
+ * correctness. For details see:
+ * <ul>
+ * <li>Robert Geisberger, Peter Sanders, Dominik Schultes and Daniel Delling. Contraction
+ * Hierarchies: Faster and Simpler Hierarchical Routing in Road Networks. In Proceedings of the 7th
+ * Workshop on Experimental Algorithms (WEA'08), 319--333, 2008.</li>
+ * </ul>
+ *
+ * <p>
+ * Once built, the hierarchy is immutable and may be shared by any number of
+ * {@link ContractionHierarchyShortestPath} instances in different threads. It is a snapshot of the
+ * graph: later changes of the graph are not reflected and require a new hierarchy. The graph must
+ * be directed or undirected and must not contain negative edge weights.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see ContractionHierarchyShortestPath
+ */
+public class ContractionHierarchy<V, E>
+{
+    /**
+     * Default maximum number of vertices settled by a single witness search.
+     */
+    public static final int DEFAULT_WITNESS_SEARCH_LIMIT = 500;
+
+    final Graph<V, E> graph;
+    final Map<V, Integer> vertexIndex;
+    final List<V> vertices;
+    final int n;
+    final int[] rank;
+
+    // upward arcs (u,w) with rank[u] < rank[w], stored at u
+    final int[] upOffsets;
+    final int[] upTargets;
+    final int[] upArcs;
+    final double[] upWeights;
+
+    // arcs (u,w) with rank[u] > rank[w], stored reversed at w
+    final int[] downOffsets;
+    final int[] downTargets;
+    final int[] downArcs;
+    final double[] downWeights;
+
+    // all arcs, shortcuts refer to the two arcs they replace
+    final int[] arcFrom;
+    final int[] arcTo;
+    final int[] arcFirst;
+    final int[] arcSecond;
+    final Object[] arcEdge;
+    private final int numberOfShortcuts;
+
+    /**
+     * Constructs the contraction hierarchy of a graph.
+     *
+     * @param graph the graph
+     * @throws IllegalArgumentException if the graph contains negative edge weights
+     */
+    public ContractionHierarchy(Graph<V, E> graph)
+    {
+        this(graph, DEFAULT_WITNESS_SEARCH_LIMIT);
+    }
+
+    /**
+     * Constructs the contraction hierarchy of a graph.
+     *
+     * @param graph the graph
+     * @param witnessSearchLimit maximum number of vertices settled by a witness search. Smaller
+     *        values speed up preprocessing but may add unnecessary shortcuts.
+     * @throws IllegalArgumentException if the graph contains negative edge weights
+     */
+    public ContractionHierarchy(Graph<V, E> graph, int witnessSearchLimit)
+    {
+        this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
+        if (witnessSearchLimit < 1) {
+            throw new IllegalArgumentException("Witness search limit must be positive");
+        }
+        boolean directed;
+        if (graph.getType().isDirected()) {
+            directed = true;
+        } else if (graph.getType().isUndirected()) {
+            directed = false;
+        } else {
+            throw new IllegalArgumentException("Graph must be directed or undirected");
+        }
+
+        this.n = graph.vertexSet().size();
+        this.vertexIndex = new HashMap<>();
+        this.vertices = new ArrayList<>(n);
+        for (V v : graph.vertexSet()) {
+            vertexIndex.put(v, vertices.size());
+            vertices.add(v);
+        }
+
+        Contraction contraction = new Contraction(witnessSearchLimit);
+        for (E e : graph.edgeSet()) {
+            double weight = graph.getEdgeWeight(e);
+            if (weight < 0d) {
+                throw new IllegalArgumentException("Negative edge weight not allowed");
+            }
+            int u = vertexIndex.get(graph.getEdgeSource(e));
+            int w = vertexIndex.get(graph.getEdgeTarget(e));
+            if (u == w) {
+                continue;
+            }
+            contraction.addArc(u, w, weight, e, -1, -1);
+            if (!directed) {
+                contraction.addArc(w, u, weight, e, -1, -1);
+            }
+        }
+        this.rank = contraction.contractAll();
+
+        int m = contraction.arcCount;
+        this.arcFrom = Arrays.copyOf(contraction.from, m);
+        this.arcTo = Arrays.copyOf(contraction.to, m);
+        this.arcFirst = Arrays.copyOf(contraction.first, m);
+        this.arcSecond = Arrays.copyOf(contraction.second, m);
+        this.arcEdge = Arrays.copyOf(contraction.edge, m);
+        this.numberOfShortcuts = contraction.shortcutCount;
+
+        // split the arcs into the upward and the reversed downward graph
+        this.upOffsets = new int[n + 1];
+        this.downOffsets = new int[n + 1];
+        for (int a = 0; a < m; a++) {
+            if (contraction.removed[a]) {
+                continue;
+            }
+            if (rank[arcFrom[a]] < rank[arcTo[a]]) {
+                upOffsets[arcFrom[a] + 1]++;
+            } else {
+                downOffsets[arcTo[a] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        this.upTargets = new int[upOffsets[n]];
+        this.upArcs = new int[upOffsets[n]];
+        this.upWeights = new double[upOffsets[n]];
+        this.downTargets = new int[downOffsets[n]];
+        this.downArcs = new int[downOffsets[n]];
+        this.downWeights = new double[downOffsets[n]];
+        int[] upNext = Arrays.copyOf(upOffsets, n);
+        int[] downNext = Arrays.copyOf(downOffsets, n);
+        for (int a = 0; a < m; a++) {
+            if (contraction.removed[a]) {
+                continue;
+            }
+            if (rank[arcFrom[a]] < rank[arcTo[a]]) {
+                int i = upNext[arcFrom[a]]++;
+                upTargets[i] = arcTo[a];
+                upArcs[i] = a;
+                upWeights[i] = contraction.weight[a];
+            } else {
+                int i = downNext[arcTo[a]]++;
+                downTargets[i] = arcFrom[a];
+                downArcs[i] = a;
+                downWeights[i] = contraction.weight[a];
+            }
+        }
+    }
+
+    /**
+     * Get the graph of the hierarchy.
+     *
+     * @return the graph
+     */
+    public Graph<V, E> getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Get the number of shortcuts added during preprocessing.
+     *
+     * @return the number of shortcuts
+     */
+    public int getNumberOfShortcuts()
+    {
+        return numberOfShortcuts;
+    }
+
+    /**
+     * Get the position of a vertex in the contraction order. Vertices which are contracted later
+     * are more important.
+     *
+     * @param v the vertex
+     * @return the rank of the vertex
+     * @throws IllegalArgumentException if the vertex was not in the graph when the hierarchy was
+     *         built
+     */
+    public int getRank(V v)
+    {
+        return rank[indexOf(v)];
+    }
+
+    int indexOf(V v)
+    {
+        Integer index = vertexIndex.get(v);
+        if (index == null) {
+            throw new IllegalArgumentException("Vertex not contained in the hierarchy: " + v);
+        }
+        return index;
+    }
+
+    /**
+     * Append the original edges of an arc, in order, unpacking shortcuts.
+     */
+    @SuppressWarnings("unchecked")
+    void unpack(int arc, List<E> edges, List<V> vertexList)
+    {
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(arc);
+        while (!stack.isEmpty()) {
+            int a = stack.pop();
+            if (arcFirst[a] < 0) {
+                edges.add((E) arcEdge[a]);
+                vertexList.add(vertices.get(arcTo[a]));
+            } else {
+                stack.push(arcSecond[a]);
+                stack.push(arcFirst[a]);
+            }
+        }
+    }
+
+    /**
+     * The state of the preprocessing.
+     */
+    private class Contraction
+    {
+        private final int witnessSearchLimit;
+
+        // arcs
+        int arcCount;
+        int shortcutCount;
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int[] first = new int[16];
+        int[] second = new int[16];
+        double[] weight = new double[16];
+        Object[] edge = new Object[16];
+        boolean[] removed = new boolean[16];
+
+        // remaining graph, contracted vertices are detached
+        final int[][] out = new int[n][];
+        final int[] outSize = new int[n];
+        final int[][] in = new int[n][];
+        final int[] inSize = new int[n];
+        final int[] deletedNeighbors = new int[n];
+
+        // witness search
+        final double[] distance = new double[n];
+        final int[] seen = new int[n];
+        int generation;
+        final IndexedFourAryHeap heap = new IndexedFourAryHeap(n);
+        final int[] target = new int[n];
+        int targetGeneration;
+
+        Contraction(int witnessSearchLimit)
+        {
+            this.witnessSearchLimit = witnessSearchLimit;
+        }
+
+        int[] contractAll()
+        {
+            int[] rank = new int[n];
+            IndexedFourAryHeap queue = new IndexedFourAryHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insert(v, priority(v));
+            }
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.removeMin();
+                double p = priority(v);
+                if (!queue.isEmpty() && p > queue.minKey()) {
+                    // lazy update, no longer the minimum
+                    queue.insert(v, p);
+                    continue;
+                }
+                contract(v, false);
+                rank[v] = order++;
+
+                // detach v from the remaining graph, its arcs stay in the hierarchy
+                for (int i = 0; i < outSize[v]; i++) {
+                    int w = to[out[v][i]];
+                    deletedNeighbors[w]++;
+                    remove(in, inSize, w, out[v][i]);
+                }
+                for (int i = 0; i < inSize[v]; i++) {
+                    int u = from[in[v][i]];
+                    deletedNeighbors[u]++;
+                    remove(out, outSize, u, in[v][i]);
+                }
+            }
+            return rank;
+        }
+
+        private double priority(int v)
+        {
+            return contract(v, true) - inSize[v] - outSize[v] + deletedNeighbors[v];
+        }
+
+        /**
+         * Contract a vertex or only count the shortcuts its contraction requires.
+         */
+        private int contract(int v, boolean simulate)
+        {
+            int shortcuts = 0;
+            for (int i = 0; i < inSize[v]; i++) {
+                int inArc = in[v][i];
+                int u = from[inArc];
+                double maxCost = Double.NEGATIVE_INFINITY;
+                int targets = 0;
+                targetGeneration++;
+                for (int j = 0; j < outSize[v]; j++) {
+                    int w = to[out[v][j]];
+                    if (w != u) {
+                        maxCost = Math.max(maxCost, weight[inArc] + weight[out[v][j]]);
+                        if (target[w] != targetGeneration) {
+                            target[w] = targetGeneration;
+                            targets++;
+                        }
+                    }
+                }
+                if (targets == 0) {
+                    continue;
+                }
+
+                witnessSearch(u, v, maxCost, targets);
+
+                // the arcs of v do not change while adding shortcuts, since w != v
+                for (int j = 0; j < outSize[v]; j++) {
+                    int outArc = out[v][j];
+                    int w = to[outArc];
+                    if (w == u) {
+                        continue;
+                    }
+                    double cost = weight[inArc] + weight[outArc];
+                    if (seen[w] == generation && distance[w] <= cost) {
+                        continue;
+                    }
+                    shortcuts++;
+                    if (!simulate) {
+                        addArc(u, w, cost, null, inArc, outArc);
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Bounded Dijkstra from source in the remaining graph without the vertex avoid, which stops
+         * once all targets are settled. Distances of vertices which are seen but not settled are
+         * upper bounds, thus valid witnesses.
+         */
+        private void witnessSearch(int source, int avoid, double maxCost, int targets)
+        {
+            heap.clear();
+            generation++;
+            seen[source] = generation;
+            distance[source] = 0d;
+            heap.insert(source, 0d);
+            int settled = 0;
+            while (!heap.isEmpty() && heap.minKey() <= maxCost && settled < witnessSearchLimit) {
+                int x = heap.removeMin();
+                settled++;
+                if (target[x] == targetGeneration && --targets == 0) {
+                    break;
+                }
+                for (int i = 0; i < outSize[x]; i++) {
+                    int a = out[x][i];
+                    int y = to[a];
+                    if (y == avoid) {
+                        continue;
+                    }
+                    double d = distance[x] + weight[a];
+                    if (seen[y] != generation) {
+                        seen[y] = generation;
+                        distance[y] = d;
+                        heap.insert(y, d);
+                    } else if (d < distance[y] && heap.contains(y)) {
+                        distance[y] = d;
+                        heap.decreaseKey(y, d);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add an arc, unless a parallel arc which is not more expensive already exists. A more
+         * expensive parallel arc is removed from the remaining graph.
+         */
+        void addArc(int u, int w, double cost, Object e, int firstArc, int secondArc)
+        {
+            for (int i = 0; i < outSize[u]; i++) {
+                int a = out[u][i];
+                if (to[a] == w) {
+                    if (weight[a] <= cost) {
+                        return;
+                    }
+                    removed[a] = true;
+                    remove(out, outSize, u, a);
+                    remove(in, inSize, w, a);
+                    break;
+                }
+            }
+
+            if (arcCount == from.length) {
+                int capacity = 2 * arcCount;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                first = Arrays.copyOf(first, capacity);
+                second = Arrays.copyOf(second, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+                edge = Arrays.copyOf(edge, capacity);
+                removed = Arrays.copyOf(removed, capacity);
+            }
+            int a = arcCount++;
+            from[a] = u;
+            to[a] = w;
+            first[a] = firstArc;
+            second[a] = secondArc;
+            weight[a] = cost;
+            edge[a] = e;
+            if (firstArc >= 0) {
+                shortcutCount++;
+            }
+            add(out, outSize, u, a);
+            add(in, inSize, w, a);
+        }
+
+        private void add(int[][] lists, int[] sizes, int v, int a)
+        {
+            if (lists[v] == null) {
+                lists[v] = new int[4];
+            } else if (sizes[v] == lists[v].length) {
+                lists[v] = Arrays.copyOf(lists[v], 2 * sizes[v]);
+            }
+            lists[v][sizes[v]++] = a;
+        }
+
+        private void remove(int[][] lists, int[] sizes, int v, int a)
+        {
+            for (int i = 0; i < sizes[v]; i++) {
+                if (lists[v][i] == a) {
+                    lists[v][i] = lists[v][--sizes[v]];
+                    return;
+                }
+            }
+        }
+    }
+
+}
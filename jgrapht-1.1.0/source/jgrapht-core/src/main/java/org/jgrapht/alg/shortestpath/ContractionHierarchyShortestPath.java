@@ -0,0 +1,249 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.graph.*;
+import org.jgrapht.util.*;
+
+/**
+ * Shortest path queries on a {@link ContractionHierarchy}.
+ *
+ * <p>
+ * A query runs two Dijkstra searches simultaneously, a forward search from the source which only
+ * relaxes arcs towards more important vertices and a backward search from the target which does
+ * the same on the reversed graph. Every shortest path of the graph has a counterpart in the
+ * hierarchy which first ascends and then descends, therefore the minimum of the two distances over
+ * all vertices settled by both searches is the shortest path distance. The searches stop as soon
+ * as neither can improve it. Shortcuts of the resulting path are unpacked into the original
+ * edges.
+ *
+ * <p>
+ * The search state is stamped with a generation number, so a query does not clear any arrays.
+ * {@link #getPathWeight(Object, Object)} does not unpack the path.
+ *
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b> Each thread should use its own
+ * instance, while the hierarchy may be shared.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see ContractionHierarchy
+ */
+public class ContractionHierarchyShortestPath<V, E>
+    extends BaseShortestPathAlgorithm<V, E>
+{
+    private final ContractionHierarchy<V, E> hierarchy;
+
+    // search state, valid only if the stamp equals the current generation
+    private final double[] forwardDistance;
+    private final int[] forwardArc;
+    private final int[] forwardSeen;
+    private final double[] backwardDistance;
+    private final int[] backwardArc;
+    private final int[] backwardSeen;
+    private int generation;
+    private final IndexedFourAryHeap forwardHeap;
+    private final IndexedFourAryHeap backwardHeap;
+
+    private int numberOfSettledNodes;
+
+    /**
+     * Constructs a new instance of the algorithm for a given graph. The contraction hierarchy is
+     * computed immediately.
+     *
+     * @param graph the graph
+     */
+    public ContractionHierarchyShortestPath(Graph<V, E> graph)
+    {
+        this(new ContractionHierarchy<>(graph));
+    }
+
+    /**
+     * Constructs a new instance of the algorithm for a given contraction hierarchy.
+     *
+     * @param hierarchy the contraction hierarchy
+     */
+    public ContractionHierarchyShortestPath(ContractionHierarchy<V, E> hierarchy)
+    {
+        super(Objects.requireNonNull(hierarchy, "Hierarchy cannot be null").getGraph());
+        this.hierarchy = hierarchy;
+        int n = hierarchy.n;
+        this.forwardDistance = new double[n];
+        this.forwardArc = new int[n];
+        this.forwardSeen = new int[n];
+        this.backwardDistance = new double[n];
+        this.backwardArc = new int[n];
+        this.backwardSeen = new int[n];
+        this.forwardHeap = new IndexedFourAryHeap(n);
+        this.backwardHeap = new IndexedFourAryHeap(n);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphPath<V, E> getPath(V sourceVertex, V targetVertex)
+    {
+        int meeting = search(sourceVertex, targetVertex);
+        if (meeting < 0) {
+            return createEmptyPath(sourceVertex, targetVertex);
+        }
+
+        List<E> edges = new ArrayList<>();
+        List<V> vertexList = new ArrayList<>();
+        vertexList.add(sourceVertex);
+
+        // upward part, collected backwards from the meeting vertex
+        Deque<Integer> upArcs = new ArrayDeque<>();
+        for (int v = meeting; forwardArc[v] >= 0; v = hierarchy.arcFrom[forwardArc[v]]) {
+            upArcs.push(forwardArc[v]);
+        }
+        for (int arc : upArcs) {
+            hierarchy.unpack(arc, edges, vertexList);
+        }
+
+        // downward part, in order from the meeting vertex
+        for (int v = meeting; backwardArc[v] >= 0; v = hierarchy.arcTo[backwardArc[v]]) {
+            hierarchy.unpack(backwardArc[v], edges, vertexList);
+        }
+
+        return new GraphWalk<>(
+            graph, sourceVertex, targetVertex, vertexList, edges,
+            forwardDistance[meeting] + backwardDistance[meeting]);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Note that this method does not construct the path.
+     */
+    @Override
+    public double getPathWeight(V sourceVertex, V targetVertex)
+    {
+        int meeting = search(sourceVertex, targetVertex);
+        if (meeting < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return forwardDistance[meeting] + backwardDistance[meeting];
+    }
+
+    /**
+     * Returns how many nodes have been settled by both searches in the last invocation.
+     *
+     * @return number of settled nodes
+     */
+    public int getNumberOfSettledNodes()
+    {
+        return numberOfSettledNodes;
+    }
+
+    /**
+     * Run a query.
+     *
+     * @return the vertex where the searches meet, or -1 if the target is unreachable
+     */
+    private int search(V sourceVertex, V targetVertex)
+    {
+        if (!graph.containsVertex(sourceVertex)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        }
+        if (!graph.containsVertex(targetVertex)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        }
+        int source = hierarchy.indexOf(sourceVertex);
+        int target = hierarchy.indexOf(targetVertex);
+
+        generation++;
+        numberOfSettledNodes = 0;
+        forwardHeap.clear();
+        backwardHeap.clear();
+        forwardSeen[source] = generation;
+        forwardDistance[source] = 0d;
+        forwardArc[source] = -1;
+        forwardHeap.insert(source, 0d);
+        backwardSeen[target] = generation;
+        backwardDistance[target] = 0d;
+        backwardArc[target] = -1;
+        backwardHeap.insert(target, 0d);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        while (true) {
+            boolean forward = !forwardHeap.isEmpty() && forwardHeap.minKey() < best;
+            boolean backward = !backwardHeap.isEmpty() && backwardHeap.minKey() < best;
+            if (!forward && !backward) {
+                break;
+            }
+            if (forward && (!backward || forwardHeap.minKey() <= backwardHeap.minKey())) {
+                int v = forwardHeap.removeMin();
+                numberOfSettledNodes++;
+                if (backwardSeen[v] == generation) {
+                    double d = forwardDistance[v] + backwardDistance[v];
+                    if (d < best) {
+                        best = d;
+                        meeting = v;
+                    }
+                }
+                relax(
+                    v, hierarchy.upOffsets, hierarchy.upTargets, hierarchy.upArcs,
+                    hierarchy.upWeights, forwardDistance, forwardArc, forwardSeen, forwardHeap);
+            } else {
+                int v = backwardHeap.removeMin();
+                numberOfSettledNodes++;
+                if (forwardSeen[v] == generation) {
+                    double d = forwardDistance[v] + backwardDistance[v];
+                    if (d < best) {
+                        best = d;
+                        meeting = v;
+                    }
+                }
+                relax(
+                    v, hierarchy.downOffsets, hierarchy.downTargets, hierarchy.downArcs,
+                    hierarchy.downWeights, backwardDistance, backwardArc, backwardSeen,
+                    backwardHeap);
+            }
+        }
+        return meeting;
+    }
+
+    private void relax(
+        int v, int[] offsets, int[] targets, int[] arcs, double[] weights, double[] distance,
+        int[] arc, int[] seen, IndexedFourAryHeap heap)
+    {
+        double dv = distance[v];
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            int w = targets[i];
+            double d = dv + weights[i];
+            if (seen[w] != generation) {
+                seen[w] = generation;
+                distance[w] = d;
+                arc[w] = arcs[i];
+                heap.insert(w, d);
+            } else if (d < distance[w] && heap.contains(w)) {
+                distance[w] = d;
+                arc[w] = arcs[i];
+                heap.decreaseKey(w, d);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,581 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.util.*;
+
+/**
+ * A customizable contraction hierarchy of a graph, the preprocessed data used by
+ * {@link CustomizableContractionHierarchyShortestPath}.
+ *
+ * <p>
+ * Unlike a {@link ContractionHierarchy}, the preprocessing is split into a metric independent
+ * phase and a customization which applies edge weights. The first phase contracts the vertices in
+ * an order which only depends on the topology of the graph, given by the caller or otherwise
+ * computed with the minimum degree heuristic, and adds a shortcut between every two neighbors of a
+ * contracted vertex. No witness searches are run, so the shortcuts form a chordal supergraph of
+ * the graph which is valid for every metric. For every arc it also records the lower triangles,
+ * the vertices below both of its endpoints which are adjacent to both. The customization then
+ * computes the weight of every arc in both directions as the minimum over its original edges and
+ * the paths through its lower triangles, processing the vertices bottom up. For details see:
+ * <ul>
+ * <li>Julian Dibbelt, Ben Strasser and Dorothea Wagner. Customizable Contraction Hierarchies. ACM
+ * Journal of Experimental Algorithmics, 21(1), 2016.</li>
+ * </ul>
+ *
+ * <p>
+ * The vertices are grouped into levels such that all lower neighbors of a vertex are in lower
+ * levels. The arcs above the vertices of one level only depend on the arcs of lower levels, so if
+ * a {@link ForkJoinPool} is given the vertices of a level are customized as parallel tasks in that
+ * pool, with the same result as a sequential customization. Orders with small separators, such as
+ * nested dissection orders, lead to few shortcuts and few levels.
+ *
+ * <p>
+ * A customization writes a new set of weights and swaps it in at the end, queries which are
+ * already running keep using the previous weights. Apart from the weights the hierarchy is
+ * immutable and may be shared by any number of
+ * {@link CustomizableContractionHierarchyShortestPath} instances in different threads. The
+ * topology is a snapshot of the graph: adding or removing vertices or edges requires a new
+ * hierarchy, changing edge weights only a new customization. The graph must be directed or
+ * undirected and must not contain negative edge weights.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see CustomizableContractionHierarchyShortestPath
+ */
+public class CustomizableContractionHierarchy<V, E>
+{
+    // smallest number of vertices of a level which is customized in parallel
+    private static final int PARALLEL_LEVEL_SIZE = 256;
+
+    final Graph<V, E> graph;
+    final boolean directed;
+    // vertices are numbered by their rank in the contraction order
+    final Map<V, Integer> vertexIndex;
+    final List<V> vertices;
+    final int n;
+    // lowest upper neighbor of every vertex, -1 for roots
+    final int[] parent;
+
+    // arcs (v,w) with v < w, stored at v sorted by w
+    final int[] upOffsets;
+    final int[] arcTail;
+    final int[] arcHead;
+    private final int numberOfShortcuts;
+
+    // lower triangles of every arc (x,y), as the pairs of arcs (v,x) and (v,y)
+    private final int[] triangleOffsets;
+    private final int[] triangleFirst;
+    private final int[] triangleSecond;
+
+    // vertices grouped by level
+    private final int[] levelOffsets;
+    private final int[] levelVertices;
+
+    // original edges, with the arc times two plus one if they point upwards
+    private final Object[] inputEdges;
+    private final int[] inputArcs;
+
+    volatile Metric metric;
+
+    /**
+     * Constructs the customizable contraction hierarchy of a graph, contracting the vertices in
+     * minimum degree order, and customizes it with the edge weights of the graph.
+     *
+     * @param graph the graph
+     * @throws IllegalArgumentException if the graph contains negative edge weights
+     */
+    public CustomizableContractionHierarchy(Graph<V, E> graph)
+    {
+        this(graph, null, null);
+    }
+
+    /**
+     * Constructs the customizable contraction hierarchy of a graph and customizes it with the edge
+     * weights of the graph.
+     *
+     * @param graph the graph
+     * @param order all vertices of the graph, from the least to the most important. If null, the
+     *        minimum degree order is used.
+     * @throws IllegalArgumentException if the graph contains negative edge weights or the order is
+     *         not a permutation of the vertices
+     */
+    public CustomizableContractionHierarchy(Graph<V, E> graph, List<V> order)
+    {
+        this(graph, order, null);
+    }
+
+    /**
+     * Constructs the customizable contraction hierarchy of a graph and customizes it with the edge
+     * weights of the graph.
+     *
+     * @param graph the graph
+     * @param order all vertices of the graph, from the least to the most important. If null, the
+     *        minimum degree order is used.
+     * @param pool the pool which executes the first customization, if null it is executed in the
+     *        calling thread
+     * @throws IllegalArgumentException if the graph contains negative edge weights or the order is
+     *         not a permutation of the vertices
+     */
+    public CustomizableContractionHierarchy(Graph<V, E> graph, List<V> order, ForkJoinPool pool)
+    {
+        this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
+        if (graph.getType().isDirected()) {
+            this.directed = true;
+        } else if (graph.getType().isUndirected()) {
+            this.directed = false;
+        } else {
+            throw new IllegalArgumentException("Graph must be directed or undirected");
+        }
+
+        this.n = graph.vertexSet().size();
+        if (order == null) {
+            order = minimumDegreeOrder(graph);
+        } else if (order.size() != n) {
+            throw new IllegalArgumentException("Order must contain every vertex exactly once");
+        }
+        this.vertexIndex = new HashMap<>();
+        this.vertices = new ArrayList<>(order);
+        for (V v : vertices) {
+            if (!graph.containsVertex(v) || vertexIndex.put(v, vertexIndex.size()) != null) {
+                throw new IllegalArgumentException("Order must contain every vertex exactly once");
+            }
+        }
+
+        // contract in order, the upper neighbors of a vertex become neighbors of its parent
+        List<Set<Integer>> upper = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            upper.add(new HashSet<>());
+        }
+        for (E e : graph.edgeSet()) {
+            int u = vertexIndex.get(graph.getEdgeSource(e));
+            int w = vertexIndex.get(graph.getEdgeTarget(e));
+            if (u != w) {
+                upper.get(Math.min(u, w)).add(Math.max(u, w));
+            }
+        }
+        this.parent = new int[n];
+        this.upOffsets = new int[n + 1];
+        int[][] up = new int[n][];
+        for (int v = 0; v < n; v++) {
+            int[] neighbors = upper.get(v).stream().mapToInt(Integer::intValue).sorted().toArray();
+            upper.set(v, null);
+            up[v] = neighbors;
+            upOffsets[v + 1] = upOffsets[v] + neighbors.length;
+            if (neighbors.length == 0) {
+                parent[v] = -1;
+                continue;
+            }
+            parent[v] = neighbors[0];
+            Set<Integer> parentUpper = upper.get(neighbors[0]);
+            for (int i = 1; i < neighbors.length; i++) {
+                parentUpper.add(neighbors[i]);
+            }
+        }
+        int m = upOffsets[n];
+        this.arcTail = new int[m];
+        this.arcHead = new int[m];
+        for (int v = 0; v < n; v++) {
+            Arrays.fill(arcTail, upOffsets[v], upOffsets[v + 1], v);
+            System.arraycopy(up[v], 0, arcHead, upOffsets[v], up[v].length);
+        }
+
+        // lower triangles, every pair of upper neighbors of a vertex is adjacent
+        this.triangleOffsets = new int[m + 1];
+        for (int v = 0; v < n; v++) {
+            for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+                for (int j = i + 1; j < upOffsets[v + 1]; j++) {
+                    triangleOffsets[arc(arcHead[i], arcHead[j]) + 1]++;
+                }
+            }
+        }
+        for (int a = 0; a < m; a++) {
+            triangleOffsets[a + 1] += triangleOffsets[a];
+        }
+        this.triangleFirst = new int[triangleOffsets[m]];
+        this.triangleSecond = new int[triangleOffsets[m]];
+        int[] triangleNext = Arrays.copyOf(triangleOffsets, m);
+        for (int v = 0; v < n; v++) {
+            for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+                for (int j = i + 1; j < upOffsets[v + 1]; j++) {
+                    int t = triangleNext[arc(arcHead[i], arcHead[j])]++;
+                    triangleFirst[t] = i;
+                    triangleSecond[t] = j;
+                }
+            }
+        }
+
+        // levels, a vertex is above all of its lower neighbors
+        int[] level = new int[n];
+        int levels = 0;
+        for (int v = 0; v < n; v++) {
+            levels = Math.max(levels, level[v] + 1);
+            for (int i = upOffsets[v]; i < upOffsets[v + 1]; i++) {
+                level[arcHead[i]] = Math.max(level[arcHead[i]], level[v] + 1);
+            }
+        }
+        this.levelOffsets = new int[levels + 1];
+        for (int v = 0; v < n; v++) {
+            levelOffsets[level[v] + 1]++;
+        }
+        for (int l = 0; l < levels; l++) {
+            levelOffsets[l + 1] += levelOffsets[l];
+        }
+        this.levelVertices = new int[n];
+        int[] levelNext = Arrays.copyOf(levelOffsets, levels);
+        for (int v = 0; v < n; v++) {
+            levelVertices[levelNext[level[v]]++] = v;
+        }
+
+        // map the original edges to arcs
+        List<Object> edges = new ArrayList<>();
+        List<Integer> arcs = new ArrayList<>();
+        boolean[] original = new boolean[m];
+        for (E e : graph.edgeSet()) {
+            int u = vertexIndex.get(graph.getEdgeSource(e));
+            int w = vertexIndex.get(graph.getEdgeTarget(e));
+            if (u == w) {
+                continue;
+            }
+            int a = arc(Math.min(u, w), Math.max(u, w));
+            original[a] = true;
+            if (!directed || u < w) {
+                edges.add(e);
+                arcs.add(2 * a + 1);
+            }
+            if (!directed || u > w) {
+                edges.add(e);
+                arcs.add(2 * a);
+            }
+        }
+        this.inputEdges = edges.toArray();
+        this.inputArcs = arcs.stream().mapToInt(Integer::intValue).toArray();
+        int shortcuts = 0;
+        for (int a = 0; a < m; a++) {
+            if (!original[a]) {
+                shortcuts++;
+            }
+        }
+        this.numberOfShortcuts = shortcuts;
+
+        this.metric = computeMetric(graph::getEdgeWeight, pool);
+    }
+
+    /**
+     * Get the graph of the hierarchy.
+     *
+     * @return the graph
+     */
+    public Graph<V, E> getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Get the number of arcs of the hierarchy, each of which has a weight in both directions.
+     *
+     * @return the number of arcs
+     */
+    public int getNumberOfArcs()
+    {
+        return arcHead.length;
+    }
+
+    /**
+     * Get the number of arcs which do not correspond to an edge of the graph.
+     *
+     * @return the number of shortcuts
+     */
+    public int getNumberOfShortcuts()
+    {
+        return numberOfShortcuts;
+    }
+
+    /**
+     * Get the number of lower triangles, the work of a customization is proportional to it.
+     *
+     * @return the number of lower triangles
+     */
+    public int getNumberOfTriangles()
+    {
+        return triangleFirst.length;
+    }
+
+    /**
+     * Get the position of a vertex in the contraction order. Vertices which are contracted later
+     * are more important.
+     *
+     * @param v the vertex
+     * @return the rank of the vertex
+     * @throws IllegalArgumentException if the vertex was not in the graph when the hierarchy was
+     *         built
+     */
+    public int getRank(V v)
+    {
+        return indexOf(v);
+    }
+
+    /**
+     * Apply the current edge weights of the graph.
+     */
+    public void customize()
+    {
+        customize(graph::getEdgeWeight, null);
+    }
+
+    /**
+     * Apply the current edge weights of the graph.
+     *
+     * @param pool the pool which executes the customization, if null it is executed in the
+     *        calling thread
+     */
+    public void customize(ForkJoinPool pool)
+    {
+        customize(graph::getEdgeWeight, pool);
+    }
+
+    /**
+     * Apply new edge weights. Queries started before this method returns use the previous weights.
+     *
+     * @param weights the weight of every edge of the graph
+     * @param pool the pool which executes the customization, if null it is executed in the
+     *        calling thread
+     * @throws IllegalArgumentException if a weight is negative
+     */
+    public synchronized void customize(ToDoubleFunction<E> weights, ForkJoinPool pool)
+    {
+        Objects.requireNonNull(weights, "Weights cannot be null");
+        Metric next = computeMetric(weights, pool);
+        metric = next;
+    }
+
+    int indexOf(V v)
+    {
+        Integer index = vertexIndex.get(v);
+        if (index == null) {
+            throw new IllegalArgumentException("Vertex not contained in the hierarchy: " + v);
+        }
+        return index;
+    }
+
+    /**
+     * Append the original edges of an arc in one of its directions, in order, unpacking
+     * shortcuts.
+     */
+    @SuppressWarnings("unchecked")
+    void unpack(Metric metric, int arc, boolean upwards, List<E> edges, List<V> vertexList)
+    {
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(upwards ? 2 * arc + 1 : 2 * arc);
+        while (!stack.isEmpty()) {
+            int code = stack.pop();
+            int a = code >>> 1;
+            if ((code & 1) == 1) {
+                int t = metric.upVia[a];
+                if (t < 0) {
+                    edges.add((E) metric.upEdge[a]);
+                    vertexList.add(vertices.get(arcHead[a]));
+                } else {
+                    // down the first arc of the triangle, then up the second
+                    stack.push(2 * triangleSecond[t] + 1);
+                    stack.push(2 * triangleFirst[t]);
+                }
+            } else {
+                int t = metric.downVia[a];
+                if (t < 0) {
+                    edges.add((E) metric.downEdge[a]);
+                    vertexList.add(vertices.get(arcTail[a]));
+                } else {
+                    // down the second arc of the triangle, then up the first
+                    stack.push(2 * triangleFirst[t] + 1);
+                    stack.push(2 * triangleSecond[t]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the arc (v,w) with v < w.
+     */
+    private int arc(int v, int w)
+    {
+        return Arrays.binarySearch(arcHead, upOffsets[v], upOffsets[v + 1], w);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Metric computeMetric(ToDoubleFunction<E> weights, ForkJoinPool pool)
+    {
+        Metric metric = new Metric(arcHead.length);
+        for (int i = 0; i < inputArcs.length; i++) {
+            E e = (E) inputEdges[i];
+            double weight = weights.applyAsDouble(e);
+            if (weight < 0d) {
+                throw new IllegalArgumentException("Negative edge weight not allowed");
+            }
+            int a = inputArcs[i] >>> 1;
+            if ((inputArcs[i] & 1) == 1) {
+                if (weight < metric.up[a]) {
+                    metric.up[a] = weight;
+                    metric.upEdge[a] = e;
+                }
+            } else if (weight < metric.down[a]) {
+                metric.down[a] = weight;
+                metric.downEdge[a] = e;
+            }
+        }
+
+        for (int l = 0; l + 1 < levelOffsets.length; l++) {
+            int from = levelOffsets[l];
+            int to = levelOffsets[l + 1];
+            if (pool == null || to - from < PARALLEL_LEVEL_SIZE) {
+                customizeVertices(metric, from, to);
+                continue;
+            }
+            int chunk = Math.max(
+                PARALLEL_LEVEL_SIZE / 4, (to - from) / (4 * pool.getParallelism()) + 1);
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int start = from; start < to; start += chunk) {
+                int first = start;
+                int last = Math.min(to, start + chunk);
+                tasks.add(pool.submit(() -> customizeVertices(metric, first, last)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        return metric;
+    }
+
+    /**
+     * Customize the arcs above the vertices of a range of a level, which only read arcs of lower
+     * levels.
+     */
+    private void customizeVertices(Metric metric, int from, int to)
+    {
+        double[] up = metric.up;
+        double[] down = metric.down;
+        for (int i = from; i < to; i++) {
+            int x = levelVertices[i];
+            for (int a = upOffsets[x]; a < upOffsets[x + 1]; a++) {
+                for (int t = triangleOffsets[a]; t < triangleOffsets[a + 1]; t++) {
+                    int first = triangleFirst[t];
+                    int second = triangleSecond[t];
+                    double upwards = down[first] + up[second];
+                    if (upwards < up[a]) {
+                        up[a] = upwards;
+                        metric.upVia[a] = t;
+                    }
+                    double downwards = down[second] + up[first];
+                    if (downwards < down[a]) {
+                        down[a] = downwards;
+                        metric.downVia[a] = t;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute a minimum degree order, contracting the vertex with the fewest remaining neighbors
+     * first. Degrees which grow are updated lazily.
+     */
+    private static <V, E> List<V> minimumDegreeOrder(Graph<V, E> graph)
+    {
+        List<V> vertices = new ArrayList<>(graph.vertexSet());
+        int n = vertices.size();
+        Map<V, Integer> index = new HashMap<>();
+        List<Set<Integer>> neighbors = new ArrayList<>(n);
+        for (V v : vertices) {
+            index.put(v, index.size());
+            neighbors.add(new HashSet<>());
+        }
+        for (E e : graph.edgeSet()) {
+            int u = index.get(graph.getEdgeSource(e));
+            int w = index.get(graph.getEdgeTarget(e));
+            if (u != w) {
+                neighbors.get(u).add(w);
+                neighbors.get(w).add(u);
+            }
+        }
+
+        List<V> order = new ArrayList<>(n);
+        IndexedFourAryHeap queue = new IndexedFourAryHeap(n);
+        for (int v = 0; v < n; v++) {
+            queue.insert(v, neighbors.get(v).size());
+        }
+        while (!queue.isEmpty()) {
+            int v = queue.removeMin();
+            Set<Integer> remaining = neighbors.get(v);
+            if (!queue.isEmpty() && remaining.size() > queue.minKey()) {
+                // lazy update, no longer the minimum
+                queue.insert(v, remaining.size());
+                continue;
+            }
+            order.add(vertices.get(v));
+            neighbors.set(v, null);
+            for (int x : remaining) {
+                Set<Integer> xNeighbors = neighbors.get(x);
+                xNeighbors.remove(v);
+                xNeighbors.addAll(remaining);
+                xNeighbors.remove(x);
+            }
+            for (int x : remaining) {
+                int degree = neighbors.get(x).size();
+                if (degree < queue.getKey(x)) {
+                    queue.decreaseKey(x, degree);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * The weights of all arcs in both directions, together with how they are realized: by an
+     * original edge if the triangle is negative, otherwise by the two arcs of the lower triangle.
+     */
+    static final class Metric
+    {
+        final double[] up;
+        final double[] down;
+        final int[] upVia;
+        final int[] downVia;
+        final Object[] upEdge;
+        final Object[] downEdge;
+
+        Metric(int m)
+        {
+            this.up = new double[m];
+            this.down = new double[m];
+            Arrays.fill(up, Double.POSITIVE_INFINITY);
+            Arrays.fill(down, Double.POSITIVE_INFINITY);
+            this.upVia = new int[m];
+            this.downVia = new int[m];
+            Arrays.fill(upVia, -1);
+            Arrays.fill(downVia, -1);
+            this.upEdge = new Object[m];
+            this.downEdge = new Object[m];
+        }
+    }
+
+}
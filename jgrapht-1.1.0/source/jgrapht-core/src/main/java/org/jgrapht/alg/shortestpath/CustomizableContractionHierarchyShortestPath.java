@@ -0,0 +1,226 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.graph.*;
+
+/**
+ * Shortest path queries on a {@link CustomizableContractionHierarchy}.
+ *
+ * <p>
+ * The arcs of a customizable contraction hierarchy form a chordal graph, so every vertex reached
+ * by an upward search from a vertex is an ancestor of it in the elimination tree, the tree in
+ * which the parent of a vertex is its lowest upper neighbor. A query therefore needs no priority
+ * queue: it walks from the source to the root of the elimination tree relaxing the upward arcs of
+ * every vertex in turn, does the same from the target on the reversed arcs, and takes the minimum
+ * of the two distances over the common ancestors. Shortcuts of the resulting path are unpacked
+ * into the original edges.
+ *
+ * <p>
+ * Every query uses the weights of the last customization which completed before it started,
+ * even if a new customization completes while it runs. {@link #getPathWeight(Object, Object)}
+ * does not unpack the path.
+ *
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b> Each thread should use its own
+ * instance, while the hierarchy may be shared.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see CustomizableContractionHierarchy
+ */
+public class CustomizableContractionHierarchyShortestPath<V, E>
+    extends BaseShortestPathAlgorithm<V, E>
+{
+    private final CustomizableContractionHierarchy<V, E> hierarchy;
+
+    // search state, valid only on the ancestors of the source and the target of the last query
+    private final double[] forwardDistance;
+    private final int[] forwardArc;
+    private final double[] backwardDistance;
+    private final int[] backwardArc;
+    private final int[] targetAncestor;
+    private int generation;
+
+    // the weights of the last query
+    private CustomizableContractionHierarchy.Metric metric;
+    private int numberOfSettledNodes;
+
+    /**
+     * Constructs a new instance of the algorithm for a given graph. The customizable contraction
+     * hierarchy is computed immediately.
+     *
+     * @param graph the graph
+     */
+    public CustomizableContractionHierarchyShortestPath(Graph<V, E> graph)
+    {
+        this(new CustomizableContractionHierarchy<>(graph));
+    }
+
+    /**
+     * Constructs a new instance of the algorithm for a given customizable contraction hierarchy.
+     *
+     * @param hierarchy the customizable contraction hierarchy
+     */
+    public CustomizableContractionHierarchyShortestPath(
+        CustomizableContractionHierarchy<V, E> hierarchy)
+    {
+        super(Objects.requireNonNull(hierarchy, "Hierarchy cannot be null").getGraph());
+        this.hierarchy = hierarchy;
+        int n = hierarchy.n;
+        this.forwardDistance = new double[n];
+        this.forwardArc = new int[n];
+        this.backwardDistance = new double[n];
+        this.backwardArc = new int[n];
+        this.targetAncestor = new int[n];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphPath<V, E> getPath(V sourceVertex, V targetVertex)
+    {
+        int meeting = search(sourceVertex, targetVertex);
+        if (meeting < 0) {
+            return createEmptyPath(sourceVertex, targetVertex);
+        }
+
+        List<E> edges = new ArrayList<>();
+        List<V> vertexList = new ArrayList<>();
+        vertexList.add(sourceVertex);
+
+        // upward part, collected backwards from the meeting vertex
+        Deque<Integer> upArcs = new ArrayDeque<>();
+        for (int v = meeting; forwardArc[v] >= 0; v = hierarchy.arcTail[forwardArc[v]]) {
+            upArcs.push(forwardArc[v]);
+        }
+        for (int arc : upArcs) {
+            hierarchy.unpack(metric, arc, true, edges, vertexList);
+        }
+
+        // downward part, in order from the meeting vertex
+        for (int v = meeting; backwardArc[v] >= 0; v = hierarchy.arcTail[backwardArc[v]]) {
+            hierarchy.unpack(metric, backwardArc[v], false, edges, vertexList);
+        }
+
+        return new GraphWalk<>(
+            graph, sourceVertex, targetVertex, vertexList, edges,
+            forwardDistance[meeting] + backwardDistance[meeting]);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Note that this method does not construct the path.
+     */
+    @Override
+    public double getPathWeight(V sourceVertex, V targetVertex)
+    {
+        int meeting = search(sourceVertex, targetVertex);
+        if (meeting < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return forwardDistance[meeting] + backwardDistance[meeting];
+    }
+
+    /**
+     * Returns how many nodes have been scanned by both searches in the last invocation.
+     *
+     * @return number of scanned nodes
+     */
+    public int getNumberOfSettledNodes()
+    {
+        return numberOfSettledNodes;
+    }
+
+    /**
+     * Run a query.
+     *
+     * @return the vertex where the searches meet, or -1 if the target is unreachable
+     */
+    private int search(V sourceVertex, V targetVertex)
+    {
+        if (!graph.containsVertex(sourceVertex)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        }
+        if (!graph.containsVertex(targetVertex)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        }
+        int source = hierarchy.indexOf(sourceVertex);
+        int target = hierarchy.indexOf(targetVertex);
+        int[] parent = hierarchy.parent;
+        metric = hierarchy.metric;
+
+        generation++;
+        numberOfSettledNodes = 0;
+        for (int v = source; v >= 0; v = parent[v]) {
+            forwardDistance[v] = Double.POSITIVE_INFINITY;
+        }
+        for (int v = target; v >= 0; v = parent[v]) {
+            backwardDistance[v] = Double.POSITIVE_INFINITY;
+            targetAncestor[v] = generation;
+        }
+        forwardDistance[source] = 0d;
+        forwardArc[source] = -1;
+        backwardDistance[target] = 0d;
+        backwardArc[target] = -1;
+
+        for (int v = source; v >= 0; v = parent[v]) {
+            relax(v, metric.up, forwardDistance, forwardArc);
+        }
+        for (int v = target; v >= 0; v = parent[v]) {
+            relax(v, metric.down, backwardDistance, backwardArc);
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        for (int v = source; v >= 0; v = parent[v]) {
+            if (targetAncestor[v] == generation) {
+                double d = forwardDistance[v] + backwardDistance[v];
+                if (d < best) {
+                    best = d;
+                    meeting = v;
+                }
+            }
+        }
+        return meeting;
+    }
+
+    private void relax(int v, double[] weights, double[] distance, int[] arc)
+    {
+        numberOfSettledNodes++;
+        double dv = distance[v];
+        if (dv == Double.POSITIVE_INFINITY) {
+            return;
+        }
+        for (int a = hierarchy.upOffsets[v]; a < hierarchy.upOffsets[v + 1]; a++) {
+            int w = hierarchy.arcHead[a];
+            double d = dv + weights[a];
+            if (d < distance[w]) {
+                distance[w] = d;
+                arc[w] = a;
+            }
+        }
+    }
+
+}
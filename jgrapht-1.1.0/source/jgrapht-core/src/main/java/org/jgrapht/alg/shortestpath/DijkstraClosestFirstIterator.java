@@ -180,6 +180,19 @@ class DijkstraClosestFirstIterator<V, E>
         return distanceAndPredecessorMap;
     }
 
+    /**
+     * Return the distance of a vertex from the source. The distance is the shortest path distance
+     * if the vertex is already returned by the iterator, and an upper bound otherwise.
+     *
+     * @param v the vertex
+     * @return the distance, or Double.POSITIVE_INFINITY if the vertex has not been reached
+     */
+    public double getDistance(V v)
+    {
+        FibonacciHeapNode<QueueEntry> node = seen.get(v);
+        return node == null ? Double.POSITIVE_INFINITY : node.getKey();
+    }
+
     private void updateDistance(V v, E e, double distance)
     {
         FibonacciHeapNode<QueueEntry> node = seen.get(v);
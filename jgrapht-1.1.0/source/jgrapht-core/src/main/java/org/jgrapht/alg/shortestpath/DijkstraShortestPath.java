@@ -17,6 +17,9 @@
  */
 package org.jgrapht.alg.shortestpath;
 
+import java.util.*;
+import java.util.function.*;
+
 import org.jgrapht.*;
 
 /**
@@ -111,6 +114,43 @@ public final class DijkstraShortestPath<V, E>
         return it.getPaths();
     }
 
+    /**
+     * Find the vertices closest to a source vertex which satisfy a predicate. The search grows
+     * outward from the source and stops after the first distance at which a vertex satisfies the
+     * predicate, so its cost depends only on how far away the nearest such vertex is. All vertices
+     * at exactly that distance which satisfy the predicate are returned, which allows the caller to
+     * break ties deterministically.
+     *
+     * @param source the source vertex
+     * @param predicate the predicate
+     * @return the closest vertices which satisfy the predicate, mapped to their distance from the
+     *         source, or an empty map if no such vertex is reachable (within the radius)
+     */
+    public Map<V, Double> getClosestVertices(V source, Predicate<? super V> predicate)
+    {
+        if (!graph.containsVertex(source)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        }
+        Objects.requireNonNull(predicate, "Predicate cannot be null");
+
+        Map<V, Double> closest = new LinkedHashMap<>();
+        double closestDistance = Double.POSITIVE_INFINITY;
+        DijkstraClosestFirstIterator<V, E> it =
+            new DijkstraClosestFirstIterator<>(graph, source, radius);
+        while (it.hasNext()) {
+            V vertex = it.next();
+            double distance = it.getDistance(vertex);
+            if (distance > closestDistance) {
+                break;
+            }
+            if (predicate.test(vertex)) {
+                closest.put(vertex, distance);
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
     /**
      * Find a path between two vertices. For a more advanced search (e.g. limited by radius), use
      * the constructor instead.
@@ -0,0 +1,97 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+
+/**
+ * Selects the landmarks using the farthest-first heuristic. The first landmark is the vertex
+ * farthest away from a random start vertex, and each subsequent landmark is the vertex whose
+ * distance to the already selected landmarks is maximal. Vertices which cannot be reached from any
+ * selected landmark are considered infinitely far away, so every component of a disconnected
+ * graph receives a landmark before a component receives a second one.
+ *
+ * <p>
+ * The strategy performs one single-source shortest path computation per landmark, plus one for
+ * the start vertex.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ */
+public class FarthestLandmarkSelection<V, E>
+    extends BaseLandmarkSelection<V, E>
+{
+    /**
+     * Constructs a new strategy.
+     */
+    public FarthestLandmarkSelection()
+    {
+        this(new Random());
+    }
+
+    /**
+     * Constructs a new strategy.
+     *
+     * @param rng the random number generator used to pick the start vertex
+     */
+    public FarthestLandmarkSelection(Random rng)
+    {
+        super(rng);
+    }
+
+    @Override
+    protected Set<V> select(Graph<V, E> graph, int count)
+    {
+        List<V> vertices = new ArrayList<>(graph.vertexSet());
+        Set<V> landmarks = new LinkedHashSet<>();
+
+        V start = vertices.get(rng.nextInt(vertices.size()));
+        Map<V, Double> minDistance = distancesFrom(graph, start);
+        while (landmarks.size() < count) {
+            V next = farthest(vertices, minDistance, landmarks);
+            if (landmarks.isEmpty()) {
+                minDistance.clear();
+            }
+            landmarks.add(next);
+            for (Map.Entry<V, Double> entry : distancesFrom(graph, next).entrySet()) {
+                minDistance.merge(entry.getKey(), entry.getValue(), Math::min);
+            }
+        }
+        return landmarks;
+    }
+
+    private V farthest(List<V> vertices, Map<V, Double> distances, Set<V> exclude)
+    {
+        V result = null;
+        double max = Double.NEGATIVE_INFINITY;
+        for (V v : vertices) {
+            if (exclude.contains(v)) {
+                continue;
+            }
+            double d = distances.getOrDefault(v, Double.POSITIVE_INFINITY);
+            if (d > max) {
+                max = d;
+                result = v;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,558 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.io.*;
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.util.*;
+
+/**
+ * A hub labeling of a graph, the preprocessed data used by {@link HubLabelingShortestPath}.
+ *
+ * <p>
+ * Every vertex $v$ stores a forward label, a set of hubs $h$ together with the distances $d(v,h)$,
+ * and a backward label with the distances $d(h,v)$; for undirected graphs both labels coincide.
+ * The labels cover every pair of vertices: some hub of a shortest path from $s$ to $t$ is in the
+ * forward label of $s$ and in the backward label of $t$. The distance from $s$ to $t$ is therefore
+ * the minimum of $d(s,h) + d(h,t)$ over the common hubs, computed by a single merge of the two
+ * labels without any graph search.
+ *
+ * <p>
+ * The labels are computed by pruned landmark labeling: one Dijkstra search is run from every
+ * vertex in the order of decreasing importance, and a search does not expand vertices whose
+ * distance is already answered by the labels computed so far. The order is the contraction order
+ * of a {@link ContractionHierarchy}, which keeps the labels small on road networks. For details
+ * see:
+ * <ul>
+ * <li>Takuya Akiba, Yoichi Iwata and Yuichi Yoshida. Fast exact shortest-path distance queries on
+ * large networks by pruned landmark labeling. In Proceedings of the 2013 ACM SIGMOD International
+ * Conference on Management of Data, 349--360, 2013.</li>
+ * <li>Ittai Abraham, Daniel Delling, Andrew V. Goldberg and Renato F. Werneck. Hierarchical Hub
+ * Labelings for Shortest Paths. In Proceedings of the 20th Annual European Symposium on Algorithms
+ * (ESA'12), 24--35, 2012.</li>
+ * </ul>
+ *
+ * <p>
+ * The labels of all vertices are stored in flat arrays: the hubs of a vertex are consecutive
+ * {@code int}s sorted by importance, next to their distances as {@code float}s. Distances are thus
+ * exact only as long as they are exactly representable as a {@code float}, for example integers up
+ * to $2^{24}$. Optionally every label entry also stores the next vertex on the shortest path to
+ * its hub, which allows {@link HubLabelingShortestPath} to reconstruct paths.
+ *
+ * <p>
+ * Once built, the labeling is immutable and may be shared by any number of threads. It is a
+ * snapshot of the graph: later changes of the graph are not reflected and require a new labeling.
+ * The labeling is serializable together with its graph.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see HubLabelingShortestPath
+ */
+public class HubLabeling<V, E>
+    implements Serializable
+{
+    private static final long serialVersionUID = -2860174521462364411L;
+
+    final Graph<V, E> graph;
+    final Map<V, Integer> vertexIndex;
+    final List<V> vertices;
+    final int n;
+    final boolean directed;
+
+    // vertex of every hub, hubs are numbered in the order of decreasing importance
+    final int[] hubVertex;
+
+    // forward labels, the label of v is at positions outOffsets[v] .. outOffsets[v + 1] - 1
+    final int[] outOffsets;
+    final int[] outHubs;
+    final float[] outDistances;
+    final int[] outNext;
+
+    // backward labels, the same arrays as the forward labels for undirected graphs
+    final int[] inOffsets;
+    final int[] inHubs;
+    final float[] inDistances;
+    final int[] inNext;
+
+    /**
+     * Constructs the hub labeling of a graph without path reconstruction.
+     *
+     * @param graph the graph
+     * @throws IllegalArgumentException if the graph contains negative edge weights
+     */
+    public HubLabeling(Graph<V, E> graph)
+    {
+        this(graph, false);
+    }
+
+    /**
+     * Constructs the hub labeling of a graph. The vertex order is computed by a new contraction
+     * hierarchy.
+     *
+     * @param graph the graph
+     * @param storePaths whether to store the data needed to reconstruct paths, which increases
+     *        the size of the labeling by half
+     * @throws IllegalArgumentException if the graph contains negative edge weights
+     */
+    public HubLabeling(Graph<V, E> graph, boolean storePaths)
+    {
+        this(new ContractionHierarchy<>(graph), storePaths);
+    }
+
+    /**
+     * Constructs the hub labeling of the graph of a contraction hierarchy, using its contraction
+     * order.
+     *
+     * @param hierarchy the contraction hierarchy
+     * @param storePaths whether to store the data needed to reconstruct paths, which increases
+     *        the size of the labeling by half
+     */
+    public HubLabeling(ContractionHierarchy<V, E> hierarchy, boolean storePaths)
+    {
+        Objects.requireNonNull(hierarchy, "Hierarchy cannot be null");
+        this.graph = hierarchy.graph;
+        this.directed = graph.getType().isDirected();
+        this.n = hierarchy.n;
+        this.vertices = new ArrayList<>(hierarchy.vertices);
+        this.vertexIndex = new HashMap<>(hierarchy.vertexIndex);
+
+        this.hubVertex = new int[n];
+        for (int v = 0; v < n; v++) {
+            hubVertex[n - 1 - hierarchy.rank[v]] = v;
+        }
+
+        Labeling labeling = new Labeling(storePaths);
+        labeling.computeAll();
+
+        Labels out = labeling.out;
+        this.outOffsets = out.offsets();
+        this.outHubs = out.flatHubs(outOffsets);
+        this.outDistances = out.flatDistances(outOffsets);
+        this.outNext = storePaths ? out.flatNext(outOffsets) : null;
+        if (directed) {
+            Labels in = labeling.in;
+            this.inOffsets = in.offsets();
+            this.inHubs = in.flatHubs(inOffsets);
+            this.inDistances = in.flatDistances(inOffsets);
+            this.inNext = storePaths ? in.flatNext(inOffsets) : null;
+        } else {
+            this.inOffsets = outOffsets;
+            this.inHubs = outHubs;
+            this.inDistances = outDistances;
+            this.inNext = outNext;
+        }
+    }
+
+    /**
+     * Get the graph of the labeling.
+     *
+     * @return the graph
+     */
+    public Graph<V, E> getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Whether the labeling stores the data needed to reconstruct paths.
+     *
+     * @return true if paths can be reconstructed, false otherwise
+     */
+    public boolean isStoringPaths()
+    {
+        return outNext != null;
+    }
+
+    /**
+     * Get the average number of hubs in the forward and backward labels of a vertex.
+     *
+     * @return the average label size
+     */
+    public double getAverageLabelSize()
+    {
+        if (n == 0) {
+            return 0d;
+        }
+        return (double) (outHubs.length + inHubs.length) / (2 * n);
+    }
+
+    /**
+     * Get the dense index which the labeling assigned to a vertex.
+     *
+     * @param v the vertex
+     * @return the index of the vertex, or -1 if the vertex was not in the graph when the labeling
+     *         was built
+     */
+    public int getVertexIndex(V v)
+    {
+        Integer index = vertexIndex.get(v);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the shortest path distance between two vertices given by their indices. This allows
+     * callers which keep their own integer vertex identifiers to map them to the labeling's indices
+     * once and skip all hash lookups.
+     *
+     * @param source the index of the source vertex
+     * @param target the index of the target vertex
+     * @return the shortest path distance, or {@link Double#POSITIVE_INFINITY} if the target is not
+     *         reachable from the source
+     * @see #getVertexIndex(Object)
+     */
+    public double getDistanceByIndex(int source, int target)
+    {
+        if (source == target) {
+            return 0d;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        int i = outOffsets[source];
+        int iEnd = outOffsets[source + 1];
+        int j = inOffsets[target];
+        int jEnd = inOffsets[target + 1];
+        while (i < iEnd && j < jEnd) {
+            int outHub = outHubs[i];
+            int inHub = inHubs[j];
+            if (outHub == inHub) {
+                double distance = (double) outDistances[i++] + inDistances[j++];
+                if (distance < best) {
+                    best = distance;
+                }
+            } else if (outHub < inHub) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return best;
+    }
+
+    int indexOf(V v)
+    {
+        Integer index = vertexIndex.get(v);
+        if (index == null) {
+            throw new IllegalArgumentException("Vertex not contained in the labeling: " + v);
+        }
+        return index;
+    }
+
+    /**
+     * Find the common hub of the labels of two distinct vertices on a shortest path between them.
+     *
+     * @param source the index of the source vertex
+     * @param target the index of the target vertex
+     * @return the hub, or -1 if the target is not reachable from the source
+     */
+    int bestHub(int source, int target)
+    {
+        double best = Double.POSITIVE_INFINITY;
+        int bestHub = -1;
+        int i = outOffsets[source];
+        int iEnd = outOffsets[source + 1];
+        int j = inOffsets[target];
+        int jEnd = inOffsets[target + 1];
+        while (i < iEnd && j < jEnd) {
+            int outHub = outHubs[i];
+            int inHub = inHubs[j];
+            if (outHub == inHub) {
+                double distance = (double) outDistances[i++] + inDistances[j++];
+                if (distance < best) {
+                    best = distance;
+                    bestHub = outHub;
+                }
+            } else if (outHub < inHub) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return bestHub;
+    }
+
+    /**
+     * Get the next vertex on a shortest path from a vertex to a hub of its forward label.
+     *
+     * @param v the vertex
+     * @param hub the hub
+     * @return the next vertex
+     */
+    int nextToHub(int v, int hub)
+    {
+        return outNext[Arrays.binarySearch(outHubs, outOffsets[v], outOffsets[v + 1], hub)];
+    }
+
+    /**
+     * Get the previous vertex on a shortest path from a hub of the backward label of a vertex to
+     * the vertex.
+     *
+     * @param v the vertex
+     * @param hub the hub
+     * @return the previous vertex
+     */
+    int previousFromHub(int v, int hub)
+    {
+        return inNext[Arrays.binarySearch(inHubs, inOffsets[v], inOffsets[v + 1], hub)];
+    }
+
+    /**
+     * Growable labels of all vertices during the construction.
+     */
+    private static class Labels
+    {
+        final int[][] hubs;
+        final float[][] distances;
+        final int[][] next;
+        final int[] size;
+
+        Labels(int n, boolean storePaths)
+        {
+            this.hubs = new int[n][];
+            this.distances = new float[n][];
+            this.next = storePaths ? new int[n][] : null;
+            this.size = new int[n];
+            for (int v = 0; v < n; v++) {
+                hubs[v] = new int[4];
+                distances[v] = new float[4];
+                if (storePaths) {
+                    next[v] = new int[4];
+                }
+            }
+        }
+
+        void add(int v, int hub, float distance, int nextVertex)
+        {
+            int i = size[v]++;
+            if (i == hubs[v].length) {
+                hubs[v] = Arrays.copyOf(hubs[v], 2 * i);
+                distances[v] = Arrays.copyOf(distances[v], 2 * i);
+                if (next != null) {
+                    next[v] = Arrays.copyOf(next[v], 2 * i);
+                }
+            }
+            hubs[v][i] = hub;
+            distances[v][i] = distance;
+            if (next != null) {
+                next[v][i] = nextVertex;
+            }
+        }
+
+        int[] offsets()
+        {
+            int[] offsets = new int[size.length + 1];
+            for (int v = 0; v < size.length; v++) {
+                offsets[v + 1] = offsets[v] + size[v];
+            }
+            return offsets;
+        }
+
+        int[] flatHubs(int[] offsets)
+        {
+            int[] result = new int[offsets[size.length]];
+            for (int v = 0; v < size.length; v++) {
+                System.arraycopy(hubs[v], 0, result, offsets[v], size[v]);
+                hubs[v] = null;
+            }
+            return result;
+        }
+
+        float[] flatDistances(int[] offsets)
+        {
+            float[] result = new float[offsets[size.length]];
+            for (int v = 0; v < size.length; v++) {
+                System.arraycopy(distances[v], 0, result, offsets[v], size[v]);
+                distances[v] = null;
+            }
+            return result;
+        }
+
+        int[] flatNext(int[] offsets)
+        {
+            int[] result = new int[offsets[size.length]];
+            for (int v = 0; v < size.length; v++) {
+                System.arraycopy(next[v], 0, result, offsets[v], size[v]);
+                next[v] = null;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The pruned Dijkstra searches of the construction.
+     */
+    private class Labeling
+    {
+        final Labels out;
+        final Labels in;
+
+        // the graph and for directed graphs the reversed graph in CSR form
+        final int[] outArcOffsets;
+        final int[] outArcTargets;
+        final double[] outArcWeights;
+        final int[] inArcOffsets;
+        final int[] inArcTargets;
+        final double[] inArcWeights;
+
+        // search state, valid only if the stamp equals the current generation
+        final double[] distance;
+        final int[] predecessor;
+        final int[] seen;
+        int generation;
+        final IndexedFourAryHeap heap;
+
+        // distances of the current root to the hubs of its label, infinite for other hubs
+        final float[] rootDistance;
+
+        Labeling(boolean storePaths)
+        {
+            this.out = new Labels(n, storePaths);
+            this.in = directed ? new Labels(n, storePaths) : out;
+
+            int[] degree = new int[n + 1];
+            int[] reverseDegree = new int[n + 1];
+            for (E e : graph.edgeSet()) {
+                int u = vertexIndex.get(graph.getEdgeSource(e));
+                int w = vertexIndex.get(graph.getEdgeTarget(e));
+                if (u == w) {
+                    continue;
+                }
+                degree[u + 1]++;
+                if (directed) {
+                    reverseDegree[w + 1]++;
+                } else {
+                    degree[w + 1]++;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                degree[v + 1] += degree[v];
+                reverseDegree[v + 1] += reverseDegree[v];
+            }
+            this.outArcOffsets = degree;
+            this.outArcTargets = new int[degree[n]];
+            this.outArcWeights = new double[degree[n]];
+            this.inArcOffsets = directed ? reverseDegree : degree;
+            this.inArcTargets = directed ? new int[reverseDegree[n]] : outArcTargets;
+            this.inArcWeights = directed ? new double[reverseDegree[n]] : outArcWeights;
+
+            int[] outNextArc = Arrays.copyOf(outArcOffsets, n);
+            int[] inNextArc = directed ? Arrays.copyOf(inArcOffsets, n) : outNextArc;
+            for (E e : graph.edgeSet()) {
+                int u = vertexIndex.get(graph.getEdgeSource(e));
+                int w = vertexIndex.get(graph.getEdgeTarget(e));
+                if (u == w) {
+                    continue;
+                }
+                double weight = graph.getEdgeWeight(e);
+                int a = outNextArc[u]++;
+                outArcTargets[a] = w;
+                outArcWeights[a] = weight;
+                a = inNextArc[w]++;
+                inArcTargets[a] = u;
+                inArcWeights[a] = weight;
+            }
+
+            this.distance = new double[n];
+            this.predecessor = new int[n];
+            this.seen = new int[n];
+            this.heap = new IndexedFourAryHeap(n);
+            this.rootDistance = new float[n];
+            Arrays.fill(rootDistance, Float.POSITIVE_INFINITY);
+        }
+
+        void computeAll()
+        {
+            for (int hub = 0; hub < n; hub++) {
+                int root = hubVertex[hub];
+                // distances from the root go to backward labels, distances to it to forward labels
+                prunedSearch(hub, root, outArcOffsets, outArcTargets, outArcWeights, out, in);
+                if (directed) {
+                    prunedSearch(hub, root, inArcOffsets, inArcTargets, inArcWeights, in, out);
+                }
+            }
+        }
+
+        /**
+         * Dijkstra search from the root which adds the hub to the labels of all vertices whose
+         * distance is not yet covered by a common hub of the root and the vertex.
+         */
+        private void prunedSearch(
+            int hub, int root, int[] offsets, int[] targets, double[] weights, Labels rootLabels,
+            Labels labels)
+        {
+            int[] rootHubs = rootLabels.hubs[root];
+            float[] rootHubDistances = rootLabels.distances[root];
+            int rootSize = rootLabels.size[root];
+            for (int i = 0; i < rootSize; i++) {
+                rootDistance[rootHubs[i]] = rootHubDistances[i];
+            }
+
+            generation++;
+            heap.clear();
+            seen[root] = generation;
+            distance[root] = 0d;
+            predecessor[root] = root;
+            heap.insert(root, 0d);
+
+            while (!heap.isEmpty()) {
+                int v = heap.removeMin();
+                float d = (float) distance[v];
+
+                // prune if the labels computed so far already give the distance
+                if (covered(labels, v, d)) {
+                    continue;
+                }
+                labels.add(v, hub, d, predecessor[v]);
+
+                for (int a = offsets[v]; a < offsets[v + 1]; a++) {
+                    int w = targets[a];
+                    double tentative = distance[v] + weights[a];
+                    if (seen[w] != generation) {
+                        seen[w] = generation;
+                        distance[w] = tentative;
+                        predecessor[w] = v;
+                        heap.insert(w, tentative);
+                    } else if (tentative < distance[w] && heap.contains(w)) {
+                        distance[w] = tentative;
+                        predecessor[w] = v;
+                        heap.decreaseKey(w, tentative);
+                    }
+                }
+            }
+
+            for (int i = 0; i < rootSize; i++) {
+                rootDistance[rootHubs[i]] = Float.POSITIVE_INFINITY;
+            }
+        }
+
+        private boolean covered(Labels labels, int v, float d)
+        {
+            int[] hubs = labels.hubs[v];
+            float[] distances = labels.distances[v];
+            int size = labels.size[v];
+            for (int i = 0; i < size; i++) {
+                if (rootDistance[hubs[i]] + distances[i] <= d) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
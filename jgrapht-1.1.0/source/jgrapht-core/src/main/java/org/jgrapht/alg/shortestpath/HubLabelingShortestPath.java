@@ -0,0 +1,167 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.graph.*;
+
+/**
+ * Shortest path queries on a {@link HubLabeling}.
+ *
+ * <p>
+ * The distance between two vertices is computed by merging the forward label of the source with
+ * the backward label of the target, which takes time linear in the label sizes and touches no
+ * graph structure; use {@link #getPathWeight(Object, Object)} when only distances are needed.
+ * Paths can only be computed if the labeling stores paths. A path is reconstructed from the next
+ * vertices which the labels store for the best common hub, one binary search per vertex of the
+ * path. Between two consecutive vertices the path uses an edge of minimum weight.
+ *
+ * <p>
+ * The algorithm keeps no search state, so an instance may be used by several threads.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see HubLabeling
+ */
+public class HubLabelingShortestPath<V, E>
+    extends BaseShortestPathAlgorithm<V, E>
+{
+    private final HubLabeling<V, E> labeling;
+
+    /**
+     * Constructs a new instance of the algorithm for a given graph. The hub labeling, including
+     * the data needed for path reconstruction, is computed immediately.
+     *
+     * @param graph the graph
+     */
+    public HubLabelingShortestPath(Graph<V, E> graph)
+    {
+        this(new HubLabeling<>(graph, true));
+    }
+
+    /**
+     * Constructs a new instance of the algorithm for a given hub labeling.
+     *
+     * @param labeling the hub labeling
+     */
+    public HubLabelingShortestPath(HubLabeling<V, E> labeling)
+    {
+        super(Objects.requireNonNull(labeling, "Labeling cannot be null").getGraph());
+        this.labeling = labeling;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedOperationException if the labeling does not store paths
+     */
+    @Override
+    public GraphPath<V, E> getPath(V source, V sink)
+    {
+        int s = indexOf(source, GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        int t = indexOf(sink, GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        if (!labeling.isStoringPaths()) {
+            throw new UnsupportedOperationException("Hub labeling does not store paths");
+        }
+        if (s == t) {
+            return createEmptyPath(source, sink);
+        }
+        int hub = labeling.bestHub(s, t);
+        if (hub < 0) {
+            return createEmptyPath(source, sink);
+        }
+        int hubVertex = labeling.hubVertex[hub];
+
+        List<V> vertexList = new ArrayList<>();
+        List<E> edgeList = new ArrayList<>();
+        double weight = 0d;
+
+        // from the source up to the hub
+        int v = s;
+        vertexList.add(source);
+        while (v != hubVertex) {
+            int next = labeling.nextToHub(v, hub);
+            E e = lightestEdge(v, next);
+            edgeList.add(e);
+            weight += graph.getEdgeWeight(e);
+            vertexList.add(labeling.vertices.get(next));
+            v = next;
+        }
+
+        // from the target back to the hub
+        List<V> tailVertices = new ArrayList<>();
+        List<E> tailEdges = new ArrayList<>();
+        v = t;
+        while (v != hubVertex) {
+            int previous = labeling.previousFromHub(v, hub);
+            E e = lightestEdge(previous, v);
+            tailEdges.add(e);
+            weight += graph.getEdgeWeight(e);
+            tailVertices.add(labeling.vertices.get(v));
+            v = previous;
+        }
+        Collections.reverse(tailVertices);
+        Collections.reverse(tailEdges);
+        vertexList.addAll(tailVertices);
+        edgeList.addAll(tailEdges);
+
+        return new GraphWalk<>(graph, source, sink, vertexList, edgeList, weight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The weight is the sum of two {@code float} label distances and does not require the labeling
+     * to store paths.
+     */
+    @Override
+    public double getPathWeight(V source, V sink)
+    {
+        int s = indexOf(source, GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        int t = indexOf(sink, GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        return labeling.getDistanceByIndex(s, t);
+    }
+
+    private int indexOf(V v, String message)
+    {
+        int index = labeling.getVertexIndex(v);
+        if (index < 0) {
+            throw new IllegalArgumentException(message);
+        }
+        return index;
+    }
+
+    private E lightestEdge(int u, int w)
+    {
+        E result = null;
+        double resultWeight = Double.POSITIVE_INFINITY;
+        for (E e : graph.getAllEdges(labeling.vertices.get(u), labeling.vertices.get(w))) {
+            double eWeight = graph.getEdgeWeight(e);
+            if (result == null || eWeight < resultWeight) {
+                result = e;
+                resultWeight = eWeight;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,684 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.event.*;
+import org.jgrapht.graph.*;
+import org.jgrapht.util.*;
+
+/**
+ * An admissible heuristic for the A* algorithm using a set of landmarks and the triangle
+ * inequality, backed by primitive arrays. Assumes that the graph contains non-negative edge
+ * weights.
+ *
+ * <p>
+ * The heuristic computes the same estimates as {@link ALTAdmissibleHeuristic}, but instead of
+ * storing the landmark distances in nested hash maps it assigns every vertex of the graph a dense
+ * integer index and keeps the distances in landmark-major {@code double} arrays. An estimate
+ * therefore costs two index lookups followed by a tight, allocation-free scan over the landmarks,
+ * and the tables occupy 8 bytes per (landmark, vertex) pair (16 bytes for directed graphs).
+ *
+ * <p>
+ * Unlike {@link ALTAdmissibleHeuristic}, which skips infinite landmark terms, the estimate is
+ * {@link Double#POSITIVE_INFINITY} whenever a landmark proves that the target is unreachable from
+ * the source. Skipping such terms keeps the estimate admissible but not consistent on graphs which
+ * are not strongly connected, while with infinite estimates the heuristic is consistent on every
+ * graph with non-negative edge weights. Consistency is what {@link BidirectionalAStarShortestPath}
+ * relies on.
+ *
+ * <p>
+ * The vertex index is fixed at construction time. Vertices which are added to the graph
+ * afterwards are not known to the heuristic and receive an estimate of zero, which is still
+ * admissible. Any other change of the graph requires a new instance, unless the heuristic listens
+ * to the graph.
+ *
+ * <p>
+ * The heuristic is a {@link GraphListener}. Registered with a {@link ListenableGraph} right after
+ * construction, it keeps its distances exact while the graph changes, repairing only the part of
+ * every landmark's shortest path tree which a change affects, in the style of:
+ * <ul>
+ * <li>G. Ramalingam and Thomas Reps. An Incremental Algorithm for a Generalization of the
+ * Shortest-Path Problem. Journal of Algorithms, 21(2):267--305, 1996.</li>
+ * </ul>
+ * A new or cheaper edge starts a Dijkstra search from its head which only visits vertices whose
+ * distance decreases. A removed or more expensive edge first collects, in order of distance, the
+ * vertices which have lost every shortest path from a vertex outside of the collected set, and
+ * then recomputes their distances with a Dijkstra search seeded from the rest of the graph. The
+ * work is proportional to the affected vertices and their edges. Added vertices are indexed,
+ * removed landmarks are dropped. The repair runs in the thread which changes the graph and is not
+ * synchronized with concurrent estimates, which may see partly repaired distances. When added
+ * vertices enlarge the tables, the new tables are published together with their row length, so a
+ * concurrent estimate reads either the old or the new tables but never a mix of both.
+ *
+ * <p>
+ * Like {@link ALTAdmissibleHeuristic} the shortest path computations of the landmarks can run as
+ * parallel tasks of a {@link ForkJoinPool}. Every task writes only the table rows of its own
+ * landmark, so the tables are identical to those of a sequential construction.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see ALTAdmissibleHeuristic
+ */
+public class IndexedALTAdmissibleHeuristic<V, E>
+    implements AStarAdmissibleHeuristic<V>, GraphListener<V, E>
+{
+    private final Graph<V, E> graph;
+    private final Map<V, Integer> vertexIndex;
+    private final List<V> indexedVertices;
+    private final int landmarksCount;
+    private final int[] landmarkVertex;
+    private volatile Tables tables;
+    private final boolean directed;
+
+    // state of the repairs, created by the first change of the graph
+    private Repair repair;
+
+    /**
+     * Constructs a new {@link AStarAdmissibleHeuristic} using a set of landmarks.
+     *
+     * @param graph the graph
+     * @param landmarks a set of vertices of the graph which will be used as landmarks
+     *
+     * @throws IllegalArgumentException if no landmarks are provided
+     * @throws IllegalArgumentException if the graph contains edges with negative weights
+     */
+    public IndexedALTAdmissibleHeuristic(Graph<V, E> graph, Set<V> landmarks)
+    {
+        this(graph, landmarks, null);
+    }
+
+    /**
+     * Constructs a new {@link AStarAdmissibleHeuristic} using a set of landmarks, computing the
+     * distances of the landmarks in parallel.
+     *
+     * @param graph the graph
+     * @param landmarks a set of vertices of the graph which will be used as landmarks
+     * @param pool the pool which executes the shortest path computations of the landmarks, if null
+     *        they are executed one after another in the calling thread
+     *
+     * @throws IllegalArgumentException if no landmarks are provided
+     * @throws IllegalArgumentException if the graph contains edges with negative weights
+     */
+    public IndexedALTAdmissibleHeuristic(Graph<V, E> graph, Set<V> landmarks, ForkJoinPool pool)
+    {
+        this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
+        Objects.requireNonNull(landmarks, "Landmarks cannot be null");
+        if (landmarks.isEmpty()) {
+            throw new IllegalArgumentException("At least one landmark must be provided");
+        }
+        if (graph.getType().isDirected()) {
+            this.directed = true;
+        } else if (graph.getType().isUndirected()) {
+            this.directed = false;
+        } else {
+            throw new IllegalArgumentException("Graph must be directed or undirected");
+        }
+
+        int n = graph.vertexSet().size();
+        this.vertexIndex = new HashMap<>();
+        this.indexedVertices = new ArrayList<>(graph.vertexSet());
+        for (V v : indexedVertices) {
+            vertexIndex.put(v, vertexIndex.size());
+        }
+        this.landmarksCount = landmarks.size();
+        this.landmarkVertex = new int[landmarksCount];
+        int[] landmarkOfVertex = new int[n];
+        Arrays.fill(landmarkOfVertex, -1);
+        double[] fromLandmark = new double[landmarksCount * n];
+        double[] toLandmark = directed ? new double[landmarksCount * n] : fromLandmark;
+
+        // validation
+        Comparator<Double> comparator = new ToleranceDoubleComparator();
+        int l = 0;
+        for (V v : landmarks) {
+            Integer index = vertexIndex.get(v);
+            if (index == null) {
+                throw new IllegalArgumentException("Landmarks must be vertices of the graph");
+            }
+            for (E e : graph.edgesOf(v)) {
+                if (comparator.compare(graph.getEdgeWeight(e), 0d) < 0) {
+                    throw new IllegalArgumentException("Graph edge weights cannot be negative");
+                }
+            }
+            landmarkOfVertex[index] = l;
+            landmarkVertex[l] = index;
+            l++;
+        }
+        this.tables = new Tables(n, landmarkOfVertex, fromLandmark, toLandmark);
+
+        // precomputation
+        Graph<V, E> reverseGraph = directed ? new EdgeReversedGraph<>(graph) : null;
+        if (pool == null) {
+            l = 0;
+            for (V v : landmarks) {
+                fill(fromLandmark, l, graph, v);
+                if (directed) {
+                    fill(toLandmark, l, reverseGraph, v);
+                }
+                l++;
+            }
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            l = 0;
+            for (V v : landmarks) {
+                int row = l;
+                tasks.add(pool.submit(() -> fill(fromLandmark, row, graph, v)));
+                if (directed) {
+                    tasks.add(pool.submit(() -> fill(toLandmark, row, reverseGraph, v)));
+                }
+                l++;
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+    }
+
+    /**
+     * An admissible heuristic estimate from a source vertex to a target vertex. The estimate is
+     * always non-negative and never overestimates the true distance.
+     *
+     * @param u the source vertex
+     * @param t the target vertex
+     *
+     * @return an admissible heuristic estimate
+     */
+    @Override
+    public double getCostEstimate(V u, V t)
+    {
+        if (u.equals(t)) {
+            return 0d;
+        }
+        Integer uIndex = vertexIndex.get(u);
+        Integer tIndex = vertexIndex.get(t);
+        if (uIndex == null || tIndex == null) {
+            return 0d;
+        }
+        return getCostEstimateByIndex(uIndex, tIndex);
+    }
+
+    /**
+     * Get the number of landmarks used by the heuristic.
+     *
+     * @return the number of landmarks
+     */
+    public int getLandmarksCount()
+    {
+        return landmarksCount;
+    }
+
+    /**
+     * Get the dense index which the heuristic assigned to a vertex.
+     *
+     * @param v the vertex
+     * @return the index of the vertex, or -1 if the vertex was not in the graph at construction
+     *         time
+     */
+    public int getVertexIndex(V v)
+    {
+        Integer index = vertexIndex.get(v);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * An admissible heuristic estimate between two vertices given by their indices. This allows
+     * callers which keep their own integer vertex identifiers to map them to the heuristic's
+     * indices once and skip the hash lookups of {@link #getCostEstimate(Object, Object)}.
+     *
+     * @param u the index of the source vertex
+     * @param t the index of the target vertex
+     * @return an admissible heuristic estimate
+     * @see #getVertexIndex(Object)
+     */
+    public double getCostEstimateByIndex(int u, int t)
+    {
+        if (u == t) {
+            return 0d;
+        }
+        Tables tables = this.tables;
+        int n = tables.n;
+        int[] landmarkOfVertex = tables.landmarkOfVertex;
+        double[] fromLandmark = tables.fromLandmark;
+        double[] toLandmark = tables.toLandmark;
+
+        /*
+         * Special case, source is landmark
+         */
+        int l = landmarkOfVertex[u];
+        if (l >= 0) {
+            return fromLandmark[l * n + t];
+        }
+
+        /*
+         * Special case, target is landmark
+         */
+        l = landmarkOfVertex[t];
+        if (l >= 0) {
+            return toLandmark[l * n + u];
+        }
+
+        /*
+         * Compute from landmarks, max over all landmarks. A landmark which reaches (or is reached
+         * from) one vertex but not the other proves that t is unreachable from u: the estimate is
+         * then infinite rather than the maximum of the other landmarks, which keeps the estimates
+         * consistent on graphs which are not strongly connected. Landmarks which reach neither
+         * vertex give no information.
+         */
+        double maxEstimate = 0d;
+        if (directed) {
+            for (int base = 0; base < fromLandmark.length; base += n) {
+                double toEstimate = toLandmark[base + u] - toLandmark[base + t];
+                double fromEstimate = fromLandmark[base + t] - fromLandmark[base + u];
+                if (toEstimate == Double.POSITIVE_INFINITY
+                    || fromEstimate == Double.POSITIVE_INFINITY)
+                {
+                    return Double.POSITIVE_INFINITY;
+                }
+                if (toEstimate > maxEstimate) {
+                    maxEstimate = toEstimate;
+                }
+                if (fromEstimate > maxEstimate) {
+                    maxEstimate = fromEstimate;
+                }
+            }
+        } else {
+            for (int base = 0; base < fromLandmark.length; base += n) {
+                double estimate = Math.abs(fromLandmark[base + u] - fromLandmark[base + t]);
+                if (estimate == Double.POSITIVE_INFINITY) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                if (estimate > maxEstimate) {
+                    maxEstimate = estimate;
+                }
+            }
+        }
+        return maxEstimate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void edgeAdded(GraphEdgeChangeEvent<V, E> e)
+    {
+        edgeChanged(e.getEdge(), e.getEdgeSource(), e.getEdgeTarget(), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void edgeRemoved(GraphEdgeChangeEvent<V, E> e)
+    {
+        edgeChanged(e.getEdge(), e.getEdgeSource(), e.getEdgeTarget(), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void edgeWeightUpdated(GraphEdgeChangeEvent<V, E> e)
+    {
+        edgeChanged(e.getEdge(), e.getEdgeSource(), e.getEdgeTarget(), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void vertexAdded(GraphVertexChangeEvent<V> e)
+    {
+        V v = e.getVertex();
+        if (vertexIndex.containsKey(v)) {
+            return;
+        }
+        int index = indexedVertices.size();
+        if (index == tables.n) {
+            grow(2 * tables.n);
+        }
+        vertexIndex.put(v, index);
+        indexedVertices.add(v);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void vertexRemoved(GraphVertexChangeEvent<V> e)
+    {
+        Integer index = vertexIndex.remove(e.getVertex());
+        if (index == null) {
+            return;
+        }
+        indexedVertices.set(index, null);
+        Tables tables = this.tables;
+        int n = tables.n;
+        for (int base = 0; base < tables.fromLandmark.length; base += n) {
+            tables.fromLandmark[base + index] = Double.POSITIVE_INFINITY;
+            tables.toLandmark[base + index] = Double.POSITIVE_INFINITY;
+        }
+
+        // a removed landmark no longer contributes estimates
+        int l = tables.landmarkOfVertex[index];
+        if (l >= 0) {
+            tables.landmarkOfVertex[index] = -1;
+            landmarkVertex[l] = -1;
+            Arrays.fill(tables.fromLandmark, l * n, (l + 1) * n, Double.POSITIVE_INFINITY);
+            Arrays.fill(tables.toLandmark, l * n, (l + 1) * n, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Repair the distances of all landmarks after an edge has been added, removed or reweighted.
+     * The graph already reflects the change.
+     *
+     * @param edge the edge
+     * @param source the source of the edge
+     * @param target the target of the edge
+     * @param mayIncrease whether the change may increase distances
+     */
+    private void edgeChanged(E edge, V source, V target, boolean mayIncrease)
+    {
+        Integer s = vertexIndex.get(source);
+        Integer t = vertexIndex.get(target);
+        if (s == null || t == null || s.equals(t)) {
+            return;
+        }
+        double weight = graph.containsEdge(edge) ? graph.getEdgeWeight(edge) : Double.NaN;
+        if (weight < 0d) {
+            throw new IllegalArgumentException("Graph edge weights cannot be negative");
+        }
+        if (repair == null) {
+            repair = new Repair();
+        }
+        Tables tables = this.tables;
+        for (int l = 0; l < landmarksCount; l++) {
+            if (landmarkVertex[l] < 0) {
+                continue;
+            }
+            int base = l * tables.n;
+            repair.arcChanged(
+                tables.fromLandmark, base, landmarkVertex[l], s, t, weight, false, mayIncrease);
+            if (directed) {
+                repair.arcChanged(
+                    tables.toLandmark, base, landmarkVertex[l], t, s, weight, true, mayIncrease);
+            } else {
+                repair.arcChanged(
+                    tables.fromLandmark, base, landmarkVertex[l], t, s, weight, false, mayIncrease);
+            }
+        }
+    }
+
+    /**
+     * Enlarge the rows of the tables, new entries are infinite. The old tables stay intact for
+     * concurrent estimates until the new ones are published.
+     *
+     * @param capacity the new row length
+     */
+    private void grow(int capacity)
+    {
+        Tables tables = this.tables;
+        int n = tables.n;
+        double[] fromLandmark = tables.fromLandmark;
+        double[] toLandmark = tables.toLandmark;
+        double[] from = new double[landmarksCount * capacity];
+        Arrays.fill(from, Double.POSITIVE_INFINITY);
+        for (int l = 0; l < landmarksCount; l++) {
+            System.arraycopy(fromLandmark, l * n, from, l * capacity, n);
+        }
+        double[] to = from;
+        if (directed) {
+            to = new double[landmarksCount * capacity];
+            Arrays.fill(to, Double.POSITIVE_INFINITY);
+            for (int l = 0; l < landmarksCount; l++) {
+                System.arraycopy(toLandmark, l * n, to, l * capacity, n);
+            }
+        }
+        int[] landmarks = Arrays.copyOf(tables.landmarkOfVertex, capacity);
+        Arrays.fill(landmarks, n, capacity, -1);
+
+        this.tables = new Tables(capacity, landmarks, from, to);
+    }
+
+    /**
+     * The distance tables together with their row length, replaced as a whole when they grow.
+     */
+    private static class Tables
+    {
+        // length of a table row, at least the number of indexed vertices
+        final int n;
+        final int[] landmarkOfVertex;
+        final double[] fromLandmark;
+        final double[] toLandmark;
+
+        Tables(int n, int[] landmarkOfVertex, double[] fromLandmark, double[] toLandmark)
+        {
+            this.n = n;
+            this.landmarkOfVertex = landmarkOfVertex;
+            this.fromLandmark = fromLandmark;
+            this.toLandmark = toLandmark;
+        }
+    }
+
+    /**
+     * The dynamic single source shortest path repairs. A table row holds the distances from the
+     * landmark in the graph, or for the reversed direction in the reversed graph.
+     */
+    private class Repair
+    {
+        int[] candidate;
+        int[] affected;
+        int generation;
+        IndexedFourAryHeap heap;
+        int[] affectedList;
+
+        Repair()
+        {
+            int n = tables.n;
+            this.candidate = new int[n];
+            this.affected = new int[n];
+            this.heap = new IndexedFourAryHeap(n);
+            this.affectedList = new int[16];
+        }
+
+        /**
+         * Repair one row after the arc from u to v has changed.
+         */
+        void arcChanged(
+            double[] d, int base, int root, int u, int v, double weight, boolean reversed,
+            boolean mayIncrease)
+        {
+            int n = tables.n;
+            if (candidate.length < n) {
+                candidate = Arrays.copyOf(candidate, n);
+                affected = Arrays.copyOf(affected, n);
+                heap.ensureCapacity(n);
+            }
+            nextGeneration();
+
+            // v may have lost the arc on its shortest path
+            if (mayIncrease && v != root && d[base + v] < Double.POSITIVE_INFINITY
+                && !hasSupport(d, base, v, reversed))
+            {
+                increase(d, base, root, v, reversed);
+            }
+
+            // the arc may give v a shorter path
+            double tentative = d[base + u] + weight;
+            if (tentative < d[base + v]) {
+                decrease(d, base, v, tentative, reversed);
+            }
+        }
+
+        private void nextGeneration()
+        {
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(candidate, 0);
+                Arrays.fill(affected, 0);
+                generation = 1;
+            }
+            heap.clear();
+        }
+
+        /**
+         * Whether some arc into x from an unaffected vertex which is strictly closer to the root
+         * lies on a shortest path to x. Ties over zero weight arcs are not trusted, which may only
+         * enlarge the affected set.
+         */
+        private boolean hasSupport(double[] d, int base, int x, boolean reversed)
+        {
+            double dx = d[base + x];
+            V xVertex = indexedVertices.get(x);
+            for (E e : reversed ? graph.outgoingEdgesOf(xVertex) : graph.incomingEdgesOf(xVertex)) {
+                int y = vertexIndex.get(Graphs.getOppositeVertex(graph, e, xVertex));
+                double dy = d[base + y];
+                if (y != x && affected[y] != generation && dy < dx
+                    && dy + graph.getEdgeWeight(e) == dx)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Distances can only have increased, and only for vertices all of whose shortest paths
+         * pass through the seed.
+         */
+        private void increase(double[] d, int base, int root, int seed, boolean reversed)
+        {
+            // collect the affected vertices in order of their old distance
+            int count = 0;
+            candidate[seed] = generation;
+            heap.insert(seed, d[base + seed]);
+            while (!heap.isEmpty()) {
+                int x = heap.removeMin();
+                if (x != seed && hasSupport(d, base, x, reversed)) {
+                    continue;
+                }
+                affected[x] = generation;
+                if (count == affectedList.length) {
+                    affectedList = Arrays.copyOf(affectedList, 2 * count);
+                }
+                affectedList[count++] = x;
+
+                double dx = d[base + x];
+                V xVertex = indexedVertices.get(x);
+                for (E e : reversed ? graph.incomingEdgesOf(xVertex)
+                    : graph.outgoingEdgesOf(xVertex))
+                {
+                    int z = vertexIndex.get(Graphs.getOppositeVertex(graph, e, xVertex));
+                    if (z != root && candidate[z] != generation
+                        && dx + graph.getEdgeWeight(e) == d[base + z])
+                    {
+                        candidate[z] = generation;
+                        heap.insert(z, d[base + z]);
+                    }
+                }
+            }
+
+            // seed the affected vertices from the unaffected ones
+            for (int i = 0; i < count; i++) {
+                int x = affectedList[i];
+                double best = Double.POSITIVE_INFINITY;
+                V xVertex = indexedVertices.get(x);
+                for (E e : reversed ? graph.outgoingEdgesOf(xVertex)
+                    : graph.incomingEdgesOf(xVertex))
+                {
+                    int y = vertexIndex.get(Graphs.getOppositeVertex(graph, e, xVertex));
+                    if (affected[y] != generation) {
+                        best = Math.min(best, d[base + y] + graph.getEdgeWeight(e));
+                    }
+                }
+                d[base + x] = best;
+                if (best < Double.POSITIVE_INFINITY) {
+                    heap.insert(x, best);
+                }
+            }
+
+            // and recompute them with Dijkstra's algorithm, which after a pure increase only
+            // improves affected vertices, but after a reweighting may also improve others
+            relax(d, base, reversed);
+        }
+
+        /**
+         * The distance of the seed has decreased, propagate to all vertices which benefit.
+         */
+        private void decrease(double[] d, int base, int seed, double distance, boolean reversed)
+        {
+            nextGeneration();
+            d[base + seed] = distance;
+            heap.insert(seed, distance);
+            relax(d, base, reversed);
+        }
+
+        /**
+         * Dijkstra's algorithm from the vertices in the heap.
+         */
+        private void relax(double[] d, int base, boolean reversed)
+        {
+            while (!heap.isEmpty()) {
+                int x = heap.removeMin();
+                double dx = d[base + x];
+                V xVertex = indexedVertices.get(x);
+                for (E e : reversed ? graph.incomingEdgesOf(xVertex)
+                    : graph.outgoingEdgesOf(xVertex))
+                {
+                    int z = vertexIndex.get(Graphs.getOppositeVertex(graph, e, xVertex));
+                    double tentative = dx + graph.getEdgeWeight(e);
+                    if (tentative < d[base + z]) {
+                        d[base + z] = tentative;
+                        if (heap.contains(z)) {
+                            heap.decreaseKey(z, tentative);
+                        } else {
+                            heap.insert(z, tentative);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute all distances from a landmark, in the reversed graph these are the distances to the
+     * landmark
+     *
+     * @param table the table to fill
+     * @param l the position of the landmark
+     * @param g the graph or the reversed graph
+     * @param landmark the landmark
+     */
+    private void fill(double[] table, int l, Graph<V, E> g, V landmark)
+    {
+        SingleSourcePaths<V, E> paths = new DijkstraShortestPath<>(g).getPaths(landmark);
+        int base = l * tables.n;
+        for (Map.Entry<V, Integer> entry : vertexIndex.entrySet()) {
+            table[base + entry.getValue()] = paths.getWeight(entry.getKey());
+        }
+    }
+
+}
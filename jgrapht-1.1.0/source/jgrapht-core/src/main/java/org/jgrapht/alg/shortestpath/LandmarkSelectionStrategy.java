@@ -0,0 +1,58 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+
+/**
+ * A strategy for choosing the landmarks of an {@link ALTAdmissibleHeuristic} or an
+ * {@link IndexedALTAdmissibleHeuristic}.
+ *
+ * <p>
+ * The quality of the ALT heuristic depends mostly on where the landmarks are placed, not on how
+ * many there are. A handful of well placed landmarks usually prunes almost as much of the search
+ * as using every vertex as a landmark, at a tiny fraction of the preprocessing time and space.
+ * The selection strategies are discussed in the following paper.
+ * <ul>
+ * <li>Andrew Goldberg and Chris Harrelson. Computing the shortest path: A* Search Meets Graph
+ * Theory. In Proceedings of the sixteenth annual ACM-SIAM symposium on Discrete algorithms (SODA'
+ * 05), 156--165, 2005.</li>
+ * </ul>
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see RandomLandmarkSelection
+ * @see FarthestLandmarkSelection
+ * @see AvoidLandmarkSelection
+ */
+public interface LandmarkSelectionStrategy<V, E>
+{
+    /**
+     * Select a set of landmarks. If the graph has at most {@code count} vertices, all of them are
+     * returned.
+     *
+     * @param graph the graph
+     * @param count the number of landmarks to select
+     * @return a non-empty set of landmarks
+     * @throws IllegalArgumentException if the count is not positive or the graph is empty
+     */
+    Set<V> selectLandmarks(Graph<V, E> graph, int count);
+}
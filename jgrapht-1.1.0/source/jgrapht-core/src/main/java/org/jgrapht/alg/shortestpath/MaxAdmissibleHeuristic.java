@@ -0,0 +1,78 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.alg.interfaces.*;
+
+/**
+ * An admissible heuristic which returns the maximum of the estimates of several admissible
+ * heuristics. The maximum of admissible heuristics is admissible, and the maximum of consistent
+ * heuristics is consistent, while it is at least as informed as each of them. This allows for
+ * example to combine a cheap geometric lower bound with the estimates of
+ * {@link ALTAdmissibleHeuristic}.
+ *
+ * @param <V> the graph vertex type
+ */
+public class MaxAdmissibleHeuristic<V>
+    implements AStarAdmissibleHeuristic<V>
+{
+    private final List<AStarAdmissibleHeuristic<V>> heuristics;
+
+    /**
+     * Constructs a new heuristic.
+     *
+     * @param heuristics the heuristics to combine
+     * @throws IllegalArgumentException if no heuristics are provided
+     */
+    public MaxAdmissibleHeuristic(List<? extends AStarAdmissibleHeuristic<V>> heuristics)
+    {
+        Objects.requireNonNull(heuristics, "Heuristics cannot be null");
+        if (heuristics.isEmpty()) {
+            throw new IllegalArgumentException("At least one heuristic must be provided");
+        }
+        this.heuristics = new ArrayList<>(heuristics);
+        for (AStarAdmissibleHeuristic<V> h : this.heuristics) {
+            Objects.requireNonNull(h, "Heuristic cannot be null");
+        }
+    }
+
+    /**
+     * Constructs a new heuristic.
+     *
+     * @param first the first heuristic
+     * @param second the second heuristic
+     */
+    public MaxAdmissibleHeuristic(
+        AStarAdmissibleHeuristic<V> first, AStarAdmissibleHeuristic<V> second)
+    {
+        this(Arrays.asList(first, second));
+    }
+
+    @Override
+    public double getCostEstimate(V sourceVertex, V targetVertex)
+    {
+        double maxEstimate = 0d;
+        for (AStarAdmissibleHeuristic<V> h : heuristics) {
+            maxEstimate = Math.max(maxEstimate, h.getCostEstimate(sourceVertex, targetVertex));
+        }
+        return maxEstimate;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+
+/**
+ * Selects the landmarks uniformly at random. This is the simplest strategy and mostly useful as a
+ * baseline when evaluating the other strategies.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ */
+public class RandomLandmarkSelection<V, E>
+    extends BaseLandmarkSelection<V, E>
+{
+    /**
+     * Constructs a new strategy.
+     */
+    public RandomLandmarkSelection()
+    {
+        this(new Random());
+    }
+
+    /**
+     * Constructs a new strategy.
+     *
+     * @param rng the random number generator
+     */
+    public RandomLandmarkSelection(Random rng)
+    {
+        super(rng);
+    }
+
+    @Override
+    protected Set<V> select(Graph<V, E> graph, int count)
+    {
+        List<V> vertices = new ArrayList<>(graph.vertexSet());
+        Set<V> landmarks = new LinkedHashSet<>();
+        while (landmarks.size() < count) {
+            int i = rng.nextInt(vertices.size());
+            landmarks.add(vertices.get(i));
+            vertices.set(i, vertices.get(vertices.size() - 1));
+            vertices.remove(vertices.size() - 1);
+        }
+        return landmarks;
+    }
+
+}
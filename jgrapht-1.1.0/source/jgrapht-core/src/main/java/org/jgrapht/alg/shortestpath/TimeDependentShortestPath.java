@@ -0,0 +1,262 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.graph.*;
+import org.jgrapht.util.*;
+
+/**
+ * Time-dependent shortest paths for a given departure time.
+ *
+ * <p>
+ * The travel time of an edge depends on the time at which it is entered, as given by
+ * {@link TravelTimeProfiles}. The algorithm is Dijkstra's algorithm, or A* if a heuristic is
+ * given, on arrival times: relaxing an edge adds its travel time at the arrival time of its source.
+ * Since all profiles have the FIFO property, waiting never pays and arriving earlier at a vertex is
+ * never worse, so the earliest arrival times are computed exactly. For details see:
+ * <ul>
+ * <li>Stuart E. Dreyfus. An Appraisal of Some Shortest-Path Algorithms. Operations Research,
+ * 17(3):395--412, 1969.</li>
+ * <li>Ariel Orda and Raphael Rom. Shortest-path and Minimum-delay Algorithms in Networks with
+ * Time-dependent Edge-length. Journal of the ACM, 37(3):607--625, 1990.</li>
+ * </ul>
+ *
+ * <p>
+ * The heuristic must never overestimate the travel time to the target at any time of the period,
+ * for instance an {@link ALTAdmissibleHeuristic} computed on the minimum travel times of
+ * {@link TravelTimeProfiles#getMinimumTravelTime(Object)}. Closed vertices are reopened if a
+ * shorter path to them is found, so the heuristic need not be consistent.
+ *
+ * <p>
+ * The weight of a returned path is its travel time, the arrival time minus the departure time.
+ * Like {@link AStarShortestPath}, the graph and the profiles may change between invocations.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see TravelTimeProfiles
+ */
+public class TimeDependentShortestPath<V, E>
+    extends BaseShortestPathAlgorithm<V, E>
+{
+    private final TravelTimeProfiles<V, E> profiles;
+    private final AStarAdmissibleHeuristic<V> heuristic;
+    private double departureTime;
+
+    // search state of the last invocation
+    private FibonacciHeap<V> openList;
+    private Map<V, FibonacciHeapNode<V>> heapNodes;
+    private Set<V> closedList;
+    private Map<V, Double> arrivalTimes;
+    private Map<V, E> cameFrom;
+    private int numberOfExpandedNodes;
+
+    /**
+     * Create a new instance of the time-dependent Dijkstra's algorithm.
+     *
+     * @param profiles the travel time profiles of the graph
+     * @param departureTime the default departure time from the source
+     */
+    public TimeDependentShortestPath(TravelTimeProfiles<V, E> profiles, double departureTime)
+    {
+        this(profiles, departureTime, null);
+    }
+
+    /**
+     * Create a new instance of the time-dependent A* algorithm.
+     *
+     * @param profiles the travel time profiles of the graph
+     * @param departureTime the default departure time from the source
+     * @param heuristic heuristic which estimates the travel time from a vertex to the target, it
+     *        must never overestimate it at any time. If null, Dijkstra's algorithm is used.
+     */
+    public TimeDependentShortestPath(
+        TravelTimeProfiles<V, E> profiles, double departureTime,
+        AStarAdmissibleHeuristic<V> heuristic)
+    {
+        super(Objects.requireNonNull(profiles, "Profiles cannot be null").getGraph());
+        this.profiles = profiles;
+        this.heuristic = heuristic;
+        setDepartureTime(departureTime);
+    }
+
+    /**
+     * Get the default departure time.
+     *
+     * @return the departure time
+     */
+    public double getDepartureTime()
+    {
+        return departureTime;
+    }
+
+    /**
+     * Set the default departure time, used by the methods which do not take one.
+     *
+     * @param departureTime the departure time
+     */
+    public void setDepartureTime(double departureTime)
+    {
+        if (Double.isNaN(departureTime) || Double.isInfinite(departureTime)) {
+            throw new IllegalArgumentException("Departure time must be finite");
+        }
+        this.departureTime = departureTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The source is left at the default departure time.
+     */
+    @Override
+    public GraphPath<V, E> getPath(V sourceVertex, V targetVertex)
+    {
+        return getPath(sourceVertex, targetVertex, departureTime);
+    }
+
+    /**
+     * Get a path with the earliest arrival time at the target.
+     *
+     * @param sourceVertex the source vertex
+     * @param targetVertex the target vertex
+     * @param departureTime the time of leaving the source
+     * @return the path, whose weight is its travel time, or null if the target is unreachable
+     */
+    public GraphPath<V, E> getPath(V sourceVertex, V targetVertex, double departureTime)
+    {
+        if (!graph.containsVertex(sourceVertex)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        }
+        if (!graph.containsVertex(targetVertex)) {
+            throw new IllegalArgumentException(GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        }
+        if (Double.isNaN(departureTime) || Double.isInfinite(departureTime)) {
+            throw new IllegalArgumentException("Departure time must be finite");
+        }
+        if (sourceVertex.equals(targetVertex)) {
+            numberOfExpandedNodes = 0;
+            return createEmptyPath(sourceVertex, targetVertex);
+        }
+
+        openList = new FibonacciHeap<>();
+        heapNodes = new HashMap<>();
+        closedList = new HashSet<>();
+        arrivalTimes = new HashMap<>();
+        cameFrom = new HashMap<>();
+        numberOfExpandedNodes = 0;
+
+        arrivalTimes.put(sourceVertex, departureTime);
+        FibonacciHeapNode<V> sourceNode = new FibonacciHeapNode<>(sourceVertex);
+        openList.insert(sourceNode, 0d);
+        heapNodes.put(sourceVertex, sourceNode);
+
+        while (!openList.isEmpty()) {
+            V v = openList.removeMin().getData();
+            if (v.equals(targetVertex)) {
+                return buildPath(sourceVertex, targetVertex, departureTime);
+            }
+            expand(v, targetVertex, departureTime);
+            closedList.add(v);
+        }
+        return createEmptyPath(sourceVertex, targetVertex);
+    }
+
+    /**
+     * Get the travel time of a path with the earliest arrival time at the target.
+     *
+     * @param sourceVertex the source vertex
+     * @param targetVertex the target vertex
+     * @param departureTime the time of leaving the source
+     * @return the travel time, or {@link Double#POSITIVE_INFINITY} if the target is unreachable
+     */
+    public double getPathWeight(V sourceVertex, V targetVertex, double departureTime)
+    {
+        GraphPath<V, E> path = getPath(sourceVertex, targetVertex, departureTime);
+        return path == null ? Double.POSITIVE_INFINITY : path.getWeight();
+    }
+
+    /**
+     * Returns how many nodes have been expanded in the last invocation.
+     *
+     * @return number of expanded nodes
+     */
+    public int getNumberOfExpandedNodes()
+    {
+        return numberOfExpandedNodes;
+    }
+
+    private void expand(V v, V targetVertex, double departureTime)
+    {
+        numberOfExpandedNodes++;
+        double arrival = arrivalTimes.get(v);
+        for (E e : graph.outgoingEdgesOf(v)) {
+            V w = Graphs.getOppositeVertex(graph, e, v);
+            if (w.equals(v)) {
+                continue;
+            }
+            double travelTime = profiles.getTravelTime(e, arrival);
+            if (travelTime < 0d) {
+                throw new IllegalArgumentException("Negative travel time not allowed");
+            }
+            double tentative = arrival + travelTime;
+            Double known = arrivalTimes.get(w);
+            if (known != null && tentative >= known) {
+                continue;
+            }
+            arrivalTimes.put(w, tentative);
+            cameFrom.put(w, e);
+            double key = tentative - departureTime
+                + (heuristic == null ? 0d : heuristic.getCostEstimate(w, targetVertex));
+            FibonacciHeapNode<V> node = heapNodes.get(w);
+            if (node == null) {
+                node = new FibonacciHeapNode<>(w);
+                heapNodes.put(w, node);
+                openList.insert(node, key);
+            } else if (closedList.remove(w)) {
+                // a shorter path to a closed vertex, reopen it
+                openList.insert(node, key);
+            } else {
+                openList.decreaseKey(node, key);
+            }
+        }
+    }
+
+    private GraphPath<V, E> buildPath(V sourceVertex, V targetVertex, double departureTime)
+    {
+        List<E> edges = new ArrayList<>();
+        List<V> vertices = new ArrayList<>();
+        vertices.add(targetVertex);
+        V v = targetVertex;
+        while (!v.equals(sourceVertex)) {
+            E e = cameFrom.get(v);
+            edges.add(e);
+            v = Graphs.getOppositeVertex(graph, e, v);
+            vertices.add(v);
+        }
+        Collections.reverse(edges);
+        Collections.reverse(vertices);
+        return new GraphWalk<>(
+            graph, sourceVertex, targetVertex, vertices, edges,
+            arrivalTimes.get(targetVertex) - departureTime);
+    }
+
+}
@@ -0,0 +1,316 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+
+/**
+ * Time-dependent travel times of the edges of a graph, given by periodic piecewise-linear
+ * profiles.
+ *
+ * <p>
+ * A profile is a list of breakpoints, departure times in $[0, p)$ where $p$ is the period, each
+ * with a travel time. The travel time at any other departure time is interpolated linearly
+ * between the neighboring breakpoints, wrapping around at the end of the period. All profiles are
+ * kept in one table of breakpoints and may be shared by any number of edges, each of which scales
+ * the profile by its own factor. A road class with a rush hour profile thus costs its breakpoints
+ * once and a single factor per edge. Edges without a profile have the constant travel time of
+ * their weight in the graph.
+ *
+ * <p>
+ * Every profile must satisfy the FIFO property: departing later never means arriving earlier,
+ * that is the travel time never falls faster than time passes. This is checked when a profile is
+ * assigned to an edge and is what makes {@link TimeDependentShortestPath} exact.
+ *
+ * <p>
+ * The profiles may be changed while no query runs; queries themselves only read them and may run
+ * concurrently.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see TimeDependentShortestPath
+ */
+public class TravelTimeProfiles<V, E>
+{
+    private final Graph<V, E> graph;
+    private final double period;
+
+    // breakpoints of profile i at positions offsets[i] .. offsets[i + 1] - 1
+    private int[] offsets = new int[] { 0 };
+    private double[] departureTimes = new double[16];
+    private double[] travelTimes = new double[16];
+    private double[] minTravelTime = new double[4];
+    private double[] minSlope = new double[4];
+    private int numberOfProfiles;
+
+    // profile and factor of the edges which have one
+    private final Map<E, Integer> edgeEntry = new HashMap<>();
+    private int[] edgeProfile = new int[16];
+    private double[] edgeFactor = new double[16];
+
+    /**
+     * Constructs profiles for the edges of a graph, initially none.
+     *
+     * @param graph the graph
+     * @param period the length of the period of all profiles, for example one day
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public TravelTimeProfiles(Graph<V, E> graph, double period)
+    {
+        this.graph = Objects.requireNonNull(graph, "Graph cannot be null");
+        if (!(period > 0d) || Double.isInfinite(period)) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        this.period = period;
+    }
+
+    /**
+     * Get the graph.
+     *
+     * @return the graph
+     */
+    public Graph<V, E> getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Get the length of the period of all profiles.
+     *
+     * @return the period
+     */
+    public double getPeriod()
+    {
+        return period;
+    }
+
+    /**
+     * Get the number of profiles in the table.
+     *
+     * @return the number of profiles
+     */
+    public int getNumberOfProfiles()
+    {
+        return numberOfProfiles;
+    }
+
+    /**
+     * Add a profile to the table.
+     *
+     * @param departureTimes the departure times of the breakpoints, strictly increasing and within
+     *        the period
+     * @param travelTimes the travel times of the breakpoints, not negative
+     * @return the identifier of the profile
+     * @throws IllegalArgumentException if the breakpoints are empty or invalid
+     */
+    public int addProfile(double[] departureTimes, double[] travelTimes)
+    {
+        int k = departureTimes.length;
+        if (k == 0 || travelTimes.length != k) {
+            throw new IllegalArgumentException(
+                "Profile needs the same positive number of departure and travel times");
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double slope = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < k; i++) {
+            if (!(departureTimes[i] >= 0d && departureTimes[i] < period)
+                || (i > 0 && !(departureTimes[i] > departureTimes[i - 1])))
+            {
+                throw new IllegalArgumentException(
+                    "Departure times must be strictly increasing and within the period");
+            }
+            if (!(travelTimes[i] >= 0d) || Double.isInfinite(travelTimes[i])) {
+                throw new IllegalArgumentException("Travel times must be finite and not negative");
+            }
+            min = Math.min(min, travelTimes[i]);
+            if (i > 0) {
+                slope = Math.min(
+                    slope, (travelTimes[i] - travelTimes[i - 1])
+                        / (departureTimes[i] - departureTimes[i - 1]));
+            }
+        }
+        if (k > 1) {
+            slope = Math.min(
+                slope, (travelTimes[0] - travelTimes[k - 1])
+                    / (departureTimes[0] + period - departureTimes[k - 1]));
+        } else {
+            slope = 0d;
+        }
+
+        int p = numberOfProfiles++;
+        int start = offsets[p];
+        if (start + k > this.departureTimes.length) {
+            int capacity = Math.max(2 * this.departureTimes.length, start + k);
+            this.departureTimes = Arrays.copyOf(this.departureTimes, capacity);
+            this.travelTimes = Arrays.copyOf(this.travelTimes, capacity);
+        }
+        if (numberOfProfiles == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+            minTravelTime = Arrays.copyOf(minTravelTime, 2 * minTravelTime.length);
+            minSlope = Arrays.copyOf(minSlope, 2 * minSlope.length);
+        }
+        System.arraycopy(departureTimes, 0, this.departureTimes, start, k);
+        System.arraycopy(travelTimes, 0, this.travelTimes, start, k);
+        offsets[p + 1] = start + k;
+        minTravelTime[p] = min;
+        minSlope[p] = slope;
+        return p;
+    }
+
+    /**
+     * Let an edge follow a profile.
+     *
+     * @param e the edge
+     * @param profile the identifier of the profile
+     */
+    public void setProfile(E e, int profile)
+    {
+        setProfile(e, profile, 1d);
+    }
+
+    /**
+     * Let an edge follow a profile scaled by a factor.
+     *
+     * @param e the edge
+     * @param profile the identifier of the profile
+     * @param factor the factor of all travel times of the profile, not negative
+     * @throws IllegalArgumentException if the scaled profile violates the FIFO property
+     */
+    public void setProfile(E e, int profile, double factor)
+    {
+        if (!graph.containsEdge(e)) {
+            throw new IllegalArgumentException("Edge not contained in the graph: " + e);
+        }
+        if (profile < 0 || profile >= numberOfProfiles) {
+            throw new IllegalArgumentException("No such profile: " + profile);
+        }
+        if (!(factor >= 0d) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("Factor must be finite and not negative");
+        }
+        if (minSlope[profile] * factor < -1d) {
+            throw new IllegalArgumentException(
+                "Profile would let a later departure arrive earlier (FIFO violated)");
+        }
+        Integer entry = edgeEntry.get(e);
+        if (entry == null) {
+            entry = edgeEntry.size();
+            edgeEntry.put(e, entry);
+            if (entry == edgeProfile.length) {
+                edgeProfile = Arrays.copyOf(edgeProfile, 2 * entry);
+                edgeFactor = Arrays.copyOf(edgeFactor, 2 * entry);
+            }
+        }
+        edgeProfile[entry] = profile;
+        edgeFactor[entry] = factor;
+    }
+
+    /**
+     * Let an edge have the constant travel time of its weight again.
+     *
+     * @param e the edge
+     */
+    public void clearProfile(E e)
+    {
+        Integer entry = edgeEntry.get(e);
+        if (entry != null) {
+            // keep the entry, it may be reused by a later profile
+            edgeProfile[entry] = -1;
+        }
+    }
+
+    /**
+     * Get the travel time of an edge.
+     *
+     * @param e the edge
+     * @param departureTime the time of entering the edge, any real number
+     * @return the travel time
+     */
+    public double getTravelTime(E e, double departureTime)
+    {
+        Integer entry = edgeEntry.get(e);
+        if (entry == null || edgeProfile[entry] < 0) {
+            return graph.getEdgeWeight(e);
+        }
+        return edgeFactor[entry] * evaluate(edgeProfile[entry], departureTime);
+    }
+
+    /**
+     * Get the smallest travel time of an edge over the whole period, a lower bound for
+     * heuristics.
+     *
+     * @param e the edge
+     * @return the minimum travel time
+     */
+    public double getMinimumTravelTime(E e)
+    {
+        Integer entry = edgeEntry.get(e);
+        if (entry == null || edgeProfile[entry] < 0) {
+            return graph.getEdgeWeight(e);
+        }
+        return edgeFactor[entry] * minTravelTime[edgeProfile[entry]];
+    }
+
+    /**
+     * Get the travel time of a profile at a departure time.
+     *
+     * @param profile the identifier of the profile
+     * @param departureTime the departure time, any real number
+     * @return the travel time
+     */
+    public double evaluate(int profile, double departureTime)
+    {
+        if (profile < 0 || profile >= numberOfProfiles) {
+            throw new IllegalArgumentException("No such profile: " + profile);
+        }
+        int start = offsets[profile];
+        int end = offsets[profile + 1];
+        if (end - start == 1) {
+            return travelTimes[start];
+        }
+        double t = departureTime - period * Math.floor(departureTime / period);
+
+        // last breakpoint not after t, or the last one of the previous period
+        int i = Arrays.binarySearch(departureTimes, start, end, t);
+        if (i >= 0) {
+            return travelTimes[i];
+        }
+        i = -i - 2;
+        double t0;
+        double t1;
+        int j;
+        if (i < start) {
+            i = end - 1;
+            j = start;
+            t0 = departureTimes[i] - period;
+            t1 = departureTimes[j];
+        } else if (i == end - 1) {
+            j = start;
+            t0 = departureTimes[i];
+            t1 = departureTimes[j] + period;
+        } else {
+            j = i + 1;
+            t0 = departureTimes[i];
+            t1 = departureTimes[j];
+        }
+        return travelTimes[i] + (travelTimes[j] - travelTimes[i]) * (t - t0) / (t1 - t0);
+    }
+
+}
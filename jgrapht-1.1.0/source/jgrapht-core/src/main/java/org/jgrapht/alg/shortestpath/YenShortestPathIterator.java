@@ -0,0 +1,483 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.graph.*;
+import org.jgrapht.util.*;
+
+/**
+ * Lazy iterator over the simple paths between two vertices in order of increasing weight, after
+ * Yen's algorithm with Lawler's improvement.
+ *
+ * <p>
+ * Unlike {@link KShortestPaths}, which ranks all k paths at every vertex up front, this iterator
+ * computes the next path only when it is requested, so a caller that stops after a few paths pays
+ * for a few paths. Every new path deviates from an earlier one at some spur vertex: the root up to
+ * the spur vertex is kept, the edges taken there by earlier paths with the same root and the root
+ * vertices are excluded, and the cheapest remaining way to the sink completes the candidate. A
+ * path only spawns deviations at or after its own spur vertex (Lawler).
+ *
+ * <p>
+ * The shortest path tree towards the sink is computed once and reused by every spur search: if the
+ * tree path from the spur vertex avoids all excluded edges and vertices it is the spur path, and
+ * otherwise its distances are an exact and consistent A* potential for the search in the reduced
+ * graph, since excluding edges and vertices never shortens a path.
+ *
+ * <p>
+ * Optionally, paths that are too similar to an already returned path are skipped: a path is
+ * returned only if, for every path returned before, the total weight of the edges they share is at
+ * most {@code maxSimilarity} times its own weight. Skipped paths still spawn deviations, so the
+ * order stays exact. With a strict filter many paths may have to be examined between two returned
+ * ones; {@code maxExaminedPaths} bounds this work.
+ *
+ * <p>
+ * Edge weights must be non-negative. The graph must not be modified during the iteration.
+ *
+ * @param <V> the graph vertex type
+ * @param <E> the graph edge type
+ *
+ * @see KShortestPaths
+ */
+public class YenShortestPathIterator<V, E>
+    implements Iterator<GraphPath<V, E>>
+{
+    private final Graph<V, E> graph;
+    private final V sourceVertex;
+    private final V sinkVertex;
+    private final double maxSimilarity;
+    private final int maxExaminedPaths;
+
+    // vertex index
+    private final Map<V, Integer> vertexIndex;
+    private final List<V> vertices;
+    private final int source;
+    private final int sink;
+
+    // shortest path tree towards the sink
+    private final double[] toSink;
+    private final Object[] treeEdge;
+
+    // spur search state, valid only if the stamp equals the current generation
+    private final double[] distance;
+    private final Object[] cameFrom;
+    private final int[] seen;
+    private final int[] closed;
+    private final int[] blocked;
+    private int generation;
+    private final IndexedFourAryHeap queue;
+    private final Set<E> removedEdges;
+
+    // paths examined so far, in order, and the candidates
+    private final List<Candidate<E>> examined;
+    private final PriorityQueue<Candidate<E>> candidates;
+    private final Set<List<E>> candidateEdgeLists;
+    private long sequence;
+
+    // returned paths as edge sets, for the similarity filter
+    private final List<Set<E>> returned;
+    private GraphPath<V, E> next;
+
+    /**
+     * Create an iterator over all simple paths from source to sink.
+     *
+     * @param graph the graph
+     * @param sourceVertex the source vertex
+     * @param sinkVertex the sink vertex
+     */
+    public YenShortestPathIterator(Graph<V, E> graph, V sourceVertex, V sinkVertex)
+    {
+        this(graph, sourceVertex, sinkVertex, 1d, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create an iterator over the simple paths from source to sink which are not too similar to
+     * each other.
+     *
+     * @param graph the graph
+     * @param sourceVertex the source vertex
+     * @param sinkVertex the sink vertex
+     * @param maxSimilarity the largest fraction of its weight a path may share with a path returned
+     *        before, between 0 and 1. 1 returns all paths.
+     * @param maxExaminedPaths the iteration ends after this many paths have been examined,
+     *        including skipped ones
+     */
+    public YenShortestPathIterator(
+        Graph<V, E> graph, V sourceVertex, V sinkVertex, double maxSimilarity,
+        int maxExaminedPaths)
+    {
+        this.graph = Objects.requireNonNull(graph, "Graph is null");
+        if (!graph.containsVertex(sourceVertex)) {
+            throw new IllegalArgumentException(
+                BaseShortestPathAlgorithm.GRAPH_MUST_CONTAIN_THE_SOURCE_VERTEX);
+        }
+        if (!graph.containsVertex(sinkVertex)) {
+            throw new IllegalArgumentException(
+                BaseShortestPathAlgorithm.GRAPH_MUST_CONTAIN_THE_SINK_VERTEX);
+        }
+        if (!(maxSimilarity >= 0d && maxSimilarity <= 1d)) {
+            throw new IllegalArgumentException("Similarity must be between 0 and 1");
+        }
+        if (maxExaminedPaths <= 0) {
+            throw new IllegalArgumentException("Number of examined paths must be positive");
+        }
+        for (E e : graph.edgeSet()) {
+            if (graph.getEdgeWeight(e) < 0d) {
+                throw new IllegalArgumentException("Negative edge weight not allowed");
+            }
+        }
+        this.sourceVertex = sourceVertex;
+        this.sinkVertex = sinkVertex;
+        this.maxSimilarity = maxSimilarity;
+        this.maxExaminedPaths = maxExaminedPaths;
+
+        int n = graph.vertexSet().size();
+        this.vertexIndex = new HashMap<>();
+        this.vertices = new ArrayList<>(n);
+        for (V v : graph.vertexSet()) {
+            vertexIndex.put(v, vertices.size());
+            vertices.add(v);
+        }
+        this.source = vertexIndex.get(sourceVertex);
+        this.sink = vertexIndex.get(sinkVertex);
+
+        this.toSink = new double[n];
+        this.treeEdge = new Object[n];
+        this.distance = new double[n];
+        this.cameFrom = new Object[n];
+        this.seen = new int[n];
+        this.closed = new int[n];
+        this.blocked = new int[n];
+        this.queue = new IndexedFourAryHeap(n);
+        this.removedEdges = new HashSet<>();
+
+        this.examined = new ArrayList<>();
+        this.candidates = new PriorityQueue<>();
+        this.candidateEdgeLists = new HashSet<>();
+        this.returned = new ArrayList<>();
+
+        computeTree();
+        if (toSink[source] < Double.POSITIVE_INFINITY) {
+            List<E> edges = new ArrayList<>();
+            List<Integer> path = new ArrayList<>();
+            path.add(source);
+            treePath(source, path, edges);
+            addCandidate(path, edges, 0);
+        }
+    }
+
+    /**
+     * Get the number of paths examined so far, including the ones skipped by the similarity
+     * filter.
+     *
+     * @return the number of examined paths
+     */
+    public int getNumberOfExaminedPaths()
+    {
+        return examined.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext()
+    {
+        while (next == null && !candidates.isEmpty() && examined.size() < maxExaminedPaths) {
+            Candidate<E> candidate = candidates.poll();
+            examined.add(candidate);
+            if (isDissimilar(candidate)) {
+                returned.add(new HashSet<>(candidate.edges));
+                next = toGraphPath(candidate);
+            }
+            // deviations are needed to order the paths after it, returned or not
+            deviate(candidate);
+        }
+        return next != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GraphPath<V, E> next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        GraphPath<V, E> result = next;
+        next = null;
+        return result;
+    }
+
+    private boolean isDissimilar(Candidate<E> candidate)
+    {
+        if (maxSimilarity >= 1d) {
+            return true;
+        }
+        double bound = maxSimilarity * candidate.weight;
+        for (Set<E> other : returned) {
+            double shared = 0d;
+            for (E e : candidate.edges) {
+                if (other.contains(e)) {
+                    shared += graph.getEdgeWeight(e);
+                }
+            }
+            if (shared > bound) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add the deviations of a path at and after its own spur vertex to the candidates.
+     */
+    private void deviate(Candidate<E> path)
+    {
+        int[] pathVertices = path.vertices;
+        List<Integer> rootVertices = new ArrayList<>();
+        for (int i = 0; i < path.deviation; i++) {
+            rootVertices.add(pathVertices[i]);
+        }
+        for (int i = path.deviation; i < pathVertices.length - 1; i++) {
+            int spur = pathVertices[i];
+            rootVertices.add(spur);
+
+            nextGeneration();
+            for (int j = 0; j < i; j++) {
+                blocked[pathVertices[j]] = generation;
+            }
+            // the edges taken at the spur vertex by all paths with the same root
+            removedEdges.clear();
+            for (Candidate<E> other : examined) {
+                if (other.vertices.length > i + 1 && sameRoot(path, other, i)) {
+                    removedEdges.add(other.edges.get(i));
+                }
+            }
+
+            List<E> spurEdges = new ArrayList<>();
+            List<Integer> spurVertices = new ArrayList<>(rootVertices);
+            if (!treePath(spur, spurVertices, spurEdges)) {
+                spurVertices = new ArrayList<>(rootVertices);
+                spurEdges.clear();
+                if (!search(spur, spurVertices, spurEdges)) {
+                    continue;
+                }
+            }
+            List<E> edges = new ArrayList<>(path.edges.subList(0, i));
+            edges.addAll(spurEdges);
+            addCandidate(spurVertices, edges, i);
+        }
+    }
+
+    private static <E> boolean sameRoot(Candidate<E> path, Candidate<E> other, int length)
+    {
+        for (int j = 0; j < length; j++) {
+            if (path.edges.get(j) != other.edges.get(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Follow the tree from v to the sink, appending to the path. Fails if the tree path uses an
+     * excluded edge or vertex.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean treePath(int v, List<Integer> pathVertices, List<E> edges)
+    {
+        if (toSink[v] == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+        while (v != sink) {
+            E e = (E) treeEdge[v];
+            v = vertexIndex.get(Graphs.getOppositeVertex(graph, e, vertices.get(v)));
+            if (removedEdges.contains(e) || blocked[v] == generation) {
+                return false;
+            }
+            edges.add(e);
+            pathVertices.add(v);
+        }
+        return true;
+    }
+
+    /**
+     * A* from the spur vertex to the sink in the graph without the excluded edges and vertices,
+     * with the distances to the sink as the potential.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean search(int spur, List<Integer> pathVertices, List<E> edges)
+    {
+        seen[spur] = generation;
+        distance[spur] = 0d;
+        cameFrom[spur] = null;
+        queue.insert(spur, toSink[spur]);
+        while (!queue.isEmpty()) {
+            int current = queue.removeMin();
+            if (current == sink) {
+                queue.clear();
+                int firstEdge = edges.size();
+                int firstVertex = pathVertices.size();
+                for (int v = sink; v != spur;) {
+                    E e = (E) cameFrom[v];
+                    edges.add(e);
+                    pathVertices.add(v);
+                    v = vertexIndex.get(Graphs.getOppositeVertex(graph, e, vertices.get(v)));
+                }
+                Collections.reverse(edges.subList(firstEdge, edges.size()));
+                Collections.reverse(pathVertices.subList(firstVertex, pathVertices.size()));
+                return true;
+            }
+            closed[current] = generation;
+            V currentVertex = vertices.get(current);
+            for (E e : graph.outgoingEdgesOf(currentVertex)) {
+                if (removedEdges.contains(e)) {
+                    continue;
+                }
+                int successor =
+                    vertexIndex.get(Graphs.getOppositeVertex(graph, e, currentVertex));
+                if (blocked[successor] == generation || closed[successor] == generation
+                    || toSink[successor] == Double.POSITIVE_INFINITY)
+                {
+                    continue;
+                }
+                double tentative = distance[current] + graph.getEdgeWeight(e);
+                if (seen[successor] != generation) {
+                    seen[successor] = generation;
+                    distance[successor] = tentative;
+                    cameFrom[successor] = e;
+                    queue.insert(successor, tentative + toSink[successor]);
+                } else if (tentative < distance[successor]) {
+                    distance[successor] = tentative;
+                    cameFrom[successor] = e;
+                    queue.decreaseKey(successor, tentative + toSink[successor]);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dijkstra from the sink over reversed edges.
+     */
+    private void computeTree()
+    {
+        Arrays.fill(toSink, Double.POSITIVE_INFINITY);
+        nextGeneration();
+        toSink[sink] = 0d;
+        queue.insert(sink, 0d);
+        while (!queue.isEmpty()) {
+            int current = queue.removeMin();
+            closed[current] = generation;
+            V currentVertex = vertices.get(current);
+            for (E e : graph.incomingEdgesOf(currentVertex)) {
+                int predecessor =
+                    vertexIndex.get(Graphs.getOppositeVertex(graph, e, currentVertex));
+                if (closed[predecessor] == generation) {
+                    continue;
+                }
+                double tentative = toSink[current] + graph.getEdgeWeight(e);
+                if (tentative < toSink[predecessor]) {
+                    treeEdge[predecessor] = e;
+                    if (queue.contains(predecessor)) {
+                        queue.decreaseKey(predecessor, tentative);
+                    } else {
+                        queue.insert(predecessor, tentative);
+                    }
+                    toSink[predecessor] = tentative;
+                }
+            }
+        }
+    }
+
+    private void addCandidate(List<Integer> pathVertices, List<E> edges, int deviation)
+    {
+        if (!candidateEdgeLists.add(edges)) {
+            return;
+        }
+        double weight = 0d;
+        for (E e : edges) {
+            weight += graph.getEdgeWeight(e);
+        }
+        int[] array = new int[pathVertices.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = pathVertices.get(i);
+        }
+        candidates.add(new Candidate<>(array, edges, weight, deviation, sequence++));
+    }
+
+    private GraphPath<V, E> toGraphPath(Candidate<E> candidate)
+    {
+        List<V> vertexList = new ArrayList<>(candidate.vertices.length);
+        for (int v : candidate.vertices) {
+            vertexList.add(vertices.get(v));
+        }
+        return new GraphWalk<>(
+            graph, sourceVertex, sinkVertex, vertexList, new ArrayList<>(candidate.edges),
+            candidate.weight);
+    }
+
+    private void nextGeneration()
+    {
+        queue.clear();
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            Arrays.fill(blocked, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * A simple path from source to sink and the position of the vertex at which it deviates from
+     * the path it was derived from.
+     */
+    private static class Candidate<E>
+        implements Comparable<Candidate<E>>
+    {
+        final int[] vertices;
+        final List<E> edges;
+        final double weight;
+        final int deviation;
+        final long sequence;
+
+        Candidate(int[] vertices, List<E> edges, double weight, int deviation, long sequence)
+        {
+            this.vertices = vertices;
+            this.edges = edges;
+            this.weight = weight;
+            this.deviation = deviation;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Candidate<E> other)
+        {
+            int c = Double.compare(weight, other.weight);
+            if (c == 0) {
+                c = Integer.compare(edges.size(), other.edges.size());
+            }
+            return c != 0 ? c : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.tour;
+
+import java.util.*;
+
+/**
+ * Local search for open pickup and delivery routes given by a distance matrix.
+ *
+ * <p>
+ * A vehicle starts at node 0 and visits every other node once, without returning. Every node has
+ * a demand (for example +1 for a pickup, -1 for a delivery) and the load of the vehicle must never
+ * exceed its capacity; a node may require another node to be visited before it, such as the
+ * pickup of a delivery. Deliveries without a required node are loaded at the start, so the
+ * initial load is minus the sum of all demands.
+ *
+ * <p>
+ * The tour is built by nearest neighbor, always moving to the closest node which keeps the route
+ * feasible, and improved by 2-opt (reversing a segment) and Or-opt (moving a segment of up to
+ * three consecutive nodes elsewhere) until no move shortens it. Distances need not be symmetric:
+ * the cost of a reversed segment is kept as a prefix sum as well. Loads are kept as prefix sums
+ * too, so the feasibility and the gain of every move are checked in constant time and a pass over
+ * all moves takes O(n^2). Every improving move is made as soon as it is found.
+ *
+ * <p>
+ * Unlike {@link TwoApproxMetricTSP}, which needs a complete undirected graph and returns a closed
+ * tour, this works on open routes with precedence constraints and on plain arrays, so it can be
+ * called for every small route of a dispatcher without building a graph.
+ *
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b>
+ */
+public class PickupDeliveryTwoOptHeuristic
+{
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_SEGMENT = 3;
+
+    private final int maxMoves;
+
+    // the current problem
+    private double[] distances;
+    private int size;
+    private int[] before;
+    private int[] demand;
+    private int capacity;
+
+    // by position in the tour
+    private int[] tour;
+    private int[] load;
+    private double[] forward;
+    private double[] backward;
+    // by node
+    private int[] position;
+
+    /**
+     * Create a new instance which improves until no move helps.
+     */
+    public PickupDeliveryTwoOptHeuristic()
+    {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param maxMoves the maximum number of improving moves made
+     */
+    public PickupDeliveryTwoOptHeuristic(int maxMoves)
+    {
+        if (maxMoves < 0) {
+            throw new IllegalArgumentException("Number of moves must be non-negative");
+        }
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * Build a tour by nearest neighbor and improve it.
+     *
+     * @param distances the distance from node u to node v at {@code distances[u * size + v]}
+     * @param size the number of nodes, including the start node 0
+     * @param before for every node the node which must be visited before it, or -1
+     * @param demand the change of the load at every node
+     * @param capacity the largest load allowed
+     * @param tour receives the nodes in the order of the tour, starting with 0
+     * @return the length of the tour
+     * @throws IllegalArgumentException if the constraints admit no tour
+     */
+    public double getTour(
+        double[] distances, int size, int[] before, int[] demand, int capacity, int[] tour)
+    {
+        setUp(distances, size, before, demand, capacity, tour);
+        boolean[] visited = new boolean[size];
+        visited[0] = true;
+        tour[0] = 0;
+        int current = 0;
+        int currentLoad = initialLoad();
+        if (currentLoad > capacity) {
+            throw new IllegalArgumentException("Initial load exceeds the capacity");
+        }
+        for (int p = 1; p < size; p++) {
+            int next = -1;
+            for (int v = 1; v < size; v++) {
+                if (visited[v] || (before[v] >= 0 && !visited[before[v]])
+                    || currentLoad + demand[v] > capacity)
+                {
+                    continue;
+                }
+                if (next < 0 || distances[current * size + v] < distances[current * size + next]) {
+                    next = v;
+                }
+            }
+            if (next < 0) {
+                throw new IllegalArgumentException("No feasible tour");
+            }
+            visited[next] = true;
+            tour[p] = next;
+            currentLoad += demand[next];
+            current = next;
+        }
+        return search();
+    }
+
+    /**
+     * Improve a feasible tour in place.
+     *
+     * @param distances the distance from node u to node v at {@code distances[u * size + v]}
+     * @param size the number of nodes, including the start node 0
+     * @param before for every node the node which must be visited before it, or -1
+     * @param demand the change of the load at every node
+     * @param capacity the largest load allowed
+     * @param tour a feasible tour starting with node 0, replaced by the improved one
+     * @return the length of the improved tour
+     * @throws IllegalArgumentException if the tour is not feasible
+     */
+    public double improve(
+        double[] distances, int size, int[] before, int[] demand, int capacity, int[] tour)
+    {
+        setUp(distances, size, before, demand, capacity, tour);
+        if (tour.length < size || tour[0] != 0) {
+            throw new IllegalArgumentException("Tour must start with node 0");
+        }
+        boolean[] visited = new boolean[size];
+        int currentLoad = initialLoad();
+        for (int p = 0; p < size; p++) {
+            int v = tour[p];
+            if (v < 0 || v >= size || visited[v]) {
+                throw new IllegalArgumentException("Tour must visit every node once");
+            }
+            if (before[v] >= 0 && !visited[before[v]]) {
+                throw new IllegalArgumentException("Node " + v + " is visited too early");
+            }
+            currentLoad += p == 0 ? 0 : demand[v];
+            if (currentLoad > capacity) {
+                throw new IllegalArgumentException("Capacity exceeded at node " + v);
+            }
+            visited[v] = true;
+        }
+        return search();
+    }
+
+    private void setUp(
+        double[] distances, int size, int[] before, int[] demand, int capacity, int[] tour)
+    {
+        if (size <= 0 || distances.length < (long) size * size || before.length < size
+            || demand.length < size || tour.length < size)
+        {
+            throw new IllegalArgumentException("Arrays are shorter than the number of nodes");
+        }
+        for (int v = 0; v < size; v++) {
+            if (before[v] == v || before[v] >= size || before[v] < -1) {
+                throw new IllegalArgumentException("Invalid node before " + v);
+            }
+        }
+        if (before[0] != -1) {
+            throw new IllegalArgumentException("The start node can not wait for another node");
+        }
+        this.distances = distances;
+        this.size = size;
+        this.before = before;
+        this.demand = demand;
+        this.capacity = capacity;
+        this.tour = tour;
+        if (load == null || load.length < size) {
+            load = new int[size];
+            forward = new double[size];
+            backward = new double[size];
+            position = new int[size];
+        }
+    }
+
+    private int initialLoad()
+    {
+        int initial = 0;
+        for (int v = 1; v < size; v++) {
+            initial -= demand[v];
+        }
+        return initial;
+    }
+
+    private double distance(int u, int v)
+    {
+        return distances[u * size + v];
+    }
+
+    /**
+     * Loads after every position and the lengths of the tour up to it, in both directions.
+     */
+    private void update()
+    {
+        load[0] = initialLoad();
+        forward[0] = 0d;
+        backward[0] = 0d;
+        position[tour[0]] = 0;
+        for (int p = 1; p < size; p++) {
+            load[p] = load[p - 1] + demand[tour[p]];
+            forward[p] = forward[p - 1] + distance(tour[p - 1], tour[p]);
+            backward[p] = backward[p - 1] + distance(tour[p], tour[p - 1]);
+            position[tour[p]] = p;
+        }
+    }
+
+    private double search()
+    {
+        update();
+        for (int moves = 0; moves < maxMoves; moves++) {
+            if (!twoOpt() && !orOpt()) {
+                break;
+            }
+        }
+        return forward[size - 1];
+    }
+
+    /**
+     * Reverse the first segment tour[i..j] whose reversal shortens the tour.
+     */
+    private boolean twoOpt()
+    {
+        for (int i = 1; i < size - 1; i++) {
+            int a = tour[i - 1];
+            int minLoad = load[i - 1];
+            for (int j = i + 1; j < size; j++) {
+                int v = tour[j];
+                // v would come before the node it waits for
+                if (before[v] >= 0 && position[before[v]] >= i) {
+                    break;
+                }
+                minLoad = Math.min(minLoad, load[j - 1]);
+                // highest load on the reversed segment
+                if (load[i - 1] + load[j] - minLoad > capacity) {
+                    continue;
+                }
+                double gain = distance(a, tour[i]) + forward[j] - forward[i]
+                    - distance(a, tour[j]) - (backward[j] - backward[i]);
+                if (j < size - 1) {
+                    int c = tour[j + 1];
+                    gain += distance(tour[j], c) - distance(tour[i], c);
+                }
+                if (gain > EPSILON) {
+                    for (int l = i, r = j; l < r; l++, r--) {
+                        int swap = tour[l];
+                        tour[l] = tour[r];
+                        tour[r] = swap;
+                    }
+                    update();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move the first segment of up to three nodes whose move shortens the tour.
+     */
+    private boolean orOpt()
+    {
+        for (int length = 1; length <= MAX_SEGMENT; length++) {
+            for (int i = 1; i + length <= size; i++) {
+                int last = i + length - 1;
+                int first = tour[i];
+                int end = tour[last];
+                // limits set by the nodes of the segment and those waiting for them
+                int earliest = 0;
+                int latest = size - 1;
+                int highest = Integer.MIN_VALUE;
+                for (int p = i; p <= last; p++) {
+                    int v = tour[p];
+                    if (before[v] >= 0 && position[before[v]] < i) {
+                        earliest = Math.max(earliest, position[before[v]]);
+                    }
+                    highest = Math.max(highest, load[p] - load[i - 1]);
+                }
+                for (int v = 1; v < size; v++) {
+                    int w = before[v];
+                    if (w >= 0 && position[w] >= i && position[w] <= last && position[v] > last) {
+                        latest = Math.min(latest, position[v] - 1);
+                    }
+                }
+                int segmentDemand = load[last] - load[i - 1];
+
+                double removed = distance(tour[i - 1], first);
+                double added = 0d;
+                if (last < size - 1) {
+                    removed += distance(end, tour[last + 1]);
+                    added += distance(tour[i - 1], tour[last + 1]);
+                }
+
+                // later: the segment goes after position k > last
+                int maxLoad = Integer.MIN_VALUE;
+                for (int k = last + 1; k <= latest; k++) {
+                    maxLoad = Math.max(maxLoad, load[k] - segmentDemand);
+                    if (maxLoad > capacity) {
+                        break;
+                    }
+                    if (load[k] - segmentDemand + highest > capacity) {
+                        continue;
+                    }
+                    double gain = removed - added - distance(tour[k], first);
+                    if (k < size - 1) {
+                        gain += distance(tour[k], tour[k + 1]) - distance(end, tour[k + 1]);
+                    }
+                    if (gain > EPSILON) {
+                        move(i, last, k);
+                        return true;
+                    }
+                }
+
+                // earlier: the segment goes after position k < i - 1
+                maxLoad = Integer.MIN_VALUE;
+                for (int k = i - 2; k >= earliest; k--) {
+                    maxLoad = Math.max(maxLoad, load[k + 1] + segmentDemand);
+                    if (maxLoad > capacity) {
+                        break;
+                    }
+                    if (load[k] + highest > capacity) {
+                        continue;
+                    }
+                    double gain = removed - added + distance(tour[k], tour[k + 1])
+                        - distance(tour[k], first) - distance(end, tour[k + 1]);
+                    if (gain > EPSILON) {
+                        move(i, last, k);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move tour[i..last] right after the node at position k.
+     */
+    private void move(int i, int last, int k)
+    {
+        int length = last - i + 1;
+        int[] segment = Arrays.copyOfRange(tour, i, last + 1);
+        if (k > last) {
+            System.arraycopy(tour, last + 1, tour, i, k - last);
+            System.arraycopy(segment, 0, tour, k - length + 1, length);
+        } else {
+            System.arraycopy(tour, k + 1, tour, k + 1 + length, i - k - 1);
+            System.arraycopy(segment, 0, tour, k + 1, length);
+        }
+        update();
+    }
+}
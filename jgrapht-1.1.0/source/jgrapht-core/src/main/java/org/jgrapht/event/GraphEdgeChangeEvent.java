@@ -17,6 +17,8 @@
  */
 package org.jgrapht.event;
 
+import org.jgrapht.*;
+
 /**
  * An event which indicates that a graph edge has changed, or is about to change. The event can be
  * used either as an indication <i>after</i> the edge has been added or removed, or <i>before</i> it
@@ -54,6 +56,11 @@ public class GraphEdgeChangeEvent<V, E>
      */
     public static final int EDGE_REMOVED = 24;
 
+    /**
+     * Edge weight updated event. This event is fired after an edge weight is updated in a graph.
+     */
+    public static final int EDGE_WEIGHT_UPDATED = 25;
+
     /**
      * The edge that this event is related to.
      */
@@ -69,6 +76,11 @@ public class GraphEdgeChangeEvent<V, E>
      */
     protected V edgeTarget;
 
+    /**
+     * The weight of the edge that this event is related to.
+     */
+    protected double edgeWeight;
+
     /**
      * Constructor for GraphEdgeChangeEvent.
      *
@@ -79,11 +91,28 @@ public class GraphEdgeChangeEvent<V, E>
      * @param edgeTarget edge target vertex
      */
     public GraphEdgeChangeEvent(Object eventSource, int type, E edge, V edgeSource, V edgeTarget)
+    {
+        this(eventSource, type, edge, edgeSource, edgeTarget, Graph.DEFAULT_EDGE_WEIGHT);
+    }
+
+    /**
+     * Constructor for GraphEdgeChangeEvent.
+     *
+     * @param eventSource the source of this event.
+     * @param type the event type of this event.
+     * @param edge the edge that this event is related to.
+     * @param edgeSource edge source vertex
+     * @param edgeTarget edge target vertex
+     * @param edgeWeight edge weight
+     */
+    public GraphEdgeChangeEvent(
+        Object eventSource, int type, E edge, V edgeSource, V edgeTarget, double edgeWeight)
     {
         super(eventSource, type);
         this.edge = edge;
         this.edgeSource = edgeSource;
         this.edgeTarget = edgeTarget;
+        this.edgeWeight = edgeWeight;
     }
 
     /**
@@ -115,6 +144,16 @@ public class GraphEdgeChangeEvent<V, E>
     {
         return edgeTarget;
     }
+
+    /**
+     * Returns the weight of the edge that this event is related to.
+     *
+     * @return event edge weight
+     */
+    public double getEdgeWeight()
+    {
+        return edgeWeight;
+    }
 }
 
 // End GraphEdgeChangeEvent.java
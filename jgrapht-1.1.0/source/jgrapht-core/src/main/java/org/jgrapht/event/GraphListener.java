@@ -48,6 +48,15 @@ public interface GraphListener<V, E>
      * @param e the edge event.
      */
     void edgeRemoved(GraphEdgeChangeEvent<V, E> e);
+
+    /**
+     * Notifies that an edge weight has been updated.
+     *
+     * @param e the edge event.
+     */
+    default void edgeWeightUpdated(GraphEdgeChangeEvent<V, E> e)
+    {
+    }
 }
 
 // End GraphListener.java
@@ -270,6 +270,20 @@ public class DefaultListenableGraph<V, E>
         vertexSetListeners.remove(l);
     }
 
+    /**
+     * @see Graph#setEdgeWeight(Object, double)
+     */
+    @Override
+    public void setEdgeWeight(E e, double weight)
+    {
+        super.setEdgeWeight(e, weight);
+
+        V source = getEdgeSource(e);
+        V target = getEdgeTarget(e);
+
+        fireEdgeWeightUpdated(e, source, target, weight);
+    }
+
     /**
      * Notify listeners that the specified edge was added.
      *
@@ -304,6 +318,24 @@ public class DefaultListenableGraph<V, E>
         }
     }
 
+    /**
+     * Notify listeners that the weight of an edge has changed.
+     *
+     * @param edge the edge whose weight has changed.
+     * @param source edge source
+     * @param target edge target
+     * @param weight the weight
+     */
+    protected void fireEdgeWeightUpdated(E edge, V source, V target, double weight)
+    {
+        GraphEdgeChangeEvent<V, E> e = createGraphEdgeChangeEvent(
+            GraphEdgeChangeEvent.EDGE_WEIGHT_UPDATED, edge, source, target, weight);
+
+        for (GraphListener<V, E> l : graphListeners) {
+            l.edgeWeightUpdated(e);
+        }
+    }
+
     /**
      * Notify listeners that the specified vertex was added.
      *
@@ -351,16 +383,24 @@ public class DefaultListenableGraph<V, E>
 
     private GraphEdgeChangeEvent<V, E> createGraphEdgeChangeEvent(
         int eventType, E edge, V source, V target)
+    {
+        return createGraphEdgeChangeEvent(
+            eventType, edge, source, target, Graph.DEFAULT_EDGE_WEIGHT);
+    }
+
+    private GraphEdgeChangeEvent<V, E> createGraphEdgeChangeEvent(
+        int eventType, E edge, V source, V target, double weight)
     {
         if (reuseEvents) {
             reuseableEdgeEvent.setType(eventType);
             reuseableEdgeEvent.setEdge(edge);
             reuseableEdgeEvent.setEdgeSource(source);
             reuseableEdgeEvent.setEdgeTarget(target);
+            reuseableEdgeEvent.setEdgeWeight(weight);
 
             return reuseableEdgeEvent;
         } else {
-            return new GraphEdgeChangeEvent<>(this, eventType, edge, source, target);
+            return new GraphEdgeChangeEvent<>(this, eventType, edge, source, target, weight);
         }
     }
 
@@ -415,6 +455,11 @@ public class DefaultListenableGraph<V, E>
             this.edgeTarget = v;
         }
 
+        protected void setEdgeWeight(double weight)
+        {
+            this.edgeWeight = weight;
+        }
+
         /**
          * Set the event type of this event.
          *
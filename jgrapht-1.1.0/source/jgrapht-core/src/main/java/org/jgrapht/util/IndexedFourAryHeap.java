@@ -0,0 +1,282 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.util;
+
+import java.util.*;
+
+/**
+ * An indexed 4-ary min-heap of integer items with double keys. The items are the integers
+ * $0,\ldots,capacity-1$, so that the position of every item inside the heap can be kept in a plain
+ * array, which makes {@link #decreaseKey(int, double)} and {@link #contains(int)} O(1) lookups
+ * without any node objects. Insert, decrease-key and remove-min take O(log n) time.
+ *
+ * <p>
+ * The heap never allocates after its capacity is reached, and {@link #clear()} only touches the
+ * items which are currently stored. It is therefore suitable as the priority queue of shortest
+ * path searches which are repeated many times on the same graph.
+ *
+ * <p>
+ * <b>Note that this implementation is not synchronized.</b>
+ */
+public class IndexedFourAryHeap
+{
+    private static final int ARITY = 4;
+
+    private int[] heap;
+    private int[] position;
+    private double[] keys;
+    private int size;
+
+    /**
+     * Constructs an empty heap.
+     *
+     * @param capacity the initial capacity, i.e. the number of distinct items
+     */
+    public IndexedFourAryHeap(int capacity)
+    {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative");
+        }
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Make sure that the heap can hold the items $0,\ldots,capacity-1$.
+     *
+     * @param capacity the required capacity
+     */
+    public void ensureCapacity(int capacity)
+    {
+        int old = position.length;
+        if (capacity <= old) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, 2 * old);
+        heap = Arrays.copyOf(heap, newCapacity);
+        keys = Arrays.copyOf(keys, newCapacity);
+        position = Arrays.copyOf(position, newCapacity);
+        Arrays.fill(position, old, newCapacity, -1);
+    }
+
+    /**
+     * Get the capacity of the heap.
+     *
+     * @return the capacity
+     */
+    public int capacity()
+    {
+        return position.length;
+    }
+
+    /**
+     * Tests if the heap is empty.
+     *
+     * @return true if the heap is empty, false otherwise
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Get the number of items in the heap.
+     *
+     * @return the number of items
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Tests whether an item is contained in the heap.
+     *
+     * @param item the item
+     * @return true if the item is in the heap, false otherwise
+     */
+    public boolean contains(int item)
+    {
+        return position[item] >= 0;
+    }
+
+    /**
+     * Get the key of an item in the heap.
+     *
+     * @param item the item
+     * @return the key of the item
+     * @throws IllegalArgumentException if the item is not in the heap
+     */
+    public double getKey(int item)
+    {
+        if (position[item] < 0) {
+            throw new IllegalArgumentException("Item not in heap");
+        }
+        return keys[item];
+    }
+
+    /**
+     * Insert an item.
+     *
+     * @param item the item
+     * @param key the key of the item
+     * @throws IllegalArgumentException if the item is already in the heap
+     */
+    public void insert(int item, double key)
+    {
+        if (position[item] >= 0) {
+            throw new IllegalArgumentException("Item already in heap");
+        }
+        keys[item] = key;
+        heap[size] = item;
+        position[item] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Decrease the key of an item.
+     *
+     * @param item the item
+     * @param key the new key, which must not be larger than the current one
+     * @throws IllegalArgumentException if the item is not in the heap or the new key is larger
+     */
+    public void decreaseKey(int item, double key)
+    {
+        int i = position[item];
+        if (i < 0) {
+            throw new IllegalArgumentException("Item not in heap");
+        }
+        if (key > keys[item]) {
+            throw new IllegalArgumentException(
+                "decreaseKey() got larger key value. Current key: " + keys[item] + " new key: "
+                    + key);
+        }
+        keys[item] = key;
+        siftUp(i);
+    }
+
+    /**
+     * Get the item with the minimum key, without removing it.
+     *
+     * @return the item with the minimum key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int min()
+    {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    /**
+     * Get the minimum key.
+     *
+     * @return the minimum key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public double minKey()
+    {
+        return keys[min()];
+    }
+
+    /**
+     * Remove the item with the minimum key.
+     *
+     * @return the item with the minimum key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public int removeMin()
+    {
+        int result = min();
+        position[result] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return result;
+    }
+
+    /**
+     * Remove all items from the heap. Runs in time proportional to the number of items which are
+     * currently in the heap.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i)
+    {
+        int item = heap[i];
+        double key = keys[item];
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            int parentItem = heap[parent];
+            if (keys[parentItem] <= key) {
+                break;
+            }
+            heap[i] = parentItem;
+            position[parentItem] = i;
+            i = parent;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+
+    private void siftDown(int i)
+    {
+        int item = heap[i];
+        double key = keys[item];
+        while (true) {
+            int first = ARITY * i + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + ARITY, size);
+            int minChild = first;
+            double minKey = keys[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                double cKey = keys[heap[c]];
+                if (cKey < minKey) {
+                    minKey = cKey;
+                    minChild = c;
+                }
+            }
+            if (key <= minKey) {
+                break;
+            }
+            int childItem = heap[minChild];
+            heap[i] = childItem;
+            position[childItem] = i;
+            i = minChild;
+        }
+        heap[i] = item;
+        position[item] = i;
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.matching;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+/**
+ * Tests for {@link AuctionAssignment}.
+ */
+public class AuctionAssignmentTest
+{
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @Test
+    public void testSquare()
+    {
+        double[] costs = { 4, 1, 3, 2, 0, 5, 3, 2, 2 };
+        int[] assignment = new int[3];
+        assertEquals(5d, new AuctionAssignment().solve(costs, 3, 3, assignment), 0d);
+        assertArrayEquals(new int[] { 1, 0, 2 }, assignment);
+    }
+
+    @Test
+    public void testRectangular()
+    {
+        AuctionAssignment solver = new AuctionAssignment();
+        int[] assignment = new int[3];
+
+        // more columns than rows
+        assertEquals(5d, solver.solve(new double[] { 9, 2, 7, 8, 6, 4, 3, 7 }, 2, 4, assignment), 0d);
+        assertEquals(1, assignment[0]);
+        assertEquals(2, assignment[1]);
+
+        // more rows than columns, one row stays unassigned
+        assertEquals(3d, solver.solve(new double[] { 9, 2, 1, 4, 3, 5 }, 3, 2, assignment), 0d);
+        assertArrayEquals(new int[] { 1, 0, -1 }, assignment);
+    }
+
+    @Test
+    public void testSparse()
+    {
+        AuctionAssignment solver = new AuctionAssignment();
+        int[] assignment = new int[3];
+
+        // the cheap pair (0, 0) would leave row 1 without a column
+        int[] offsets = { 0, 2, 3, 3 };
+        int[] columns = { 0, 1, 0 };
+        double[] costs = { 1, 10, 100 };
+        assertEquals(110d, solver.solve(3, 2, offsets, columns, costs, assignment), 0d);
+        assertArrayEquals(new int[] { 1, 0, -1 }, assignment);
+
+        // both rows want the same single column
+        assertEquals(
+            3d, solver.solve(2, 4, new int[] { 0, 1, 2 }, new int[] { 2, 2 },
+                new double[] { 3, 4 }, assignment), 0d);
+        assertTrue(assignment[0] == 2 && assignment[1] == -1);
+
+        assertEquals(0d, solver.solve(new double[] { INF }, 1, 1, assignment), 0d);
+        assertEquals(-1, assignment[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCost()
+    {
+        new AuctionAssignment().solve(new double[] { 1, Double.NaN }, 1, 2, new int[1]);
+    }
+
+    @Test
+    public void testAgainstExhaustiveSearch()
+    {
+        Random random = new Random(17);
+        AuctionAssignment solver = new AuctionAssignment();
+        for (int test = 0; test < 200; test++) {
+            int rows = 1 + random.nextInt(8);
+            int columns = 1 + random.nextInt(8);
+            double[] costs = randomCosts(random, rows, columns);
+            int[] assignment = new int[rows];
+            double total = solver.solve(costs, rows, columns, assignment);
+            assertValid(costs, rows, columns, assignment);
+
+            double[] optimum = optimum(costs, rows, columns);
+            assertEquals((int) optimum[0], countAssigned(assignment));
+            assertEquals(optimum[1], total, 0d);
+        }
+    }
+
+    @Test
+    public void testParallel()
+    {
+        Random random = new Random(23);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            AuctionAssignment sequential = new AuctionAssignment();
+            AuctionAssignment parallel = new AuctionAssignment(0.5, pool);
+            for (int test = 0; test < 10; test++) {
+                int rows = 1 + random.nextInt(600);
+                int columns = 1 + random.nextInt(600);
+                double[] costs = randomCosts(random, rows, columns);
+                int[] expected = new int[rows];
+                int[] assignment = new int[rows];
+                double total = sequential.solve(costs, rows, columns, expected);
+                assertEquals(total, parallel.solve(costs, rows, columns, assignment), 0d);
+                assertEquals(countAssigned(expected), countAssigned(assignment));
+                assertValid(costs, rows, columns, assignment);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static double[] randomCosts(Random random, int rows, int columns)
+    {
+        int candidates = 1 + random.nextInt(Math.min(columns, 12));
+        double[] costs = new double[rows * columns];
+        Arrays.fill(costs, INF);
+        for (int i = 0; i < rows; i++) {
+            for (int c = 0; c < candidates; c++) {
+                costs[i * columns + random.nextInt(columns)] = random.nextInt(1000);
+            }
+        }
+        return costs;
+    }
+
+    private static void assertValid(double[] costs, int rows, int columns, int[] assignment)
+    {
+        boolean[] used = new boolean[columns];
+        for (int i = 0; i < rows; i++) {
+            if (assignment[i] >= 0) {
+                assertTrue(costs[i * columns + assignment[i]] < INF);
+                assertTrue(!used[assignment[i]]);
+                used[assignment[i]] = true;
+            }
+        }
+    }
+
+    /**
+     * The largest number of assigned rows and the least total cost of such an assignment, by
+     * dynamic programming over the rows and the set of used columns.
+     */
+    private static double[] optimum(double[] costs, int rows, int columns)
+    {
+        int sets = 1 << columns;
+        int[] count = new int[sets];
+        double[] total = new double[sets];
+        Arrays.fill(count, -1);
+        count[0] = 0;
+        for (int i = 0; i < rows; i++) {
+            int[] nextCount = count.clone();
+            double[] nextTotal = total.clone();
+            for (int set = 0; set < sets; set++) {
+                if (count[set] < 0) {
+                    continue;
+                }
+                for (int j = 0; j < columns; j++) {
+                    double cost = costs[i * columns + j];
+                    int next = set | (1 << j);
+                    if (cost == INF || next == set) {
+                        continue;
+                    }
+                    if (count[set] + 1 > nextCount[next] || count[set] + 1 == nextCount[next]
+                        && total[set] + cost < nextTotal[next])
+                    {
+                        nextCount[next] = count[set] + 1;
+                        nextTotal[next] = total[set] + cost;
+                    }
+                }
+            }
+            count = nextCount;
+            total = nextTotal;
+        }
+        double[] best = { 0, 0 };
+        for (int set = 0; set < sets; set++) {
+            if (count[set] > best[0] || count[set] == best[0] && total[set] < best[1]) {
+                best[0] = count[set];
+                best[1] = total[set];
+            }
+        }
+        return best;
+    }
+
+    private static int countAssigned(int[] assignment)
+    {
+        int count = 0;
+        for (int column : assignment) {
+            if (column >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
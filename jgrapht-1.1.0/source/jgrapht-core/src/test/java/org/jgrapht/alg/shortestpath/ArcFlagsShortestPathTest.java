@@ -0,0 +1,147 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.assertSameAsDijkstra;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.grid;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.pseudographs;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.randomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.generate.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link ArcFlagsShortestPath}.
+ */
+public class ArcFlagsShortestPathTest
+{
+
+    @Test
+    public void testRandomGraphs()
+    {
+        Random rng = new Random(23);
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : pseudographs()) {
+            for (int regions : new int[] { 1, 5, 70 }) {
+                Graph<Integer, DefaultWeightedEdge> g = randomGraph(gSupplier.get(), 50, 0.08, rng);
+                ArcFlags<Integer, DefaultWeightedEdge> arcFlags =
+                    new ArcFlags<>(g, v -> v % regions, regions);
+
+                AStarAdmissibleHeuristic<Integer> h = new IndexedALTAdmissibleHeuristic<>(
+                    g, new HashSet<>(Arrays.asList(0, 13, 27)));
+                assertSameAsDijkstra(g, new ArcFlagsShortestPath<>(arcFlags));
+                assertSameAsDijkstra(g, new ArcFlagsShortestPath<>(arcFlags, h));
+
+                // the pruned view works with the other algorithms
+                ShortestPathAlgorithm<Integer, DefaultWeightedEdge> dijkstra =
+                    new DijkstraShortestPath<>(g);
+                for (Integer v : g.vertexSet()) {
+                    for (Integer u : g.vertexSet()) {
+                        assertEquals(
+                            dijkstra.getPathWeight(v, u),
+                            new AStarShortestPath<>(arcFlags.getPrunedGraph(u), h)
+                                .getPathWeight(v, u),
+                            1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParallelPrecomputation()
+    {
+        Random rng = new Random(7);
+        Graph<Integer, DefaultWeightedEdge> g =
+            new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class);
+        new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(60, 0.1, rng, true)
+            .generateGraph(g, new IntegerVertexFactory(), null);
+        for (DefaultWeightedEdge e : g.edgeSet()) {
+            g.setEdgeWeight(e, rng.nextDouble());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ArcFlags<Integer, DefaultWeightedEdge> sequential =
+                new ArcFlags<>(g, v -> v / 10, 6);
+            ArcFlags<Integer, DefaultWeightedEdge> parallel =
+                new ArcFlags<>(g, v -> v / 10, 6, pool);
+            assertArrayEquals(sequential.flags, parallel.flags);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testGrid()
+    {
+        int size = 20;
+        Random rng = new Random(11);
+        Graph<Integer, DefaultWeightedEdge> g = grid(size, () -> 1d + rng.nextInt(5));
+        // 4x4 blocks of 5x5 vertices
+        ArcFlags<Integer, DefaultWeightedEdge> arcFlags =
+            new ArcFlags<>(g, v -> (v / size / 5) * 4 + (v % size) / 5, 16);
+        assertEquals(15, arcFlags.getRegion(size * size - 1));
+        assertTrue(arcFlags.getFlaggedFraction() < 1d);
+        assertSameAsDijkstra(g, new ArcFlagsShortestPath<>(arcFlags));
+
+        // from a corner to the opposite corner Dijkstra expands nearly all vertices
+        ArcFlagsShortestPath<Integer, DefaultWeightedEdge> flagged =
+            new ArcFlagsShortestPath<>(arcFlags);
+        flagged.getPath(0, size * size - 1);
+        assertTrue(flagged.getNumberOfExpandedNodes() < size * size / 2);
+    }
+
+    @Test
+    public void testIsFlagged()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1, 2));
+        DefaultWeightedEdge e01 = Graphs.addEdge(g, 0, 1, 1d);
+        Graphs.addEdge(g, 1, 2, 1d);
+
+        ArcFlags<Integer, DefaultWeightedEdge> arcFlags =
+            new ArcFlags<>(g, v -> v == 0 ? 0 : 1, 2);
+        assertTrue(arcFlags.isFlagged(e01, 0, 1));
+        assertTrue(arcFlags.isFlagged(e01, 1, 0));
+        assertTrue(!arcFlags.isFlagged(e01, 0, 0));
+        assertTrue(!arcFlags.isFlagged(e01, 1, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRegion()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1));
+        new ArcFlags<>(g, v -> v, 1);
+    }
+}
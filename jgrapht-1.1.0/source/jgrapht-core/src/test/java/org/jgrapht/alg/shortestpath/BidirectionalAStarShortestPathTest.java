@@ -0,0 +1,176 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.assertSameAsDijkstra;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.pseudographs;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.randomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.generate.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link BidirectionalAStarShortestPath}.
+ */
+public class BidirectionalAStarShortestPathTest
+{
+
+    @Test
+    public void testRandomGraphs()
+    {
+        Random rng = new Random(33);
+
+        List<Supplier<Graph<Integer, DefaultWeightedEdge>>> graphs = new ArrayList<>();
+        graphs.add(() -> new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class));
+        graphs.add(() -> new WeightedPseudograph<>(DefaultWeightedEdge.class));
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : graphs) {
+            for (int test = 0; test < 3; test++) {
+                Graph<Integer, DefaultWeightedEdge> g = gSupplier.get();
+                new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(40, 0.08, rng, true)
+                    .generateGraph(g, new IntegerVertexFactory(), null);
+                for (DefaultWeightedEdge e : g.edgeSet()) {
+                    g.setEdgeWeight(e, rng.nextInt(10) / 2d);
+                }
+
+                AStarAdmissibleHeuristic<Integer> h = new IndexedALTAdmissibleHeuristic<>(
+                    g, new HashSet<>(Arrays.asList(0, 13, 27)));
+                ShortestPathAlgorithm<Integer, DefaultWeightedEdge> dijkstra =
+                    new DijkstraShortestPath<>(g);
+                ShortestPathAlgorithm<Integer, DefaultWeightedEdge> bidirectional =
+                    new BidirectionalAStarShortestPath<>(g, h);
+
+                for (Integer v : g.vertexSet()) {
+                    for (Integer u : g.vertexSet()) {
+                        GraphPath<Integer, DefaultWeightedEdge> expected = dijkstra.getPath(v, u);
+                        GraphPath<Integer, DefaultWeightedEdge> actual =
+                            bidirectional.getPath(v, u);
+                        if (expected == null) {
+                            assertNull(actual);
+                            continue;
+                        }
+                        assertEquals(expected.getWeight(), actual.getWeight(), 1e-9);
+                        assertEquals(v, actual.getStartVertex());
+                        assertEquals(u, actual.getEndVertex());
+                        double sum = 0d;
+                        for (DefaultWeightedEdge e : actual.getEdgeList()) {
+                            sum += g.getEdgeWeight(e);
+                        }
+                        assertEquals(actual.getWeight(), sum, 1e-9);
+                        assertEquals(
+                            actual.getEdgeList().size() + 1, actual.getVertexList().size());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWeightOfPathWithInconsistentHeuristic()
+    {
+        // the path need not be shortest, but its weight must be the one of its edges
+        Random rng = new Random(7);
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : pseudographs()) {
+            Graph<Integer, DefaultWeightedEdge> g = randomGraph(gSupplier.get(), 30, 0.1, rng);
+            ShortestPathAlgorithm<Integer, DefaultWeightedEdge> dijkstra =
+                new DijkstraShortestPath<>(g);
+            // exact for even vertices and zero for odd ones: admissible, but not consistent
+            AStarAdmissibleHeuristic<Integer> h = (u, t) -> {
+                double d = dijkstra.getPathWeight(u, t);
+                return u % 2 == 0 && Double.isFinite(d) ? d : 0d;
+            };
+            BidirectionalAStarShortestPath<Integer, DefaultWeightedEdge> bidirectional =
+                new BidirectionalAStarShortestPath<>(g, h);
+            for (Integer v : g.vertexSet()) {
+                for (Integer u : g.vertexSet()) {
+                    GraphPath<Integer, DefaultWeightedEdge> path = bidirectional.getPath(v, u);
+                    if (path == null) {
+                        continue;
+                    }
+                    double sum = 0d;
+                    for (DefaultWeightedEdge e : path.getEdgeList()) {
+                        sum += g.getEdgeWeight(e);
+                    }
+                    assertEquals(sum, path.getWeight(), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDirectedNotStronglyConnected()
+    {
+        // sparse directed graphs, where many landmarks reach only one of two vertices
+        Random rng = new Random(41);
+        for (int test = 0; test < 60; test++) {
+            Graph<Integer, DefaultWeightedEdge> g = randomGraph(
+                new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class), 30, 0.06, rng);
+            Set<Integer> landmarks = new HashSet<>();
+            while (landmarks.size() < 4) {
+                landmarks.add(rng.nextInt(30));
+            }
+            assertSameAsDijkstra(
+                g, new BidirectionalAStarShortestPath<>(
+                    g, new IndexedALTAdmissibleHeuristic<>(g, landmarks)));
+        }
+    }
+
+    @Test
+    public void testGrid()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        int size = 30;
+        for (int i = 0; i < size * size; i++) {
+            g.addVertex(i);
+        }
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int v = r * size + c;
+                if (c + 1 < size) {
+                    Graphs.addEdge(g, v, v + 1, 1d);
+                }
+                if (r + 1 < size) {
+                    Graphs.addEdge(g, v, v + size, 1d);
+                }
+            }
+        }
+        // manhattan distance is consistent on the grid
+        AStarAdmissibleHeuristic<Integer> manhattan = (u, t) -> (double) (Math
+            .abs(u / size - t / size) + Math.abs(u % size - t % size));
+        BidirectionalAStarShortestPath<Integer, DefaultWeightedEdge> bidirectional =
+            new BidirectionalAStarShortestPath<>(g, manhattan);
+
+        GraphPath<Integer, DefaultWeightedEdge> path = bidirectional.getPath(size + 2, 20 * size);
+        assertEquals(21d, path.getWeight(), 0d);
+        assertTrue(bidirectional.getNumberOfExpandedNodes() < size * size / 4);
+
+        path = bidirectional.getPath(5, 5);
+        assertEquals(0d, path.getWeight(), 0d);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.assertSameAsDijkstra;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.grid;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.pseudographs;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.randomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link ContractionHierarchyShortestPath}.
+ */
+public class ContractionHierarchyShortestPathTest
+{
+
+    @Test
+    public void testRandomGraphs()
+    {
+        Random rng = new Random(17);
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : pseudographs()) {
+            for (double p : new double[] { 0.05, 0.2 }) {
+                Graph<Integer, DefaultWeightedEdge> g = randomGraph(gSupplier.get(), 50, p, rng);
+                assertSameAsDijkstra(
+                    g, new ContractionHierarchyShortestPath<>(new ContractionHierarchy<>(g)));
+                assertSameAsDijkstra(
+                    g, new ContractionHierarchyShortestPath<>(new ContractionHierarchy<>(g, 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testGrid()
+    {
+        int size = 8;
+        Graph<Integer, DefaultWeightedEdge> g = grid(size, () -> 5d);
+        ContractionHierarchyShortestPath<Integer, DefaultWeightedEdge> ch =
+            new ContractionHierarchyShortestPath<>(new ContractionHierarchy<>(g));
+        assertSameAsDijkstra(g, ch);
+        assertEquals(70d, ch.getPathWeight(0, size * size - 1), 0d);
+        assertTrue(ch.getNumberOfSettledNodes() < size * size);
+    }
+
+    @Test
+    public void testDisconnected()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1, 2, 3));
+        Graphs.addEdge(g, 0, 1, 1d);
+        Graphs.addEdge(g, 2, 3, 1d);
+
+        ContractionHierarchyShortestPath<Integer, DefaultWeightedEdge> ch =
+            new ContractionHierarchyShortestPath<>(g);
+        assertNull(ch.getPath(0, 3));
+        assertNull(ch.getPath(1, 0));
+        assertEquals(Double.POSITIVE_INFINITY, ch.getPathWeight(0, 2), 0d);
+        assertEquals(1d, ch.getPathWeight(0, 1), 0d);
+
+        GraphPath<Integer, DefaultWeightedEdge> path = ch.getPath(2, 2);
+        assertEquals(0d, path.getWeight(), 0d);
+        assertEquals(Collections.singletonList(2), path.getVertexList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeights()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1));
+        Graphs.addEdge(g, 0, 1, -1d);
+        new ContractionHierarchy<>(g);
+    }
+}
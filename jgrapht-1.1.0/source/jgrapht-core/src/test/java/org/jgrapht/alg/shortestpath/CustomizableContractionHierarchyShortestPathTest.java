@@ -0,0 +1,169 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.assertSameAsDijkstra;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.grid;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.pseudographs;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.randomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link CustomizableContractionHierarchyShortestPath}.
+ */
+public class CustomizableContractionHierarchyShortestPathTest
+{
+
+    @Test
+    public void testRandomGraphs()
+    {
+        Random rng = new Random(19);
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : pseudographs()) {
+            for (double p : new double[] { 0.05, 0.2 }) {
+                Graph<Integer, DefaultWeightedEdge> g = randomGraph(gSupplier.get(), 50, p, rng);
+                assertSameAsDijkstra(
+                    g, new CustomizableContractionHierarchyShortestPath<>(
+                        new CustomizableContractionHierarchy<>(g)));
+
+                List<Integer> order = new ArrayList<>(g.vertexSet());
+                Collections.shuffle(order, rng);
+                assertSameAsDijkstra(
+                    g, new CustomizableContractionHierarchyShortestPath<>(
+                        new CustomizableContractionHierarchy<>(g, order)));
+            }
+        }
+    }
+
+    @Test
+    public void testCustomize()
+    {
+        Random rng = new Random(7);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : pseudographs()) {
+                Graph<Integer, DefaultWeightedEdge> g = randomGraph(gSupplier.get(), 60, 0.08, rng);
+                CustomizableContractionHierarchy<Integer, DefaultWeightedEdge> hierarchy =
+                    new CustomizableContractionHierarchy<>(g);
+                int arcs = hierarchy.getNumberOfArcs();
+
+                for (int round = 0; round < 3; round++) {
+                    for (DefaultWeightedEdge e : g.edgeSet()) {
+                        g.setEdgeWeight(e, rng.nextInt(10));
+                    }
+                    if (round % 2 == 0) {
+                        hierarchy.customize(pool);
+                    } else {
+                        hierarchy.customize();
+                    }
+                    assertEquals(arcs, hierarchy.getNumberOfArcs());
+                    assertSameAsDijkstra(
+                        g, new CustomizableContractionHierarchyShortestPath<>(hierarchy));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCustomizeWithWeightFunction()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addEdgeWithVertices(g, 0, 1, 1d);
+        Graphs.addEdgeWithVertices(g, 1, 2, 1d);
+        DefaultWeightedEdge direct = Graphs.addEdgeWithVertices(g, 0, 2, 5d);
+
+        CustomizableContractionHierarchy<Integer, DefaultWeightedEdge> hierarchy =
+            new CustomizableContractionHierarchy<>(g);
+        CustomizableContractionHierarchyShortestPath<Integer, DefaultWeightedEdge> cch =
+            new CustomizableContractionHierarchyShortestPath<>(hierarchy);
+        assertEquals(Arrays.asList(0, 1, 2), cch.getPath(0, 2).getVertexList());
+
+        // the graph keeps its weights, the hierarchy uses the new ones
+        hierarchy.customize(e -> e == direct ? 1d : g.getEdgeWeight(e), null);
+        GraphPath<Integer, DefaultWeightedEdge> path = cch.getPath(2, 0);
+        assertEquals(Arrays.asList(2, 0), path.getVertexList());
+        assertEquals(1d, path.getWeight(), 0d);
+        assertEquals(5d, g.getEdgeWeight(direct), 0d);
+    }
+
+    @Test
+    public void testGrid()
+    {
+        int size = 8;
+        Graph<Integer, DefaultWeightedEdge> g = grid(size, () -> 5d);
+        CustomizableContractionHierarchyShortestPath<Integer, DefaultWeightedEdge> cch =
+            new CustomizableContractionHierarchyShortestPath<>(
+                new CustomizableContractionHierarchy<>(g));
+        assertSameAsDijkstra(g, cch);
+        assertEquals(70d, cch.getPathWeight(0, size * size - 1), 0d);
+        assertTrue(cch.getNumberOfSettledNodes() < size * size);
+    }
+
+    @Test
+    public void testDisconnected()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1, 2, 3));
+        Graphs.addEdge(g, 0, 1, 1d);
+        Graphs.addEdge(g, 2, 3, 1d);
+
+        CustomizableContractionHierarchyShortestPath<Integer, DefaultWeightedEdge> cch =
+            new CustomizableContractionHierarchyShortestPath<>(g);
+        assertNull(cch.getPath(0, 3));
+        assertNull(cch.getPath(1, 0));
+        assertEquals(Double.POSITIVE_INFINITY, cch.getPathWeight(0, 2), 0d);
+        assertEquals(1d, cch.getPathWeight(0, 1), 0d);
+
+        GraphPath<Integer, DefaultWeightedEdge> path = cch.getPath(2, 2);
+        assertEquals(0d, path.getWeight(), 0d);
+        assertEquals(Collections.singletonList(2), path.getVertexList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeights()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1));
+        Graphs.addEdge(g, 0, 1, -1d);
+        new CustomizableContractionHierarchy<>(g);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOrder()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1, 2));
+        new CustomizableContractionHierarchy<>(g, Arrays.asList(0, 1, 1));
+    }
+}
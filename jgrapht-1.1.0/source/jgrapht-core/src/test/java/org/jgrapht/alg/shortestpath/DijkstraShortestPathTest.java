@@ -146,6 +146,29 @@ public class DijkstraShortestPathTest
             new DijkstraShortestPath<String, DefaultWeightedEdge>(g).getPathWeight(V1, V5));
     }
 
+    public void testGetClosestVertices()
+    {
+        Graph<String, DefaultWeightedEdge> g = create();
+        DijkstraShortestPath<String, DefaultWeightedEdge> dijkstra =
+            new DijkstraShortestPath<>(g);
+
+        Map<String, Double> closest =
+            dijkstra.getClosestVertices(V1, v -> v.equals(V4) || v.equals(V5));
+        assertEquals(Collections.singletonMap(V4, 7d), closest);
+
+        // V2 and V3 are both at distance 5 from V4
+        g.setEdgeWeight(g.getEdge(V3, V4), 5d);
+        closest = dijkstra.getClosestVertices(V4, v -> !v.equals(V4));
+        assertEquals(new HashSet<>(Arrays.asList(V2, V3, V5)), closest.keySet());
+        assertEquals(5d, closest.get(V3));
+
+        assertEquals(Collections.singletonMap(V1, 0d), dijkstra.getClosestVertices(V1, v -> true));
+        assertTrue(dijkstra.getClosestVertices(V1, v -> false).isEmpty());
+        assertTrue(
+            new DijkstraShortestPath<>(g, 6.0)
+                .getClosestVertices(V1, v -> v.equals(V4)).isEmpty());
+    }
+
     public void testNonNegativeWeights()
     {
         DirectedWeightedPseudograph<String, DefaultWeightedEdge> g =
@@ -0,0 +1,137 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.assertSameAsDijkstra;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.grid;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.pseudographs;
+import static org.jgrapht.alg.shortestpath.ShortestPathTestUtils.randomGraph;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link HubLabelingShortestPath}.
+ */
+public class HubLabelingShortestPathTest
+{
+
+    @Test
+    public void testRandomGraphs()
+    {
+        Random rng = new Random(29);
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : pseudographs()) {
+            for (double p : new double[] { 0.05, 0.2 }) {
+                Graph<Integer, DefaultWeightedEdge> g = randomGraph(gSupplier.get(), 50, p, rng);
+                assertSameAsDijkstra(
+                    g, new HubLabelingShortestPath<>(new HubLabeling<>(g, true)));
+            }
+        }
+    }
+
+    @Test
+    public void testGrid()
+    {
+        int size = 8;
+        Graph<Integer, DefaultWeightedEdge> g = grid(size, () -> 5d);
+        HubLabeling<Integer, DefaultWeightedEdge> labeling = new HubLabeling<>(g, true);
+        assertSameAsDijkstra(g, new HubLabelingShortestPath<>(labeling));
+        assertTrue(labeling.getAverageLabelSize() < size * size);
+        assertEquals(
+            70d, labeling.getDistanceByIndex(
+                labeling.getVertexIndex(0), labeling.getVertexIndex(size * size - 1)),
+            0d);
+    }
+
+    @Test
+    public void testDistancesOnly()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1, 2, 3));
+        Graphs.addEdge(g, 0, 1, 1d);
+        Graphs.addEdge(g, 1, 2, 2d);
+        Graphs.addEdge(g, 2, 3, 1d);
+        Graphs.addEdge(g, 0, 3, 5d);
+
+        HubLabeling<Integer, DefaultWeightedEdge> labeling = new HubLabeling<>(g);
+        assertFalse(labeling.isStoringPaths());
+        HubLabelingShortestPath<Integer, DefaultWeightedEdge> hl =
+            new HubLabelingShortestPath<>(labeling);
+        assertEquals(4d, hl.getPathWeight(0, 3), 0d);
+        assertEquals(Double.POSITIVE_INFINITY, hl.getPathWeight(3, 0), 0d);
+        try {
+            hl.getPath(0, 3);
+            Assert.fail("Paths are not stored");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDisconnected()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList(0, 1, 2, 3));
+        Graphs.addEdge(g, 0, 1, 1d);
+        Graphs.addEdge(g, 2, 3, 1d);
+
+        HubLabelingShortestPath<Integer, DefaultWeightedEdge> hl =
+            new HubLabelingShortestPath<>(g);
+        assertNull(hl.getPath(0, 3));
+        assertNull(hl.getPath(1, 0));
+        assertEquals(Double.POSITIVE_INFINITY, hl.getPathWeight(0, 2), 0d);
+        assertEquals(1d, hl.getPathWeight(0, 1), 0d);
+
+        GraphPath<Integer, DefaultWeightedEdge> path = hl.getPath(2, 2);
+        assertEquals(0d, path.getWeight(), 0d);
+        assertEquals(Collections.singletonList(2), path.getVertexList());
+    }
+
+    @Test
+    public void testSerialization()
+        throws IOException, ClassNotFoundException
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new WeightedPseudograph<>(DefaultWeightedEdge.class);
+        randomGraph(g, 30, 0.1, new Random(3));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new HubLabeling<>(g, true));
+        out.close();
+        ObjectInputStream in =
+            new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        @SuppressWarnings("unchecked") HubLabeling<Integer, DefaultWeightedEdge> labeling =
+            (HubLabeling<Integer, DefaultWeightedEdge>) in.readObject();
+        in.close();
+
+        assertSameAsDijkstra(labeling.getGraph(), new HubLabelingShortestPath<>(labeling));
+    }
+}
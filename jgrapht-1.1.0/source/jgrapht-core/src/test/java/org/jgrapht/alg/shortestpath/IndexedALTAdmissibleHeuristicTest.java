@@ -0,0 +1,270 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.generate.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link IndexedALTAdmissibleHeuristic}.
+ */
+public class IndexedALTAdmissibleHeuristicTest
+{
+
+    @Test
+    public void testSameEstimatesAsALT()
+    {
+        final int tests = 3;
+        final int n = 30;
+        final double p = 0.35;
+        final int landmarksCount = 3;
+
+        Random rng = new Random(47);
+
+        List<Supplier<Graph<Integer, DefaultWeightedEdge>>> graphs = new ArrayList<>();
+        graphs.add(() -> new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class));
+        graphs.add(() -> new WeightedPseudograph<>(DefaultWeightedEdge.class));
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : graphs) {
+            GraphGenerator<Integer, DefaultWeightedEdge, Integer> gen =
+                new GnpRandomGraphGenerator<>(n, p, rng, true);
+            for (int i = 0; i < tests; i++) {
+                Graph<Integer, DefaultWeightedEdge> g = gSupplier.get();
+                gen.generateGraph(g, new IntegerVertexFactory(), null);
+
+                for (DefaultWeightedEdge e : g.edgeSet()) {
+                    g.setEdgeWeight(e, rng.nextDouble());
+                }
+
+                Integer[] allVertices = g.vertexSet().toArray(new Integer[0]);
+                Set<Integer> landmarks = new HashSet<>();
+                while (landmarks.size() < landmarksCount) {
+                    landmarks.add(allVertices[rng.nextInt(n)]);
+                }
+
+                AStarAdmissibleHeuristic<Integer> expected =
+                    new ALTAdmissibleHeuristic<>(g, landmarks);
+                IndexedALTAdmissibleHeuristic<Integer, DefaultWeightedEdge> h =
+                    new IndexedALTAdmissibleHeuristic<>(g, landmarks);
+                assertEquals(landmarksCount, h.getLandmarksCount());
+
+                for (Integer v : g.vertexSet()) {
+                    for (Integer u : g.vertexSet()) {
+                        assertEquals(
+                            expected.getCostEstimate(v, u), h.getCostEstimate(v, u), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testShortestPaths()
+    {
+        final int n = 40;
+        Random rng = new Random(17);
+
+        Graph<Integer, DefaultWeightedEdge> g =
+            new WeightedPseudograph<>(DefaultWeightedEdge.class);
+        new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(n, 0.2, rng, true)
+            .generateGraph(g, new IntegerVertexFactory(), null);
+        for (DefaultWeightedEdge e : g.edgeSet()) {
+            g.setEdgeWeight(e, rng.nextDouble());
+        }
+
+        AStarAdmissibleHeuristic<Integer> h =
+            new IndexedALTAdmissibleHeuristic<>(g, new HashSet<>(Arrays.asList(0, 13, 27)));
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> sp1 = new DijkstraShortestPath<>(g);
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> sp2 = new AStarShortestPath<>(g, h);
+        for (Integer v : g.vertexSet()) {
+            for (Integer u : g.vertexSet()) {
+                assertEquals(sp1.getPathWeight(v, u), sp2.getPathWeight(v, u), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelPrecomputation()
+    {
+        Random rng = new Random(5);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Supplier<Graph<Integer, DefaultWeightedEdge>>> graphs = new ArrayList<>();
+            graphs.add(() -> new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class));
+            graphs.add(() -> new WeightedPseudograph<>(DefaultWeightedEdge.class));
+
+            for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : graphs) {
+                Graph<Integer, DefaultWeightedEdge> g = gSupplier.get();
+                new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(50, 0.1, rng, true)
+                    .generateGraph(g, new IntegerVertexFactory(), null);
+                for (DefaultWeightedEdge e : g.edgeSet()) {
+                    g.setEdgeWeight(e, rng.nextDouble());
+                }
+                Set<Integer> landmarks = new LinkedHashSet<>(Arrays.asList(3, 11, 19, 27, 35, 43));
+
+                AStarAdmissibleHeuristic<Integer> sequential =
+                    new IndexedALTAdmissibleHeuristic<>(g, landmarks);
+                AStarAdmissibleHeuristic<Integer> parallel =
+                    new IndexedALTAdmissibleHeuristic<>(g, landmarks, pool);
+                AStarAdmissibleHeuristic<Integer> altSequential =
+                    new ALTAdmissibleHeuristic<>(g, landmarks);
+                AStarAdmissibleHeuristic<Integer> altParallel =
+                    new ALTAdmissibleHeuristic<>(g, landmarks, pool);
+
+                for (Integer v : g.vertexSet()) {
+                    for (Integer u : g.vertexSet()) {
+                        assertEquals(
+                            sequential.getCostEstimate(v, u), parallel.getCostEstimate(v, u), 0d);
+                        assertEquals(
+                            altSequential.getCostEstimate(v, u),
+                            altParallel.getCostEstimate(v, u), 0d);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRepairAfterChanges()
+    {
+        Random rng = new Random(23);
+
+        List<Supplier<Graph<Integer, DefaultWeightedEdge>>> graphs = new ArrayList<>();
+        graphs.add(() -> new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class));
+        graphs.add(() -> new WeightedPseudograph<>(DefaultWeightedEdge.class));
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : graphs) {
+            Graph<Integer, DefaultWeightedEdge> base = gSupplier.get();
+            new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(40, 0.08, rng, true)
+                .generateGraph(base, new IntegerVertexFactory(), null);
+            for (DefaultWeightedEdge e : base.edgeSet()) {
+                // few distinct weights, to get ties between shortest paths
+                base.setEdgeWeight(e, rng.nextInt(4));
+            }
+            ListenableGraph<Integer, DefaultWeightedEdge> g = new DefaultListenableGraph<>(base);
+            Set<Integer> landmarks = new LinkedHashSet<>(Arrays.asList(2, 17, 31));
+
+            IndexedALTAdmissibleHeuristic<Integer, DefaultWeightedEdge> h =
+                new IndexedALTAdmissibleHeuristic<>(g, landmarks);
+            g.addGraphListener(h);
+
+            int nextVertex = 40;
+            for (int step = 0; step < 200; step++) {
+                List<DefaultWeightedEdge> edges = new ArrayList<>(g.edgeSet());
+                List<Integer> vertices = new ArrayList<>(g.vertexSet());
+                int action = rng.nextInt(6);
+                if (action <= 1 && !edges.isEmpty()) {
+                    g.removeEdge(edges.get(rng.nextInt(edges.size())));
+                } else if (action == 2 && !edges.isEmpty()) {
+                    g.setEdgeWeight(edges.get(rng.nextInt(edges.size())), rng.nextInt(4));
+                } else if (action == 3) {
+                    Integer v = vertices.get(rng.nextInt(vertices.size()));
+                    if (!landmarks.contains(v)) {
+                        g.removeVertex(v);
+                    }
+                } else if (action == 4) {
+                    g.addVertex(nextVertex);
+                    Integer u = vertices.get(rng.nextInt(vertices.size()));
+                    g.setEdgeWeight(g.addEdge(u, nextVertex), rng.nextInt(4));
+                    g.setEdgeWeight(g.addEdge(nextVertex, u), rng.nextInt(4));
+                    nextVertex++;
+                } else {
+                    Integer u = vertices.get(rng.nextInt(vertices.size()));
+                    Integer v = vertices.get(rng.nextInt(vertices.size()));
+                    DefaultWeightedEdge e = g.getEdgeFactory().createEdge(u, v);
+                    g.setEdgeWeight(e, rng.nextInt(4));
+                    g.addEdge(u, v, e);
+                }
+                if (step == 150) {
+                    g.removeVertex(17);
+                    landmarks.remove(17);
+                }
+                if (step % 10 == 0 || step == 150) {
+                    assertSameEstimates(g, new IndexedALTAdmissibleHeuristic<>(g, landmarks), h);
+                }
+            }
+            assertSameEstimates(g, new IndexedALTAdmissibleHeuristic<>(g, landmarks), h);
+        }
+    }
+
+    private static <V> void assertSameEstimates(
+        Graph<V, ?> g, AStarAdmissibleHeuristic<V> expected, AStarAdmissibleHeuristic<V> actual)
+    {
+        for (V v : g.vertexSet()) {
+            for (V u : g.vertexSet()) {
+                assertEquals(expected.getCostEstimate(v, u), actual.getCostEstimate(v, u), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testUnknownVertex()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addEdgeWithVertices(g, 0, 1, 2d);
+        Graphs.addEdgeWithVertices(g, 1, 2, 3d);
+
+        AStarAdmissibleHeuristic<Integer> h =
+            new IndexedALTAdmissibleHeuristic<>(g, Collections.singleton(0));
+        assertEquals(5d, h.getCostEstimate(0, 2), 1e-9);
+        assertEquals(3d, h.getCostEstimate(1, 2), 1e-9);
+
+        g.addVertex(3);
+        assertEquals(0d, h.getCostEstimate(1, 3), 1e-9);
+    }
+
+    @Test
+    public void testUnreachableTarget()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addEdgeWithVertices(g, 0, 1, 1d);
+        Graphs.addEdgeWithVertices(g, 1, 2, 1d);
+        Graphs.addEdgeWithVertices(g, 3, 0, 1d);
+
+        // landmark 0 reaches 1 but not 3, so 3 cannot be reached from 1
+        AStarAdmissibleHeuristic<Integer> h =
+            new IndexedALTAdmissibleHeuristic<>(g, Collections.singleton(0));
+        assertEquals(Double.POSITIVE_INFINITY, h.getCostEstimate(1, 3), 0d);
+        assertEquals(Double.POSITIVE_INFINITY, h.getCostEstimate(2, 3), 0d);
+        assertEquals(1d, h.getCostEstimate(1, 2), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLandmarks()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        g.addVertex(0);
+        new IndexedALTAdmissibleHeuristic<>(g, Collections.emptySet());
+    }
+
+}
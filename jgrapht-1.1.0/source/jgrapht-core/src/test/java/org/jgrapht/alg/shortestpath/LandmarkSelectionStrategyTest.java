@@ -0,0 +1,168 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.generate.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for the landmark selection strategies.
+ */
+public class LandmarkSelectionStrategyTest
+{
+
+    private List<LandmarkSelectionStrategy<Integer, DefaultWeightedEdge>> strategies()
+    {
+        return Arrays.asList(
+            new RandomLandmarkSelection<>(new Random(7)),
+            new FarthestLandmarkSelection<>(new Random(7)),
+            new AvoidLandmarkSelection<>(new Random(7)));
+    }
+
+    private Graph<Integer, DefaultWeightedEdge> randomGraph(Graph<Integer, DefaultWeightedEdge> g)
+    {
+        Random rng = new Random(33);
+        new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(40, 0.15, rng, true)
+            .generateGraph(g, new IntegerVertexFactory(), null);
+        for (DefaultWeightedEdge e : g.edgeSet()) {
+            g.setEdgeWeight(e, rng.nextDouble());
+        }
+        return g;
+    }
+
+    @Test
+    public void testSelectsDistinctVertices()
+    {
+        List<Graph<Integer, DefaultWeightedEdge>> graphs = Arrays.asList(
+            randomGraph(new WeightedPseudograph<>(DefaultWeightedEdge.class)),
+            randomGraph(new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class)));
+
+        for (Graph<Integer, DefaultWeightedEdge> g : graphs) {
+            for (LandmarkSelectionStrategy<Integer, DefaultWeightedEdge> s : strategies()) {
+                for (int count = 1; count <= 8; count++) {
+                    Set<Integer> landmarks = s.selectLandmarks(g, count);
+                    assertEquals(count, landmarks.size());
+                    assertTrue(g.vertexSet().containsAll(landmarks));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testShortestPaths()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            randomGraph(new WeightedPseudograph<>(DefaultWeightedEdge.class));
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> dijkstra =
+            new DijkstraShortestPath<>(g);
+
+        for (LandmarkSelectionStrategy<Integer, DefaultWeightedEdge> s : strategies()) {
+            AStarAdmissibleHeuristic<Integer> h =
+                new IndexedALTAdmissibleHeuristic<>(g, s.selectLandmarks(g, 4));
+            ShortestPathAlgorithm<Integer, DefaultWeightedEdge> astar =
+                new AStarShortestPath<>(g, h);
+            for (Integer v : g.vertexSet()) {
+                for (Integer u : g.vertexSet()) {
+                    assertEquals(dijkstra.getPathWeight(v, u), astar.getPathWeight(v, u), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAllVertices()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addEdgeWithVertices(g, 0, 1, 1d);
+        Graphs.addEdgeWithVertices(g, 1, 2, 1d);
+
+        for (LandmarkSelectionStrategy<Integer, DefaultWeightedEdge> s : strategies()) {
+            assertEquals(g.vertexSet(), s.selectLandmarks(g, 5));
+        }
+    }
+
+    @Test
+    public void testFarthestOnPath()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i < 10; i++) {
+            Graphs.addEdgeWithVertices(g, i, i + 1, 1d);
+        }
+
+        Set<Integer> landmarks =
+            new FarthestLandmarkSelection<Integer, DefaultWeightedEdge>(new Random(3))
+                .selectLandmarks(g, 2);
+        assertEquals(new HashSet<>(Arrays.asList(0, 10)), landmarks);
+    }
+
+    @Test
+    public void testFarthestDisconnected()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addEdgeWithVertices(g, 0, 1, 1d);
+        Graphs.addEdgeWithVertices(g, 1, 2, 1d);
+        Graphs.addEdgeWithVertices(g, 3, 4, 1d);
+        Graphs.addEdgeWithVertices(g, 4, 5, 1d);
+
+        Set<Integer> landmarks =
+            new FarthestLandmarkSelection<Integer, DefaultWeightedEdge>(new Random(3))
+                .selectLandmarks(g, 2);
+        int first = 0;
+        for (Integer l : landmarks) {
+            first += l < 3 ? 1 : 0;
+        }
+        assertEquals(1, first);
+    }
+
+    @Test
+    public void testAvoidOnPath()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i < 10; i++) {
+            Graphs.addEdgeWithVertices(g, i, i + 1, 1d);
+        }
+
+        // a single end of a path bounds all distances exactly, the second landmark is the other end
+        Set<Integer> landmarks = new AvoidLandmarkSelection<Integer, DefaultWeightedEdge>(
+            new Random(5)).selectLandmarks(g, 2);
+        assertEquals(new HashSet<>(Arrays.asList(0, 10)), landmarks);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCount()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        g.addVertex(0);
+        new RandomLandmarkSelection<Integer, DefaultWeightedEdge>().selectLandmarks(g, 0);
+    }
+
+}
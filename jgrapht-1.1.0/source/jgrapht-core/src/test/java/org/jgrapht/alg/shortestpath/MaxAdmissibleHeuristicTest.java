@@ -0,0 +1,86 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link MaxAdmissibleHeuristic}.
+ */
+public class MaxAdmissibleHeuristicTest
+{
+
+    @Test
+    public void testMaximum()
+    {
+        AStarAdmissibleHeuristic<Integer> h = new MaxAdmissibleHeuristic<>(
+            (u, t) -> (double) Math.abs(u - t), (u, t) -> u == 0 ? 10d : 0d);
+        assertEquals(10d, h.getCostEstimate(0, 3), 0d);
+        assertEquals(4d, h.getCostEstimate(1, 5), 0d);
+        assertEquals(0d, h.getCostEstimate(2, 2), 0d);
+    }
+
+    @Test
+    public void testAStarWithLineAndALT()
+    {
+        // a path 0 - 1 - ... - 9 with unit weights and some heavier shortcuts
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i < 10; i++) {
+            g.addVertex(i);
+        }
+        for (int i = 0; i < 9; i++) {
+            Graphs.addEdge(g, i, i + 1, 1d);
+        }
+        Graphs.addEdge(g, 0, 5, 7d);
+        Graphs.addEdge(g, 3, 9, 6.5);
+
+        AStarAdmissibleHeuristic<Integer> line = (u, t) -> 0.5 * Math.abs(u - t);
+        AStarAdmissibleHeuristic<Integer> alt =
+            new ALTAdmissibleHeuristic<>(g, Collections.singleton(9));
+        AStarAdmissibleHeuristic<Integer> max = new MaxAdmissibleHeuristic<>(line, alt);
+
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> dijkstra =
+            new DijkstraShortestPath<>(g);
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> astar =
+            new AStarShortestPath<>(g, max);
+        for (Integer v : g.vertexSet()) {
+            for (Integer u : g.vertexSet()) {
+                double estimate = max.getCostEstimate(v, u);
+                assertTrue(estimate >= line.getCostEstimate(v, u));
+                assertTrue(estimate >= alt.getCostEstimate(v, u));
+                assertTrue(estimate <= dijkstra.getPathWeight(v, u) + 1e-9);
+                assertEquals(dijkstra.getPathWeight(v, u), astar.getPathWeight(v, u), 1e-9);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoHeuristics()
+    {
+        new MaxAdmissibleHeuristic<Integer>(Collections.emptyList());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.generate.*;
+import org.jgrapht.graph.*;
+
+/**
+ * Fixtures and assertions shared by the tests of the shortest path speedup techniques, which are
+ * all checked against Dijkstra.
+ */
+final class ShortestPathTestUtils
+{
+
+    private ShortestPathTestUtils()
+    {
+    }
+
+    /**
+     * Suppliers of an empty directed and an empty undirected pseudograph.
+     */
+    static List<Supplier<Graph<Integer, DefaultWeightedEdge>>> pseudographs()
+    {
+        List<Supplier<Graph<Integer, DefaultWeightedEdge>>> graphs = new ArrayList<>();
+        graphs.add(() -> new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class));
+        graphs.add(() -> new WeightedPseudograph<>(DefaultWeightedEdge.class));
+        return graphs;
+    }
+
+    /**
+     * Fill the graph with a G(n, p) random graph with loops and integer edge weights in [0, 10).
+     *
+     * @param g the empty graph to fill
+     * @param n the number of vertices
+     * @param p the edge probability
+     * @param rng the source of randomness for the edges and the weights
+     * @return the graph
+     */
+    static Graph<Integer, DefaultWeightedEdge> randomGraph(
+        Graph<Integer, DefaultWeightedEdge> g, int n, double p, Random rng)
+    {
+        new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(n, p, rng, true)
+            .generateGraph(g, new IntegerVertexFactory(), null);
+        for (DefaultWeightedEdge e : g.edgeSet()) {
+            g.setEdgeWeight(e, rng.nextInt(10));
+        }
+        return g;
+    }
+
+    /**
+     * Create an undirected grid of size x size vertices, vertex r * size + c in row r and column c.
+     *
+     * @param size the number of rows and columns
+     * @param weights the weight of each road, drawn row by row, the right road before the one below
+     * @return the grid
+     */
+    static Graph<Integer, DefaultWeightedEdge> grid(int size, DoubleSupplier weights)
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        for (int i = 0; i < size * size; i++) {
+            g.addVertex(i);
+        }
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int v = r * size + c;
+                if (c + 1 < size) {
+                    Graphs.addEdge(g, v, v + 1, weights.getAsDouble());
+                }
+                if (r + 1 < size) {
+                    Graphs.addEdge(g, v, v + size, weights.getAsDouble());
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Assert that the algorithm finds paths of the same weight as Dijkstra between all pairs of
+     * vertices, and that the paths it returns are walks of the graph.
+     *
+     * @param g the graph
+     * @param sp the algorithm to check
+     */
+    static void assertSameAsDijkstra(
+        Graph<Integer, DefaultWeightedEdge> g,
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> sp)
+    {
+        ShortestPathAlgorithm<Integer, DefaultWeightedEdge> dijkstra =
+            new DijkstraShortestPath<>(g);
+
+        for (Integer v : g.vertexSet()) {
+            for (Integer u : g.vertexSet()) {
+                GraphPath<Integer, DefaultWeightedEdge> expected = dijkstra.getPath(v, u);
+                GraphPath<Integer, DefaultWeightedEdge> actual = sp.getPath(v, u);
+                if (expected == null) {
+                    assertNull(actual);
+                    assertEquals(Double.POSITIVE_INFINITY, sp.getPathWeight(v, u), 0d);
+                    continue;
+                }
+                assertEquals(expected.getWeight(), actual.getWeight(), 1e-9);
+                assertEquals(expected.getWeight(), sp.getPathWeight(v, u), 1e-9);
+
+                List<Integer> vertices = actual.getVertexList();
+                List<DefaultWeightedEdge> edges = actual.getEdgeList();
+                assertEquals(v, vertices.get(0));
+                assertEquals(u, vertices.get(vertices.size() - 1));
+                assertEquals(edges.size() + 1, vertices.size());
+                double sum = 0d;
+                for (int i = 0; i < edges.size(); i++) {
+                    DefaultWeightedEdge e = edges.get(i);
+                    Integer a = vertices.get(i);
+                    Integer b = vertices.get(i + 1);
+                    if (g.getType().isDirected()) {
+                        assertEquals(a, g.getEdgeSource(e));
+                        assertEquals(b, g.getEdgeTarget(e));
+                    } else {
+                        assertEquals(b, Graphs.getOppositeVertex(g, e, a));
+                    }
+                    sum += g.getEdgeWeight(e);
+                }
+                assertEquals(actual.getWeight(), sum, 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.interfaces.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.generate.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link TimeDependentShortestPath} and {@link TravelTimeProfiles}.
+ */
+public class TimeDependentShortestPathTest
+{
+    private static final double DAY = 1440d;
+
+    @Test
+    public void testEvaluate()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        TravelTimeProfiles<Integer, DefaultWeightedEdge> profiles =
+            new TravelTimeProfiles<>(g, DAY);
+        int rush = profiles.addProfile(
+            new double[] { 360d, 480d, 600d, 1020d, 1140d },
+            new double[] { 10d, 30d, 10d, 10d, 25d });
+        int constant = profiles.addProfile(new double[] { 0d }, new double[] { 7d });
+
+        assertEquals(10d, profiles.evaluate(rush, 360d), 1e-9);
+        assertEquals(20d, profiles.evaluate(rush, 420d), 1e-9);
+        assertEquals(30d, profiles.evaluate(rush, 480d + DAY), 1e-9);
+        assertEquals(10d, profiles.evaluate(rush, 800d), 1e-9);
+        // wrapping around midnight between 1140 and 360 of the next day
+        assertEquals(25d - 15d * 300d / 660d, profiles.evaluate(rush, 1440d), 1e-9);
+        assertEquals(25d - 15d * 300d / 660d, profiles.evaluate(rush, 0d), 1e-9);
+        assertEquals(25d - 15d * 300d / 660d, profiles.evaluate(rush, -DAY), 1e-9);
+        assertEquals(25d - 15d * 600d / 660d, profiles.evaluate(rush, 300d), 1e-9);
+        assertEquals(7d, profiles.evaluate(constant, 123d), 0d);
+        assertEquals(2, profiles.getNumberOfProfiles());
+    }
+
+    @Test
+    public void testEdgeProfiles()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        DefaultWeightedEdge e = Graphs.addEdgeWithVertices(g, 0, 1, 4d);
+        TravelTimeProfiles<Integer, DefaultWeightedEdge> profiles =
+            new TravelTimeProfiles<>(g, DAY);
+        int p = profiles.addProfile(new double[] { 0d, 720d }, new double[] { 1d, 3d });
+
+        assertEquals(4d, profiles.getTravelTime(e, 100d), 0d);
+        profiles.setProfile(e, p, 5d);
+        assertEquals(15d, profiles.getTravelTime(e, 720d), 1e-9);
+        assertEquals(5d, profiles.getMinimumTravelTime(e), 1e-9);
+        profiles.clearProfile(e);
+        assertEquals(4d, profiles.getTravelTime(e, 720d), 0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFifoViolation()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        DefaultWeightedEdge e = Graphs.addEdgeWithVertices(g, 0, 1, 4d);
+        TravelTimeProfiles<Integer, DefaultWeightedEdge> profiles =
+            new TravelTimeProfiles<>(g, DAY);
+        // falls by 60 in 30 minutes
+        int p = profiles.addProfile(new double[] { 0d, 30d }, new double[] { 70d, 10d });
+        profiles.setProfile(e, p);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedBreakpoints()
+    {
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        new TravelTimeProfiles<>(g, DAY)
+            .addProfile(new double[] { 10d, 5d }, new double[] { 1d, 1d });
+    }
+
+    @Test
+    public void testAvoidsRushHour()
+    {
+        // the direct road is fast at night but jammed at rush hour, the detour is constant
+        Graph<Integer, DefaultWeightedEdge> g =
+            new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+        DefaultWeightedEdge direct = Graphs.addEdgeWithVertices(g, 0, 2, 10d);
+        Graphs.addEdgeWithVertices(g, 0, 1, 10d);
+        Graphs.addEdgeWithVertices(g, 1, 2, 10d);
+        TravelTimeProfiles<Integer, DefaultWeightedEdge> profiles =
+            new TravelTimeProfiles<>(g, DAY);
+        int rush = profiles.addProfile(
+            new double[] { 360d, 480d, 600d }, new double[] { 10d, 60d, 10d });
+        profiles.setProfile(direct, rush);
+
+        TimeDependentShortestPath<Integer, DefaultWeightedEdge> td =
+            new TimeDependentShortestPath<>(profiles, 0d);
+        assertEquals(Arrays.asList(0, 2), td.getPath(0, 2).getVertexList());
+        assertEquals(10d, td.getPathWeight(0, 2), 1e-9);
+
+        GraphPath<Integer, DefaultWeightedEdge> path = td.getPath(0, 2, 480d);
+        assertEquals(Arrays.asList(0, 1, 2), path.getVertexList());
+        assertEquals(20d, path.getWeight(), 1e-9);
+
+        td.setDepartureTime(480d + DAY);
+        assertEquals(20d, td.getPathWeight(0, 2), 1e-9);
+        assertNull(td.getPath(2, 0));
+    }
+
+    @Test
+    public void testRandomGraphs()
+    {
+        Random rng = new Random(29);
+
+        List<Supplier<Graph<Integer, DefaultWeightedEdge>>> graphs = new ArrayList<>();
+        graphs.add(() -> new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class));
+        graphs.add(() -> new WeightedPseudograph<>(DefaultWeightedEdge.class));
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : graphs) {
+            Graph<Integer, DefaultWeightedEdge> g = gSupplier.get();
+            new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(40, 0.1, rng, true)
+                .generateGraph(g, new IntegerVertexFactory(), null);
+            TravelTimeProfiles<Integer, DefaultWeightedEdge> profiles =
+                new TravelTimeProfiles<>(g, DAY);
+            int[] shapes = new int[4];
+            for (int i = 0; i < shapes.length; i++) {
+                double[] times = new double[1 + rng.nextInt(5)];
+                double[] values = new double[times.length];
+                for (int j = 0; j < times.length; j++) {
+                    times[j] = j * DAY / times.length + rng.nextInt(100);
+                    values[j] = 1d + rng.nextInt(20);
+                }
+                shapes[i] = profiles.addProfile(times, values);
+            }
+            for (DefaultWeightedEdge e : g.edgeSet()) {
+                g.setEdgeWeight(e, 1d + rng.nextInt(10));
+                if (rng.nextInt(4) != 0) {
+                    profiles.setProfile(e, shapes[rng.nextInt(shapes.length)], 1d + rng.nextInt(3));
+                }
+            }
+
+            // lower bounds from the minimum travel times
+            Graph<Integer, DefaultWeightedEdge> lower =
+                new AsWeightedGraph<>(g, new HashMap<>());
+            for (DefaultWeightedEdge e : g.edgeSet()) {
+                lower.setEdgeWeight(e, profiles.getMinimumTravelTime(e));
+            }
+            AStarAdmissibleHeuristic<Integer> alt =
+                new ALTAdmissibleHeuristic<>(lower, new HashSet<>(Arrays.asList(0, 20)));
+
+            TimeDependentShortestPath<Integer, DefaultWeightedEdge> dijkstra =
+                new TimeDependentShortestPath<>(profiles, 0d);
+            TimeDependentShortestPath<Integer, DefaultWeightedEdge> astar =
+                new TimeDependentShortestPath<>(profiles, 0d, alt);
+            for (double departure : new double[] { 0d, 400d, 1000d, 2000d }) {
+                for (Integer v : g.vertexSet()) {
+                    Map<Integer, Double> expected = earliestArrivals(g, profiles, v, departure);
+                    for (Integer u : g.vertexSet()) {
+                        double travelTime = expected.containsKey(u)
+                            ? expected.get(u) - departure : Double.POSITIVE_INFINITY;
+                        assertEquals(travelTime, dijkstra.getPathWeight(v, u, departure), 1e-9);
+                        GraphPath<Integer, DefaultWeightedEdge> path =
+                            astar.getPath(v, u, departure);
+                        if (path == null) {
+                            assertEquals(Double.POSITIVE_INFINITY, travelTime, 0d);
+                            continue;
+                        }
+                        assertEquals(travelTime, path.getWeight(), 1e-9);
+                        assertEquals(travelTime, drive(g, profiles, path, departure), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Bellman-Ford on arrival times.
+     */
+    private static Map<Integer, Double> earliestArrivals(
+        Graph<Integer, DefaultWeightedEdge> g,
+        TravelTimeProfiles<Integer, DefaultWeightedEdge> profiles, Integer source,
+        double departure)
+    {
+        Map<Integer, Double> arrival = new HashMap<>();
+        arrival.put(source, departure);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (DefaultWeightedEdge e : g.edgeSet()) {
+                Integer a = g.getEdgeSource(e);
+                Integer b = g.getEdgeTarget(e);
+                for (int direction = 0; direction < (g.getType().isDirected() ? 1 : 2);
+                    direction++)
+                {
+                    Integer from = direction == 0 ? a : b;
+                    Integer to = direction == 0 ? b : a;
+                    Double t = arrival.get(from);
+                    if (t == null) {
+                        continue;
+                    }
+                    double at = t + profiles.getTravelTime(e, t);
+                    Double known = arrival.get(to);
+                    if (known == null || at < known - 1e-12) {
+                        arrival.put(to, at);
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return arrival;
+    }
+
+    private static double drive(
+        Graph<Integer, DefaultWeightedEdge> g,
+        TravelTimeProfiles<Integer, DefaultWeightedEdge> profiles,
+        GraphPath<Integer, DefaultWeightedEdge> path, double departure)
+    {
+        double t = departure;
+        List<Integer> vertices = path.getVertexList();
+        List<DefaultWeightedEdge> edges = path.getEdgeList();
+        for (int i = 0; i < edges.size(); i++) {
+            assertEquals(
+                vertices.get(i + 1), Graphs.getOppositeVertex(g, edges.get(i), vertices.get(i)));
+            t += profiles.getTravelTime(edges.get(i), t);
+        }
+        return t - departure;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.shortestpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.function.*;
+
+import org.jgrapht.*;
+import org.jgrapht.alg.util.*;
+import org.jgrapht.generate.*;
+import org.jgrapht.graph.*;
+import org.junit.*;
+
+/**
+ * Tests for {@link YenShortestPathIterator}.
+ */
+public class YenShortestPathIteratorTest
+{
+
+    @Test
+    public void testDiamond()
+    {
+        Graph<String, DefaultWeightedEdge> g =
+            new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList("s", "a", "b", "c", "t"));
+        g.setEdgeWeight(g.addEdge("s", "a"), 1d);
+        g.setEdgeWeight(g.addEdge("s", "b"), 2d);
+        g.setEdgeWeight(g.addEdge("a", "t"), 1d);
+        g.setEdgeWeight(g.addEdge("b", "t"), 2d);
+        g.setEdgeWeight(g.addEdge("a", "b"), 0.5);
+        g.setEdgeWeight(g.addEdge("s", "c"), 10d);
+
+        YenShortestPathIterator<String, DefaultWeightedEdge> it =
+            new YenShortestPathIterator<>(g, "s", "t");
+        assertTrue(it.hasNext());
+        GraphPath<String, DefaultWeightedEdge> p = it.next();
+        assertEquals(Arrays.asList("s", "a", "t"), p.getVertexList());
+        assertEquals(2d, p.getWeight(), 0d);
+        // only the first path is computed so far
+        assertEquals(1, it.getNumberOfExaminedPaths());
+        p = it.next();
+        assertEquals(Arrays.asList("s", "a", "b", "t"), p.getVertexList());
+        assertEquals(3.5, p.getWeight(), 0d);
+        p = it.next();
+        assertEquals(Arrays.asList("s", "b", "t"), p.getVertexList());
+        assertEquals(4d, p.getWeight(), 0d);
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testSimilarityFilter()
+    {
+        // a long shared road with a small detour at one end and a separate road
+        Graph<String, DefaultWeightedEdge> g = new WeightedPseudograph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList("s", "a", "b", "x", "t"));
+        g.setEdgeWeight(g.addEdge("s", "a"), 1d);
+        g.setEdgeWeight(g.addEdge("s", "b"), 1.5);
+        g.setEdgeWeight(g.addEdge("a", "b"), 0.1);
+        g.setEdgeWeight(g.addEdge("b", "t"), 10d);
+        g.setEdgeWeight(g.addEdge("s", "x"), 6d);
+        g.setEdgeWeight(g.addEdge("x", "t"), 6d);
+
+        List<List<String>> all = new ArrayList<>();
+        new YenShortestPathIterator<>(g, "s", "t")
+            .forEachRemaining(p -> all.add(p.getVertexList()));
+        assertEquals(3, all.size());
+        assertEquals(Arrays.asList("s", "a", "b", "t"), all.get(0));
+        assertEquals(Arrays.asList("s", "b", "t"), all.get(1));
+        assertEquals(Arrays.asList("s", "x", "t"), all.get(2));
+
+        List<List<String>> alternatives = new ArrayList<>();
+        YenShortestPathIterator<String, DefaultWeightedEdge> it =
+            new YenShortestPathIterator<>(g, "s", "t", 0.5, 100);
+        it.forEachRemaining(p -> alternatives.add(p.getVertexList()));
+        assertEquals(2, alternatives.size());
+        assertEquals(Arrays.asList("s", "a", "b", "t"), alternatives.get(0));
+        assertEquals(Arrays.asList("s", "x", "t"), alternatives.get(1));
+        assertEquals(3, it.getNumberOfExaminedPaths());
+
+        it = new YenShortestPathIterator<>(g, "s", "t", 0.5, 2);
+        it.next();
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testSourceEqualsSink()
+    {
+        Graph<String, DefaultWeightedEdge> g = new WeightedPseudograph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList("a", "b"));
+        g.addEdge("a", "b");
+        YenShortestPathIterator<String, DefaultWeightedEdge> it =
+            new YenShortestPathIterator<>(g, "a", "a");
+        assertEquals(Collections.singletonList("a"), it.next().getVertexList());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testUnreachable()
+    {
+        Graph<String, DefaultWeightedEdge> g =
+            new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList("a", "b"));
+        g.addEdge("b", "a");
+        assertFalse(new YenShortestPathIterator<>(g, "a", "b").hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeEdgeWeight()
+    {
+        Graph<String, DefaultWeightedEdge> g =
+            new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class);
+        Graphs.addAllVertices(g, Arrays.asList("a", "b"));
+        g.setEdgeWeight(g.addEdge("a", "b"), -1d);
+        new YenShortestPathIterator<>(g, "a", "b");
+    }
+
+    @Test
+    public void testRandomGraphs()
+    {
+        Random rng = new Random(29);
+
+        List<Supplier<Graph<Integer, DefaultWeightedEdge>>> graphs = new ArrayList<>();
+        graphs.add(() -> new DirectedWeightedPseudograph<>(DefaultWeightedEdge.class));
+        graphs.add(() -> new WeightedPseudograph<>(DefaultWeightedEdge.class));
+
+        for (Supplier<Graph<Integer, DefaultWeightedEdge>> gSupplier : graphs) {
+            for (int round = 0; round < 5; round++) {
+                Graph<Integer, DefaultWeightedEdge> g = gSupplier.get();
+                new GnpRandomGraphGenerator<Integer, DefaultWeightedEdge>(14, 0.25, rng, true)
+                    .generateGraph(g, new IntegerVertexFactory(), null);
+                for (DefaultWeightedEdge e : g.edgeSet()) {
+                    g.setEdgeWeight(e, rng.nextInt(5));
+                }
+                int k = 30;
+                for (int query = 0; query < 10; query++) {
+                    Integer s = rng.nextInt(14);
+                    Integer t = rng.nextInt(14);
+                    if (s.equals(t)) {
+                        continue;
+                    }
+                    List<GraphPath<Integer, DefaultWeightedEdge>> expected =
+                        new KShortestPaths<>(g, k).getPaths(s, t);
+                    YenShortestPathIterator<Integer, DefaultWeightedEdge> it =
+                        new YenShortestPathIterator<>(g, s, t);
+                    Set<List<DefaultWeightedEdge>> distinct = new HashSet<>();
+                    double previous = 0d;
+                    int i = 0;
+                    while (i < expected.size() && it.hasNext()) {
+                        GraphPath<Integer, DefaultWeightedEdge> p = it.next();
+                        assertEquals(expected.get(i).getWeight(), p.getWeight(), 1e-9);
+                        assertTrue(previous <= p.getWeight());
+                        previous = p.getWeight();
+                        assertTrue(distinct.add(p.getEdgeList()));
+                        assertEquals(s, p.getStartVertex());
+                        assertEquals(t, p.getEndVertex());
+                        assertEquals(
+                            p.getVertexList().size(),
+                            new HashSet<>(p.getVertexList()).size());
+                        double sum = 0d;
+                        Integer v = s;
+                        for (DefaultWeightedEdge e : p.getEdgeList()) {
+                            assertTrue(
+                                g.getEdgeSource(e).equals(v) || !g.getType().isDirected()
+                                    && g.getEdgeTarget(e).equals(v));
+                            v = Graphs.getOppositeVertex(g, e, v);
+                            sum += g.getEdgeWeight(e);
+                        }
+                        assertEquals(t, v);
+                        assertEquals(p.getWeight(), sum, 1e-9);
+                        i++;
+                    }
+                    assertEquals(expected.size(), i);
+                    if (expected.size() < k) {
+                        assertFalse(it.hasNext());
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * (C) Copyright 2017-2017, by Dimitrios Michail and Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.alg.tour;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import org.junit.*;
+
+/**
+ * Tests for {@link PickupDeliveryTwoOptHeuristic}.
+ */
+public class PickupDeliveryTwoOptHeuristicTest
+{
+    @Test
+    public void testLine()
+    {
+        // start at 0, pickups at 3 and 1, their deliveries at 4 and 2 on a line
+        double[] x = { 0, 3, 4, 1, 2 };
+        int[] before = { -1, -1, 1, -1, 3 };
+        int[] demand = { 0, 1, -1, 1, -1 };
+        int[] tour = new int[5];
+        double length = new PickupDeliveryTwoOptHeuristic()
+            .getTour(lineDistances(x), 5, before, demand, 2, tour);
+        assertEquals(4d, length, 0d);
+        assertArrayEquals(new int[] { 0, 3, 4, 1, 2 }, tour);
+    }
+
+    @Test
+    public void testCapacityOne()
+    {
+        // nobody may share: pickup 1, delivery 2, then pickup 3, delivery 4
+        double[] x = { 0, 1, 10, 2, 3 };
+        int[] before = { -1, -1, 1, -1, 3 };
+        int[] demand = { 0, 1, -1, 1, -1 };
+        int[] tour = new int[5];
+        double length = new PickupDeliveryTwoOptHeuristic()
+            .getTour(lineDistances(x), 5, before, demand, 1, tour);
+        assertArrayEquals(new int[] { 0, 3, 4, 1, 2 }, tour);
+        assertEquals(14d, length, 0d);
+    }
+
+    @Test
+    public void testOnBoard()
+    {
+        // node 2 delivers a client already on board, far away
+        double[] x = { 0, 1, 10, 2 };
+        int[] before = { -1, -1, -1, 1 };
+        int[] demand = { 0, 1, -1, -1 };
+        PickupDeliveryTwoOptHeuristic heuristic = new PickupDeliveryTwoOptHeuristic();
+
+        // with one seat it has to go first
+        int[] tour = { 0, 2, 1, 3 };
+        assertEquals(20d, heuristic.improve(lineDistances(x), 4, before, demand, 1, tour), 0d);
+        assertArrayEquals(new int[] { 0, 2, 1, 3 }, tour);
+
+        // with two seats the other client shares the ride
+        assertEquals(10d, heuristic.improve(lineDistances(x), 4, before, demand, 2, tour), 0d);
+        assertArrayEquals(new int[] { 0, 1, 3, 2 }, tour);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInfeasibleTour()
+    {
+        int[] tour = { 0, 2, 1 };
+        new PickupDeliveryTwoOptHeuristic().improve(
+            lineDistances(new double[] { 0, 1, 2 }), 3, new int[] { -1, -1, 1 },
+            new int[] { 0, 1, -1 }, 1, tour);
+    }
+
+    @Test
+    public void testRandom()
+    {
+        Random random = new Random(7);
+        PickupDeliveryTwoOptHeuristic heuristic = new PickupDeliveryTwoOptHeuristic();
+        PickupDeliveryTwoOptHeuristic greedy = new PickupDeliveryTwoOptHeuristic(0);
+        for (int test = 0; test < 200; test++) {
+            int pairs = 1 + random.nextInt(test < 150 ? 3 : 20);
+            int size = 2 * pairs + 1;
+            double[][] points = new double[size][2];
+            for (double[] point : points) {
+                point[0] = random.nextInt(100);
+                point[1] = random.nextInt(100);
+            }
+            double[] distances = new double[size * size];
+            for (int u = 0; u < size; u++) {
+                for (int v = 0; v < size; v++) {
+                    distances[u * size + v] = Math.abs(points[u][0] - points[v][0])
+                        + Math.abs(points[u][1] - points[v][1]);
+                }
+            }
+            int[] before = new int[size];
+            int[] demand = new int[size];
+            before[0] = -1;
+            for (int c = 0; c < pairs; c++) {
+                before[2 * c + 1] = -1;
+                demand[2 * c + 1] = 1;
+                before[2 * c + 2] = 2 * c + 1;
+                demand[2 * c + 2] = -1;
+            }
+            int capacity = 1 + random.nextInt(3);
+
+            int[] start = new int[size];
+            double greedyLength = greedy.getTour(distances, size, before, demand, capacity, start);
+            int[] tour = new int[size];
+            double length = heuristic.getTour(distances, size, before, demand, capacity, tour);
+            assertTrue(length <= greedyLength + 1e-9);
+            assertEquals(length, tourLength(distances, size, tour), 1e-9);
+            assertFeasible(size, before, demand, capacity, tour);
+            if (size <= 7 && capacity >= pairs) {
+                assertTrue(optimum(distances, size, before, tour.clone(), 1) <= length + 1e-9);
+            }
+        }
+    }
+
+    private static double[] lineDistances(double[] x)
+    {
+        double[] distances = new double[x.length * x.length];
+        for (int u = 0; u < x.length; u++) {
+            for (int v = 0; v < x.length; v++) {
+                distances[u * x.length + v] = Math.abs(x[u] - x[v]);
+            }
+        }
+        return distances;
+    }
+
+    private static double tourLength(double[] distances, int size, int[] tour)
+    {
+        double length = 0d;
+        for (int p = 1; p < size; p++) {
+            length += distances[tour[p - 1] * size + tour[p]];
+        }
+        return length;
+    }
+
+    private static void assertFeasible(
+        int size, int[] before, int[] demand, int capacity, int[] tour)
+    {
+        assertEquals(0, tour[0]);
+        boolean[] visited = new boolean[size];
+        int load = 0;
+        for (int p = 0; p < size; p++) {
+            int v = tour[p];
+            assertTrue(!visited[v]);
+            assertTrue(before[v] < 0 || visited[before[v]]);
+            load += demand[v];
+            assertTrue(load <= capacity);
+            visited[v] = true;
+        }
+    }
+
+    private static double optimum(double[] distances, int size, int[] before, int[] tour, int p)
+    {
+        if (p == size) {
+            return tourLength(distances, size, tour);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int q = p; q < size; q++) {
+            int swap = tour[p];
+            tour[p] = tour[q];
+            tour[q] = swap;
+            boolean feasible = true;
+            if (before[tour[p]] >= 0) {
+                feasible = false;
+                for (int r = 0; r < p; r++) {
+                    feasible |= tour[r] == before[tour[p]];
+                }
+            }
+            if (feasible) {
+                best = Math.min(best, optimum(distances, size, before, tour, p + 1));
+            }
+            tour[q] = tour[p];
+            tour[p] = swap;
+        }
+        return best;
+    }
+}
@@ -37,6 +37,8 @@ public class ListenableGraphTest
     Object lastRemovedEdge;
     Object lastAddedVertex;
     Object lastRemovedVertex;
+    Object lastUpdatedEdge;
+    double lastUpdatedWeight;
 
     // ~ Constructors -----------------------------------------------------------
 
@@ -197,6 +199,33 @@ public class ListenableGraphTest
         assertEquals(10.0, g.getEdgeWeight(e));
         assertEquals(e, lastAddedEdge);
         assertEquals(null, lastRemovedEdge);
+        assertEquals(e, lastUpdatedEdge);
+        assertEquals(10.0, lastUpdatedWeight);
+    }
+
+    /**
+     * Tests that weight updates are reported, also with reused events.
+     */
+    public void testEdgeWeightUpdated()
+    {
+        for (boolean reuseEvents : new boolean[] { false, true }) {
+            init();
+
+            DefaultListenableGraph<Object, DefaultWeightedEdge> g = new DefaultListenableGraph<>(
+                new SimpleWeightedGraph<>(DefaultWeightedEdge.class), reuseEvents);
+            g.addGraphListener(new MyGraphListener<>());
+            g.addVertex("v1");
+            g.addVertex("v2");
+            DefaultWeightedEdge e = g.addEdge("v1", "v2");
+            assertEquals(null, lastUpdatedEdge);
+
+            g.setEdgeWeight(e, 7.0);
+            assertEquals(e, lastUpdatedEdge);
+            assertEquals(7.0, lastUpdatedWeight);
+
+            g.removeEdge(e);
+            assertEquals(e, lastRemovedEdge);
+        }
     }
 
     private void init()
@@ -205,6 +234,8 @@ public class ListenableGraphTest
         lastAddedVertex = null;
         lastRemovedEdge = null;
         lastRemovedVertex = null;
+        lastUpdatedEdge = null;
+        lastUpdatedWeight = 0.0;
     }
 
     // ~ Inner Classes ----------------------------------------------------------
@@ -236,6 +267,16 @@ public class ListenableGraphTest
             lastRemovedEdge = e.getEdge();
         }
 
+        /**
+         * @see GraphListener#edgeWeightUpdated(GraphEdgeChangeEvent)
+         */
+        @Override
+        public void edgeWeightUpdated(GraphEdgeChangeEvent<Object, E> e)
+        {
+            lastUpdatedEdge = e.getEdge();
+            lastUpdatedWeight = e.getEdgeWeight();
+        }
+
         /**
          * @see VertexSetListener#vertexAdded(GraphVertexChangeEvent)
          */
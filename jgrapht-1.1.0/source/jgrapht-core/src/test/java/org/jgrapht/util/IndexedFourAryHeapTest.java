@@ -0,0 +1,119 @@
+/*
+ * (C) Copyright 2017-2017, by JGraphT Contributors.
+ *
+ * JGraphT : a free Java graph-theory library
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either
+ *
+ * (a) the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation, or (at your option) any
+ * later version.
+ *
+ * or (per the licensee's choosing)
+ *
+ * (b) the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation.
+ */
+package org.jgrapht.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import org.junit.*;
+
+/**
+ * Tests for {@link IndexedFourAryHeap}.
+ */
+public class IndexedFourAryHeapTest
+{
+
+    @Test
+    public void testSortsRandomKeys()
+    {
+        Random rng = new Random(17);
+        int n = 1000;
+        IndexedFourAryHeap h = new IndexedFourAryHeap(n);
+        double[] keys = new double[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = rng.nextDouble();
+            h.insert(i, keys[i]);
+        }
+        // decrease some keys
+        for (int i = 0; i < n; i += 3) {
+            keys[i] /= 2;
+            h.decreaseKey(i, keys[i]);
+        }
+        assertEquals(n, h.size());
+
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!h.isEmpty()) {
+            double key = h.minKey();
+            int item = h.removeMin();
+            assertEquals(keys[item], key, 0d);
+            assertTrue(previous <= key);
+            assertFalse(h.contains(item));
+            previous = key;
+        }
+    }
+
+    @Test
+    public void testClearAndReuse()
+    {
+        IndexedFourAryHeap h = new IndexedFourAryHeap(4);
+        h.insert(3, 3d);
+        h.insert(1, 1d);
+        h.clear();
+        assertTrue(h.isEmpty());
+        assertFalse(h.contains(3));
+
+        h.insert(3, 0.5);
+        h.insert(2, 2d);
+        assertEquals(3, h.removeMin());
+        assertEquals(2, h.removeMin());
+        assertTrue(h.isEmpty());
+    }
+
+    @Test
+    public void testEnsureCapacity()
+    {
+        IndexedFourAryHeap h = new IndexedFourAryHeap(0);
+        h.ensureCapacity(10);
+        assertTrue(h.capacity() >= 10);
+        for (int i = 9; i >= 0; i--) {
+            h.insert(i, i);
+        }
+        h.ensureCapacity(100);
+        h.insert(50, -1d);
+        assertEquals(50, h.removeMin());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, h.removeMin());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadInsert()
+    {
+        IndexedFourAryHeap h = new IndexedFourAryHeap(2);
+        h.insert(1, 1d);
+        h.insert(1, 2d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadDecreaseKey()
+    {
+        IndexedFourAryHeap h = new IndexedFourAryHeap(2);
+        h.insert(1, 1d);
+        h.decreaseKey(1, 2d);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemoveFromEmpty()
+    {
+        new IndexedFourAryHeap(2).removeMin();
+    }
+
+}
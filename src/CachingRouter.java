@@ -0,0 +1,45 @@
+// Answers point to point queries from the shared route cache of the map and fills it on a miss.
+// Arrays returned by path() may be shared with other threads and must not be modified.
+public class CachingRouter implements Router {
+
+    private Router router;
+    private RouteCache cache;
+    private RoadGraph roadGraph;
+    private long version;
+
+    public CachingRouter(Router router, RouteCache cache, RoadGraph roadGraph, long version) {
+        this.router = router;
+        this.cache = cache;
+        this.roadGraph = roadGraph;
+        this.version = version;
+    }
+
+    @Override
+    public double distance(int source, int target) {
+        RouteCache.Route route = cache.get(version, source, target, false);
+        if (route != null) {
+            return route.weight;
+        }
+        double distance = router.distance(source, target);
+        cache.put(version, source, target, new RouteCache.Route(null, distance));
+        return distance;
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        RouteCache.Route route = cache.get(version, source, target, true);
+        if (route != null) {
+            return route.vertices;
+        }
+        int[] path = router.path(source, target);
+        double weight = path == null ? Double.POSITIVE_INFINITY : roadGraph.pathWeight(path);
+        cache.put(version, source, target, new RouteCache.Route(path, weight));
+        return path;
+    }
+
+    // a single search already answers all targets, there is nothing to gain from the cache
+    @Override
+    public void distances(int source, int[] targets, int k, double[] distances) {
+        router.distances(source, targets, k, distances);
+    }
+}
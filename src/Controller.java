@@ -19,15 +19,43 @@ public class Controller {
         ArrayList<Taxi> taxi = Controller.createAndSaveTaxi(mapOfCity, taxiAddress, numberOfTaxi);
         //ArrayList<Taxi> taxi = Controller.loadTaxi(taxiAddress);
         ArrayList<Taxi> visualTaxi = Controller.loadTaxi(taxiAddress);
+        // follows the taxis on the screen as changeLocation moves them
+        TaxiGrid taxiGrid = new TaxiGrid(mapOfCity, visualTaxi);
 
         ArrayList<Path> pathsForCabs = new ArrayList<>();
-        ArrayList<ArrayList<Client>> clientsForCabs = Controller.clientsToCabs(clients, numberOfTaxi);
+        // nearest free taxi first, then freed taxis go to the longest waiting client; a positive
+        // window collects orders and freed taxis and assigns them together with the least driving
+        double batchWindow = 0;
+        // with more than one seat taxis share rides: every order is inserted where it adds the
+        // least driving, as long as no client's ride grows by more than the detour limit
+        int seats = 1;
+        ArrayList<ArrayList<RidePool.Stop>> stopsForCabs = null;
+        ArrayList<ArrayList<Client>> clientsForCabs;
+        if (seats > 1) {
+            stopsForCabs = RidePool.plan(mapOfCity, clients, taxi, seats, RidePool.DEFAULT_MAX_DETOUR);
+            clientsForCabs = new ArrayList<>();
+            for (int k = 0; k < numberOfTaxi; k++) {
+                clientsForCabs.add(new ArrayList<>());
+            }
+        } else {
+            clientsForCabs = Dispatcher.plan(mapOfCity, clients, taxi, batchWindow);
+        }
+        // the Dispatcher decides which taxi serves which client and in which order, so that a freed
+        // taxi goes to the longest waiting client; with optimised queues a taxi drives its queue in
+        // the order of the shortest route through it (2-opt and Or-opt) when that picks up no
+        // client later than the planned order
+        boolean optimiseQueues = false;
         ArrayList<ArrayList<Integer>> arrayForSizes = new ArrayList<>();
 
         long startTime = System.currentTimeMillis();
 
         for (int k = 0; k < numberOfTaxi; k++) {
             Path path = new Path(mapOfCity, clientsForCabs.get(k), taxi.get(k));
+            path.setTaxiGrid(taxiGrid);
+            path.setServedInOrder(!optimiseQueues);
+            if (stopsForCabs != null) {
+                path.setStops(stopsForCabs.get(k));
+            }
             path.start();
             pathsForCabs.add(path);
         }
@@ -54,11 +82,9 @@ public class Controller {
         // iterClient - iterate of number of clients which taxi[i] left
         // iterVertex - iterate of number of vertex in taxi path to client
 
-        int maxClientsForCab;
-        if (numberOfClients % numberOfTaxi == 0) {
-            maxClientsForCab = numberOfClients / numberOfTaxi;
-        } else {
-            maxClientsForCab = numberOfClients / numberOfTaxi + 1;
+        int maxClientsForCab = 0;
+        for (Path path : pathsForCabs) {
+            maxClientsForCab = Math.max(maxClientsForCab, path.paths.size());
         }
 
         for (int iterClient = 0; iterClient < maxClientsForCab; iterClient++) {
@@ -77,7 +103,13 @@ public class Controller {
                     if (iterClient < pathsForCabs.get(iterCab).paths.size()
                             && iterVertex < arrayForSizes.get(iterCab).get(iterClient)) {
                         Path path = pathsForCabs.get(iterCab);
-                        path.changeLocation(visualTaxi.get(iterCab), path.orderedClients.get(iterClient), path.paths.get(iterClient));
+                        if (stopsForCabs != null) {
+                            path.changeLocation(visualTaxi.get(iterCab), stopsForCabs.get(iterCab).get(iterClient),
+                                    path.paths.get(iterClient));
+                        } else {
+                            path.changeLocation(visualTaxi.get(iterCab), path.orderedClients.get(iterClient),
+                                    path.paths.get(iterClient));
+                        }
                         path.paths.get(iterClient).remove(0);
                     }
                 }
@@ -122,20 +154,6 @@ public class Controller {
         return objects.LoadFromFile(address);
     }
 
-    public static ArrayList<ArrayList<Client>> clientsToCabs(ArrayList<Client> clients, int numberOfCabs) {
-        ArrayList<ArrayList<Client>> clientsForCabs = new ArrayList<>(numberOfCabs);
-        for (int i = 0; i < numberOfCabs; i++) {
-            ArrayList<Client> tmpClients = new ArrayList<>();
-            int j = i;
-            while (j < clients.size()) {
-                tmpClients.add(clients.get(j));
-                j += numberOfCabs;
-            }
-            clientsForCabs.add(tmpClients);
-        }
-        return clientsForCabs;
-    }
-
     public static void oneCabMoveAllClients(MapOfCity mapOfCity, ArrayList<Taxi> taxi,
                                             ArrayList<Client> clients) throws IOException, InterruptedException {
         Visual visual = new Visual(mapOfCity, taxi, clients);
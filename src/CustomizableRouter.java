@@ -0,0 +1,58 @@
+import java.util.List;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.CustomizableContractionHierarchy;
+import org.jgrapht.alg.shortestpath.CustomizableContractionHierarchyShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// Queries the shared customizable contraction hierarchy of the map. Its shortcuts are built once per
+// layout of the roads and its weights follow the traffic; a query keeps the weights it started with.
+// This router only owns the search state of its queries.
+public class CustomizableRouter implements Router {
+
+    private RoadGraph roadGraph;
+    private CustomizableContractionHierarchyShortestPath<String, DefaultWeightedEdge> shortestPath;
+
+    public CustomizableRouter(MapOfCity mapOfCity) {
+        this(mapOfCity.getRoadGraph(), mapOfCity.getCustomizableHierarchy());
+    }
+
+    public CustomizableRouter(RoadGraph roadGraph, CustomizableContractionHierarchy<String, DefaultWeightedEdge> hierarchy) {
+        this.roadGraph = roadGraph;
+        this.shortestPath = new CustomizableContractionHierarchyShortestPath<>(hierarchy);
+    }
+
+    @Override
+    public double distance(int source, int target) {
+        return shortestPath.getPathWeight(name(source), name(target));
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        GraphPath<String, DefaultWeightedEdge> path = shortestPath.getPath(name(source), name(target));
+        if (path == null) {
+            return null;
+        }
+        List<String> vertices = path.getVertexList();
+        int[] result = new int[vertices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = RoadGraph.vertexId(vertices.get(i));
+        }
+        return result;
+    }
+
+    // point to point queries are cheap enough on the hierarchy to answer every target
+    @Override
+    public void distances(int source, int[] targets, int k, double[] distances) {
+        for (int i = 0; i < targets.length; i++) {
+            distances[i] = distance(source, targets[i]);
+        }
+    }
+
+    private String name(int v) {
+        if (!roadGraph.containsVertex(v)) {
+            throw new IllegalArgumentException("Vertex not contained in the map: " + v);
+        }
+        return roadGraph.vertexName(v);
+    }
+}
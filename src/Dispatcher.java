@@ -0,0 +1,376 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.jgrapht.alg.matching.AuctionAssignment;
+
+
+// Central dispatcher driven by two events. When an order is placed, the client gets the nearest
+// free taxi, ties to the lowest number (requirement 3), found by one search of the TaxiFinder that
+// stops at the first free taxi. When no free taxi can reach the client, the client joins the
+// waiting queue. When a taxi is freed, it goes to the client waiting longest among those it can
+// reach (requirement 8). Reachability is settled by the connected components of the roads, and
+// every component keeps its own queue, so clients nobody can reach never slow the others down.
+// The queues are insertion ordered and hashed, so placing, serving and cancelling an order are
+// O(1) apart from that one search.
+// In batched mode events only queue clients and taxis; every batch window the caller runs
+// dispatchBatch(), which gives the longest waiting clients (at most MAX_BATCH_SIZE, and no more than
+// free taxis can reach) the free taxis with the least total distance to drive, by an auction which
+// bids in parallel on the preprocessing pool of the map.
+// A client never needs a taxi beyond its n nearest free ones in a batch of n clients (otherwise a
+// free one among them would be cheaper), so every client gets one search which stops after its
+// n nearest free taxis, but at most MAX_CANDIDATES of them: batches up to that size are optimal,
+// larger ones are optimal among the nearest taxis of every client, which keeps big batches sparse.
+// Assignment marks the taxi busy and the client no longer waiting, like Path.createPath.
+// Works on the roads of the map as they are when it is created. Call moved() whenever a taxi
+// changes its vertex. Not thread safe.
+public class Dispatcher {
+
+    static final int MAX_BATCH_SIZE = 5000;
+    static final int MAX_CANDIDATES = 32;
+
+    private TaxiFinder taxiFinder;
+    private boolean batched;
+    private LinkedHashSet<Taxi> freeTaxis = new LinkedHashSet<>();
+    // connected component of every vertex id, -1 for ids without a vertex
+    private int[] component;
+    // all waiting clients, longest waiting first, and the same split by the component they stand in
+    private LinkedHashSet<Client> waiting = new LinkedHashSet<>();
+    private LinkedHashSet<Client>[] waitingIn;
+
+    // batches: free taxis per component, the distances of one client and the solver
+    private int[] freeIn;
+    private RoadRouter roadRouter;
+    private double[] distanceBuffer = new double[0];
+    private AuctionAssignment solver;
+
+    public Dispatcher(MapOfCity mapOfCity, List<Taxi> taxi) {
+        this(mapOfCity, taxi, false);
+    }
+
+    public Dispatcher(MapOfCity mapOfCity, List<Taxi> taxi, boolean batched) {
+        RoadGraph roadGraph = mapOfCity.getRoadGraph();
+        this.batched = batched;
+        this.roadRouter = new RoadRouter(roadGraph, null, null);
+        this.solver = new AuctionAssignment(
+                AuctionAssignment.DEFAULT_PRECISION, mapOfCity.getPreprocessingPool());
+        this.taxiFinder = new TaxiFinder(mapOfCity, taxi);
+        this.component = components(roadGraph);
+        int numberOfComponents = 0;
+        for (int c : component) {
+            numberOfComponents = Math.max(numberOfComponents, c + 1);
+        }
+        this.waitingIn = newQueues(numberOfComponents);
+        this.freeIn = new int[numberOfComponents];
+        for (Taxi t : taxi) {
+            if (t.isFree) {
+                freeTaxis.add(t);
+            }
+        }
+    }
+
+    public boolean isBatched() {
+        return batched;
+    }
+
+    // the taxi sent to the client, or null if the client has to wait
+    public Taxi orderPlaced(Client client) {
+        if (waiting.contains(client)) {
+            throw new IllegalArgumentException("Client " + client.id + " is already waiting");
+        }
+        Taxi taxi = batched ? null : taxiFinder.nearestFreeTaxi(client);
+        if (taxi == null) {
+            client.isWait = true;
+            waiting.add(client);
+            int c = componentOf(client.sourceVertex);
+            if (waitingIn[c] == null) {
+                waitingIn[c] = new LinkedHashSet<>();
+            }
+            waitingIn[c].add(client);
+            return null;
+        }
+        assign(taxi, client);
+        return taxi;
+    }
+
+    // the client the taxi is sent to, or null if nobody it can reach is waiting and it stays free
+    public Client taxiFreed(Taxi taxi) {
+        taxi.isFree = true;
+        LinkedHashSet<Client> queue = waitingIn[componentOf(taxi.sourceVertex)];
+        if (batched || queue == null || queue.isEmpty()) {
+            freeTaxis.add(taxi);
+            return null;
+        }
+        Iterator<Client> head = queue.iterator();
+        Client client = head.next();
+        head.remove();
+        waiting.remove(client);
+        assign(taxi, client);
+        return client;
+    }
+
+    // a waiting client gives up; false if the client was not waiting (requirement 5.1)
+    public boolean cancel(Client client) {
+        if (!waiting.remove(client)) {
+            return false;
+        }
+        waitingIn[componentOf(client.sourceVertex)].remove(client);
+        return true;
+    }
+
+    // a new taxi joins the fleet and, if free, is dispatched at once; see taxiFreed
+    public Client addTaxi(Taxi taxi) {
+        boolean free = taxi.isFree;
+        taxi.isFree = false;
+        taxiFinder.add(taxi);
+        return free ? taxiFreed(taxi) : null;
+    }
+
+    public void removeTaxi(Taxi taxi) {
+        taxiFinder.remove(taxi);
+        freeTaxis.remove(taxi);
+    }
+
+    // the taxi left previousVertex for its current sourceVertex
+    public void moved(Taxi taxi, String previousVertex) {
+        taxiFinder.moved(taxi, previousVertex);
+    }
+
+    // whether a taxi at source can drive to target
+    public boolean connected(String source, String target) {
+        return componentOf(source) == componentOf(target);
+    }
+
+    public int numberOfWaitingClients() {
+        return waiting.size();
+    }
+
+    // waiting clients, longest waiting first
+    public List<Client> waitingClients() {
+        return new ArrayList<>(waiting);
+    }
+
+    public int numberOfFreeTaxis() {
+        return freeTaxis.size();
+    }
+
+    // Assigns the waiting clients of this batch to free taxis with the least total distance and
+    // returns the assignments in the order the clients were waiting.
+    public LinkedHashMap<Taxi, Client> dispatchBatch() {
+        LinkedHashMap<Taxi, Client> assignments = new LinkedHashMap<>();
+        if (waiting.isEmpty() || freeTaxis.isEmpty()) {
+            return assignments;
+        }
+        List<Taxi> taxis = new ArrayList<>(freeTaxis);
+        int[] taxiVertices = new int[taxis.size()];
+        for (int j = 0; j < taxis.size(); j++) {
+            taxiVertices[j] = RoadGraph.vertexId(taxis.get(j).sourceVertex);
+            freeIn[component[taxiVertices[j]]]++;
+        }
+        // the longest waiting clients which a free taxi of their component is left for
+        List<Client> batch = new ArrayList<>();
+        for (Client client : waiting) {
+            if (batch.size() == MAX_BATCH_SIZE) {
+                break;
+            }
+            int c = componentOf(client.sourceVertex);
+            if (freeIn[c] > 0) {
+                freeIn[c]--;
+                batch.add(client);
+            }
+        }
+        for (int vertex : taxiVertices) {
+            freeIn[component[vertex]] = 0;
+        }
+        if (batch.isEmpty()) {
+            return assignments;
+        }
+
+        // the candidates of every client are its nearest free taxis, columns are all free taxis
+        int rows = batch.size();
+        int columns = taxis.size();
+        int candidates = Math.min(rows, MAX_CANDIDATES);
+        if (distanceBuffer.length < columns) {
+            distanceBuffer = new double[columns];
+        }
+        int[] offsets = new int[rows + 1];
+        int[] columnIndices = new int[rows * candidates];
+        double[] costs = new double[rows * candidates];
+        for (int i = 0; i < rows; i++) {
+            int source = RoadGraph.vertexId(batch.get(i).sourceVertex);
+            roadRouter.distances(source, taxiVertices, candidates, distanceBuffer);
+            int k = offsets[i];
+            for (int j = 0; j < columns; j++) {
+                if (distanceBuffer[j] < Double.POSITIVE_INFINITY) {
+                    // ties may bring more than the candidates asked for
+                    if (k == columnIndices.length) {
+                        columnIndices = Arrays.copyOf(columnIndices, 2 * k);
+                        costs = Arrays.copyOf(costs, 2 * k);
+                    }
+                    columnIndices[k] = j;
+                    costs[k++] = distanceBuffer[j];
+                }
+            }
+            offsets[i + 1] = k;
+        }
+        int[] assignment = new int[rows];
+        solver.solve(rows, columns, offsets, columnIndices, costs, assignment);
+
+        for (int i = 0; i < rows; i++) {
+            if (assignment[i] < 0) {
+                continue;
+            }
+            Client client = batch.get(i);
+            Taxi taxi = taxis.get(assignment[i]);
+            waiting.remove(client);
+            waitingIn[componentOf(client.sourceVertex)].remove(client);
+            assign(taxi, client);
+            assignments.put(taxi, client);
+        }
+        return assignments;
+    }
+
+    private void assign(Taxi taxi, Client client) {
+        taxi.isFree = false;
+        client.isWait = false;
+        freeTaxis.remove(taxi);
+    }
+
+    private int componentOf(String vertex) {
+        int id = RoadGraph.vertexId(vertex);
+        if (id >= component.length || component[id] < 0) {
+            throw new IllegalArgumentException("Vertex not contained in the map: " + vertex);
+        }
+        return component[id];
+    }
+
+    private static int[] components(RoadGraph roadGraph) {
+        int n = roadGraph.numberOfVertices;
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] stack = new int[n];
+        int numberOfComponents = 0;
+        for (int root = 0; root < n; root++) {
+            if (component[root] >= 0 || !roadGraph.containsVertex(root)) {
+                continue;
+            }
+            int size = 0;
+            stack[size++] = root;
+            component[root] = numberOfComponents;
+            while (size > 0) {
+                int v = stack[--size];
+                for (int i = roadGraph.offsets[v]; i < roadGraph.offsets[v + 1]; i++) {
+                    int w = roadGraph.targets[i];
+                    if (component[w] < 0) {
+                        component[w] = numberOfComponents;
+                        stack[size++] = w;
+                    }
+                }
+            }
+            numberOfComponents++;
+        }
+        return component;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static LinkedHashSet<Client>[] newQueues(int numberOfComponents) {
+        return new LinkedHashSet[numberOfComponents];
+    }
+
+    // Plans a whole day in which all clients order at once, in the order of the list, and every
+    // taxi drives to its client and on to the target before it is freed again. Freed taxis are
+    // served in order of the time they finish, ties to the lowest number. With a positive
+    // batchWindow (in units of road length) orders and freed taxis are instead collected and
+    // dispatched in batches at multiples of it. Returns for every taxi of the list the clients it
+    // serves in order. Clients which can not be taken to their target are left out. The taxis and
+    // clients themselves are not changed.
+    public static ArrayList<ArrayList<Client>> plan(MapOfCity mapOfCity, List<Client> clients, List<Taxi> taxi) {
+        return plan(mapOfCity, clients, taxi, 0);
+    }
+
+    public static ArrayList<ArrayList<Client>> plan(MapOfCity mapOfCity, List<Client> clients, List<Taxi> taxi,
+                                                    double batchWindow) {
+        List<Taxi> fleet = new ArrayList<>(taxi.size());
+        Map<Taxi, Integer> positionOf = new IdentityHashMap<>();
+        ArrayList<ArrayList<Client>> clientsForCabs = new ArrayList<>(taxi.size());
+        for (Taxi t : taxi) {
+            Taxi copy = new Taxi(t.number, t.sourceVertex);
+            positionOf.put(copy, fleet.size());
+            fleet.add(copy);
+            clientsForCabs.add(new ArrayList<>());
+        }
+        Dispatcher dispatcher = new Dispatcher(mapOfCity, fleet, batchWindow > 0);
+        Router router = mapOfCity.createRouter();
+
+        // time at which each taxi of the list is freed
+        double[] freedAt = new double[fleet.size()];
+        PriorityQueue<Integer> busy = new PriorityQueue<>((a, b) -> {
+            int c = Double.compare(freedAt[a], freedAt[b]);
+            return c != 0 ? c : fleet.get(a).number - fleet.get(b).number;
+        });
+        Map<Client, Client> original = new IdentityHashMap<>();
+        for (Client client : clients) {
+            if (!dispatcher.connected(client.sourceVertex, client.targetVertex)) {
+                continue;
+            }
+            Client order = new Client(client.id, client.sourceVertex, client.targetVertex);
+            original.put(order, client);
+            Taxi t = dispatcher.orderPlaced(order);
+            if (t != null) {
+                int i = positionOf.get(t);
+                freedAt[i] = dispatcher.drive(router, t, order, 0);
+                clientsForCabs.get(i).add(client);
+                busy.add(i);
+            }
+        }
+
+        double now = 0;
+        while (dispatcher.numberOfWaitingClients() > 0) {
+            if (batchWindow > 0) {
+                for (Map.Entry<Taxi, Client> e : dispatcher.dispatchBatch().entrySet()) {
+                    int i = positionOf.get(e.getKey());
+                    freedAt[i] = dispatcher.drive(router, e.getKey(), e.getValue(), now);
+                    clientsForCabs.get(i).add(original.get(e.getValue()));
+                    busy.add(i);
+                }
+                if (busy.isEmpty()) {
+                    break;
+                }
+                // the next window in which a taxi is freed
+                now = Math.max(now + batchWindow, Math.ceil(freedAt[busy.peek()] / batchWindow) * batchWindow);
+                while (!busy.isEmpty() && freedAt[busy.peek()] <= now) {
+                    dispatcher.taxiFreed(fleet.get(busy.poll()));
+                }
+                continue;
+            }
+            if (busy.isEmpty()) {
+                break;
+            }
+            int i = busy.poll();
+            Taxi t = fleet.get(i);
+            Client order = dispatcher.taxiFreed(t);
+            if (order != null) {
+                freedAt[i] = dispatcher.drive(router, t, order, freedAt[i]);
+                clientsForCabs.get(i).add(original.get(order));
+                busy.add(i);
+            }
+        }
+        return clientsForCabs;
+    }
+
+    // the taxi picks the client up and drops it at its target; returns the time it is freed
+    private double drive(Router router, Taxi taxi, Client client, double now) {
+        int clientSource = RoadGraph.vertexId(client.sourceVertex);
+        double freedAt = now + router.distance(RoadGraph.vertexId(taxi.sourceVertex), clientSource)
+                + router.distance(clientSource, RoadGraph.vertexId(client.targetVertex));
+        String previousVertex = taxi.sourceVertex;
+        taxi.sourceVertex = client.targetVertex;
+        moved(taxi, previousVertex);
+        return freedAt;
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.List;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.interfaces.AStarAdmissibleHeuristic;
+import org.jgrapht.alg.shortestpath.ArcFlags;
+import org.jgrapht.alg.shortestpath.ArcFlagsShortestPath;
+import org.jgrapht.alg.shortestpath.MaxAdmissibleHeuristic;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// A* restricted to the roads flagged for the block of the target, with the same estimates as
+// RoadRouter. The arc-flags are built once per map, this router only owns the search state.
+public class FlagRouter implements Router {
+
+    private RoadGraph roadGraph;
+    private ArcFlagsShortestPath<String, DefaultWeightedEdge> shortestPath;
+    // many targets lie in many blocks, so they are left to one plain Dijkstra search
+    private RoadRouter roadRouter;
+
+    public FlagRouter(MapOfCity mapOfCity) {
+        this(mapOfCity.getRoadGraph(), mapOfCity.getArcFlags(), mapOfCity.isGridHeuristicOnly()
+                ? mapOfCity.getGridHeuristic()
+                : new MaxAdmissibleHeuristic<>(mapOfCity.getGridHeuristic(), mapOfCity.getLandmarkHeuristic()));
+    }
+
+    public FlagRouter(RoadGraph roadGraph, ArcFlags<String, DefaultWeightedEdge> arcFlags,
+                      AStarAdmissibleHeuristic<String> heuristic) {
+        this.roadGraph = roadGraph;
+        this.shortestPath = new ArcFlagsShortestPath<>(arcFlags, heuristic);
+        this.roadRouter = new RoadRouter(roadGraph, null, null);
+    }
+
+    @Override
+    public double distance(int source, int target) {
+        return shortestPath.getPathWeight(name(source), name(target));
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        GraphPath<String, DefaultWeightedEdge> path = shortestPath.getPath(name(source), name(target));
+        if (path == null) {
+            return null;
+        }
+        List<String> vertices = path.getVertexList();
+        int[] result = new int[vertices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = RoadGraph.vertexId(vertices.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public void distances(int source, int[] targets, int k, double[] distances) {
+        roadRouter.distances(source, targets, k, distances);
+    }
+
+    public int getNumberOfExpandedNodes() {
+        return shortestPath.getNumberOfExpandedNodes();
+    }
+
+    private String name(int v) {
+        if (!roadGraph.containsVertex(v)) {
+            throw new IllegalArgumentException("Vertex not contained in the map: " + v);
+        }
+        return roadGraph.vertexName(v);
+    }
+}
@@ -0,0 +1,51 @@
+import org.jgrapht.alg.interfaces.AStarAdmissibleHeuristic;
+
+
+// Lower bound from the geometry of the map: vertex i lies in row i / horizontalVertices and column
+// i % horizontalVertices. If no road costs less than minEdgeWeight per cell it spans (Manhattan
+// distance between its ends), no route does either, so the Manhattan distance times minEdgeWeight
+// never overestimates. Roads which are added, or get cheaper, may lower that minimum: build a new
+// heuristic with forRoads after such changes.
+public class GridHeuristic implements AStarAdmissibleHeuristic<String> {
+
+    private final int horizontalVertices;
+    private final double minEdgeWeight;
+
+    public GridHeuristic(int horizontalVertices, double minEdgeWeight) {
+        if (horizontalVertices <= 0) {
+            throw new IllegalArgumentException("Number of horizontal vertices must be positive");
+        }
+        if (minEdgeWeight < 0) {
+            throw new IllegalArgumentException("Minimum edge weight can not be negative");
+        }
+        this.horizontalVertices = horizontalVertices;
+        this.minEdgeWeight = minEdgeWeight;
+    }
+
+    // the heuristic with the lowest cost per cell of the roads of the snapshot
+    public static GridHeuristic forRoads(RoadGraph roadGraph, int horizontalVertices) {
+        GridHeuristic manhattan = new GridHeuristic(horizontalVertices, 1);
+        double minEdgeWeight = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < roadGraph.numberOfVertices; v++) {
+            for (int i = roadGraph.offsets[v]; i < roadGraph.offsets[v + 1]; i++) {
+                double cells = manhattan.estimate(v, roadGraph.targets[i]);
+                if (cells > 0) {
+                    minEdgeWeight = Math.min(minEdgeWeight, roadGraph.weights[i] / cells);
+                }
+            }
+        }
+        return new GridHeuristic(horizontalVertices,
+                minEdgeWeight == Double.POSITIVE_INFINITY ? 0 : minEdgeWeight);
+    }
+
+    @Override
+    public double getCostEstimate(String sourceVertex, String targetVertex) {
+        return estimate(RoadGraph.vertexId(sourceVertex), RoadGraph.vertexId(targetVertex));
+    }
+
+    public double estimate(int source, int target) {
+        int rows = Math.abs(source / horizontalVertices - target / horizontalVertices);
+        int columns = Math.abs(source % horizontalVertices - target % horizontalVertices);
+        return (rows + columns) * minEdgeWeight;
+    }
+}
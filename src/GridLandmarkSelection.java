@@ -0,0 +1,64 @@
+import java.util.*;
+import org.jgrapht.Graph;
+import org.jgrapht.alg.shortestpath.LandmarkSelectionStrategy;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// Planar landmark selection for the grid of MapOfCity: the grid is split into sectors around its center
+// and the connected vertex farthest from the center is taken in every sector, so that any route has
+// a landmark "behind" its source or "after" its target.
+public class GridLandmarkSelection implements LandmarkSelectionStrategy<String, DefaultWeightedEdge> {
+
+    int horizontalVertices;
+    int verticalVertices;
+
+    public GridLandmarkSelection(int horizontalVertices, int verticalVertices) {
+        this.horizontalVertices = horizontalVertices;
+        this.verticalVertices = verticalVertices;
+    }
+
+    @Override
+    public Set<String> selectLandmarks(Graph<String, DefaultWeightedEdge> graph, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of landmarks must be positive");
+        }
+        if (graph.vertexSet().size() <= count) {
+            return new LinkedHashSet<>(graph.vertexSet());
+        }
+
+        double centerColumn = (horizontalVertices - 1) / 2.0;
+        double centerRow = (verticalVertices - 1) / 2.0;
+        String[] farthest = new String[count];
+        double[] farthestDistance = new double[count];
+        Arrays.fill(farthestDistance, -1);
+
+        for (String vertex : graph.vertexSet()) {
+            if (graph.degreeOf(vertex) == 0) {
+                continue;
+            }
+            int index = RoadGraph.vertexId(vertex);
+            double dx = index % horizontalVertices - centerColumn;
+            double dy = index / horizontalVertices - centerRow;
+
+            // sectors are equal angles of the grid stretched to a square, so corners split evenly
+            double angle = Math.atan2(dy / Math.max(centerRow, 1), dx / Math.max(centerColumn, 1));
+            int sector = (int) ((angle + Math.PI) / (2 * Math.PI) * count) % count;
+            double distance = Math.abs(dx) + Math.abs(dy);
+            if (distance > farthestDistance[sector]) {
+                farthestDistance[sector] = distance;
+                farthest[sector] = vertex;
+            }
+        }
+
+        Set<String> landmarks = new LinkedHashSet<>();
+        for (String vertex : farthest) {
+            if (vertex != null) {
+                landmarks.add(vertex);
+            }
+        }
+        if (landmarks.isEmpty()) {
+            landmarks.add(graph.vertexSet().iterator().next());
+        }
+        return landmarks;
+    }
+}
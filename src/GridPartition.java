@@ -0,0 +1,48 @@
+import java.util.function.Function;
+
+
+// Splits the grid of MapOfCity into regionsAcross x regionsDown rectangular blocks of neighbouring
+// cells, numbered row by row. Blocks of a grid have short borders, which keeps the number of
+// boundary vertices and thus the arc-flags preprocessing small.
+public class GridPartition implements Function<String, Integer> {
+
+    private final int horizontalVertices;
+    private final int verticalVertices;
+    private final int regionsAcross;
+    private final int regionsDown;
+
+    public GridPartition(int horizontalVertices, int verticalVertices, int regionsAcross, int regionsDown) {
+        if (regionsAcross <= 0 || regionsDown <= 0) {
+            throw new IllegalArgumentException("Number of regions must be positive");
+        }
+        this.horizontalVertices = horizontalVertices;
+        this.verticalVertices = verticalVertices;
+        this.regionsAcross = Math.min(regionsAcross, horizontalVertices);
+        this.regionsDown = Math.min(regionsDown, verticalVertices);
+    }
+
+    // about numberOfRegions blocks, as close to square as the shape of the grid allows
+    public static GridPartition of(int horizontalVertices, int verticalVertices, int numberOfRegions) {
+        if (numberOfRegions <= 0) {
+            throw new IllegalArgumentException("Number of regions must be positive");
+        }
+        int across = (int) Math.max(1, Math.round(Math.sqrt((double) numberOfRegions * horizontalVertices / verticalVertices)));
+        int down = Math.max(1, numberOfRegions / across);
+        return new GridPartition(horizontalVertices, verticalVertices, across, down);
+    }
+
+    public int numberOfRegions() {
+        return regionsAcross * regionsDown;
+    }
+
+    @Override
+    public Integer apply(String vertex) {
+        return region(RoadGraph.vertexId(vertex));
+    }
+
+    public int region(int vertex) {
+        int row = vertex / horizontalVertices;
+        int column = vertex % horizontalVertices;
+        return (row * regionsDown / verticalVertices) * regionsAcross + column * regionsAcross / horizontalVertices;
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.List;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.ContractionHierarchy;
+import org.jgrapht.alg.shortestpath.ContractionHierarchyShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// Queries the shared contraction hierarchy of the map. The hierarchy is built once per map,
+// this router only owns the search state of its queries.
+public class HierarchyRouter implements Router {
+
+    private RoadGraph roadGraph;
+    private ContractionHierarchyShortestPath<String, DefaultWeightedEdge> shortestPath;
+
+    public HierarchyRouter(MapOfCity mapOfCity) {
+        this(mapOfCity.getRoadGraph(), mapOfCity.getContractionHierarchy());
+    }
+
+    public HierarchyRouter(RoadGraph roadGraph, ContractionHierarchy<String, DefaultWeightedEdge> hierarchy) {
+        this.roadGraph = roadGraph;
+        this.shortestPath = new ContractionHierarchyShortestPath<>(hierarchy);
+    }
+
+    @Override
+    public double distance(int source, int target) {
+        return shortestPath.getPathWeight(name(source), name(target));
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        GraphPath<String, DefaultWeightedEdge> path = shortestPath.getPath(name(source), name(target));
+        if (path == null) {
+            return null;
+        }
+        List<String> vertices = path.getVertexList();
+        int[] result = new int[vertices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = RoadGraph.vertexId(vertices.get(i));
+        }
+        return result;
+    }
+
+    // point to point queries are cheap enough on the hierarchy to answer every target
+    @Override
+    public void distances(int source, int[] targets, int k, double[] distances) {
+        for (int i = 0; i < targets.length; i++) {
+            distances[i] = distance(source, targets[i]);
+        }
+    }
+
+    private String name(int v) {
+        if (!roadGraph.containsVertex(v)) {
+            throw new IllegalArgumentException("Vertex not contained in the map: " + v);
+        }
+        return roadGraph.vertexName(v);
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.List;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.HubLabeling;
+import org.jgrapht.alg.shortestpath.HubLabelingShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// Answers distances from the shared hub labeling of the map by merging two sorted labels, without
+// any search. Paths are rebuilt from the labels, so the labeling must store paths.
+public class HubRouter implements Router {
+
+    private RoadGraph roadGraph;
+    private HubLabeling<String, DefaultWeightedEdge> labeling;
+    private HubLabelingShortestPath<String, DefaultWeightedEdge> shortestPath;
+    private int[] labelIndex;
+
+    public HubRouter(MapOfCity mapOfCity) {
+        this(mapOfCity.getRoadGraph(), mapOfCity.getHubLabeling());
+    }
+
+    public HubRouter(RoadGraph roadGraph, HubLabeling<String, DefaultWeightedEdge> labeling) {
+        this.roadGraph = roadGraph;
+        this.labeling = labeling;
+        this.shortestPath = new HubLabelingShortestPath<>(labeling);
+        int n = roadGraph.numberOfVertices;
+        labelIndex = new int[n];
+        for (int v = 0; v < n; v++) {
+            labelIndex[v] = roadGraph.containsVertex(v) ? labeling.getVertexIndex(roadGraph.vertexName(v)) : -1;
+        }
+    }
+
+    @Override
+    public double distance(int source, int target) {
+        return labeling.getDistanceByIndex(index(source), index(target));
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        index(source);
+        index(target);
+        GraphPath<String, DefaultWeightedEdge> path =
+                shortestPath.getPath(roadGraph.vertexName(source), roadGraph.vertexName(target));
+        if (path == null) {
+            return null;
+        }
+        List<String> vertices = path.getVertexList();
+        int[] result = new int[vertices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = RoadGraph.vertexId(vertices.get(i));
+        }
+        return result;
+    }
+
+    // a lookup per target is cheaper than any search
+    @Override
+    public void distances(int source, int[] targets, int k, double[] distances) {
+        int s = index(source);
+        for (int i = 0; i < targets.length; i++) {
+            distances[i] = labeling.getDistanceByIndex(s, index(targets[i]));
+        }
+    }
+
+    private int index(int vertex) {
+        if (vertex < 0 || vertex >= labelIndex.length || labelIndex[vertex] < 0) {
+            throw new IllegalArgumentException("Vertex not contained in the map: " + vertex);
+        }
+        return labelIndex[vertex];
+    }
+}
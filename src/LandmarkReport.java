@@ -0,0 +1,73 @@
+import java.util.*;
+import org.jgrapht.Graph;
+import org.jgrapht.alg.interfaces.AStarAdmissibleHeuristic;
+import org.jgrapht.alg.shortestpath.AStarShortestPath;
+import org.jgrapht.alg.shortestpath.AvoidLandmarkSelection;
+import org.jgrapht.alg.shortestpath.FarthestLandmarkSelection;
+import org.jgrapht.alg.shortestpath.IndexedALTAdmissibleHeuristic;
+import org.jgrapht.alg.shortestpath.LandmarkSelectionStrategy;
+import org.jgrapht.alg.shortestpath.MaxAdmissibleHeuristic;
+import org.jgrapht.alg.shortestpath.RandomLandmarkSelection;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// Compares landmark selection strategies and the grid heuristic on a generated map: average number of nodes
+// expanded by A* per query, and the time needed to build the landmark index.
+public class LandmarkReport {
+
+    public static void main(String[] args) {
+        int horizontal = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int vertical = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int numberOfQueries = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        MapOfCity mapOfCity = new MapOfCity("Report", horizontal, vertical);
+        Graph<String, DefaultWeightedEdge> map = mapOfCity.getMap();
+        ArrayList<String> vertices = new ArrayList<>(map.vertexSet());
+        Random rand = new Random(42);
+        String[] sources = new String[numberOfQueries];
+        String[] targets = new String[numberOfQueries];
+        for (int i = 0; i < numberOfQueries; i++) {
+            sources[i] = vertices.get(rand.nextInt(vertices.size()));
+            targets[i] = vertices.get(rand.nextInt(vertices.size()));
+        }
+
+        Map<String, LandmarkSelectionStrategy<String, DefaultWeightedEdge>> strategies = new LinkedHashMap<>();
+        strategies.put("random", new RandomLandmarkSelection<>(new Random(1)));
+        strategies.put("farthest", new FarthestLandmarkSelection<>(new Random(1)));
+        strategies.put("avoid", new AvoidLandmarkSelection<>(new Random(1)));
+        strategies.put("grid", new GridLandmarkSelection(horizontal, vertical));
+
+        System.out.println(String.format("%-10s %10s %14s %12s", "strategy", "landmarks", "avg expanded", "build ms"));
+        GridHeuristic manhattan = mapOfCity.getGridHeuristic();
+        report("none", map, (u, t) -> 0d, 0, 0, sources, targets);
+        report("manhattan", map, manhattan, 0, 0, sources, targets);
+        for (int count : new int[]{4, 8, 16}) {
+            for (Map.Entry<String, LandmarkSelectionStrategy<String, DefaultWeightedEdge>> entry : strategies.entrySet()) {
+                long start = System.nanoTime();
+                Set<String> landmarks = entry.getValue().selectLandmarks(map, count);
+                report(entry.getKey(), map, new IndexedALTAdmissibleHeuristic<>(map, landmarks), count, start, sources, targets);
+            }
+            long start = System.nanoTime();
+            Set<String> landmarks = strategies.get("grid").selectLandmarks(map, count);
+            AStarAdmissibleHeuristic<String> alt = new IndexedALTAdmissibleHeuristic<>(map, landmarks);
+            report("grid+manh", map, new MaxAdmissibleHeuristic<>(alt, manhattan), count, start, sources, targets);
+        }
+        long start = System.nanoTime();
+        report("all", map, new IndexedALTAdmissibleHeuristic<>(map, map.vertexSet()), map.vertexSet().size(),
+                start, sources, targets);
+    }
+
+    static void report(String name, Graph<String, DefaultWeightedEdge> map, AStarAdmissibleHeuristic<String> heuristic,
+                       int numberOfLandmarks, long start, String[] sources, String[] targets) {
+        AStarShortestPath<String, DefaultWeightedEdge> shortestPath = new AStarShortestPath<>(map, heuristic);
+        double buildMillis = start == 0 ? 0 : (System.nanoTime() - start) / 1e6;
+
+        long expanded = 0;
+        for (int i = 0; i < sources.length; i++) {
+            shortestPath.getPath(sources[i], targets[i]);
+            expanded += shortestPath.getNumberOfExpandedNodes();
+        }
+        System.out.println(String.format("%-10s %10d %14.1f %12.1f",
+                name, numberOfLandmarks, (double) expanded / sources.length, buildMillis));
+    }
+}
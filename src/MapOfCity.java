@@ -1,24 +1,115 @@
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import org.jgrapht.Graph;
+import org.jgrapht.ListenableGraph;
+import org.jgrapht.event.GraphEdgeChangeEvent;
+import org.jgrapht.event.GraphListener;
+import org.jgrapht.event.GraphVertexChangeEvent;
+import org.jgrapht.alg.shortestpath.ArcFlags;
+import org.jgrapht.alg.shortestpath.ContractionHierarchy;
+import org.jgrapht.alg.shortestpath.CustomizableContractionHierarchy;
+import org.jgrapht.alg.shortestpath.HubLabeling;
+import org.jgrapht.alg.shortestpath.IndexedALTAdmissibleHeuristic;
+import org.jgrapht.alg.shortestpath.LandmarkSelectionStrategy;
+import org.jgrapht.alg.shortestpath.TravelTimeProfiles;
+import org.jgrapht.alg.shortestpath.YenShortestPathIterator;
+import org.jgrapht.graph.DefaultListenableGraph;
 import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.graph.SimpleWeightedGraph;
 
 
 public class MapOfCity implements Serializable {
 
+    // the value the class had before it declared one, so that maps saved back then still load
+    private static final long serialVersionUID = -7765208190676061057L;
+
     String name;
     int horizontalVertices;
     int verticalVertices;
     int allVertices;
     Graph map;
 
+    // number of landmarks used by the shared ALT heuristic, 0 means default
+    int numberOfLandmarks;
+    static final int DEFAULT_NUMBER_OF_LANDMARKS = 12;
+
+    // every generated road costs at least this much
+    static final int MIN_EDGE_WEIGHT = 5;
+
+    // route with the grid heuristic alone, without building the landmark index
+    boolean gridHeuristicOnly;
+
+    // landmark index is built once per map on first use, shared by all Path threads and repaired on changes
+    private transient volatile IndexedALTAdmissibleHeuristic<String, DefaultWeightedEdge> landmarkHeuristic;
+    private transient LandmarkSelectionStrategy<String, DefaultWeightedEdge> landmarkSelection;
+
+    // runs the searches of the landmarks and of the arc-flags in parallel, null means the common pool
+    private transient ForkJoinPool preprocessingPool;
+
+    // integer-id snapshot of the roads, rebuilt on first use after a change of the map
+    private transient volatile RoadGraph roadGraph;
+    // scaled by the cheapest road of that snapshot, roads may be reweighted below MIN_EDGE_WEIGHT
+    private transient volatile GridHeuristic gridHeuristic;
+
+    // route with the contraction hierarchy instead of A*, worth its preprocessing on large maps
+    boolean useContractionHierarchy;
+    private transient volatile ContractionHierarchy<String, DefaultWeightedEdge> contractionHierarchy;
+
+    // route with a customizable contraction hierarchy, whose shortcuts survive changes of road weights,
+    // which only customize it again; the way to route while updateRoadWeights applies traffic
+    boolean useCustomizableHierarchy;
+    private transient volatile CustomizableContractionHierarchy<String, DefaultWeightedEdge> customizableHierarchy;
+    // a single road changed its weight since the last customization
+    private transient volatile boolean customizationStale;
+    // set while updateRoadWeights changes the roads, the listener then leaves the work to it
+    private transient boolean updatingRoadWeights;
+
+    // answer distances from a hub labeling ordered by the contraction hierarchy, the fastest
+    // lookups at the price of the largest preprocessing
+    boolean useHubLabeling;
+    // not transient: once built, the labeling is saved together with the map
+    private volatile HubLabeling<String, DefaultWeightedEdge> hubLabeling;
+
+    // restrict A* to the roads flagged for the block of the target, the map is split into about
+    // numberOfRegions blocks (0 means default)
+    boolean useArcFlags;
+    int numberOfRegions;
+    static final int DEFAULT_NUMBER_OF_REGIONS = 16;
+    private transient volatile ArcFlags<String, DefaultWeightedEdge> arcFlags;
+
+    // travel times by time of day, in the unit of the road weights, repeating every dayLength
+    // (0 means default); roads without a profile keep their weight all day. The profiles are data
+    // of the map rather than derived from it, so changes of the map keep them.
+    double dayLength;
+    static final double DEFAULT_DAY_LENGTH = 1440;
+    private transient volatile TravelTimeProfiles<String, DefaultWeightedEdge> travelTimeProfiles;
+
+    // answer point to point A* queries with a search from both ends
+    boolean useBidirectionalSearch;
+
+    // bumped on every change of the map, routes computed for an older version are stale
+    private transient volatile long version;
+
+    // routes shared by all routers of the map, capacity 0 means default
+    int routeCacheCapacity;
+    boolean routeCacheDisabled;
+    static final int DEFAULT_ROUTE_CACHE_CAPACITY = 4096;
+    private transient volatile RouteCache routeCache;
+
     public MapOfCity(String name, int horizontalVertices, int verticalVertices) {
         this.name = name;
         this.horizontalVertices = horizontalVertices;
         this.verticalVertices = verticalVertices;
         this.allVertices = horizontalVertices * verticalVertices;
-        this.map = createMap(horizontalVertices, verticalVertices);
+        this.map = listen(createMap(horizontalVertices, verticalVertices));
+    }
+
+    // the map is kept as a raw graph for the maps saved before it was typed, but it always holds
+    // vertex names and weighted roads
+    @SuppressWarnings("unchecked")
+    public Graph<String, DefaultWeightedEdge> getMap() {
+        return (Graph<String, DefaultWeightedEdge>) map;
     }
 
     @Override
@@ -32,6 +123,444 @@ public class MapOfCity implements Serializable {
                 '}';
     }
 
+    public int getNumberOfLandmarks() {
+        return numberOfLandmarks > 0 ? numberOfLandmarks : DEFAULT_NUMBER_OF_LANDMARKS;
+    }
+
+    public void setNumberOfLandmarks(int numberOfLandmarks) {
+        if (numberOfLandmarks <= 0) {
+            throw new IllegalArgumentException("Number of landmarks must be positive");
+        }
+        this.numberOfLandmarks = numberOfLandmarks;
+        invalidateLandmarks();
+    }
+
+    public synchronized LandmarkSelectionStrategy<String, DefaultWeightedEdge> getLandmarkSelection() {
+        if (landmarkSelection == null) {
+            landmarkSelection = new GridLandmarkSelection(horizontalVertices, verticalVertices);
+        }
+        return landmarkSelection;
+    }
+
+    public synchronized void setLandmarkSelection(LandmarkSelectionStrategy<String, DefaultWeightedEdge> landmarkSelection) {
+        this.landmarkSelection = landmarkSelection;
+        invalidateLandmarks();
+    }
+
+    public IndexedALTAdmissibleHeuristic<String, DefaultWeightedEdge> getLandmarkHeuristic() {
+        IndexedALTAdmissibleHeuristic<String, DefaultWeightedEdge> heuristic = landmarkHeuristic;
+        if (heuristic == null) {
+            synchronized (this) {
+                heuristic = landmarkHeuristic;
+                if (heuristic == null) {
+                    Set<String> landmarks = getLandmarkSelection().selectLandmarks(getMap(), getNumberOfLandmarks());
+                    heuristic = new IndexedALTAdmissibleHeuristic<String, DefaultWeightedEdge>(getMap(), landmarks,
+                            getPreprocessingPool());
+                    landmarkHeuristic = heuristic;
+                }
+            }
+        }
+        return heuristic;
+    }
+
+    public synchronized ForkJoinPool getPreprocessingPool() {
+        return preprocessingPool != null ? preprocessingPool : ForkJoinPool.commonPool();
+    }
+
+    public synchronized void setPreprocessingPool(ForkJoinPool preprocessingPool) {
+        this.preprocessingPool = preprocessingPool;
+    }
+
+    public boolean isGridHeuristicOnly() {
+        return gridHeuristicOnly;
+    }
+
+    public void setGridHeuristicOnly(boolean gridHeuristicOnly) {
+        this.gridHeuristicOnly = gridHeuristicOnly;
+    }
+
+    public GridHeuristic getGridHeuristic() {
+        GridHeuristic result = gridHeuristic;
+        if (result == null) {
+            synchronized (this) {
+                result = gridHeuristic;
+                if (result == null) {
+                    result = GridHeuristic.forRoads(getRoadGraph(), horizontalVertices);
+                    gridHeuristic = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public synchronized void invalidateLandmarks() {
+        landmarkHeuristic = null;
+    }
+
+    public RoadGraph getRoadGraph() {
+        RoadGraph result = roadGraph;
+        if (result == null) {
+            synchronized (this) {
+                result = roadGraph;
+                if (result == null) {
+                    result = new RoadGraph(getMap());
+                    roadGraph = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isUseContractionHierarchy() {
+        return useContractionHierarchy;
+    }
+
+    public void setUseContractionHierarchy(boolean useContractionHierarchy) {
+        this.useContractionHierarchy = useContractionHierarchy;
+    }
+
+    public boolean isUseCustomizableHierarchy() {
+        return useCustomizableHierarchy;
+    }
+
+    public void setUseCustomizableHierarchy(boolean useCustomizableHierarchy) {
+        this.useCustomizableHierarchy = useCustomizableHierarchy;
+    }
+
+    public CustomizableContractionHierarchy<String, DefaultWeightedEdge> getCustomizableHierarchy() {
+        CustomizableContractionHierarchy<String, DefaultWeightedEdge> result = customizableHierarchy;
+        if (result == null || customizationStale) {
+            synchronized (this) {
+                result = customizableHierarchy;
+                if (result == null) {
+                    // minimum degree order: on the sparse random grid it adds fewer shortcuts than
+                    // cutting the grid along its rows and columns
+                    result = new CustomizableContractionHierarchy<String, DefaultWeightedEdge>(getMap(), null,
+                            getPreprocessingPool());
+                    customizableHierarchy = result;
+                } else if (customizationStale) {
+                    result.customize(getPreprocessingPool());
+                }
+                customizationStale = false;
+            }
+        }
+        return result;
+    }
+
+    // applies the weights of many roads at once, e.g. from traffic: the customizable hierarchy is
+    // customized again in the preprocessing pool while its queries keep the previous weights, and
+    // everything else derived from the weights is dropped once instead of once per road
+    public void updateRoadWeights(Map<DefaultWeightedEdge, Double> weights) {
+        synchronized (this) {
+            Graph<String, DefaultWeightedEdge> map = getMap();
+            for (Map.Entry<DefaultWeightedEdge, Double> entry : weights.entrySet()) {
+                if (!map.containsEdge(entry.getKey())) {
+                    throw new IllegalArgumentException("Road not contained in the map: " + entry.getKey());
+                }
+                if (!(entry.getValue() >= 0)) {
+                    throw new IllegalArgumentException("Road weight must not be negative: " + entry.getValue());
+                }
+            }
+            updatingRoadWeights = true;
+            try {
+                for (Map.Entry<DefaultWeightedEdge, Double> entry : weights.entrySet()) {
+                    map.setEdgeWeight(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                updatingRoadWeights = false;
+            }
+            CustomizableContractionHierarchy<String, DefaultWeightedEdge> hierarchy = customizableHierarchy;
+            if (hierarchy != null) {
+                hierarchy.customize(getPreprocessingPool());
+                customizationStale = false;
+            }
+            roadsChanged();
+            invalidateLandmarks();
+        }
+    }
+
+    public boolean isUseHubLabeling() {
+        return useHubLabeling;
+    }
+
+    public void setUseHubLabeling(boolean useHubLabeling) {
+        this.useHubLabeling = useHubLabeling;
+    }
+
+    public HubLabeling<String, DefaultWeightedEdge> getHubLabeling() {
+        HubLabeling<String, DefaultWeightedEdge> result = hubLabeling;
+        if (result == null) {
+            synchronized (this) {
+                result = hubLabeling;
+                if (result == null) {
+                    result = new HubLabeling<String, DefaultWeightedEdge>(getContractionHierarchy(), true);
+                    hubLabeling = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isUseArcFlags() {
+        return useArcFlags;
+    }
+
+    public void setUseArcFlags(boolean useArcFlags) {
+        this.useArcFlags = useArcFlags;
+    }
+
+    public int getNumberOfRegions() {
+        return numberOfRegions > 0 ? numberOfRegions : DEFAULT_NUMBER_OF_REGIONS;
+    }
+
+    public synchronized void setNumberOfRegions(int numberOfRegions) {
+        if (numberOfRegions <= 0) {
+            throw new IllegalArgumentException("Number of regions must be positive");
+        }
+        this.numberOfRegions = numberOfRegions;
+        arcFlags = null;
+    }
+
+    public ArcFlags<String, DefaultWeightedEdge> getArcFlags() {
+        ArcFlags<String, DefaultWeightedEdge> result = arcFlags;
+        if (result == null) {
+            synchronized (this) {
+                result = arcFlags;
+                if (result == null) {
+                    GridPartition partition = GridPartition.of(horizontalVertices, verticalVertices, getNumberOfRegions());
+                    result = new ArcFlags<String, DefaultWeightedEdge>(getMap(), partition, partition.numberOfRegions(),
+                            getPreprocessingPool());
+                    arcFlags = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isUseBidirectionalSearch() {
+        return useBidirectionalSearch;
+    }
+
+    public void setUseBidirectionalSearch(boolean useBidirectionalSearch) {
+        this.useBidirectionalSearch = useBidirectionalSearch;
+    }
+
+    public ContractionHierarchy<String, DefaultWeightedEdge> getContractionHierarchy() {
+        ContractionHierarchy<String, DefaultWeightedEdge> result = contractionHierarchy;
+        if (result == null) {
+            synchronized (this) {
+                result = contractionHierarchy;
+                if (result == null) {
+                    result = new ContractionHierarchy<String, DefaultWeightedEdge>(getMap());
+                    contractionHierarchy = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public double getDayLength() {
+        return dayLength > 0 ? dayLength : DEFAULT_DAY_LENGTH;
+    }
+
+    public synchronized void setDayLength(double dayLength) {
+        if (!(dayLength > 0)) {
+            throw new IllegalArgumentException("Day length must be positive");
+        }
+        this.dayLength = dayLength;
+        travelTimeProfiles = null;
+    }
+
+    public TravelTimeProfiles<String, DefaultWeightedEdge> getTravelTimeProfiles() {
+        TravelTimeProfiles<String, DefaultWeightedEdge> result = travelTimeProfiles;
+        if (result == null) {
+            synchronized (this) {
+                result = travelTimeProfiles;
+                if (result == null) {
+                    result = new TravelTimeProfiles<String, DefaultWeightedEdge>(getMap(), getDayLength());
+                    travelTimeProfiles = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // a router by travel time for one thread, leaving at departureTime
+    public TimeDependentRouter createTimeDependentRouter(double departureTime) {
+        return new TimeDependentRouter(this, departureTime);
+    }
+
+    // Alternative routes, shortest first: a route is skipped if more than MAX_ROUTE_SIMILARITY of
+    // its length runs on roads of a route offered before, and the search gives up after
+    // MAX_EXAMINED_ROUTES candidates. Routes are computed one at a time as they are taken.
+    static final double MAX_ROUTE_SIMILARITY = 0.7;
+    static final int MAX_EXAMINED_ROUTES = 200;
+
+    @SuppressWarnings("unchecked")
+    public YenShortestPathIterator<String, DefaultWeightedEdge> alternativeRoutes(String source, String target) {
+        return new YenShortestPathIterator<String, DefaultWeightedEdge>(map, source, target,
+                MAX_ROUTE_SIMILARITY, MAX_EXAMINED_ROUTES);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRouteCacheCapacity() {
+        return routeCacheCapacity > 0 ? routeCacheCapacity : DEFAULT_ROUTE_CACHE_CAPACITY;
+    }
+
+    public synchronized void setRouteCacheCapacity(int routeCacheCapacity) {
+        if (routeCacheCapacity <= 0) {
+            throw new IllegalArgumentException("Route cache capacity must be positive");
+        }
+        this.routeCacheCapacity = routeCacheCapacity;
+        routeCache = null;
+    }
+
+    public boolean isRouteCacheDisabled() {
+        return routeCacheDisabled;
+    }
+
+    public void setRouteCacheDisabled(boolean routeCacheDisabled) {
+        this.routeCacheDisabled = routeCacheDisabled;
+    }
+
+    public RouteCache getRouteCache() {
+        RouteCache result = routeCache;
+        if (result == null) {
+            synchronized (this) {
+                result = routeCache;
+                if (result == null) {
+                    result = new RouteCache(getRouteCacheCapacity());
+                    routeCache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // a new router for one thread, sharing the preprocessing and the route cache of this map
+    public Router createRouter() {
+        long currentVersion = version;
+        Router router;
+        if (useHubLabeling) {
+            router = new HubRouter(this);
+        } else if (useCustomizableHierarchy) {
+            router = new CustomizableRouter(this);
+        } else if (useContractionHierarchy) {
+            router = new HierarchyRouter(this);
+        } else if (useArcFlags) {
+            router = new FlagRouter(this);
+        } else {
+            router = new RoadRouter(this);
+        }
+        if (routeCacheDisabled) {
+            return router;
+        }
+        return new CachingRouter(router, getRouteCache(), getRoadGraph(), currentVersion);
+    }
+
+    // must be called explicitly only after changes which bypass the listener of the map
+    public synchronized void mapChanged() {
+        layoutChanged();
+        invalidateLandmarks();
+    }
+
+    // roads or crossings were added or removed, the shortcuts of the customizable hierarchy no longer fit
+    private synchronized void layoutChanged() {
+        customizableHierarchy = null;
+        roadsChanged();
+    }
+
+    // drops everything derived from the map except the landmark index, which repairs itself, and the
+    // customizable hierarchy, which depends on the layout of the roads only
+    private synchronized void roadsChanged() {
+        version++;
+        roadGraph = null;
+        gridHeuristic = null;
+        contractionHierarchy = null;
+        hubLabeling = null;
+        arcFlags = null;
+    }
+
+    // maps saved before the map listened to its changes hold the plain graph, wrap it again so that
+    // changes after loading still reach the derived structures and the route cache
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (!(map instanceof ListenableGraph)) {
+            map = listen(getMap());
+        }
+    }
+
+    private Graph<String, DefaultWeightedEdge> listen(Graph<String, DefaultWeightedEdge> graph) {
+        DefaultListenableGraph<String, DefaultWeightedEdge> listenable = new DefaultListenableGraph<>(graph);
+        listenable.addGraphListener(new MapListener());
+        return listenable;
+    }
+
+    // keeps everything derived from the map in step with changes of its vertices and roads,
+    // the landmark index is repaired around the change instead of being rebuilt; searches running
+    // meanwhile may see a partly repaired index, their routes are stale by version anyway
+    private class MapListener implements GraphListener<String, DefaultWeightedEdge>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void edgeAdded(GraphEdgeChangeEvent<String, DefaultWeightedEdge> e) {
+            synchronized (MapOfCity.this) {
+                if (landmarkHeuristic != null) {
+                    landmarkHeuristic.edgeAdded(e);
+                }
+                layoutChanged();
+            }
+        }
+
+        @Override
+        public void edgeRemoved(GraphEdgeChangeEvent<String, DefaultWeightedEdge> e) {
+            synchronized (MapOfCity.this) {
+                if (landmarkHeuristic != null) {
+                    landmarkHeuristic.edgeRemoved(e);
+                }
+                layoutChanged();
+            }
+        }
+
+        @Override
+        public void edgeWeightUpdated(GraphEdgeChangeEvent<String, DefaultWeightedEdge> e) {
+            synchronized (MapOfCity.this) {
+                if (updatingRoadWeights) {
+                    return;
+                }
+                if (landmarkHeuristic != null) {
+                    landmarkHeuristic.edgeWeightUpdated(e);
+                }
+                customizationStale = true;
+                roadsChanged();
+            }
+        }
+
+        @Override
+        public void vertexAdded(GraphVertexChangeEvent<String> e) {
+            synchronized (MapOfCity.this) {
+                if (landmarkHeuristic != null) {
+                    landmarkHeuristic.vertexAdded(e);
+                }
+                layoutChanged();
+            }
+        }
+
+        @Override
+        public void vertexRemoved(GraphVertexChangeEvent<String> e) {
+            synchronized (MapOfCity.this) {
+                if (landmarkHeuristic != null) {
+                    landmarkHeuristic.vertexRemoved(e);
+                }
+                layoutChanged();
+            }
+        }
+    }
+
     public ArrayList<Integer> loop(int begin, int end) {
         ArrayList<Integer> array = new ArrayList<Integer>(end - begin);
         for (int i = begin; i < end; i++) {
@@ -40,7 +569,7 @@ public class MapOfCity implements Serializable {
         return array;
     }
 
-    public Graph createMap(int horizontalVertices, int verticalVertices) {
+    public Graph<String, DefaultWeightedEdge> createMap(int horizontalVertices, int verticalVertices) {
 
         // create weighted graph
         Graph<String, DefaultWeightedEdge> mapOfCity = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
@@ -74,12 +603,12 @@ public class MapOfCity implements Serializable {
                 String targetVertexVertical = "v" + nextVertical;
 
                 DefaultWeightedEdge horizontal = mapOfCity.addEdge(sourceVertexHorizontal, targetVertexHorizontal);
-                mapOfCity.setEdgeWeight(horizontal, rand.nextInt(allVertices / 10) + 5);
+                mapOfCity.setEdgeWeight(horizontal, rand.nextInt(allVertices / 10) + MIN_EDGE_WEIGHT);
                 listOfEdgesHorizontal.remove(randIndexHorizontal);
 
                 if (nextVertical < allVertices) {
                     DefaultWeightedEdge vertical = mapOfCity.addEdge(sourceVertexVertical, targetVertexVertical);
-                    mapOfCity.setEdgeWeight(vertical, rand.nextInt(allVertices / 10) + 5);
+                    mapOfCity.setEdgeWeight(vertical, rand.nextInt(allVertices / 10) + MIN_EDGE_WEIGHT);
                     listOfEdgesVertical.remove(randIndexVertical);
                 }
             }
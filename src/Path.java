@@ -1,9 +1,10 @@
-import org.apache.commons.lang3.ArrayUtils;
-import org.jgrapht.alg.shortestpath.ALTAdmissibleHeuristic;
-import org.jgrapht.alg.shortestpath.AStarShortestPath;
-
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.jgrapht.alg.shortestpath.YenShortestPathIterator;
+import org.jgrapht.alg.tour.PickupDeliveryTwoOptHeuristic;
+import org.jgrapht.graph.DefaultWeightedEdge;
 
 
 public class Path extends Thread{
@@ -12,6 +13,16 @@ public class Path extends Thread{
     ArrayList<Client> orderedClients;
     Taxi taxi;
     public volatile ArrayList<ArrayList<String>> paths;
+    private Router router;
+    // spatial index of the taxis moved by changeLocation, may be null
+    private TaxiGrid taxiGrid;
+    // serve the clients in the order of the list, as planned by the Dispatcher, instead of the
+    // order of the shortest route through all of them
+    private boolean servedInOrder;
+    // shared rides planned by RidePool: one path per stop instead of one per client, may be null
+    private List<RidePool.Stop> stops;
+    // riders in the taxi moved by changeLocation along the stops
+    private Set<Client> onBoard = new LinkedHashSet<>();
 
 
     public Path(MapOfCity mapOfCity, ArrayList<Client> clients, Taxi taxi) {
@@ -35,55 +46,152 @@ public class Path extends Thread{
         String taxiSource = taxi.sourceVertex;
         String taxiTarget = clientSource;
 
-        ALTAdmissibleHeuristic heuristic = new ALTAdmissibleHeuristic(mapOfCity.map, mapOfCity.map.vertexSet());
+        Router router = getRouter();
+        RoadGraph roadGraph = mapOfCity.getRoadGraph();
 
         ArrayList<String> path;
         if (!taxiSource.equals(clientSource)) {
-            AStarShortestPath taxiSourceTargetPath = new AStarShortestPath(mapOfCity.map, heuristic);
-            AStarShortestPath clientSourceTargetPath = new AStarShortestPath(mapOfCity.map, heuristic);
-            String beginString = (taxiSourceTargetPath.getPath(taxiSource, taxiTarget)).toString();
-            beginString = beginString.substring(1, beginString.length() - 1);
-            String[] begin = beginString.split(", ");
-
-            String endString = (clientSourceTargetPath.getPath(clientSource, clientTarget)).toString();
-            endString = endString.substring(1, endString.length() - 1);
-            String[] end = endString.split(", ");
-            String[] both = ArrayUtils.addAll(begin, end);
-            path = new ArrayList<>(Arrays.asList(both));
+            path = roadGraph.toNames(router.path(RoadGraph.vertexId(taxiSource), RoadGraph.vertexId(taxiTarget)));
+            path.addAll(roadGraph.toNames(router.path(RoadGraph.vertexId(clientSource), RoadGraph.vertexId(clientTarget))));
         }
         else {
-            AStarShortestPath clientSourceTargetPath = new AStarShortestPath(mapOfCity.map, heuristic);
-            String pathString = clientSourceTargetPath.getPath(clientSource, clientTarget).toString();
-            pathString = pathString.substring(1, pathString.length() - 1);
-            path = new ArrayList<>(Arrays.asList((pathString.split(", "))));
+            path = roadGraph.toNames(router.path(RoadGraph.vertexId(clientSource), RoadGraph.vertexId(clientTarget)));
         }
         taxi.sourceVertex = client.targetVertex;
         //taxi.isFree = true;
         return path;
     }
 
+    // up to k clearly different routes from source to target, the shortest first
+    public ArrayList<ArrayList<String>> alternativePaths(String source, String target, int k) {
+        ArrayList<ArrayList<String>> alternatives = new ArrayList<>();
+        YenShortestPathIterator<String, DefaultWeightedEdge> routes = mapOfCity.alternativeRoutes(source, target);
+        while (alternatives.size() < k && routes.hasNext()) {
+            alternatives.add(new ArrayList<>(routes.next().getVertexList()));
+        }
+        return alternatives;
+    }
+
+    public void setServedInOrder(boolean servedInOrder) {
+        this.servedInOrder = servedInOrder;
+    }
+
+    public void setStops(List<RidePool.Stop> stops) {
+        this.stops = stops;
+    }
+
+    public void setTaxiGrid(TaxiGrid taxiGrid) {
+        this.taxiGrid = taxiGrid;
+    }
+
+    // search state is reused by all queries of this Path, so it must not be shared with other threads
+    Router getRouter() {
+        if (router == null) {
+            router = mapOfCity.createRouter();
+        }
+        return router;
+    }
+
+    // the taxi drives from stop to stop; orderedClients gets the client of every stop
+    public ArrayList<String> createPath(RidePool.Stop stop, Taxi taxi) {
+        taxi.isFree = false;
+        if (stop.pickup) {
+            stop.client.isWait = false;
+        }
+        RoadGraph roadGraph = mapOfCity.getRoadGraph();
+        ArrayList<String> path = roadGraph.toNames(getRouter().path(RoadGraph.vertexId(taxi.sourceVertex), stop.vertex));
+        taxi.sourceVertex = roadGraph.names[stop.vertex];
+        return path;
+    }
+
     @Override
     public void run() {
-        ALTAdmissibleHeuristic heuristic = new ALTAdmissibleHeuristic(mapOfCity.map, mapOfCity.map.vertexSet());
-        AStarShortestPath shortestPath = new AStarShortestPath(mapOfCity.map, heuristic);
-        while (clients.size() > 0) {
-            double shortestDistance = Double.POSITIVE_INFINITY;
-            Client luckyClient = null;
-            int index = 0;
-            for (int i = 0; i < clients.size(); i++) {
-                Client client = clients.get(i);
-                double distance = shortestPath.getPathWeight(taxi.sourceVertex, client.sourceVertex);
-                if (distance < shortestDistance) {
-                    shortestDistance = distance;
-                    luckyClient = client;
-                    index = i;
-                }
+        Router router = getRouter();
+        if (stops != null) {
+            for (RidePool.Stop stop : stops) {
+                orderedClients.add(stop.client);
+                paths.add(createPath(stop, taxi));
             }
-            ArrayList<String> pathList = createPath(luckyClient, taxi);
-            orderedClients.add(clients.get(index));
-            clients.remove(index);
-            paths.add(pathList);
+            return;
+        }
+        if (servedInOrder || clients.size() < 2) {
+            while (clients.size() > 0) {
+                Client client = clients.remove(0);
+                orderedClients.add(client);
+                paths.add(createPath(client, taxi));
+            }
+            return;
+        }
+        // all clients at once, in the order of the shortest route found for the whole queue
+        for (int c : servingOrder(router)) {
+            Client client = clients.get(c);
+            orderedClients.add(client);
+            paths.add(createPath(client, taxi));
         }
+        clients.clear();
+    }
+
+    // Stop 0 is the taxi, stops 2c + 1 and 2c + 2 the source and the target of client c. One
+    // search per stop fills the distance matrix, then the nearest source first order is improved
+    // by 2-opt and Or-opt moves; with one client at a time every target follows its source.
+    int[] servingOrder(Router router) {
+        int n = clients.size();
+        int size = 2 * n + 1;
+        int[] vertices = new int[size];
+        vertices[0] = RoadGraph.vertexId(taxi.sourceVertex);
+        int[] before = new int[size];
+        int[] demand = new int[size];
+        before[0] = -1;
+        for (int c = 0; c < n; c++) {
+            vertices[2 * c + 1] = RoadGraph.vertexId(clients.get(c).sourceVertex);
+            vertices[2 * c + 2] = RoadGraph.vertexId(clients.get(c).targetVertex);
+            before[2 * c + 1] = -1;
+            before[2 * c + 2] = 2 * c + 1;
+            demand[2 * c + 1] = 1;
+            demand[2 * c + 2] = -1;
+        }
+        double[] distances = new double[size * size];
+        double[] row = new double[size];
+        for (int u = 0; u < size; u++) {
+            router.distances(vertices[u], vertices, size, row);
+            System.arraycopy(row, 0, distances, u * size, size);
+        }
+        int[] tour = new int[size];
+        new PickupDeliveryTwoOptHeuristic().getTour(distances, size, before, demand, 1, tour);
+        int[] order = new int[n];
+        for (int p = 1, c = 0; p < size; p++) {
+            if (demand[tour[p]] > 0) {
+                order[c++] = (tour[p] - 1) / 2;
+            }
+        }
+        int[] planned = new int[n];
+        for (int c = 0; c < n; c++) {
+            planned[c] = c;
+        }
+        // the Dispatcher gave this taxi its clients expecting it to pick them up in the planned
+        // order, the shorter route is only taken if it picks up no client later than that
+        double[] plannedPickups = pickupTimes(distances, size, planned);
+        double[] pickups = pickupTimes(distances, size, order);
+        for (int c = 0; c < n; c++) {
+            if (pickups[c] > plannedPickups[c]) {
+                return planned;
+            }
+        }
+        return order;
+    }
+
+    // the time from now at which every client is picked up when the clients are driven in order
+    private static double[] pickupTimes(double[] distances, int size, int[] order) {
+        double[] pickups = new double[order.length];
+        double time = 0;
+        int at = 0;
+        for (int c : order) {
+            time += distances[at * size + 2 * c + 1];
+            pickups[c] = time;
+            time += distances[(2 * c + 1) * size + 2 * c + 2];
+            at = 2 * c + 2;
+        }
+        return pickups;
     }
 
     public void changeLocation(Taxi taxi, Client client, ArrayList<String> path) {
@@ -94,5 +202,26 @@ public class Path extends Thread{
         else if (!taxi.sourceVertex.equals(client.sourceVertex) && path.size() > 1) {
             taxi.sourceVertex = path.get(1);
         }
+        if (taxiGrid != null && path.size() > 1) {
+            taxiGrid.moved(taxi);
+        }
+    }
+
+    // one step of a shared ride: the taxi moves with everybody on board, at the last vertex of the
+    // path to the stop the client of a pickup gets in and the client of a drop-off gets out
+    public void changeLocation(Taxi taxi, RidePool.Stop stop, ArrayList<String> path) {
+        if (path.size() > 1) {
+            taxi.sourceVertex = path.get(1);
+            for (Client client : onBoard) {
+                client.sourceVertex = taxi.sourceVertex;
+            }
+            if (taxiGrid != null) {
+                taxiGrid.moved(taxi);
+            }
+        } else if (stop.pickup) {
+            onBoard.add(stop.client);
+        } else {
+            onBoard.remove(stop.client);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,408 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+// Shared rides: every taxi has a number of seats and a planned sequence of stops, each the pickup
+// or the drop-off of a client. A new order goes to the taxi with the cheapest insertion of its
+// pickup and drop-off into the remaining stops (the least extra road to drive), subject to the
+// seats and to the detour limit: no client, old or new, may ride longer than (1 + maxDetour)
+// times its direct distance. An empty taxi is just a taxi without stops, so pooling and plain
+// dispatch compete for the same orders.
+// The distances between the planned stops of a taxi are kept with its route. An order costs two
+// searches, from its pickup and from its drop-off to the current vertex and stops of every taxi at
+// once; after that every insertion of every taxi is checked in O(1) per client on board, from
+// the cached arrival distances and the slack of every rider.
+// Taxis are indexed by their number and move from stop to stop: call arrived() when a taxi
+// reaches its next stop. Not thread safe.
+public class RidePool {
+
+    static final int DEFAULT_SEATS = 4;
+    static final double DEFAULT_MAX_DETOUR = 0.5;
+
+    // a planned stop: the pickup or the drop-off of a client
+    public static final class Stop {
+        final Client client;
+        final boolean pickup;
+        final int vertex;
+
+        Stop(Client client, boolean pickup) {
+            this.client = client;
+            this.pickup = pickup;
+            this.vertex = RoadGraph.vertexId(pickup ? client.sourceVertex : client.targetVertex);
+        }
+
+        @Override
+        public String toString() {
+            return (pickup ? "pickup " : "drop-off ") + client.id + " at v" + vertex;
+        }
+    }
+
+    // a client of a route with the longest ride it accepts
+    private static final class Rider {
+        final Client client;
+        final double maxRide;
+        boolean onBoard;
+        // road driven with the client on board so far
+        double ridden;
+        // position of its stops in the route, 0 for a pickup already made
+        int pickupIndex;
+        int dropOffIndex;
+        double slack;
+
+        Rider(Client client, double maxRide) {
+            this.client = client;
+            this.maxRide = maxRide;
+        }
+    }
+
+    // the stops of a taxi; stop 0 is the vertex the taxi stands at
+    private static final class Route {
+        final Taxi taxi;
+        int position;
+        ArrayList<Stop> stops = new ArrayList<>();
+        // leg[k] is the distance from stop k - 1 to stop k, arrival[k] their sum up to k
+        double[] leg = new double[1];
+        double[] arrival = new double[1];
+        // clients on board after stop k
+        int[] load = new int[1];
+        ArrayList<Rider> riders = new ArrayList<>();
+
+        Route(Taxi taxi) {
+            this.taxi = taxi;
+            this.position = RoadGraph.vertexId(taxi.sourceVertex);
+        }
+
+        int vertex(int k) {
+            return k == 0 ? position : stops.get(k - 1).vertex;
+        }
+    }
+
+    private final int seats;
+    private final double maxDetour;
+    private final RoadGraph roadGraph;
+    private final RoadRouter roadRouter;
+    private Route[] routeByNumber = new Route[16];
+    private final ArrayList<Route> routes = new ArrayList<>();
+
+    // bulk distances of one order: targets are the stops of all routes, routeStart their offsets
+    private int[] routeStart = new int[0];
+    private double[] fromPickup = new double[0];
+    private double[] fromDropOff = new double[0];
+
+    public RidePool(MapOfCity mapOfCity, List<Taxi> taxi) {
+        this(mapOfCity, taxi, DEFAULT_SEATS, DEFAULT_MAX_DETOUR);
+    }
+
+    public RidePool(MapOfCity mapOfCity, List<Taxi> taxi, int seats, double maxDetour) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("A taxi needs at least one seat");
+        }
+        if (!(maxDetour >= 0)) {
+            throw new IllegalArgumentException("Detour limit can not be negative");
+        }
+        this.seats = seats;
+        this.maxDetour = maxDetour;
+        this.roadGraph = mapOfCity.getRoadGraph();
+        this.roadRouter = new RoadRouter(roadGraph, null, null);
+        for (Taxi t : taxi) {
+            add(t);
+        }
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public double getMaxDetour() {
+        return maxDetour;
+    }
+
+    public void add(Taxi taxi) {
+        int number = taxi.number;
+        if (number < 0) {
+            throw new IllegalArgumentException("Taxi number can not be negative: " + number);
+        }
+        if (number >= routeByNumber.length) {
+            routeByNumber = Arrays.copyOf(routeByNumber, Math.max(2 * routeByNumber.length, number + 1));
+        }
+        if (routeByNumber[number] != null) {
+            throw new IllegalArgumentException("Taxi " + number + " is already in the pool");
+        }
+        Route route = new Route(taxi);
+        routeByNumber[number] = route;
+        routes.add(route);
+    }
+
+    // the remaining stops of the taxi in the order it drives them
+    public List<Stop> stops(Taxi taxi) {
+        return new ArrayList<>(route(taxi).stops);
+    }
+
+    public Stop nextStop(Taxi taxi) {
+        Route route = route(taxi);
+        return route.stops.isEmpty() ? null : route.stops.get(0);
+    }
+
+    // Gives the client the taxi with the cheapest feasible insertion, ties to the taxi added first,
+    // and returns it; null if no taxi can take the client to its target.
+    public Taxi orderPlaced(Client client) {
+        int pickup = RoadGraph.vertexId(client.sourceVertex);
+        int dropOff = RoadGraph.vertexId(client.targetVertex);
+
+        // every stop of every route, then the drop-off for the direct distance
+        if (routeStart.length < routes.size() + 1) {
+            routeStart = new int[routes.size() + 1];
+        }
+        int size = 0;
+        for (int r = 0; r < routes.size(); r++) {
+            routeStart[r] = size;
+            size += routes.get(r).stops.size() + 1;
+        }
+        routeStart[routes.size()] = size;
+        int[] targets = new int[size + 1];
+        if (fromPickup.length < size + 1) {
+            fromPickup = new double[size + 1];
+            fromDropOff = new double[size + 1];
+        }
+        for (int r = 0; r < routes.size(); r++) {
+            Route route = routes.get(r);
+            for (int k = 0; k <= route.stops.size(); k++) {
+                targets[routeStart[r] + k] = route.vertex(k);
+            }
+        }
+        targets[size] = dropOff;
+        roadRouter.distances(pickup, targets, targets.length, fromPickup);
+        double direct = fromPickup[size];
+        if (direct == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        roadRouter.distances(dropOff, targets, targets.length, fromDropOff);
+
+        Insertion best = new Insertion();
+        for (int r = 0; r < routes.size(); r++) {
+            cheapestInsertion(routes.get(r), routeStart[r], direct, best);
+        }
+        if (best.route == null) {
+            return null;
+        }
+        insert(best, client, direct);
+        return best.route.taxi;
+    }
+
+    // the taxi has reached its next stop
+    public Stop arrived(Taxi taxi) {
+        Route route = route(taxi);
+        if (route.stops.isEmpty()) {
+            throw new IllegalArgumentException("Taxi " + taxi.number + " has no stop left");
+        }
+        Stop stop = route.stops.remove(0);
+        double leg = route.leg[1];
+        for (Rider rider : route.riders) {
+            if (rider.onBoard) {
+                rider.ridden += leg;
+            }
+        }
+        if (stop.pickup) {
+            riderOf(route, stop.client).onBoard = true;
+            stop.client.isWait = false;
+        } else {
+            route.riders.remove(riderOf(route, stop.client));
+        }
+        route.position = stop.vertex;
+        taxi.sourceVertex = roadGraph.names[stop.vertex];
+        double[] legs = new double[route.stops.size() + 1];
+        System.arraycopy(route.leg, 2, legs, 1, route.stops.size());
+        route.leg = legs;
+        update(route);
+        return stop;
+    }
+
+    // Plans a day in which all clients order at once, in the order of the list, and are inserted
+    // into the routes of the taxis standing where they are. Returns for every taxi of the list its
+    // stops in order. Clients which can not be taken to their target are left out. The taxis and
+    // clients themselves are not changed.
+    public static ArrayList<ArrayList<Stop>> plan(MapOfCity mapOfCity, List<Client> clients, List<Taxi> taxi,
+                                                 int seats, double maxDetour) {
+        List<Taxi> fleet = new ArrayList<>(taxi.size());
+        for (Taxi t : taxi) {
+            fleet.add(new Taxi(t.number, t.sourceVertex));
+        }
+        RidePool pool = new RidePool(mapOfCity, fleet, seats, maxDetour);
+        Map<Client, Client> original = new IdentityHashMap<>();
+        for (Client client : clients) {
+            Client order = new Client(client.id, client.sourceVertex, client.targetVertex);
+            original.put(order, client);
+            pool.orderPlaced(order);
+        }
+        ArrayList<ArrayList<Stop>> stopsForCabs = new ArrayList<>(fleet.size());
+        for (Taxi t : fleet) {
+            ArrayList<Stop> stops = new ArrayList<>();
+            for (Stop stop : pool.route(t).stops) {
+                stops.add(new Stop(original.get(stop.client), stop.pickup));
+            }
+            stopsForCabs.add(stops);
+        }
+        return stopsForCabs;
+    }
+
+    // the best insertion found so far: pickup after stop i, drop-off after stop j
+    private static final class Insertion {
+        Route route;
+        int i;
+        int j;
+        double cost = Double.POSITIVE_INFINITY;
+        // distances from the pickup and the drop-off to the neighbouring stops
+        double pickupIn;
+        double pickupOut;
+        double dropOffIn;
+        double dropOffOut;
+    }
+
+    private void cheapestInsertion(Route route, int start, double direct, Insertion best) {
+        int n = route.stops.size();
+        if (fromPickup[start] == Double.POSITIVE_INFINITY) {
+            return;
+        }
+        double maxRide = direct * (1 + maxDetour);
+        double[] arrival = route.arrival;
+        for (int i = 0; i <= n; i++) {
+            if (route.load[i] >= seats) {
+                continue;
+            }
+            double toPickup = fromPickup[start + i];
+            double pickupOut = i < n ? fromPickup[start + i + 1] : 0;
+            // pickup right before the drop-off
+            double added = toPickup + direct + (i < n ? fromDropOff[start + i + 1] - route.leg[i + 1] : 0);
+            if (added < best.cost && fits(route, i, added, i, 0)) {
+                keep(best, route, i, i, added, toPickup, direct, direct, i < n ? fromDropOff[start + i + 1] : 0);
+            }
+            // a detour for the pickup alone, then the drop-off after a later stop
+            double pickupDelay = toPickup + (i < n ? pickupOut - route.leg[i + 1] : 0);
+            for (int j = i + 1; j <= n; j++) {
+                if (route.load[j] >= seats) {
+                    break;
+                }
+                double ride = pickupOut + arrival[j] - arrival[i + 1] + fromDropOff[start + j];
+                if (ride > maxRide) {
+                    break;
+                }
+                double dropOffOut = j < n ? fromDropOff[start + j + 1] : 0;
+                double dropOffDelay = fromDropOff[start + j] + (j < n ? dropOffOut - route.leg[j + 1] : 0);
+                added = pickupDelay + dropOffDelay;
+                if (added < best.cost && fits(route, i, pickupDelay, j, dropOffDelay)) {
+                    keep(best, route, i, j, added, toPickup, pickupOut, fromDropOff[start + j], dropOffOut);
+                }
+            }
+        }
+    }
+
+    // whether no rider goes over its detour limit when the stops after i are delayed by
+    // pickupDelay and those after j by dropOffDelay more
+    private static boolean fits(Route route, int i, double pickupDelay, int j, double dropOffDelay) {
+        for (Rider rider : route.riders) {
+            double delay = 0;
+            if (rider.pickupIndex <= i && i < rider.dropOffIndex) {
+                delay += pickupDelay;
+            }
+            if (j != i && rider.pickupIndex <= j && j < rider.dropOffIndex) {
+                delay += dropOffDelay;
+            }
+            if (delay > rider.slack) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void keep(Insertion best, Route route, int i, int j, double cost,
+                             double pickupIn, double pickupOut, double dropOffIn, double dropOffOut) {
+        best.route = route;
+        best.i = i;
+        best.j = j;
+        best.cost = cost;
+        best.pickupIn = pickupIn;
+        best.pickupOut = pickupOut;
+        best.dropOffIn = dropOffIn;
+        best.dropOffOut = dropOffOut;
+    }
+
+    private void insert(Insertion insertion, Client client, double direct) {
+        Route route = insertion.route;
+        int n = route.stops.size();
+        int i = insertion.i;
+        int j = insertion.j;
+        double[] legs = new double[n + 3];
+        // old stop k moves to k + 1 after the pickup and to k + 2 after the drop-off
+        for (int k = 1; k <= n; k++) {
+            legs[k + (k > i ? 1 : 0) + (k > j ? 1 : 0)] = route.leg[k];
+        }
+        legs[i + 1] = insertion.pickupIn;
+        if (i == j) {
+            legs[i + 2] = direct;
+        } else {
+            legs[i + 2] = insertion.pickupOut;
+            legs[j + 2] = insertion.dropOffIn;
+        }
+        if (j < n) {
+            legs[j + 3] = insertion.dropOffOut;
+        }
+        route.stops.add(j, new Stop(client, false));
+        route.stops.add(i, new Stop(client, true));
+        route.leg = legs;
+        route.riders.add(new Rider(client, direct * (1 + maxDetour)));
+        route.taxi.isFree = false;
+        update(route);
+    }
+
+    // arrival distances, loads, stop positions and slack of the riders from the legs
+    private void update(Route route) {
+        int n = route.stops.size();
+        route.arrival = new double[n + 1];
+        route.load = new int[n + 1];
+        for (Rider rider : route.riders) {
+            if (rider.onBoard) {
+                route.load[0]++;
+                rider.pickupIndex = 0;
+            }
+        }
+        for (int k = 1; k <= n; k++) {
+            Stop stop = route.stops.get(k - 1);
+            route.arrival[k] = route.arrival[k - 1] + route.leg[k];
+            route.load[k] = route.load[k - 1] + (stop.pickup ? 1 : -1);
+            Rider rider = riderOf(route, stop.client);
+            if (stop.pickup) {
+                rider.pickupIndex = k;
+            } else {
+                rider.dropOffIndex = k;
+            }
+        }
+        for (Rider rider : route.riders) {
+            double ride = rider.onBoard
+                    ? rider.ridden + route.arrival[rider.dropOffIndex]
+                    : route.arrival[rider.dropOffIndex] - route.arrival[rider.pickupIndex];
+            rider.slack = rider.maxRide - ride;
+        }
+        route.taxi.isFree = n == 0;
+    }
+
+    private static Rider riderOf(Route route, Client client) {
+        for (Rider rider : route.riders) {
+            if (rider.client == client) {
+                return rider;
+            }
+        }
+        throw new IllegalStateException("Client " + client.id + " is not a rider of taxi " + route.taxi.number);
+    }
+
+    private Route route(Taxi taxi) {
+        int number = taxi.number;
+        if (number < 0 || number >= routeByNumber.length || routeByNumber[number] == null
+                || routeByNumber[number].taxi != taxi) {
+            throw new IllegalArgumentException("Taxi " + number + " is not in the pool");
+        }
+        return routeByNumber[number];
+    }
+}
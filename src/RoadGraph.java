@@ -0,0 +1,128 @@
+import java.util.*;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// Compact snapshot of the roads of a MapOfCity for routing and rendering.
+// Vertex "v" + i gets the integer id i, adjacency is stored in CSR form: the roads of vertex v are
+// targets[offsets[v]] .. targets[offsets[v + 1] - 1] with the same positions in weights.
+// Every undirected road is stored once in each direction. Names are only needed at the edges of
+// the system (files, display), inside it vertices are plain ints.
+public class RoadGraph {
+
+    final int numberOfVertices;
+    final int numberOfRoads;
+    final int[] offsets;
+    final int[] targets;
+    final double[] weights;
+    final String[] names;
+
+    public RoadGraph(Graph<String, DefaultWeightedEdge> map) {
+        int maxId = -1;
+        for (String vertex : map.vertexSet()) {
+            maxId = Math.max(maxId, vertexId(vertex));
+        }
+        numberOfVertices = maxId + 1;
+        names = new String[numberOfVertices];
+        offsets = new int[numberOfVertices + 1];
+        for (String vertex : map.vertexSet()) {
+            int id = vertexId(vertex);
+            names[id] = vertex;
+            offsets[id + 1] = map.degreeOf(vertex);
+        }
+        for (int v = 0; v < numberOfVertices; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        targets = new int[offsets[numberOfVertices]];
+        weights = new double[offsets[numberOfVertices]];
+        int[] next = Arrays.copyOf(offsets, numberOfVertices);
+        for (DefaultWeightedEdge edge : map.edgeSet()) {
+            int source = vertexId(map.getEdgeSource(edge));
+            int target = vertexId(map.getEdgeTarget(edge));
+            double weight = map.getEdgeWeight(edge);
+            targets[next[source]] = target;
+            weights[next[source]++] = weight;
+            targets[next[target]] = source;
+            weights[next[target]++] = weight;
+        }
+        numberOfRoads = map.edgeSet().size();
+    }
+
+    // "v123" -> 123, without hashing or allocating
+    public static int vertexId(String name) {
+        if (name.length() < 2 || name.charAt(0) != 'v') {
+            throw new IllegalArgumentException("Not a vertex name: " + name);
+        }
+        int id = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Not a vertex name: " + name);
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    public String vertexName(int id) {
+        return names[id];
+    }
+
+    public boolean containsVertex(int id) {
+        return id >= 0 && id < numberOfVertices && names[id] != null;
+    }
+
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    public boolean containsRoad(int source, int target) {
+        if (!containsVertex(source) || !containsVertex(target)) {
+            return false;
+        }
+        for (int i = offsets[source]; i < offsets[source + 1]; i++) {
+            if (targets[i] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // weight of the cheapest road between source and target, infinity if there is none
+    public double roadWeight(int source, int target) {
+        double weight = Double.POSITIVE_INFINITY;
+        if (containsVertex(source)) {
+            for (int i = offsets[source]; i < offsets[source + 1]; i++) {
+                if (targets[i] == target && weights[i] < weight) {
+                    weight = weights[i];
+                }
+            }
+        }
+        return weight;
+    }
+
+    public double pathWeight(int[] path) {
+        double weight = 0;
+        for (int i = 1; i < path.length; i++) {
+            weight += roadWeight(path[i - 1], path[i]);
+        }
+        return weight;
+    }
+
+    public ArrayList<String> toNames(int[] path) {
+        ArrayList<String> result = new ArrayList<>(path.length);
+        for (int id : path) {
+            result.add(names[id]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RoadGraph{" +
+                "numberOfVertices=" + numberOfVertices +
+                ", numberOfRoads=" + numberOfRoads +
+                '}';
+    }
+}
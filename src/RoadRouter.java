@@ -0,0 +1,506 @@
+import java.util.*;
+import java.util.function.IntPredicate;
+import org.jgrapht.alg.shortestpath.IndexedALTAdmissibleHeuristic;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.util.IndexedFourAryHeap;
+
+
+// A* over the integer ids of a RoadGraph, guided by the grid heuristic of the map and, unless
+// disabled, the maximum with the estimates of its shared landmark index.
+// Point to point queries can instead run bidirectionally with the averaged potentials
+// p(v) = (estimate(v, target) - estimate(source, v)) / 2 forward and -p(v) backward, which give
+// both searches the same reduced road weights (see BidirectionalAStarShortestPath).
+// The search state is kept between queries and reset with a generation stamp, so a query allocates
+// nothing but its result. Not thread safe: every thread needs its own router.
+public class RoadRouter implements Router {
+
+    RoadGraph roadGraph;
+    private GridHeuristic gridHeuristic;
+    private IndexedALTAdmissibleHeuristic<String, DefaultWeightedEdge> heuristic;
+    private int[] landmarkIndex;
+
+    private double[] distance;
+    private int[] predecessor;
+    private int[] seen;
+    private int[] closed;
+    private int[] target;
+    private int[] sourceOf;
+    private int generation;
+    private IndexedFourAryHeap openList;
+    private int numberOfExpandedNodes;
+
+    // state of the backward search, only allocated by bidirectional routers
+    private boolean bidirectional;
+    private double[] backwardDistance;
+    private int[] backwardPredecessor;
+    private int[] backwardSeen;
+    private int[] backwardClosed;
+    private IndexedFourAryHeap backwardOpenList;
+    private double[] potential;
+    private int[] potentialSeen;
+    private int meeting;
+    private double meetingDistance;
+
+    public RoadRouter(MapOfCity mapOfCity) {
+        this(mapOfCity.getRoadGraph(), mapOfCity.getGridHeuristic(),
+                mapOfCity.isGridHeuristicOnly() ? null : mapOfCity.getLandmarkHeuristic());
+        setBidirectional(mapOfCity.isUseBidirectionalSearch());
+    }
+
+    public RoadRouter(RoadGraph roadGraph, IndexedALTAdmissibleHeuristic<String, DefaultWeightedEdge> heuristic) {
+        this(roadGraph, null, heuristic);
+    }
+
+    // either heuristic may be null
+    public RoadRouter(RoadGraph roadGraph, GridHeuristic gridHeuristic,
+                      IndexedALTAdmissibleHeuristic<String, DefaultWeightedEdge> heuristic) {
+        this.roadGraph = roadGraph;
+        this.gridHeuristic = gridHeuristic;
+        this.heuristic = heuristic;
+        int n = roadGraph.numberOfVertices;
+        if (heuristic != null) {
+            landmarkIndex = new int[n];
+            for (int v = 0; v < n; v++) {
+                landmarkIndex[v] = roadGraph.containsVertex(v) ? heuristic.getVertexIndex(roadGraph.vertexName(v)) : -1;
+            }
+        }
+        distance = new double[n];
+        predecessor = new int[n];
+        seen = new int[n];
+        closed = new int[n];
+        target = new int[n];
+        sourceOf = new int[n];
+        openList = new IndexedFourAryHeap(n);
+    }
+
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    // point to point queries search from both ends, distances and nearest are not affected
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+        if (bidirectional && backwardOpenList == null) {
+            int n = roadGraph.numberOfVertices;
+            backwardDistance = new double[n];
+            backwardPredecessor = new int[n];
+            backwardSeen = new int[n];
+            backwardClosed = new int[n];
+            backwardOpenList = new IndexedFourAryHeap(n);
+            potential = new double[n];
+            potentialSeen = new int[n];
+        }
+    }
+
+    @Override
+    public double distance(int source, int target) {
+        if (bidirectional) {
+            return bidirectionalSearch(source, target) ? meetingDistance : Double.POSITIVE_INFINITY;
+        }
+        return search(source, target) ? distance[target] : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        if (bidirectional) {
+            return bidirectionalSearch(source, target) ? meetingPath(source, target) : null;
+        }
+        if (!search(source, target)) {
+            return null;
+        }
+        int length = 1;
+        for (int v = target; v != source; v = predecessor[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; i >= 0; v = predecessor[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    // one Dijkstra search from source which stops as soon as the k closest targets are settled
+    @Override
+    public void distances(int source, int[] targets, int k, double[] distances) {
+        if (!roadGraph.containsVertex(source)) {
+            throw new IllegalArgumentException("Source vertex not contained in the map");
+        }
+        startSearch();
+        int remaining = 0;
+        for (int t : targets) {
+            if (!roadGraph.containsVertex(t)) {
+                throw new IllegalArgumentException("Target vertex not contained in the map");
+            }
+            if (target[t] != generation) {
+                target[t] = generation;
+                remaining++;
+            }
+        }
+        int settledTargets = 0;
+        double bound = Double.POSITIVE_INFINITY;
+
+        seen[source] = generation;
+        distance[source] = 0;
+        predecessor[source] = source;
+        openList.insert(source, 0);
+
+        int[] offsets = roadGraph.offsets;
+        int[] roadTargets = roadGraph.targets;
+        double[] weights = roadGraph.weights;
+        while (remaining > 0 && !openList.isEmpty() && openList.minKey() <= bound) {
+            int current = openList.removeMin();
+            closed[current] = generation;
+            numberOfExpandedNodes++;
+            if (target[current] == generation) {
+                remaining--;
+                if (++settledTargets == k) {
+                    // keep going for targets at the same distance
+                    bound = distance[current];
+                }
+            }
+
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int next = roadTargets[i];
+                if (closed[next] == generation) {
+                    continue;
+                }
+                double tentative = distance[current] + weights[i];
+                if (seen[next] != generation) {
+                    seen[next] = generation;
+                    distance[next] = tentative;
+                    predecessor[next] = current;
+                    openList.insert(next, tentative);
+                } else if (tentative < distance[next]) {
+                    distance[next] = tentative;
+                    predecessor[next] = current;
+                    openList.decreaseKey(next, tentative);
+                }
+            }
+        }
+
+        for (int i = 0; i < targets.length; i++) {
+            int t = targets[i];
+            distances[i] = closed[t] == generation ? distance[t] : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // Dijkstra from source which stops after the first distance at which some vertex satisfies
+    // isTarget; returns all such vertices at that distance, or an empty array if none is reachable
+    public int[] nearest(int source, IntPredicate isTarget) {
+        if (!roadGraph.containsVertex(source)) {
+            throw new IllegalArgumentException("Source vertex not contained in the map");
+        }
+        startSearch();
+        int[] found = new int[0];
+        double bound = Double.POSITIVE_INFINITY;
+
+        seen[source] = generation;
+        distance[source] = 0;
+        predecessor[source] = source;
+        openList.insert(source, 0);
+
+        int[] offsets = roadGraph.offsets;
+        int[] roadTargets = roadGraph.targets;
+        double[] weights = roadGraph.weights;
+        while (!openList.isEmpty() && openList.minKey() <= bound) {
+            int current = openList.removeMin();
+            closed[current] = generation;
+            numberOfExpandedNodes++;
+            if (isTarget.test(current)) {
+                found = Arrays.copyOf(found, found.length + 1);
+                found[found.length - 1] = current;
+                bound = distance[current];
+            }
+
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int next = roadTargets[i];
+                if (closed[next] == generation) {
+                    continue;
+                }
+                double tentative = distance[current] + weights[i];
+                if (seen[next] != generation) {
+                    seen[next] = generation;
+                    distance[next] = tentative;
+                    predecessor[next] = current;
+                    openList.insert(next, tentative);
+                } else if (tentative < distance[next]) {
+                    distance[next] = tentative;
+                    predecessor[next] = current;
+                    openList.decreaseKey(next, tentative);
+                }
+            }
+        }
+        return found;
+    }
+
+    // Isochrone: the vertices at most radius from source, nearest first, with their distances
+    // (distances may be null). The search stops early once the vertices buffer is full, so a short
+    // buffer gets the nearest ones. Returns how many were written.
+    public int reachable(int source, double radius, int[] vertices, double[] distances) {
+        return reachable(new int[]{source}, radius, vertices, distances, null);
+    }
+
+    // Coverage of several sources in one search: every vertex gets its distance to the nearest
+    // source and, unless nearestSources is null, the position of that source in sources; of
+    // sources at the same distance the first one wins.
+    public int reachable(int[] sources, double radius, int[] vertices, double[] distances,
+                         int[] nearestSources) {
+        if (!(radius >= 0)) {
+            throw new IllegalArgumentException("Radius must be non-negative");
+        }
+        if (distances != null && distances.length < vertices.length
+                || nearestSources != null && nearestSources.length < vertices.length) {
+            throw new IllegalArgumentException("Buffers must be as long as the vertices buffer");
+        }
+        startSearch();
+        for (int i = 0; i < sources.length; i++) {
+            int source = sources[i];
+            if (!roadGraph.containsVertex(source)) {
+                throw new IllegalArgumentException("Source vertex not contained in the map");
+            }
+            if (seen[source] != generation) {
+                seen[source] = generation;
+                distance[source] = 0;
+                sourceOf[source] = i;
+                openList.insert(source, 0);
+            }
+        }
+        int reached = 0;
+        int[] offsets = roadGraph.offsets;
+        int[] roadTargets = roadGraph.targets;
+        double[] weights = roadGraph.weights;
+        while (reached < vertices.length && !openList.isEmpty() && openList.minKey() <= radius) {
+            int current = openList.removeMin();
+            closed[current] = generation;
+            numberOfExpandedNodes++;
+            vertices[reached] = current;
+            if (distances != null) {
+                distances[reached] = distance[current];
+            }
+            if (nearestSources != null) {
+                nearestSources[reached] = sourceOf[current];
+            }
+            reached++;
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int next = roadTargets[i];
+                double tentative = distance[current] + weights[i];
+                if (closed[next] == generation || tentative > radius) {
+                    continue;
+                }
+                if (seen[next] != generation) {
+                    seen[next] = generation;
+                    distance[next] = tentative;
+                    sourceOf[next] = sourceOf[current];
+                    openList.insert(next, tentative);
+                } else if (tentative < distance[next]) {
+                    distance[next] = tentative;
+                    sourceOf[next] = sourceOf[current];
+                    openList.decreaseKey(next, tentative);
+                } else if (tentative == distance[next] && sourceOf[current] < sourceOf[next]) {
+                    sourceOf[next] = sourceOf[current];
+                }
+            }
+        }
+        return reached;
+    }
+
+    public int getNumberOfExpandedNodes() {
+        return numberOfExpandedNodes;
+    }
+
+    private boolean search(int source, int target) {
+        if (!roadGraph.containsVertex(source) || !roadGraph.containsVertex(target)) {
+            throw new IllegalArgumentException("Source or target vertex not contained in the map");
+        }
+        startSearch();
+
+        seen[source] = generation;
+        distance[source] = 0;
+        predecessor[source] = source;
+        openList.insert(source, estimate(source, target));
+
+        int[] offsets = roadGraph.offsets;
+        int[] targets = roadGraph.targets;
+        double[] weights = roadGraph.weights;
+        while (!openList.isEmpty()) {
+            int current = openList.removeMin();
+            if (current == target) {
+                return true;
+            }
+            closed[current] = generation;
+            numberOfExpandedNodes++;
+
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int next = targets[i];
+                double tentative = distance[current] + weights[i];
+                if (seen[next] == generation) {
+                    if (tentative >= distance[next]) {
+                        continue;
+                    }
+                    distance[next] = tentative;
+                    predecessor[next] = current;
+                    if (closed[next] == generation) {
+                        closed[next] = 0;
+                        openList.insert(next, tentative + estimate(next, target));
+                    } else {
+                        openList.decreaseKey(next, tentative + estimate(next, target));
+                    }
+                } else {
+                    seen[next] = generation;
+                    distance[next] = tentative;
+                    predecessor[next] = current;
+                    openList.insert(next, tentative + estimate(next, target));
+                }
+            }
+        }
+        return false;
+    }
+
+    // bidirectional Dijkstra on the reduced weights, the searches take turns and stop as soon as
+    // the sum of their smallest keys reaches the best path through a vertex seen by both
+    private boolean bidirectionalSearch(int source, int target) {
+        if (!roadGraph.containsVertex(source) || !roadGraph.containsVertex(target)) {
+            throw new IllegalArgumentException("Source or target vertex not contained in the map");
+        }
+        startSearch();
+        meeting = -1;
+        meetingDistance = Double.POSITIVE_INFINITY;
+        if (source == target) {
+            meeting = source;
+            meetingDistance = 0;
+            return true;
+        }
+
+        double sourcePotential = potential(source, source, target);
+        if (!Double.isFinite(sourcePotential)) {
+            return false;
+        }
+        seen[source] = generation;
+        distance[source] = 0;
+        predecessor[source] = source;
+        openList.insert(source, sourcePotential);
+
+        backwardSeen[target] = generation;
+        backwardDistance[target] = 0;
+        backwardPredecessor[target] = target;
+        backwardOpenList.insert(target, -potential(target, source, target));
+
+        boolean forward = true;
+        while (!openList.isEmpty() && !backwardOpenList.isEmpty()
+                && openList.minKey() + backwardOpenList.minKey() < meetingDistance) {
+            if (forward) {
+                scan(source, target, 1, openList, distance, predecessor, seen, closed,
+                        backwardDistance, backwardSeen);
+            } else {
+                scan(source, target, -1, backwardOpenList, backwardDistance, backwardPredecessor,
+                        backwardSeen, backwardClosed, distance, seen);
+            }
+            forward = !forward;
+        }
+        return meeting >= 0;
+    }
+
+    // settles the vertex with the smallest key of one search and relaxes its roads
+    private void scan(int source, int target, int sign, IndexedFourAryHeap queue,
+                      double[] distance, int[] predecessor, int[] seen, int[] closed,
+                      double[] otherDistance, int[] otherSeen) {
+        int current = queue.removeMin();
+        closed[current] = generation;
+        numberOfExpandedNodes++;
+
+        int[] offsets = roadGraph.offsets;
+        int[] targets = roadGraph.targets;
+        double[] weights = roadGraph.weights;
+        for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+            int next = targets[i];
+            // settled vertices are final, up to rounding errors of the potentials
+            if (closed[next] == generation) {
+                continue;
+            }
+            double tentative = distance[current] + weights[i];
+            if (seen[next] != generation) {
+                double p = potential(next, source, target);
+                if (!Double.isFinite(p)) {
+                    // the estimates prove that next lies on no path from source to target
+                    continue;
+                }
+                seen[next] = generation;
+                distance[next] = tentative;
+                predecessor[next] = current;
+                queue.insert(next, tentative + sign * p);
+            } else if (tentative < distance[next]) {
+                distance[next] = tentative;
+                predecessor[next] = current;
+                queue.decreaseKey(next, tentative + sign * potential[next]);
+            } else {
+                continue;
+            }
+            if (otherSeen[next] == generation && tentative + otherDistance[next] < meetingDistance) {
+                meetingDistance = tentative + otherDistance[next];
+                meeting = next;
+            }
+        }
+    }
+
+    private int[] meetingPath(int source, int target) {
+        int length = 1;
+        for (int v = meeting; v != source; v = predecessor[v]) {
+            length++;
+        }
+        int forwardLength = length;
+        for (int v = meeting; v != target; v = backwardPredecessor[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = meeting, i = forwardLength - 1; i >= 0; v = predecessor[v], i--) {
+            path[i] = v;
+        }
+        for (int v = meeting, i = forwardLength; i < length; i++) {
+            v = backwardPredecessor[v];
+            path[i] = v;
+        }
+        return path;
+    }
+
+    // forward potential of v, computed once per query
+    private double potential(int v, int source, int target) {
+        if (potentialSeen[v] != generation) {
+            potentialSeen[v] = generation;
+            potential[v] = (estimate(v, target) - estimate(source, v)) / 2;
+        }
+        return potential[v];
+    }
+
+    private void startSearch() {
+        openList.clear();
+        numberOfExpandedNodes = 0;
+        generation++;
+        if (bidirectional) {
+            backwardOpenList.clear();
+        }
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            Arrays.fill(target, 0);
+            if (backwardOpenList != null) {
+                Arrays.fill(backwardSeen, 0);
+                Arrays.fill(backwardClosed, 0);
+                Arrays.fill(potentialSeen, 0);
+            }
+            generation = 1;
+        }
+    }
+
+    private double estimate(int v, int target) {
+        double estimate = gridHeuristic == null ? 0 : gridHeuristic.estimate(v, target);
+        if (heuristic == null) {
+            return estimate;
+        }
+        int u = landmarkIndex[v];
+        int t = landmarkIndex[target];
+        if (u < 0 || t < 0) {
+            return estimate;
+        }
+        return Math.max(estimate, heuristic.getCostEstimateByIndex(u, t));
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.Arrays;
+
+
+// Size bounded LRU cache of routes between pairs of vertex ids, shared by all routers of a map.
+// Entries belong to a version of the map: the first access with a newer version drops them all,
+// accesses with an older version (from routers over an outdated snapshot) bypass the cache.
+// Thread safe.
+public class RouteCache {
+
+    // a route, or only its weight if vertices is null and the weight is finite
+    static final class Route {
+        final int[] vertices;
+        final double weight;
+
+        Route(int[] vertices, double weight) {
+            this.vertices = vertices;
+            this.weight = weight;
+        }
+
+        boolean hasPath() {
+            return vertices != null || weight == Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private final int capacity;
+    private long version;
+
+    // Open addressing table from the packed (source, target) key to an entry, linear probing,
+    // 0 marks a free slot and e + 1 entry e. Entries form a doubly linked list from the least to the
+    // most recently used, so the cache needs neither boxed keys nor a node object per route.
+    // Arrays grow by doubling up to the capacity.
+    private int[] table;
+    private long[] keys;
+    private Route[] values;
+    private int[] before;
+    private int[] after;
+    private int size;
+    private int eldest = -1;
+    private int youngest = -1;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public RouteCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        allocate(Math.min(capacity, 16));
+    }
+
+    // null if the route is not cached; with needPath a cached weight alone does not count
+    synchronized Route get(long version, int source, int target, boolean needPath) {
+        if (!checkVersion(version)) {
+            return null;
+        }
+        int entry = find(key(source, target));
+        Route route = entry < 0 ? null : touch(entry);
+        if (route == null || (needPath && !route.hasPath())) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return route;
+    }
+
+    synchronized void put(long version, int source, int target, Route route) {
+        if (checkVersion(version)) {
+            long key = key(source, target);
+            int entry = find(key);
+            if (entry < 0) {
+                insert(key, route);
+            } else {
+                Route cached = touch(entry);
+                if (!cached.hasPath() || route.hasPath()) {
+                    values[entry] = route;
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        eldest = -1;
+        youngest = -1;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    // number of times the cache was emptied because the map changed
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RouteCache{" +
+                "size=" + size +
+                ", capacity=" + capacity +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                '}';
+    }
+
+    private boolean checkVersion(long version) {
+        if (version > this.version) {
+            if (size > 0) {
+                clear();
+                invalidations++;
+            }
+            this.version = version;
+        }
+        return version == this.version;
+    }
+
+    // the entry of the key, or -1
+    private int find(long key) {
+        int mask = table.length - 1;
+        for (int slot = slot(key, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[table[slot] - 1] == key) {
+                return table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    // marks the entry as the most recently used and returns its route
+    private Route touch(int entry) {
+        if (entry != youngest) {
+            unlink(entry);
+            link(entry);
+        }
+        return values[entry];
+    }
+
+    private void insert(long key, Route route) {
+        int entry;
+        if (size == capacity) {
+            // reuse the entry of the least recently used route
+            entry = eldest;
+            removeFromTable(keys[entry]);
+            unlink(entry);
+            evictions++;
+        } else {
+            if (size == keys.length) {
+                allocate((int) Math.min(capacity, 2L * size));
+            }
+            entry = size++;
+        }
+        keys[entry] = key;
+        values[entry] = route;
+        link(entry);
+        int mask = table.length - 1;
+        int slot = slot(key, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    // backward shift deletion, so that no probe sequence is broken by the freed slot
+    private void removeFromTable(long key) {
+        int mask = table.length - 1;
+        int slot = slot(key, mask);
+        while (keys[table[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        int next = (slot + 1) & mask;
+        while (table[next] != 0) {
+            int home = slot(keys[table[next] - 1], mask);
+            // the entry at next may move to the free slot if its home is not in (slot, next]
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                table[slot] = table[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[slot] = 0;
+    }
+
+    private void link(int entry) {
+        before[entry] = youngest;
+        after[entry] = -1;
+        if (youngest < 0) {
+            eldest = entry;
+        } else {
+            after[youngest] = entry;
+        }
+        youngest = entry;
+    }
+
+    private void unlink(int entry) {
+        if (before[entry] < 0) {
+            eldest = after[entry];
+        } else {
+            after[before[entry]] = after[entry];
+        }
+        if (after[entry] < 0) {
+            youngest = before[entry];
+        } else {
+            before[after[entry]] = before[entry];
+        }
+    }
+
+    // entries for the given number of routes, the table is kept at most half full
+    private void allocate(int numberOfEntries) {
+        int oldSize = size;
+        keys = keys == null ? new long[numberOfEntries] : Arrays.copyOf(keys, numberOfEntries);
+        values = values == null ? new Route[numberOfEntries] : Arrays.copyOf(values, numberOfEntries);
+        before = before == null ? new int[numberOfEntries] : Arrays.copyOf(before, numberOfEntries);
+        after = after == null ? new int[numberOfEntries] : Arrays.copyOf(after, numberOfEntries);
+        table = new int[Math.min(1 << 30, Integer.highestOneBit(Math.max(1, numberOfEntries - 1)) << 2)];
+        int mask = table.length - 1;
+        for (int entry = 0; entry < oldSize; entry++) {
+            int slot = slot(keys[entry], mask);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry + 1;
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xffffffffL);
+    }
+}
@@ -0,0 +1,14 @@
+// Point to point routing over the integer ids of a RoadGraph. Implementations keep search state
+// between queries, so they are not thread safe: every thread needs its own router.
+public interface Router {
+
+    double distance(int source, int target);
+
+    // vertices of a shortest path from source to target, or null if target can not be reached
+    int[] path(int source, int target);
+
+    // distances[i] receives the distance from source to targets[i]. Only the k closest targets are
+    // guaranteed to be filled in, together with all targets at the same distance as the k-th;
+    // the others may be left infinite.
+    void distances(int source, int[] targets, int k, double[] distances);
+}
@@ -0,0 +1,164 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+// Finds the nearest free taxi for a client with one search that grows outward from the client and
+// stops at the first distance at which a free taxi stands, instead of one search per taxi. Of the
+// free taxis at that distance the one with the lowest number wins (requirement 3). Roads are
+// undirected, so the distance from the client is the distance the taxi has to drive.
+// Taxis are indexed by their vertex: call moved() whenever a taxi changes its vertex.
+// Not thread safe.
+public class TaxiFinder {
+
+    private RoadGraph roadGraph;
+    private RoadRouter router;
+    private ArrayList<ArrayList<Taxi>> taxiAt;
+
+    // buffers of the isochrone queries, allocated on first use
+    private int[] reachedVertices;
+    private double[] reachedDistances;
+    private int[] reachedSources;
+
+    public TaxiFinder(MapOfCity mapOfCity, List<Taxi> taxi) {
+        this.roadGraph = mapOfCity.getRoadGraph();
+        this.router = new RoadRouter(roadGraph, null, null);
+        this.taxiAt = newIndex(roadGraph.numberOfVertices);
+        for (Taxi t : taxi) {
+            add(t);
+        }
+    }
+
+    public void add(Taxi taxi) {
+        int vertex = RoadGraph.vertexId(taxi.sourceVertex);
+        ArrayList<Taxi> here = taxiAt.get(vertex);
+        if (here == null) {
+            here = new ArrayList<>(1);
+            taxiAt.set(vertex, here);
+        }
+        here.add(taxi);
+    }
+
+    public void remove(Taxi taxi) {
+        remove(taxi, taxi.sourceVertex);
+    }
+
+    // the taxi left previousVertex for its current sourceVertex
+    public void moved(Taxi taxi, String previousVertex) {
+        if (!previousVertex.equals(taxi.sourceVertex)) {
+            remove(taxi, previousVertex);
+            add(taxi);
+        }
+    }
+
+    // null if no free taxi can reach the client
+    public Taxi nearestFreeTaxi(Client client) {
+        return nearestFreeTaxi(client.sourceVertex);
+    }
+
+    public Taxi nearestFreeTaxi(String vertex) {
+        Taxi nearest = null;
+        for (int v : router.nearest(RoadGraph.vertexId(vertex), this::hasFreeTaxi)) {
+            for (Taxi taxi : taxiAt.get(v)) {
+                if (taxi.isFree && (nearest == null || taxi.number < nearest.number)) {
+                    nearest = taxi;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    // the free taxis which can reach the client within time, nearest first, ties to the lowest number
+    public List<Taxi> freeTaxisWithin(Client client, double time) {
+        return freeTaxisWithin(client.sourceVertex, time);
+    }
+
+    public List<Taxi> freeTaxisWithin(String vertex, double time) {
+        ensureBuffers();
+        int reached = router.reachable(RoadGraph.vertexId(vertex), time, reachedVertices, reachedDistances);
+        List<Taxi> result = new ArrayList<>();
+        int first = 0;
+        double firstDistance = 0;
+        for (int i = 0; i < reached; i++) {
+            if (reachedDistances[i] > firstDistance) {
+                // all taxis at the previous distance are in, order them by number
+                result.subList(first, result.size()).sort((x, y) -> x.number - y.number);
+                first = result.size();
+                firstDistance = reachedDistances[i];
+            }
+            ArrayList<Taxi> here = taxiAt.get(reachedVertices[i]);
+            if (here != null) {
+                for (Taxi taxi : here) {
+                    if (taxi.isFree) {
+                        result.add(taxi);
+                    }
+                }
+            }
+        }
+        result.subList(first, result.size()).sort((x, y) -> x.number - y.number);
+        return result;
+    }
+
+    // Coverage map of the free fleet: for every vertex within time of some free taxi, in
+    // nearestTaxi[v] the nearest of them (ties to the lowest number) and in distances[v] its
+    // distance; vertices out of reach get null and infinity. Arrays are indexed by vertex id and
+    // must hold roadGraph.numberOfVertices entries.
+    public void coverage(double time, Taxi[] nearestTaxi, double[] distances) {
+        ensureBuffers();
+        List<Taxi> free = new ArrayList<>();
+        for (ArrayList<Taxi> here : taxiAt) {
+            if (here != null) {
+                for (Taxi taxi : here) {
+                    if (taxi.isFree) {
+                        free.add(taxi);
+                    }
+                }
+            }
+        }
+        free.sort((a, b) -> a.number - b.number);
+        int[] sources = new int[free.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = RoadGraph.vertexId(free.get(i).sourceVertex);
+        }
+        Arrays.fill(nearestTaxi, 0, roadGraph.numberOfVertices, null);
+        Arrays.fill(distances, 0, roadGraph.numberOfVertices, Double.POSITIVE_INFINITY);
+        int reached = router.reachable(sources, time, reachedVertices, reachedDistances, reachedSources);
+        for (int i = 0; i < reached; i++) {
+            nearestTaxi[reachedVertices[i]] = free.get(reachedSources[i]);
+            distances[reachedVertices[i]] = reachedDistances[i];
+        }
+    }
+
+    private void ensureBuffers() {
+        if (reachedVertices == null) {
+            reachedVertices = new int[roadGraph.numberOfVertices];
+            reachedDistances = new double[roadGraph.numberOfVertices];
+            reachedSources = new int[roadGraph.numberOfVertices];
+        }
+    }
+
+    private boolean hasFreeTaxi(int vertex) {
+        ArrayList<Taxi> here = taxiAt.get(vertex);
+        if (here != null) {
+            for (Taxi taxi : here) {
+                if (taxi.isFree) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void remove(Taxi taxi, String vertex) {
+        ArrayList<Taxi> here = taxiAt.get(RoadGraph.vertexId(vertex));
+        if (here == null || !here.remove(taxi)) {
+            throw new IllegalArgumentException("Taxi " + taxi.number + " is not at " + vertex);
+        }
+    }
+
+    // one slot per vertex, null while no taxi has stood there
+    private static ArrayList<ArrayList<Taxi>> newIndex(int numberOfVertices) {
+        return new ArrayList<>(Collections.nCopies(numberOfVertices, (ArrayList<Taxi>) null));
+    }
+}
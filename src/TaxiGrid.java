@@ -0,0 +1,229 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+
+// Spatial index of taxis on the grid of MapOfCity: the grid is cut into square buckets of
+// cellSize x cellSize cells, every bucket keeps the numbers of the taxis standing in it. A taxi
+// remembers its bucket and its slot there, so moving it costs O(1) whatever the size of the fleet.
+// The k nearest free taxis by grid (Manhattan) distance are found by scanning rings of buckets
+// around the client and stop as soon as no further ring can hold a closer taxi. The grid distance
+// times the minimum edge weight of MapOfCity.getGridHeuristic() never exceeds the road distance,
+// so the result is a cheap list of candidates for the exact distances of a router.
+// Taxis are indexed by their number: call moved() whenever a taxi changes its vertex.
+// Not thread safe.
+public class TaxiGrid {
+
+    static final int DEFAULT_CELL_SIZE = 4;
+
+    private final int horizontalVertices;
+    private final int verticalVertices;
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    // taxi numbers by bucket, row by row
+    private int[][] bucketTaxis;
+    private int[] bucketSize;
+
+    // by taxi number
+    private Taxi[] taxiByNumber = new Taxi[16];
+    private int[] vertexOf = new int[16];
+    private int[] bucketOf = new int[16];
+    private int[] slotOf = new int[16];
+    private int size;
+
+    public TaxiGrid(MapOfCity mapOfCity, List<Taxi> taxi) {
+        this(mapOfCity, taxi, DEFAULT_CELL_SIZE);
+    }
+
+    public TaxiGrid(MapOfCity mapOfCity, List<Taxi> taxi, int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.horizontalVertices = mapOfCity.horizontalVertices;
+        this.verticalVertices = mapOfCity.verticalVertices;
+        this.cellSize = cellSize;
+        this.columns = (horizontalVertices + cellSize - 1) / cellSize;
+        this.rows = (verticalVertices + cellSize - 1) / cellSize;
+        this.bucketTaxis = new int[columns * rows][];
+        this.bucketSize = new int[columns * rows];
+        for (Taxi t : taxi) {
+            add(t);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(Taxi taxi) {
+        int number = taxi.number;
+        if (number < 0) {
+            throw new IllegalArgumentException("Taxi number can not be negative: " + number);
+        }
+        if (number >= taxiByNumber.length) {
+            int capacity = Math.max(2 * taxiByNumber.length, number + 1);
+            taxiByNumber = Arrays.copyOf(taxiByNumber, capacity);
+            vertexOf = Arrays.copyOf(vertexOf, capacity);
+            bucketOf = Arrays.copyOf(bucketOf, capacity);
+            slotOf = Arrays.copyOf(slotOf, capacity);
+        }
+        if (taxiByNumber[number] != null) {
+            throw new IllegalArgumentException("Taxi " + number + " is already indexed");
+        }
+        int vertex = vertexOf(taxi);
+        taxiByNumber[number] = taxi;
+        vertexOf[number] = vertex;
+        append(number, bucket(vertex));
+        size++;
+    }
+
+    public void remove(Taxi taxi) {
+        int number = indexed(taxi);
+        detach(number);
+        taxiByNumber[number] = null;
+        size--;
+    }
+
+    // the taxi changed its sourceVertex
+    public void moved(Taxi taxi) {
+        int number = indexed(taxi);
+        int vertex = vertexOf(taxi);
+        vertexOf[number] = vertex;
+        int bucket = bucket(vertex);
+        if (bucket != bucketOf[number]) {
+            detach(number);
+            append(number, bucket);
+        }
+    }
+
+    // Manhattan distance in cells, at most the road distance divided by the minimum edge weight of
+    // MapOfCity.getGridHeuristic()
+    public int gridDistance(String source, String target) {
+        return gridDistance(RoadGraph.vertexId(source), RoadGraph.vertexId(target));
+    }
+
+    public int gridDistance(int source, int target) {
+        return Math.abs(source / horizontalVertices - target / horizontalVertices)
+                + Math.abs(source % horizontalVertices - target % horizontalVertices);
+    }
+
+    // at most k free taxis, nearest first by grid distance, ties to the lowest number
+    public List<Taxi> nearestFreeTaxis(Client client, int k) {
+        return nearestFreeTaxis(client.sourceVertex, k);
+    }
+
+    public List<Taxi> nearestFreeTaxis(String vertex, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of taxis can not be negative");
+        }
+        int source = RoadGraph.vertexId(vertex);
+        checkInGrid(source);
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        // the worst of the best k on top
+        PriorityQueue<Integer> best = new PriorityQueue<>(k, (a, b) -> {
+            int d = gridDistance(source, vertexOf[b]) - gridDistance(source, vertexOf[a]);
+            return d != 0 ? d : b - a;
+        });
+
+        int column = source % horizontalVertices / cellSize;
+        int row = source / horizontalVertices / cellSize;
+        int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // every cell in this ring or beyond is at least this far away
+            int bound = ring == 0 ? 0 : (ring - 1) * cellSize + 1;
+            if (best.size() == k && gridDistance(source, vertexOf[best.peek()]) < bound) {
+                break;
+            }
+            if (ring == 0) {
+                offerBucket(column, row, source, k, best);
+                continue;
+            }
+            for (int c = column - ring; c <= column + ring; c++) {
+                offerBucket(c, row - ring, source, k, best);
+                offerBucket(c, row + ring, source, k, best);
+            }
+            for (int r = row - ring + 1; r < row + ring; r++) {
+                offerBucket(column - ring, r, source, k, best);
+                offerBucket(column + ring, r, source, k, best);
+            }
+        }
+
+        Taxi[] nearest = new Taxi[best.size()];
+        for (int i = nearest.length - 1; i >= 0; i--) {
+            nearest[i] = taxiByNumber[best.poll()];
+        }
+        return new ArrayList<>(Arrays.asList(nearest));
+    }
+
+    private void offerBucket(int column, int row, int source, int k, PriorityQueue<Integer> best) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return;
+        }
+        int bucket = row * columns + column;
+        int[] here = bucketTaxis[bucket];
+        for (int i = 0; i < bucketSize[bucket]; i++) {
+            int number = here[i];
+            if (!taxiByNumber[number].isFree) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(number);
+            } else if (best.comparator().compare(number, best.peek()) > 0) {
+                best.poll();
+                best.add(number);
+            }
+        }
+    }
+
+    private void append(int number, int bucket) {
+        int[] here = bucketTaxis[bucket];
+        if (here == null) {
+            here = new int[2];
+        } else if (bucketSize[bucket] == here.length) {
+            here = Arrays.copyOf(here, 2 * here.length);
+        }
+        bucketTaxis[bucket] = here;
+        int slot = bucketSize[bucket]++;
+        here[slot] = number;
+        bucketOf[number] = bucket;
+        slotOf[number] = slot;
+    }
+
+    // the last taxi of the bucket takes the slot of the removed one
+    private void detach(int number) {
+        int bucket = bucketOf[number];
+        int[] here = bucketTaxis[bucket];
+        int last = here[--bucketSize[bucket]];
+        here[slotOf[number]] = last;
+        slotOf[last] = slotOf[number];
+    }
+
+    private int indexed(Taxi taxi) {
+        int number = taxi.number;
+        if (number < 0 || number >= taxiByNumber.length || taxiByNumber[number] != taxi) {
+            throw new IllegalArgumentException("Taxi " + number + " is not indexed");
+        }
+        return number;
+    }
+
+    private int vertexOf(Taxi taxi) {
+        int vertex = RoadGraph.vertexId(taxi.sourceVertex);
+        checkInGrid(vertex);
+        return vertex;
+    }
+
+    private void checkInGrid(int vertex) {
+        if (vertex >= horizontalVertices * verticalVertices) {
+            throw new IllegalArgumentException("Vertex outside of the grid: v" + vertex);
+        }
+    }
+
+    private int bucket(int vertex) {
+        return vertex / horizontalVertices / cellSize * columns + vertex % horizontalVertices / cellSize;
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.List;
+import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.TimeDependentShortestPath;
+import org.jgrapht.alg.shortestpath.TravelTimeProfiles;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+
+// Routes by travel time for a departure time of the day, following the travel time profiles of
+// the map; roads without a profile keep their weight. Guided by the grid heuristic scaled to the
+// quickest road of the whole day, which stays admissible at every time. The profiles are shared,
+// this router only owns its departure time and search state.
+public class TimeDependentRouter implements Router {
+
+    private RoadGraph roadGraph;
+    private TimeDependentShortestPath<String, DefaultWeightedEdge> shortestPath;
+
+    public TimeDependentRouter(MapOfCity mapOfCity, double departureTime) {
+        this(mapOfCity.getRoadGraph(), mapOfCity.getTravelTimeProfiles(), departureTime,
+                mapOfCity.horizontalVertices);
+    }
+
+    public TimeDependentRouter(RoadGraph roadGraph, TravelTimeProfiles<String, DefaultWeightedEdge> profiles,
+                               double departureTime, int horizontalVertices) {
+        this.roadGraph = roadGraph;
+        Graph<String, DefaultWeightedEdge> graph = profiles.getGraph();
+        double quickest = Double.POSITIVE_INFINITY;
+        for (DefaultWeightedEdge road : graph.edgeSet()) {
+            quickest = Math.min(quickest, profiles.getMinimumTravelTime(road));
+        }
+        GridHeuristic heuristic = new GridHeuristic(horizontalVertices,
+                quickest == Double.POSITIVE_INFINITY ? 0 : quickest);
+        this.shortestPath = new TimeDependentShortestPath<>(profiles, departureTime, heuristic);
+    }
+
+    public double getDepartureTime() {
+        return shortestPath.getDepartureTime();
+    }
+
+    public void setDepartureTime(double departureTime) {
+        shortestPath.setDepartureTime(departureTime);
+    }
+
+    // travel time when leaving at the departure time
+    @Override
+    public double distance(int source, int target) {
+        return shortestPath.getPathWeight(name(source), name(target));
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        GraphPath<String, DefaultWeightedEdge> path = shortestPath.getPath(name(source), name(target));
+        if (path == null) {
+            return null;
+        }
+        List<String> vertices = path.getVertexList();
+        int[] result = new int[vertices.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = RoadGraph.vertexId(vertices.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public void distances(int source, int[] targets, int k, double[] distances) {
+        for (int i = 0; i < targets.length; i++) {
+            distances[i] = distance(source, targets[i]);
+        }
+    }
+
+    private String name(int v) {
+        if (!roadGraph.containsVertex(v)) {
+            throw new IllegalArgumentException("Vertex not contained in the map: " + v);
+        }
+        return roadGraph.vertexName(v);
+    }
+}
@@ -109,19 +109,20 @@ public class Visual extends JFrame {
             }
 
             g.setColor(Color.BLACK);
+            RoadGraph roadGraph = visMap.getRoadGraph();
             for (int i = 0; i < vertexheight; i++) {
                 for (int j = 0; j < vertexlen; j++) {
 
-                    String name1 = "v" + (i * vertexlen + j);
-                    String name2 = "v" + (i * vertexlen + j + 1);
-                    String name3 = "v" + ((i - 1) * vertexlen + j);
-                    if (visMap.map.containsEdge(name1, name2))
-                        g.fillRect(VertCells.GetCell(name1).x + vertSize,
-                                VertCells.GetCell(name1).y + vertSize / 2,
+                    int id1 = i * vertexlen + j;
+                    int id2 = i * vertexlen + j + 1;
+                    int id3 = (i - 1) * vertexlen + j;
+                    if (roadGraph.containsRoad(id1, id2))
+                        g.fillRect(VertCells.GetCell(id1).x + vertSize,
+                                VertCells.GetCell(id1).y + vertSize / 2,
                                 6, pixelShiftColumn - vertSize);
-                    if (visMap.map.containsEdge(name1, name3))
-                        g.fillRect(VertCells.GetCell(name3).x + vertSize / 2 - 3,
-                                VertCells.GetCell(name3).y + vertSize,
+                    if (roadGraph.containsRoad(id1, id3))
+                        g.fillRect(VertCells.GetCell(id3).x + vertSize / 2 - 3,
+                                VertCells.GetCell(id3).y + vertSize,
                                 6, pixelShiftLine - vertSize);
                 }
                 currentHieght += pixelShiftLine;
@@ -182,7 +183,7 @@ public class Visual extends JFrame {
 
     private class GraphCells {
         public ArrayList<Cell> myCells;
-
+        // cell of vertex "v" + i is myCells.get(i), cells are added in vertex order
         GraphCells() {
 
             myCells = new ArrayList<>(vertexlen * vertexheight);
@@ -193,14 +194,14 @@ public class Visual extends JFrame {
             myCells.add(curCell);
         }
 
-        public Cell GetCell(String name) {
-            for (Cell curr :
-                    myCells) {
-                if (name.equals(curr.edgeName))
+        public Cell GetCell(int id) {
+            if (id < 0 || id >= myCells.size())
+                return null;
+            return myCells.get(id);
+        }
 
-                    return curr;
-            }
-            return null;
+        public Cell GetCell(String name) {
+            return GetCell(RoadGraph.vertexId(name));
         }
 
         public void PrintThemAll() {
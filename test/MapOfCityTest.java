@@ -0,0 +1,62 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import org.jgrapht.Graph;
+import org.jgrapht.Graphs;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.junit.Test;
+
+
+public class MapOfCityTest {
+
+    @Test
+    public void testChangeAfterLoading() throws IOException, ClassNotFoundException {
+        assertRoutesFollowChanges(roundTrip(new MapOfCity("Test", 12, 8)));
+    }
+
+    // maps saved before the map listened to its changes hold a plain graph
+    @Test
+    public void testChangeAfterLoadingOldMap() throws IOException, ClassNotFoundException {
+        MapOfCity mapOfCity = new MapOfCity("Test", 12, 8);
+        Graph<String, DefaultWeightedEdge> plain = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        Graphs.addGraph(plain, mapOfCity.getMap());
+        mapOfCity.map = plain;
+        assertRoutesFollowChanges(roundTrip(mapOfCity));
+    }
+
+    private static MapOfCity roundTrip(MapOfCity mapOfCity) throws IOException, ClassNotFoundException {
+        File file = File.createTempFile("map", ".txt");
+        try {
+            MapOfCity.SaveToFile(mapOfCity, file.getPath());
+            return MapOfCity.LoadFromFile(file.getPath());
+        } finally {
+            file.delete();
+        }
+    }
+
+    // a route is computed and cached, then a road of it gets much longer
+    private static void assertRoutesFollowChanges(MapOfCity mapOfCity) {
+        Graph<String, DefaultWeightedEdge> graph = mapOfCity.getMap();
+        int source = 0;
+        int target = mapOfCity.allVertices - 1;
+        Router router = mapOfCity.createRouter();
+        assertEquals(dijkstra(graph, source, target), router.distance(source, target), 1e-9);
+
+        long version = mapOfCity.getVersion();
+        int[] path = router.path(source, target);
+        DefaultWeightedEdge road = graph.getEdge("v" + path[0], "v" + path[1]);
+        graph.setEdgeWeight(road, graph.getEdgeWeight(road) + 1000);
+        assertTrue(mapOfCity.getVersion() > version);
+
+        router = mapOfCity.createRouter();
+        assertEquals(dijkstra(graph, source, target), router.distance(source, target), 1e-9);
+    }
+
+    private static double dijkstra(Graph<String, DefaultWeightedEdge> graph, int source, int target) {
+        return new DijkstraShortestPath<>(graph).getPathWeight("v" + source, "v" + target);
+    }
+}